@@ -0,0 +1,112 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import entity.tasks.Task;
+import repository.backup.BackupPolicy;
+import repository.backup.GenerationalBackupManager;
+import repository.event.TaskEventLogger;
+import repository.lock.DataFileLock;
+import repository.storage.InMemoryStorageEngine;
+import repository.storage.StorageEngine;
+import repository.storage.StorageEngineType;
+import repository.storage.TextFileStorageEngine;
+import util.TaskDeserializer;
+
+/**
+ * Measures the latency of a single mutation, such as marking a task, as seen by the command issuing it.
+ * {@code mutate} only queues the change for the background log writer, while {@code mutateAndWrite}
+ * also waits for it to reach the log, as every mutation did while mutations refreshed from the log
+ * first. With the text engine, {@code mutate} should stay close to the in-memory engine however slow
+ * the log write is. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileBackedTaskRepositoryBenchmark {
+    private static final int TASK_COUNT = 1000;
+
+    @Param({"TEXT", "MEMORY"})
+    public String engineType;
+
+    private Path directory;
+    private FileBackedTaskRepository repository;
+    private List<UUID> ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("repository-bench");
+        repository = new FileBackedTaskRepository(open(directory));
+        List<Task> tasks = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            tasks.add(TaskDeserializer.deserializeTask(UUID.randomUUID() + "|T|0|benchmark task " + i));
+        }
+        repository.saveAll(tasks);
+        repository.flush();
+        ids = tasks.stream().map(Task::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.flush();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Marks a task as done or not done, leaving the log write to the background writer.
+     */
+    @Benchmark
+    public UUID mutate() {
+        return toggleNext();
+    }
+
+    /**
+     * Marks a task and then waits for the change to be written, as if the mutation wrote the log itself.
+     */
+    @Benchmark
+    public long mutateAndWrite() {
+        toggleNext();
+        return repository.lastSequence();
+    }
+
+    private UUID toggleNext() {
+        UUID id = ids.get(next++ % TASK_COUNT);
+        repository.findById(id).orElseThrow().toggleCompleted();
+        return repository.markDirty(id);
+    }
+
+    private StorageEngine open(Path directory) throws IOException {
+        if (StorageEngineType.fromName(engineType) == StorageEngineType.MEMORY) {
+            return new InMemoryStorageEngine();
+        }
+        Path dataFile = directory.resolve("tasks.txt");
+        Files.write(dataFile, List.of("[", "]"));
+        DataFileLock lock = new DataFileLock(dataFile);
+        return new TextFileStorageEngine(dataFile, new TaskEventLogger(directory.resolve("roll-log.txt"), lock),
+                new GenerationalBackupManager(dataFile, BackupPolicy.fromSystemProperties()), lock);
+    }
+}
@@ -0,0 +1,88 @@
+package repository.event;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import entity.tasks.Task;
+import repository.lock.DataFileLock;
+import util.TaskDeserializer;
+
+/**
+ * Compares reading a log of each {@link LogFormat}, once for the sequence numbers only, as
+ * sequence recovery does, and once including every payload, as flush verification does.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LogFormatBenchmark {
+    @Param({"TEXT", "BINARY"})
+    public String format;
+
+    @Param({"10000"})
+    public int entryCount;
+
+    private Path directory;
+    private TaskEventLogger logger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-format-bench");
+        DataFileLock lock = new DataFileLock(directory.resolve("tasks.txt"));
+        System.setProperty("spring.log.format", format);
+        try {
+            logger = new TaskEventLogger(directory.resolve("roll-log.txt"), lock);
+        } finally {
+            System.clearProperty("spring.log.format");
+        }
+        List<Task> tasks = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            tasks.add(TaskDeserializer.deserializeTask(UUID.randomUUID() + "|D|0|benchmark task " + i
+                    + "|2025-03-03T09:00"));
+        }
+        logger.append(new TaskEvent(tasks));
+        logger.writeQueued();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logger.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long readSequences() {
+        long[] last = {0};
+        logger.forEachEntry(entry -> last[0] = entry.getSequence());
+        return last[0];
+    }
+
+    @Benchmark
+    public long readPayloads() {
+        long[] hash = {0};
+        logger.forEachEntry(entry -> hash[0] += entry.getPayload().hashCode());
+        return hash[0];
+    }
+}
@@ -0,0 +1,98 @@
+package repository.event;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import repository.lock.DataFileLock;
+
+/**
+ * Measures replaying a large text log into an empty data file with different numbers of replay
+ * threads, one thread being the sequential replay. Every tenth entry adds a task and the others
+ * update earlier ones, so each partition keeps a realistic share of the tasks.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelReplayBenchmark {
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    @Param({"10000000"})
+    public int entryCount;
+
+    private Path directory;
+    private Path pristineLog;
+    private TaskEventLogger logger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("parallel-replay-bench");
+        pristineLog = directory.resolve("pristine-log.txt");
+        int taskCount = Math.max(1, entryCount / 10);
+        UUID[] ids = new UUID[taskCount];
+        try (BufferedWriter writer = Files.newBufferedWriter(pristineLog)) {
+            for (int i = 0; i < entryCount; i++) {
+                boolean isAdd = i % 10 == 0 && i / 10 < taskCount;
+                int task = isAdd ? i / 10 : i % (Math.min(i / 10, taskCount - 1) + 1); // Only tasks added so far
+                if (isAdd) {
+                    ids[task] = UUID.randomUUID();
+                }
+                writer.write((i + 1) + (isAdd ? " ADD " : " UPDATE ") + ids[task] + "|D|0|benchmark task " + i
+                        + "|2025-03-03T09:00\n");
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void restoreLog() throws IOException {
+        Files.deleteIfExists(directory.resolve("tasks.txt"));
+        Files.copy(pristineLog, directory.resolve("roll-log.txt"), StandardCopyOption.REPLACE_EXISTING);
+        System.setProperty("spring.log.replayThreads", Integer.toString(threads));
+        System.setProperty("spring.log.parallelReplayBytes", "0");
+        try {
+            logger = new TaskEventLogger(directory.resolve("roll-log.txt"),
+                    new DataFileLock(directory.resolve("tasks.txt")));
+        } finally {
+            System.clearProperty("spring.log.replayThreads");
+            System.clearProperty("spring.log.parallelReplayBytes");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeLogger() {
+        logger.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean replay() {
+        return logger.replayLog(directory.resolve("tasks.txt"));
+    }
+}
@@ -0,0 +1,88 @@
+package repository.event;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import entity.tasks.Task;
+import repository.lock.DataFileLock;
+import util.TaskDeserializer;
+
+/**
+ * Measures logged events per second, for events appended one lock hold at a time and for bursts
+ * coalesced within a single hold, with each {@link WaitStrategy} of the background writer.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskEventLoggerBenchmark {
+    private static final int EVENTS_PER_BURST = 100;
+
+    @Param({"BLOCKING", "SLEEPING", "YIELDING"})
+    public String waitStrategy;
+
+    private Path directory;
+    private DataFileLock lock;
+    private TaskEventLogger logger;
+    private TaskEvent event;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        System.setProperty("spring.log.waitStrategy", waitStrategy);
+        directory = Files.createTempDirectory("event-logger-bench");
+        lock = new DataFileLock(directory.resolve("tasks.txt"));
+        logger = new TaskEventLogger(directory.resolve("roll-log.txt"), lock);
+        Task task = TaskDeserializer.deserializeTask(UUID.randomUUID() + "|T|0|benchmark task");
+        event = new TaskEvent(TaskEvent.EventType.UPDATE, task);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        logger.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Appends a single event, taking and releasing the lock, as a standalone command does.
+     */
+    @Benchmark
+    public long appendSingle() {
+        logger.append(event);
+        return logger.getLastSequence();
+    }
+
+    /**
+     * Appends a burst of events within one lock hold, as a bulk import or refresh does.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_BURST)
+    public long appendBurst() {
+        return lock.exclusive(() -> {
+            for (int i = 0; i < EVENTS_PER_BURST; i++) {
+                logger.append(event);
+            }
+            return logger.getLastSequence();
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package repository.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import entity.tasks.Task;
+import repository.backup.BackupPolicy;
+import repository.backup.GenerationalBackupManager;
+import repository.event.TaskEvent;
+import repository.event.TaskEventLogger;
+import repository.lock.DataFileLock;
+import util.TaskDeserializer;
+
+/**
+ * Runs identical workloads against every {@link StorageEngine}, so engines can be compared directly.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageEngineBenchmark {
+    private static final int UPDATES_PER_FLUSH = 100;
+
+    @Param({"TEXT", "MEMORY"})
+    public String engineType;
+
+    @Param({"1000", "10000"})
+    public int taskCount;
+
+    private Path directory;
+    private StorageEngine engine;
+    private List<Task> tasks;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("storage-engine-bench");
+        engine = open(StorageEngineType.fromName(engineType), directory);
+        tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(TaskDeserializer.deserializeTask(UUID.randomUUID() + "|T|0|benchmark task " + i));
+        }
+        engine.checkpoint(tasks);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Appends a burst of updates and folds them into the checkpoint, as the periodic flush does.
+     */
+    @Benchmark
+    public boolean appendAndFlush() {
+        for (int i = 0; i < UPDATES_PER_FLUSH; i++) {
+            engine.append(new TaskEvent(TaskEvent.EventType.UPDATE, tasks.get(i % taskCount)));
+        }
+        return engine.flush();
+    }
+
+    /**
+     * Writes the whole task list as a new checkpoint, as the drift fallback does.
+     */
+    @Benchmark
+    public long checkpoint() throws IOException {
+        return engine.checkpoint(tasks);
+    }
+
+    /**
+     * Reads the checkpoint, as startup and external-change reloads do.
+     */
+    @Benchmark
+    public int load() throws IOException {
+        return engine.load().getRecords().size();
+    }
+
+    private static StorageEngine open(StorageEngineType type, Path directory) {
+        return switch (type) {
+        case MEMORY -> new InMemoryStorageEngine();
+        case TEXT -> {
+            Path dataFile = directory.resolve("tasks.txt");
+            DataFileLock lock = new DataFileLock(dataFile);
+            yield new TextFileStorageEngine(dataFile, new TaskEventLogger(directory.resolve("roll-log.txt"), lock),
+                    new GenerationalBackupManager(dataFile, BackupPolicy.fromSystemProperties()), lock);
+        }
+        };
+    }
+}
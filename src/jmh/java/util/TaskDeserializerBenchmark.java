@@ -0,0 +1,93 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+/**
+ * Compares {@link TaskDeserializer#deserializeTask} against the split-based parsing it replaced,
+ * on data file records of each task type. Run with {@code ./gradlew jmh}; add {@code -prof gc} to
+ * the JMH arguments to compare the bytes allocated per record as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskDeserializerBenchmark {
+    private static final int RECORD_COUNT = 1024;
+
+    @Param({"T", "D", "E"})
+    public String type;
+
+    private final String[] records = new String[RECORD_COUNT];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            String prefix = UUID.randomUUID() + "|" + type + "|" + (i % 2) + "|benchmark task " + i;
+            records[i] = switch (type) {
+            case "D" -> prefix + "|2025-03-03T09:" + String.format("%02d", i % 60);
+            case "E" -> prefix + "|2025-03-03T09:00|2025-03-03T17:" + String.format("%02d:30", i % 60);
+            default -> prefix;
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public long scanner() {
+        long checksum = 0;
+        for (String record : records) {
+            checksum += TaskDeserializer.deserializeTask(record).getId().getLeastSignificantBits();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORD_COUNT)
+    public long split() {
+        long checksum = 0;
+        for (String record : records) {
+            checksum += splitDeserialize(record).getId().getLeastSignificantBits();
+        }
+        return checksum;
+    }
+
+    /**
+     * The previous implementation: a regex split, {@link UUID#fromString} and {@link LocalDateTime#parse}.
+     */
+    private static Task splitDeserialize(String line) {
+        String[] parts = line.split("\\|");
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Invalid task format: " + line);
+        }
+        try {
+            UUID id = UUID.fromString(parts[0]);
+            boolean isCompleted = parts[2].equals("1");
+            return switch (parts[1]) {
+            case "T" -> ToDo.builder().id(id).name(parts[3]).isCompleted(isCompleted).build();
+            case "D" -> DeadLine.builder().id(id).name(parts[3]).dueby(LocalDateTime.parse(parts[4]))
+                    .isCompleted(isCompleted).build();
+            case "E" -> Events.builder().id(id).name(parts[3]).startat(LocalDateTime.parse(parts[4]))
+                    .endby(LocalDateTime.parse(parts[5])).isCompleted(isCompleted).build();
+            default -> throw new IllegalArgumentException("Unknown task type: " + parts[1]);
+            };
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error parsing task: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package util;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+/**
+ * Compares streaming tasks into a writer with {@link TaskSerializer#appendTask} against building each
+ * record as a string first, as the data file was written before. Run with {@code ./gradlew jmh}; add
+ * {@code -prof gc} to the JMH arguments to compare the bytes allocated per record as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskSerializerBenchmark {
+    private static final int TASK_COUNT = 1024;
+
+    @Param({"T", "D", "E"})
+    public String type;
+
+    private final Task[] tasks = new Task[TASK_COUNT];
+    private final CharArrayWriter writer = new CharArrayWriter(TASK_COUNT * 128);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < TASK_COUNT; i++) {
+            UUID id = UUID.randomUUID();
+            String name = "benchmark task " + i;
+            LocalDateTime time = LocalDateTime.of(2025, 3, 3, 9, i % 60);
+            tasks[i] = switch (type) {
+            case "D" -> DeadLine.builder().id(id).name(name).dueby(time).isCompleted(i % 2 == 0).build();
+            case "E" -> Events.builder().id(id).name(name).startat(time).endby(time.plusHours(8))
+                    .isCompleted(i % 2 == 0).build();
+            default -> ToDo.builder().id(id).name(name).isCompleted(i % 2 == 0).build();
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASK_COUNT)
+    public int streamed() throws IOException {
+        writer.reset();
+        for (Task task : tasks) {
+            TaskSerializer.appendTask(task, writer);
+            writer.write(",\n");
+        }
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASK_COUNT)
+    public int concatenated() throws IOException {
+        writer.reset();
+        for (Task task : tasks) {
+            writer.write(concatenate(task));
+            writer.write(",\n");
+        }
+        return writer.size();
+    }
+
+    /**
+     * The previous implementation: a string builder appending each field's {@code toString}.
+     */
+    private static String concatenate(Task task) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(task.getId()).append("|");
+        if (task instanceof DeadLine dl) {
+            sb.append("D|").append(dl.getCompleted() ? "1" : "0").append("|")
+                    .append(dl.getName()).append("|").append(dl.getDueby());
+        } else if (task instanceof Events ev) {
+            sb.append("E|").append(ev.getCompleted() ? "1" : "0").append("|")
+                    .append(ev.getName()).append("|").append(ev.getStartat()).append("|").append(ev.getEndby());
+        } else {
+            sb.append("T|").append(task.getCompleted() ? "1" : "0").append("|").append(task.getName());
+        }
+        return sb.toString();
+    }
+}
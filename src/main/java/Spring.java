@@ -3,6 +3,7 @@ import static util.config.DiConfig.registerConfig;
 import java.nio.file.Path;
 
 import dicontainer.DependencyInjectionContainer;
+import repository.storage.StorageEngineType;
 import runtime.IBotRunTime;
 import util.DirectoryInitializeUtils;
 import util.config.FxmlStaticSetterInjectionConfig;
@@ -18,7 +19,8 @@ public class Spring {
     /**
      * Provides entrypoint to start the application.
      *
-     * @param args command-line arguments passed during application startup.
+     * @param args command-line arguments passed during application startup,
+     *             e.g. {@code --engine=memory} to select the storage engine.
      */
     public static void main(String[] args) {
         DependencyInjectionContainer container = new DependencyInjectionContainer();
@@ -37,7 +39,8 @@ public class Spring {
         Path logDirectoryPath = DirectoryInitializeUtils.initializeLogDirectory();
 
         // Register configurations in the DI container
-        registerConfig(container, logDirectoryPath, dataDirectoryPath, false);
+        registerConfig(container, logDirectoryPath, dataDirectoryPath, false,
+                StorageEngineType.fromStartupOptions(args));
         // Pre-initialize all dependencies
         container.initialize();
         // Start the GUI runtime
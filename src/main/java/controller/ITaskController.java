@@ -1,10 +1,12 @@
 package controller;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import entity.TaskType;
 import entity.tasks.Task;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
 
 /**
@@ -101,4 +103,52 @@ public interface ITaskController {
      * @return A response message confirming the deletion of all tasks.
      */
     ControllerResponse<String> deleteAll();
+
+    /**
+     * Exports all tasks to a JSON file.
+     *
+     * @param path The file to write.
+     * @return A response message stating how many tasks were exported.
+     */
+    ControllerResponse<Integer> exportJson(Path path);
+
+    /**
+     * Imports tasks from a JSON file.
+     *
+     * @param path The file to read.
+     * @return A response message stating how many tasks were imported.
+     */
+    ControllerResponse<Integer> importJson(Path path);
+
+    /**
+     * Bulk loads tasks from a CSV file.
+     *
+     * @param path The CSV file to load.
+     * @return A response summarizing the load and its throughput.
+     */
+    ControllerResponse<BulkLoadDao> importCsv(Path path);
+
+    /**
+     * Undoes the most recent changes.
+     *
+     * @param steps The number of changes to undo.
+     * @return A response listing the tasks after the undo.
+     */
+    ControllerResponse<String> undo(int steps);
+
+    /**
+     * Redoes changes reverted by {@link #undo}.
+     *
+     * @param steps The number of changes to redo.
+     * @return A response listing the tasks after the redo.
+     */
+    ControllerResponse<String> redo(int steps);
+
+    /**
+     * Shows the tasks as they were at a point in time.
+     *
+     * @param time The point in time.
+     * @return A formatted string listing the tasks at that time.
+     */
+    ControllerResponse<String> showStateAt(LocalDateTime time);
 }
@@ -1,5 +1,6 @@
 package controller;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -10,6 +11,7 @@ import entity.tasks.Task;
 import exceptions.UserFacingException;
 import service.ITaskService;
 import service.TaskRepositoryCoordinatorService;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
 
 
@@ -104,6 +106,43 @@ public class TaskController implements ITaskController {
         return new ControllerResponse<>("Deleted all tasks!", formatTaskList(deletedTasks).getMessage());
     }
 
+    @Override
+    public ControllerResponse<Integer> exportJson(Path path) {
+        int exported = taskService.exportJson(path);
+        return new ControllerResponse<>("Exported " + exported + " tasks to " + path);
+    }
+
+    @Override
+    public ControllerResponse<Integer> importJson(Path path) {
+        int imported = taskService.importJson(path);
+        return new ControllerResponse<>("Imported " + imported + " tasks from " + path);
+    }
+
+    @Override
+    public ControllerResponse<BulkLoadDao> importCsv(Path path) {
+        BulkLoadDao report = taskService.bulkLoadCsv(path);
+        return new ControllerResponse<>(report.toString());
+    }
+
+    @Override
+    public ControllerResponse<String> undo(int steps) {
+        int undone = taskService.undo(steps);
+        return new ControllerResponse<>("Undid " + undone + (undone == 1 ? " change" : " changes") + ":\n",
+                formatTaskList(taskService.getAllTasks()).getMessage());
+    }
+
+    @Override
+    public ControllerResponse<String> redo(int steps) {
+        int redone = taskService.redo(steps);
+        return new ControllerResponse<>("Redid " + redone + (redone == 1 ? " change" : " changes") + ":\n",
+                formatTaskList(taskService.getAllTasks()).getMessage());
+    }
+
+    @Override
+    public ControllerResponse<String> showStateAt(LocalDateTime time) {
+        List<Task> tasks = taskService.stateAt(time);
+        return new ControllerResponse<>("Tasks at " + time + ":\n", formatTaskList(tasks).getMessage());
+    }
 
     private ControllerResponse<String> formatTaskList(List<Task> tasks) {
         if (tasks.isEmpty()) {
@@ -13,7 +13,24 @@ public enum Actions {
     SEARCH,
     INVALID,
     CLEAR,
-    UPDATE;
+    UPDATE,
+    EXPORT,
+    IMPORT,
+    UNDO,
+    REDO,
+    SHOW;
+
+    /**
+     * Checks whether the action leaves the tasks unchanged, so that a read-only replica may perform it.
+     *
+     * @return {@code true} if the action only reads the tasks.
+     */
+    public boolean isReadOnly() {
+        return switch (this) {
+        case TERMINATE, LIST, SEARCH, INVALID, EXPORT, SHOW -> true;
+        default -> false;
+        };
+    }
 
     /**
      * Converts a string command to an Actions enum.
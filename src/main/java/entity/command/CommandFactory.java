@@ -30,6 +30,11 @@ public class CommandFactory implements Proxiable {
         commandMap.put(Actions.INVALID, InvalidCommand.class);
         commandMap.put(Actions.CLEAR, ClearCommand.class);
         commandMap.put(Actions.UPDATE, UpdateCommand.class);
+        commandMap.put(Actions.EXPORT, ExportCommand.class);
+        commandMap.put(Actions.IMPORT, ImportCommand.class);
+        commandMap.put(Actions.UNDO, UndoCommand.class);
+        commandMap.put(Actions.REDO, RedoCommand.class);
+        commandMap.put(Actions.SHOW, ShowCommand.class);
     }
 
     /**
@@ -0,0 +1,30 @@
+package entity.command;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import controller.ControllerResponse;
+import controller.ITaskController;
+import exceptions.UserFacingException;
+
+/**
+ * Represents the "export" command, which streams all tasks to a file.
+ * Usage: {@code export json <path>}.
+ */
+public class ExportCommand implements Command {
+    private ITaskController taskController;
+
+    @Override
+    public void setTaskController(ITaskController taskController) {
+        this.taskController = taskController;
+    }
+
+    @Override
+    public ControllerResponse<Integer> execute(List<String> parameters) {
+        if (parameters.size() < 2 || !parameters.get(0).equalsIgnoreCase("json")) {
+            throw new UserFacingException("Export command requires a format and a path: export json <path>");
+        }
+        Path path = Path.of(String.join(" ", parameters.subList(1, parameters.size())));
+        return taskController.exportJson(path);
+    }
+}
@@ -0,0 +1,36 @@
+package entity.command;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import controller.ControllerResponse;
+import controller.ITaskController;
+import exceptions.UserFacingException;
+
+/**
+ * Represents the "import" command, which adds the tasks of a file to the task list.
+ * Usage: {@code import json <path>}, or {@code import csv <path>} to bulk load a CSV file.
+ */
+public class ImportCommand implements Command {
+    private ITaskController taskController;
+
+    @Override
+    public void setTaskController(ITaskController taskController) {
+        this.taskController = taskController;
+    }
+
+    @Override
+    public ControllerResponse<?> execute(List<String> parameters) {
+        if (parameters.size() < 2) {
+            throw new UserFacingException("Import command requires a format and a path: import <json/csv> <path>");
+        }
+        Path path = Path.of(String.join(" ", parameters.subList(1, parameters.size())));
+        String format = parameters.get(0);
+        if (format.equalsIgnoreCase("json")) {
+            return taskController.importJson(path);
+        } else if (format.equalsIgnoreCase("csv")) {
+            return taskController.importCsv(path);
+        }
+        throw new UserFacingException("Unknown import format '" + format + "', expected json or csv");
+    }
+}
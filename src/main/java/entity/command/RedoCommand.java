@@ -0,0 +1,36 @@
+package entity.command;
+
+import java.util.List;
+
+import controller.ControllerResponse;
+import controller.ITaskController;
+import exceptions.UserFacingException;
+
+/**
+ * Represents the "redo" command, which re-applies changes reverted by "undo".
+ * Usage: {@code redo [steps]}, one change by default.
+ */
+public class RedoCommand implements Command {
+    private ITaskController taskController;
+
+    @Override
+    public void setTaskController(ITaskController taskController) {
+        this.taskController = taskController;
+    }
+
+    @Override
+    public ControllerResponse<String> execute(List<String> parameters) {
+        if (parameters.isEmpty()) {
+            return taskController.redo(1);
+        }
+        try {
+            int steps = Integer.parseInt(parameters.get(0));
+            if (steps > 0) {
+                return taskController.redo(steps);
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new UserFacingException("Redo command takes an optional positive number of steps: redo [steps]");
+    }
+}
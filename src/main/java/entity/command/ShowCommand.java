@@ -0,0 +1,31 @@
+package entity.command;
+
+import java.util.List;
+
+import controller.ControllerResponse;
+import controller.ITaskController;
+import exceptions.UserFacingException;
+import util.DateTimeUtils;
+
+/**
+ * Represents the "show" command, which lists the tasks as they were at a point in time.
+ * Usage: {@code show state at <yyyy-mm-dd | yyyy-mm-ddThh:mm[:ss]>}.
+ */
+public class ShowCommand implements Command {
+    private ITaskController taskController;
+
+    @Override
+    public void setTaskController(ITaskController taskController) {
+        this.taskController = taskController;
+    }
+
+    @Override
+    public ControllerResponse<String> execute(List<String> parameters) {
+        if (parameters.size() != 3 || !parameters.get(0).equalsIgnoreCase("state")
+                || !parameters.get(1).equalsIgnoreCase("at")) {
+            throw new UserFacingException("Show command requires a point in time: "
+                    + "show state at <yyyy-mm-dd | yyyy-mm-ddThh:mm>");
+        }
+        return taskController.showStateAt(DateTimeUtils.parseDateOrDateTime(parameters.get(2)));
+    }
+}
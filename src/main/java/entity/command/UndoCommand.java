@@ -0,0 +1,36 @@
+package entity.command;
+
+import java.util.List;
+
+import controller.ControllerResponse;
+import controller.ITaskController;
+import exceptions.UserFacingException;
+
+/**
+ * Represents the "undo" command, which reverts the most recent changes.
+ * Usage: {@code undo [steps]}, one change by default.
+ */
+public class UndoCommand implements Command {
+    private ITaskController taskController;
+
+    @Override
+    public void setTaskController(ITaskController taskController) {
+        this.taskController = taskController;
+    }
+
+    @Override
+    public ControllerResponse<String> execute(List<String> parameters) {
+        if (parameters.isEmpty()) {
+            return taskController.undo(1);
+        }
+        try {
+            int steps = Integer.parseInt(parameters.get(0));
+            if (steps > 0) {
+                return taskController.undo(steps);
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new UserFacingException("Undo command takes an optional positive number of steps: undo [steps]");
+    }
+}
@@ -1,15 +1,23 @@
 package entity.tasks;
 
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 /**
  * Represents a task entity with an ID, name, and completion status.
+ * <p>
+ * Changes made through the setters and {@link #toggleCompleted()} are tracked per {@link TaskField},
+ * until {@link #clearChangedFields()} is called once they were recorded.
+ * </p>
  */
 @Data
 @SuperBuilder
@@ -31,6 +39,12 @@ public class Task {
      */
     private Boolean isCompleted;
 
+    /**
+     * Fields changed since the last call to {@link #clearChangedFields()}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient Set<TaskField> changedFields = EnumSet.noneOf(TaskField.class);
+
     /**
      * Constructs a new task with a randomly generated UUID and a given name.
      * The task is initialized as not completed.
@@ -61,6 +75,47 @@ public class Task {
      */
     public void toggleCompleted() {
         isCompleted = !isCompleted;
+        changedFields.add(TaskField.COMPLETED);
+    }
+
+    /**
+     * Renames the task.
+     *
+     * @param name The new name of the task.
+     */
+    public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            changedFields.add(TaskField.NAME);
+        }
+        this.name = name;
+    }
+
+    /**
+     * Sets the completion status of the task.
+     *
+     * @param isCompleted true if the task is completed, false otherwise.
+     */
+    public void setIsCompleted(Boolean isCompleted) {
+        if (!Objects.equals(this.isCompleted, isCompleted)) {
+            changedFields.add(TaskField.COMPLETED);
+        }
+        this.isCompleted = isCompleted;
+    }
+
+    /**
+     * Returns the fields changed since the last call to {@link #clearChangedFields()}.
+     *
+     * @return A copy of the changed fields, empty if none changed.
+     */
+    public Set<TaskField> getChangedFields() {
+        return changedFields.isEmpty() ? EnumSet.noneOf(TaskField.class) : EnumSet.copyOf(changedFields);
+    }
+
+    /**
+     * Forgets the tracked changes, once they were recorded.
+     */
+    public void clearChangedFields() {
+        changedFields.clear();
     }
 
     /**
@@ -0,0 +1,16 @@
+package entity.tasks;
+
+/**
+ * The fields of a {@link Task} whose changes are tracked, so that a change to one of them can be
+ * recorded on its own instead of rewriting the whole task.
+ */
+public enum TaskField {
+    /**
+     * The completion status.
+     */
+    COMPLETED,
+    /**
+     * The name.
+     */
+    NAME
+}
@@ -1,63 +1,138 @@
 package repository;
 
-import static util.TaskDeserializer.deserializeTask;
 import static util.TaskSerializer.serializeTask;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import entity.TaskType;
 import entity.tasks.Task;
+import entity.tasks.TaskField;
 import exceptions.UserFacingException;
+import repository.event.ChangeFeed;
+import repository.event.LogEntry;
 import repository.event.TaskEvent;
-import repository.event.TaskEventLogger;
 import repository.event.TaskEventObject;
+import repository.integrity.ContentHashTree;
+import repository.storage.StorageEngine;
+import repository.storage.StorageSnapshot;
+import repository.storage.TextFileStorageEngine;
 import util.DataFileUtils;
+import util.TaskDeserializer;
 
 
 /**
  * A file-backed implementation of {@link IFileBackedTaskRepository}.
- * This repository persists tasks to disk and manages buffered writes to reduce I/O operations.
+ * This repository persists tasks through a pluggable {@link StorageEngine} and manages buffered
+ * writes to reduce I/O operations.
  *
  * <p>
  * Features:
  * <ul>
  *     <li>Uses a <b>dirty tracking system</b> to minimize unnecessary writes.</li>
+ *     <li>Verifies flushes against incrementally maintained {@link ContentHashTree}s, so drift
+ *     detection only costs as much as the logged changes.</li>
  *     <li>Flushes changes periodically via explicit calls or scheduled intervals.</li>
- *     <li>Implements <b>backup and recovery</b> mechanisms to prevent data loss.</li>
+ *     <li>Recovers events logged after the last flush on startup, using the sequence watermark
+ *     of the data file to skip events that were already applied.</li>
+ *     <li>Supports several processes sharing the same storage: writes hold the engine's exclusive lock,
+ *     and changes made by other processes are picked up incrementally from the shared log when the
+ *     engine reports them and before each flush. Mutations themselves only queue their event, so
+ *     they never wait for the log to be read or written.</li>
+ *     <li>Reloads only the records that changed when the engine reports an external change.</li>
+ *     <li>Persists its keyword and date indexes next to the checkpoint, so they are only rebuilt on
+ *     startup if they no longer match it.</li>
+ *     <li>Implements <b>backup and recovery</b> mechanisms to prevent data loss, e.g. the backup
+ *     generations kept by {@link TextFileStorageEngine}.</li>
  * </ul>
  * </p>
  */
 public class FileBackedTaskRepository extends TaskRepository implements IFileBackedTaskRepository {
+    private static final String INDEX_SIDECAR = "idx";
+    private static final long PREVIOUS_CHANGE_WINDOW = 64; // Changes replayed by the first previousChange step
 
-    private final Path filePath;
-    private final TaskEventLogger eventLogger;
+    private final StorageEngine engine;
     private final Set<UUID> dirtySet = new HashSet<>(); // Tracks modified tasks
+    private final ContentHashTree<UUID> liveHash = new ContentHashTree<>(); // Hash of the in-memory tasks
+    private final ContentHashTree<UUID> persistedHash = new ContentHashTree<>(); // Hash of the checkpoint
+    private long persistedWatermark; // Last log sequence applied to the checkpoint
 
     /**
-     * Constructs a {@code FileBackedTaskRepository} and loads existing tasks from the specified file.
+     * Constructs a {@code FileBackedTaskRepository} and loads existing tasks from the storage engine.
      *
-     * @param filePath The file path where tasks will be persisted.
+     * @param engine The storage engine persisting the tasks.
      */
-    public FileBackedTaskRepository(Path filePath, TaskEventLogger eventLogger) {
-        this.filePath = filePath;
-        this.eventLogger = eventLogger;
-        loadFromFile(false);
+    public FileBackedTaskRepository(StorageEngine engine) {
+        this.engine = engine;
+        engine.writeLocked(() -> {
+            loadCheckpoint();
+            rebuildHashes();
+            loadIndexes();
+
+            // Replay pending log entries to update the state; they reach the checkpoint on the next flush
+            recoverPendingLog();
+            return null;
+        });
+
+        engine.watch(this::reloadExternalChanges);
+    }
+
+    @Override
+    public void forEachTask(Consumer<Task> action) {
+        engine.readLocked(() -> {
+            super.forEachTask(action);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Task> findById(UUID uuid) {
+        return engine.readLocked(() -> super.findById(uuid));
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return engine.readLocked(super::findAll);
+    }
+
+    @Override
+    public Optional<Task> findByOrder(Integer index) {
+        return engine.readLocked(() -> super.findByOrder(index));
+    }
+
+    @Override
+    public Integer remainingTasks() {
+        return engine.readLocked(super::remainingTasks);
+    }
 
-        // Replay log to update the state
-        eventLogger.clearLog();
+    @Override
+    public List<Task> findAllFromWhenToWhen(TaskType type, LocalDateTime from, LocalDateTime to) {
+        return engine.readLocked(() -> super.findAllFromWhenToWhen(type, from, to));
+    }
+
+    @Override
+    public int findOrder(UUID uuid) {
+        return engine.readLocked(() -> super.findOrder(uuid));
+    }
+
+    @Override
+    public List<Task> findTaskWithKeyword(String keyword) {
+        return engine.readLocked(() -> super.findTaskWithKeyword(keyword));
     }
 
     /**
@@ -68,15 +143,42 @@ public class FileBackedTaskRepository extends TaskRepository implements IFileBac
      */
     @Override
     public Task save(Task entity) {
-        boolean existingTask = this.storageMap.containsKey(entity.getId());
-        Task result = super.save(entity);
-        dirtySet.add(result.getId());
-        if (existingTask) {
-            this.markDirty(entity.getId());
-        } else {
-            TaskEventObject.getInstance().dispatch(new TaskEvent(TaskEvent.EventType.ADD, result));
+        return engine.writeLocked(() -> {
+            boolean existingTask = this.storageMap.containsKey(entity.getId());
+            Task result = super.save(entity);
+            dirtySet.add(result.getId());
+            if (existingTask) {
+                this.markDirty(entity.getId());
+            } else {
+                liveHash.put(result.getId(), hashOf(result));
+                record(new TaskEvent(TaskEvent.EventType.ADD, result));
+                result.clearChangedFields(); // Logged in full
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Saves or updates several tasks under a single lock acquisition and records them as one
+     * {@code BATCH} event, so a large import costs one log write instead of one per task.
+     *
+     * @param entities The tasks to save, in order.
+     * @return The saved tasks.
+     */
+    @Override
+    public List<Task> saveAll(List<Task> entities) {
+        if (entities.isEmpty()) {
+            return entities;
         }
-        return result;
+        return engine.writeLocked(() -> {
+            for (Task entity : entities) {
+                super.save(entity);
+                liveHash.put(entity.getId(), hashOf(entity));
+                dirtySet.add(entity.getId());
+            }
+            record(new TaskEvent(entities));
+            return entities;
+        });
     }
 
     /**
@@ -87,12 +189,34 @@ public class FileBackedTaskRepository extends TaskRepository implements IFileBac
      */
     @Override
     public Task deleteByOrder(Integer index) {
-        Task task = super.deleteByOrder(index);
-        if (task != null) {
-            dirtySet.add(task.getId());
-            TaskEventObject.getInstance().dispatch(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
-        }
-        return task;
+        return engine.writeLocked(() -> {
+            Task task = super.deleteByOrder(index);
+            if (task != null) {
+                dirtySet.add(task.getId());
+                liveHash.remove(task.getId());
+                record(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
+            }
+            return task;
+        });
+    }
+
+    /**
+     * Deletes a task by its UUID and marks it for persistence.
+     *
+     * @param uuid The unique identifier of the task to delete.
+     * @return The deleted task, or {@code null} if not found.
+     */
+    @Override
+    public Task deleteById(UUID uuid) {
+        return engine.writeLocked(() -> {
+            Task task = super.deleteById(uuid);
+            if (task != null) {
+                dirtySet.add(uuid);
+                liveHash.remove(uuid);
+                record(new TaskEvent(TaskEvent.EventType.DELETE, uuid));
+            }
+            return task;
+        });
     }
 
     /**
@@ -100,47 +224,79 @@ public class FileBackedTaskRepository extends TaskRepository implements IFileBac
      */
     @Override
     public List<Task> deleteAll() {
-        List<Task> deleted = super.deleteAll();
-        deleted.forEach(task -> {
-            dirtySet.add(task.getId());
-            TaskEventObject.getInstance()
-                    .dispatch(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
+        return engine.writeLocked(() -> {
+            List<Task> deleted = super.deleteAll();
+            deleted.forEach(task -> {
+                dirtySet.add(task.getId());
+                liveHash.remove(task.getId());
+                record(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
+            });
+            return deleted;
         });
-        return deleted;
     }
 
     /**
      * Flushes all modified tasks to disk.
+     * Changes logged by other processes are picked up first, so they are never overwritten.
      * If no changes were made, this operation is skipped.
      */
     @Override
     public void flush() {
+        engine.writeLocked(() -> {
+            refreshLocked();
+            flushLocked();
+            return null;
+        });
+    }
+
+    /**
+     * Picks up changes made by other processes sharing the data file.
+     * Normally only the log entries appended since the last refresh are read; the data file is
+     * re-read only if another process flushed it in the meantime.
+     * Holds the exclusive lock so that no mutation interleaves with the entries being applied.
+     */
+    @Override
+    public void refresh() {
+        engine.writeLocked(() -> {
+            refreshLocked();
+            return null;
+        });
+    }
+
+    private void flushLocked() {
         if (dirtySet.isEmpty()) {
             return;
         }
 
         System.out.println("Flushing modified tasks to file...");
 
-        // Step 1: Load a snapshot from the current file
-        List<Task> fileSnapshot = this.loadFromFile(true); // Load directly from file
-        // Step 2: Take a snapshot of the current buffer (pre-flush state)
-        int snapshotHashBeforeFlush = Objects.hash(super.storageList.toArray());
-        // Step 3: Perform a validity check using a fresh snapshot from the file
-        int expectedListHash = eventLogger.tryLogReplay(fileSnapshot);
-        // Step 3: Compare the expected state with the current in-memory state
-        if (expectedListHash == snapshotHashBeforeFlush) {
-            System.out.println("Log replay is valid. Applying logs.");
-            eventLogger.replayLog(filePath); // Step 4: Apply logs if valid
-            try {
-                backupCurrentFileIfExists();
-            } catch (IOException e) {
-                System.err.println("failed to backup current file: " + e.getMessage());
-                persistAll(); // Step 5: Full write to fix inconsistencies
+        // Steps 1-2: In a single pass over the log, fold it into the data file while advancing the hash of
+        // the data file by the events it does not reflect yet; the result is only kept if that hash
+        // matches the incrementally hashed in-memory state
+        boolean isFlushed = engine.flush(entry -> {
+            if (!entry.isCoveredBy(persistedWatermark)) {
+                applyToPersistedHash(entry);
             }
-        } else {
+        }, this::isReplayValid);
+        boolean isRejected = !isFlushed && persistedHash.rootHash() != liveHash.rootHash();
+        if (isRejected) {
+            // Step 3: Re-log only the diverged ranges from memory, then apply the repaired log
+            repairDivergentRanges();
+            isRejected = persistedHash.rootHash() != liveHash.rootHash();
+            isFlushed = !isRejected && isReplayValid() && engine.flush();
+        }
+
+        if (isFlushed) {
+            persistedWatermark = engine.lastSequence();
+        } else if (isRejected) {
             System.err.println("Flush detected a drift! Falling back to full persistAll.");
-            persistAll(); // Step 5: Full write to fix inconsistencies
-            eventLogger.clearLog();
+            persistAll(); // Step 4: Full write to fix inconsistencies
+        } else {
+            resyncPersistedHash(); // The replay failed part way
+        }
+        compactHashesIfSparse();
+        if (persistedHash.rootHash() == liveHash.rootHash()) {
+            persistIndexes(); // The indexes describe the checkpoint only while memory matches it
         }
 
         dirtySet.clear();
@@ -151,161 +307,633 @@ public class FileBackedTaskRepository extends TaskRepository implements IFileBac
      *
      * @param id The unique identifier of the task.
      * @return The same {@link UUID} of the marked task.
+     * @throws UserFacingException If the task no longer exists, e.g. because another process deleted it.
      */
     @Override
     public UUID markDirty(UUID id) {
-        dirtySet.add(id);
-        TaskEventObject.getInstance().dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, storageMap.get(id)));
-        return id;
+        return engine.writeLocked(() -> {
+            Task task = storageMap.get(id);
+            if (task == null) {
+                throw new UserFacingException("No task found for uuid: " + id + ", it may have been deleted");
+            }
+            super.save(task);
+            liveHash.put(id, hashOf(task));
+            dirtySet.add(id);
+            record(new TaskEvent(TaskEvent.EventType.UPDATE, task, task.getChangedFields()));
+            task.clearChangedFields();
+            return id;
+        });
     }
 
-    /**
-     * Persists all tasks to disk, overwriting the existing file.
-     * Maintains JSON formatting and ensures atomic writes.
-     */
-    private void persistAll() {
-        if (dirtySet.isEmpty()) {
-            return; // No changes, no need to persist
-        }
-
-        try {
-            backupCurrentFileIfExists(); // Backup before overwriting
+    @Override
+    public long lastSequence() {
+        return engine.lastSequence();
+    }
 
-            Path tempFile = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+    @Override
+    public OptionalLong sequenceAt(LocalDateTime time) {
+        return engine.sequenceAt(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
 
-            try (BufferedWriter writer = Files.newBufferedWriter(tempFile,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                writer.write("[\n");
+    @Override
+    public Optional<List<Task>> tasksAt(long sequence) {
+        return engine.recordsAt(sequence).map(records -> {
+            List<Task> tasks = new ArrayList<>(records.size());
+            for (String record : records) {
+                tasks.add(TaskDeserializer.deserializeTask(record));
+            }
+            return tasks;
+        });
+    }
 
-                int size = storageList.size();
-                for (int i = 0; i < size; i++) {
-                    writer.write(serializeTask(storageList.get(i)));
+    /**
+     * Steps back one logged change at a time, skipping changes that left the tasks as they were,
+     * e.g. re-saving an unchanged task.
+     *
+     * <p>
+     * The state is rebuilt once at a point some changes back, and the changes from there up to the
+     * sequence are replayed over it, comparing only the record each one touched. The last change that
+     * altered its record marks the closest earlier state. If every change in that stretch left the
+     * tasks alone, the search starts again from twice as far back.
+     * </p>
+     *
+     * @param sequence The sequence to step back from.
+     * @return The sequence of the closest earlier state, or empty if the history holds none.
+     */
+    @Override
+    public OptionalLong previousChange(long sequence) {
+        return engine.readLocked(() -> {
+            long upper = sequence; // The changes after it are known to have left the tasks alone
+            for (long window = PREVIOUS_CHANGE_WINDOW; upper > 0; window *= 2) {
+                long base = Math.max(0, upper - window);
+                Optional<List<String>> records = engine.recordsAt(base);
+                if (records.isEmpty()) {
+                    return OptionalLong.empty();
+                }
+                Map<UUID, String> state = new HashMap<>();
+                for (String record : records.get()) {
+                    state.put(DataFileUtils.recordId(record), record);
+                }
 
-                    if (i < size - 1) {
-                        writer.write(",\n"); // Ensure proper formatting
+                long end = upper;
+                long[] lastChange = {0};
+                boolean isCovered = engine.forEachEntryAfter(base, entry -> {
+                    if (entry.getSequence() > end) {
+                        return false;
+                    }
+                    String before = state.get(entry.getTaskId());
+                    String after = recordAfter(entry, before);
+                    if (!Objects.equals(before, after)) {
+                        lastChange[0] = entry.getSequence();
+                    }
+                    if (after == null) {
+                        state.remove(entry.getTaskId());
                     } else {
-                        writer.write("\n"); // Last entry, no trailing comma
+                        state.put(entry.getTaskId(), after);
                     }
+                    return true;
+                });
+                if (!isCovered) {
+                    return OptionalLong.empty();
                 }
+                if (lastChange[0] > 0) {
+                    return OptionalLong.of(lastChange[0] - 1);
+                }
+                upper = base;
+            }
+            return OptionalLong.empty();
+        });
+    }
+
+    /**
+     * Returns the record a logged change leaves behind for its task, or {@code null} if the task is gone.
+     */
+    private static String recordAfter(LogEntry entry, String before) {
+        return switch (entry.getType()) {
+        case ADD, UPDATE -> entry.getPayload();
+        case DELETE -> null;
+        case COMPLETE, REOPEN, RENAME -> before == null ? null : entry.applyTo(before);
+        default -> before;
+        };
+    }
+
+    /**
+     * Restores the tasks as they were right after a logged change by logging the difference to
+     * the current tasks: tasks missing from that state are deleted, and tasks that differ or are
+     * missing now are saved. Unchanged tasks are left alone.
+     *
+     * @param sequence The sequence of the state to restore.
+     * @return The number of tasks that were added, changed or removed.
+     * @throws UserFacingException If the history does not reach back that far.
+     */
+    @Override
+    public int restore(long sequence) {
+        return engine.writeLocked(() -> {
+            refreshLocked();
+            List<String> records = engine.recordsAt(sequence)
+                    .orElseThrow(() -> new UserFacingException("No history recorded for that point"));
+            return restoreLocked(records);
+        });
+    }
 
-                writer.write("]\n");
+    /**
+     * Folds the entries logged after the sequence, read from the history starting at the closest
+     * index point, into the set of tasks they touched, and looks each one up in memory. The cost
+     * grows with the number of changes, not with the number of tasks.
+     *
+     * @param sequence The cursor of the previous page.
+     * @param limit    The maximum number of changed tasks to report.
+     * @return The changes, or a reset if the history does not reach back to the sequence.
+     */
+    @Override
+    public ChangeFeed changesSince(long sequence, int limit) {
+        return engine.writeLocked(() -> {
+            refreshLocked();
+            long lastSequence = engine.lastSequence();
+            Set<UUID> changed = new LinkedHashSet<>(); // In the order the tasks last changed
+            long[] cursor = {sequence};
+            boolean isCovered = sequence <= lastSequence && engine.forEachEntryAfter(sequence, entry -> {
+                UUID id = entry.getTaskId();
+                if (!changed.remove(id) && changed.size() == limit) {
+                    return false; // Stop before a task that would not fit, so the cursor stays exact
+                }
+                changed.add(id);
+                cursor[0] = entry.getSequence();
+                return true;
+            });
+            if (!isCovered) {
+                return new ChangeFeed(lastSequence, super.findAll(), List.of(), true, true);
             }
 
-            Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-            dirtySet.clear(); // Reset tracking
+            List<Task> upserted = new ArrayList<>();
+            List<UUID> deleted = new ArrayList<>();
+            for (UUID id : changed) {
+                super.findById(id).ifPresentOrElse(upserted::add, () -> deleted.add(id));
+            }
+            return new ChangeFeed(cursor[0], upserted, deleted, false, cursor[0] >= lastSequence);
+        });
+    }
 
-            System.out.println("Persisted all tasks to file.");
+    @Override
+    public void applyReplicatedEntries(List<LogEntry> entries) {
+        engine.writeLocked(() -> {
+            refreshLocked();
+            for (LogEntry entry : entries) {
+                applyReplicatedEntry(entry);
+            }
+            return null;
+        });
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error persisting all tasks: " + e.getMessage());
-            e.printStackTrace();
-        }
+    @Override
+    public int applyReplicatedSnapshot(List<String> records) {
+        return engine.writeLocked(() -> {
+            refreshLocked();
+            return restoreLocked(records);
+        });
     }
 
     /**
-     * Loads tasks from the file. Can return a list or load directly into memory.
+     * Logs the difference between the current tasks and the given records: tasks missing from
+     * the records are deleted, and tasks that differ or are missing now are saved. Unchanged
+     * tasks are left alone. Must be called with the lock held.
      *
-     * @param returnListOnly If true, returns a list of tasks instead of modifying internal storage.
-     * @return List of tasks (only if returnListOnly is true), otherwise null.
+     * @param records The serialized tasks to restore, in order.
+     * @return The number of tasks that were added, changed or removed.
      */
-    private List<Task> loadFromFile(boolean returnListOnly) {
-        List<Task> taskList = new ArrayList<>();
+    private int restoreLocked(List<String> records) {
+        Map<UUID, String> target = new LinkedHashMap<>();
+        for (String record : records) {
+            target.put(DataFileUtils.recordId(record), record);
+        }
 
-        if (!Files.exists(filePath)) {
-            if (returnListOnly) {
-                return taskList;
+        int changes = 0;
+        for (Task task : new ArrayList<>(storageList)) {
+            if (!target.containsKey(task.getId())) {
+                super.deleteById(task.getId());
+                dirtySet.add(task.getId());
+                liveHash.remove(task.getId());
+                record(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
+                changes++;
             }
         }
-
-        try {
-            Map<UUID, Task> taskMap = DataFileUtils.readTasksFromFile(filePath);
-            taskList.addAll(taskMap.values());
-        } catch (IOException | UserFacingException | IllegalArgumentException e) {
-            System.err.println("Error reading tasks from file: " + e.getMessage());
-            if (!returnListOnly) {
-                boolean isBackupSuccess = attemptBackupRecovery();
-                if (!isBackupSuccess) {
-                    try {
-                        Files.delete(filePath);
-                        System.err.println("Corrupted save file deleted to start afresh next run.");
-                    } catch (IOException deleteEx) {
-                        System.err.println("Failed to delete corrupted save file: " + deleteEx.getMessage());
-                    }
-                } else {
-                    return null;
-                }
+        for (Map.Entry<UUID, String> restored : target.entrySet()) {
+            Task current = storageMap.get(restored.getKey());
+            if (current != null && serializeTask(current).equals(restored.getValue())) {
+                continue;
             }
+            Task task = super.save(TaskDeserializer.deserializeTask(restored.getValue()));
+            dirtySet.add(task.getId());
+            liveHash.put(task.getId(), ContentHashTree.hashOf(restored.getValue()));
+            record(new TaskEvent(current == null ? TaskEvent.EventType.ADD : TaskEvent.EventType.UPDATE, task));
+            changes++;
         }
+        return changes;
+    }
 
-        if (!returnListOnly) {
-            // Load into memory (only during initialization)
-            super.storageList.clear();
-            super.storageMap.clear();
-            for (Task task : taskList) {
-                super.storageList.add(task);
-                super.storageMap.put(task.getId(), task);
+    /**
+     * Applies one replicated entry and logs it as a change of this instance. A field change is
+     * logged as a field change again, and a change to a task that does not exist is ignored.
+     * Must be called with the lock held.
+     */
+    private void applyReplicatedEntry(LogEntry entry) {
+        UUID id = entry.getTaskId();
+        Task current = storageMap.get(id);
+        switch (entry.getType()) {
+        case ADD, UPDATE -> {
+            Task task = super.save(entry.toTask());
+            liveHash.put(id, ContentHashTree.hashOf(entry.getPayload()));
+            record(new TaskEvent(current == null ? TaskEvent.EventType.ADD : TaskEvent.EventType.UPDATE, task));
+        }
+        case DELETE -> {
+            if (current == null) {
+                return;
+            }
+            super.deleteById(id);
+            liveHash.remove(id);
+            record(new TaskEvent(TaskEvent.EventType.DELETE, id));
+        }
+        case COMPLETE, REOPEN, RENAME -> {
+            if (current == null) {
+                return;
             }
+            String record = entry.applyTo(serializeTask(current));
+            Task task = super.save(TaskDeserializer.deserializeTask(record));
+            liveHash.put(id, ContentHashTree.hashOf(record));
+            TaskField field = entry.getType() == TaskEvent.EventType.RENAME ? TaskField.NAME : TaskField.COMPLETED;
+            record(new TaskEvent(TaskEvent.EventType.UPDATE, task, Set.of(field)));
+        }
+        default -> {
+            return;
+        }
         }
+        dirtySet.add(id);
+    }
 
-        return returnListOnly ? taskList : null;
+    /**
+     * Records a change in the engine's log and notifies event listeners.
+     *
+     * @param event The change to record.
+     */
+    private void record(TaskEvent event) {
+        engine.append(event);
+        TaskEventObject.getInstance().dispatch(event);
     }
 
+    /**
+     * Applies the log entries that are newer than the watermark of the checkpoint to the in-memory tasks,
+     * recovering changes made after the last successful flush. Entries at or below the watermark were
+     * already replayed into the checkpoint by an interrupted flush and are skipped.
+     */
+    private void recoverPendingLog() {
+        engine.rewindNewEntries();
+        int recovered = applyNewLogEntries();
+        if (recovered > 0) {
+            System.out.println("Recovered " + recovered + " pending log entries.");
+        }
+    }
 
     /**
-     * Creates a backup of the current file before overwriting.
-     *
-     * @throws IOException If the backup operation fails.
+     * Brings the in-memory tasks up to date with other processes. Must be called with the lock held.
+     * The data file is only diffed if its watermark shows that another process flushed it.
+     */
+    private void refreshLocked() {
+        long fileWatermark;
+        try {
+            fileWatermark = engine.checkpointWatermark();
+        } catch (IOException e) {
+            System.err.println("Error reading data file watermark: " + e.getMessage());
+            return;
+        }
+
+        boolean isReloaded = fileWatermark > persistedWatermark && syncWithDataFile();
+        reportRefresh(isReloaded, applyNewLogEntries());
+    }
+
+    /**
+     * Reloads the records that changed on disk, e.g. through a sync tool or another instance.
+     * Invoked by the storage engine whenever the data or log file changes outside this process,
+     * which is how mutations, which skip the refresh, learn about other processes' changes.
+     * Holds the exclusive lock so that no mutation interleaves with the entries being applied.
      */
-    private void backupCurrentFileIfExists() throws IOException {
-        if (Files.exists(filePath)) {
-            Path backupPath = Paths.get(filePath + ".bak");
-            Files.copy(filePath, backupPath, StandardCopyOption.REPLACE_EXISTING);
+    private void reloadExternalChanges() {
+        engine.writeLocked(() -> {
+            boolean isReloaded = syncWithDataFile();
+            reportRefresh(isReloaded, applyNewLogEntries());
+            return null;
+        });
+    }
+
+    private void reportRefresh(boolean isReloaded, int appliedEntries) {
+        if (isReloaded || appliedEntries > 0) {
+            System.out.println("Refreshed tasks with " + appliedEntries + " new log entries"
+                    + (isReloaded ? " after the data file changed on disk." : "."));
         }
     }
 
     /**
-     * Attempts to recover data from a backup file if the main file is corrupted.
+     * Diffs the data file against the hash of its last known content and applies only the changed
+     * records to the in-memory tasks. Lines are compared by hash, so unchanged records are never
+     * deserialized. Pending log entries not covered by the file are re-applied on top afterwards.
+     *
+     * @return {@code true} if the data file differed from its last known content.
      */
-    private boolean attemptBackupRecovery() {
-        Path backupPath = Paths.get(filePath.toString() + ".bak");
-        if (!Files.exists(backupPath)) {
-            System.err.println("No backup file found.");
+    private boolean syncWithDataFile() {
+        StorageSnapshot snapshot;
+        try {
+            snapshot = engine.load();
+        } catch (NoSuchFileException e) {
+            return false; // Never mirror a missing file, it is recreated on the next flush
+        } catch (IOException e) {
+            System.err.println("Error reading tasks changed on disk: " + e.getMessage());
             return false;
         }
+        long fileWatermark = snapshot.getWatermark();
 
+        Map<String, Task> changedRecords = new LinkedHashMap<>();
+        Set<UUID> fileIds = new HashSet<>();
         try {
-            List<Task> recoveredTasks = new ArrayList<>();
-            try (BufferedReader reader = Files.newBufferedReader(backupPath)) {
-                String line;
-                line = reader.readLine();
-                if (!line.equals("[")) {
-                    return false;
-                }
-                while ((line = reader.readLine()) != null) {
-                    if (line.equals("]")) {
-                        break;
-                    }
-                    Task task = deserializeTask(line);
+            for (String record : snapshot.getRecords()) {
+                UUID id = DataFileUtils.recordId(record);
+                fileIds.add(id);
+                OptionalLong knownHash = persistedHash.leafHash(id);
+                if (knownHash.isEmpty() || knownHash.getAsLong() != ContentHashTree.hashOf(record)) {
+                    Task task = TaskDeserializer.deserializeTask(record);
                     if (task != null) {
-                        recoveredTasks.add(task);
+                        changedRecords.put(record, task);
                     }
                 }
             }
-            for (Task task : recoveredTasks) {
-                if (super.storageMap.containsKey(task.getId())) {
-                    continue;
-                }
-                super.storageList.add(task);
-                super.storageMap.put(task.getId(), task);
+        } catch (UserFacingException | IllegalArgumentException e) {
+            System.err.println("Ignoring invalid data file changed on disk: " + e.getMessage());
+            return false;
+        }
+        List<UUID> removedIds = new ArrayList<>();
+        for (int slot = 0; slot < persistedHash.slotCount(); slot++) {
+            UUID id = persistedHash.keyAt(slot);
+            if (id != null && !fileIds.contains(id)) {
+                removedIds.add(id);
             }
+        }
+
+        boolean isFlushedElsewhere = fileWatermark > persistedWatermark;
+        if (changedRecords.isEmpty() && removedIds.isEmpty() && !isFlushedElsewhere) {
+            return false; // Our own write, or nothing that affects the tasks
+        }
+
+        for (Map.Entry<String, Task> changed : changedRecords.entrySet()) {
+            Task task = super.save(changed.getValue());
+            long hash = ContentHashTree.hashOf(changed.getKey());
+            liveHash.put(task.getId(), hash);
+            persistedHash.put(task.getId(), hash);
+        }
+        for (UUID id : removedIds) {
+            super.deleteById(id);
+            liveHash.remove(id);
+            persistedHash.remove(id);
+        }
+
+        if (isFlushedElsewhere) {
+            // That flush replayed every shared log entry up to its watermark, including ours
+            dirtySet.clear();
+            persistedWatermark = fileWatermark;
+        }
+        engine.rewindNewEntries(); // Re-apply pending entries on top of the new file content
+        return true;
+    }
 
-            Files.copy(backupPath, filePath, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Backup successfully restored.");
-            return true;
+    /**
+     * Applies the log entries appended since the last read and not yet reflected in the data file
+     * to the in-memory tasks, without dispatching events.
+     *
+     * @return The number of entries applied.
+     */
+    private int applyNewLogEntries() {
+        int[] applied = {0};
+        engine.readNewEntries(entry -> {
+            if (entry.isCoveredBy(persistedWatermark)) {
+                return;
+            }
+            switch (entry.getType()) {
+            case ADD, UPDATE -> {
+                Task task = entry.toTask();
+                super.save(task);
+                liveHash.put(task.getId(), ContentHashTree.hashOf(entry.getPayload()));
+            }
+            case DELETE -> {
+                super.deleteById(entry.getTaskId());
+                liveHash.remove(entry.getTaskId());
+            }
+            case COMPLETE, REOPEN, RENAME -> {
+                Task current = storageMap.get(entry.getTaskId());
+                if (current == null) {
+                    return;
+                }
+                String record = entry.applyTo(serializeTask(current));
+                super.save(TaskDeserializer.deserializeTask(record));
+                liveHash.put(entry.getTaskId(), ContentHashTree.hashOf(record));
+            }
+            default -> {
+                return;
+            }
+            }
+            dirtySet.add(entry.getTaskId());
+            applied[0]++;
+        });
+        return applied[0];
+    }
 
-        } catch (IOException | IllegalArgumentException | UserFacingException e) {
-            System.err.println("Backup recovery failed.");
+    /**
+     * Checks whether replaying the log leads to the in-memory state. Called by the storage engine
+     * once it has delivered every pending entry.
+     *
+     * @return {@code true} if the hash of the persisted state matches the in-memory state.
+     */
+    private boolean isReplayValid() {
+        if (persistedHash.rootHash() != liveHash.rootHash()) {
             return false;
         }
+        System.out.println("Log replay is valid. Applying logs.");
+        return true;
+    }
+
+    /**
+     * Applies one logged event to the hash of the persisted state, mirroring how
+     * {@link StorageEngine#flush()} applies it to the checkpoint.
+     *
+     * @param entry The log entry to apply.
+     */
+    private void applyToPersistedHash(LogEntry entry) {
+        switch (entry.getType()) {
+        case ADD, UPDATE -> persistedHash.put(entry.getTaskId(), ContentHashTree.hashOf(entry.getPayload()));
+        case DELETE -> persistedHash.remove(entry.getTaskId());
+        default -> {
+            // Field changes reach the visitor resolved into updates, other event types never reach the log
+        }
+        }
+    }
+
+    /**
+     * Re-logs the in-memory version of every slot whose hash differs from the persisted state,
+     * so that a localized drift is repaired by the regular log replay instead of a full rewrite.
+     * If the drift involves reordering, the hashes still differ afterwards and the caller falls back.
+     */
+    private void repairDivergentRanges() {
+        List<int[]> ranges = liveHash.divergentRanges(persistedHash);
+        StringBuilder description = new StringBuilder();
+        for (int[] range : ranges) {
+            description.append(" [").append(range[0] + 1).append("-").append(range[1]).append("]");
+        }
+        System.err.println("Flush detected a drift in slots" + description + ". Repairing from memory.");
+
+        for (int[] range : ranges) {
+            for (int slot = range[0]; slot < range[1]; slot++) {
+                UUID persistedId = persistedHash.keyAt(slot);
+                if (persistedId != null && !storageMap.containsKey(persistedId)) {
+                    logRepair(new TaskEvent(TaskEvent.EventType.DELETE, persistedId));
+                }
+                UUID liveId = liveHash.keyAt(slot);
+                if (liveId != null) {
+                    logRepair(new TaskEvent(TaskEvent.EventType.UPDATE, storageMap.get(liveId)));
+                }
+            }
+        }
+    }
+
+    private void logRepair(TaskEvent event) {
+        record(event);
+        String payload = event.getTask() == null ? null : serializeTask(event.getTask());
+        applyToPersistedHash(new LogEntry(0, event.getType(), event.getTaskId(), payload));
+    }
+
+    /**
+     * Rebuilds the persisted-state hash from the checkpoint after a failed replay,
+     * since the log may have been only partially applied.
+     */
+    private void resyncPersistedHash() {
+        persistedHash.clear();
+        try {
+            for (String record : engine.load().getRecords()) {
+                persistedHash.put(DataFileUtils.recordId(record), ContentHashTree.hashOf(record));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading tasks from file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds both hashes from the in-memory tasks, which match the checkpoint right after loading.
+     */
+    private void rebuildHashes() {
+        liveHash.clear();
+        for (Task task : storageList) {
+            liveHash.put(task.getId(), hashOf(task));
+        }
+        persistedHash.copyFrom(liveHash);
+    }
+
+    /**
+     * Drops the empty slots left behind by deletions once they outnumber the live tasks.
+     */
+    private void compactHashesIfSparse() {
+        boolean isSparse = liveHash.slotCount() > 2 * liveHash.liveCount() + 64
+                || persistedHash.slotCount() > 2 * persistedHash.liveCount() + 64;
+        if (isSparse) {
+            // Compacting both keeps their slot layouts aligned for future range comparisons
+            liveHash.compact();
+            persistedHash.compact();
+        }
+    }
+
+    /**
+     * Loads the persisted indexes if their stamp matches the loaded checkpoint, and rebuilds them
+     * otherwise. Must be called before pending log entries are applied, while memory matches the checkpoint.
+     */
+    private void loadIndexes() {
+        List<UUID> order = storageList.stream().map(Task::getId).toList();
+        boolean isLoaded = engine.readSidecar(INDEX_SIDECAR)
+                .map(buffer -> indexes.decode(buffer, order, persistedWatermark, persistedHash.rootHash()))
+                .orElse(false);
+        if (!isLoaded) {
+            indexes.rebuild(storageList);
+            if (!storageList.isEmpty()) {
+                System.out.println("Rebuilt task indexes.");
+                persistIndexes();
+            }
+        }
+    }
+
+    /**
+     * Writes the indexes stamped with the watermark and content hash of the checkpoint they describe.
+     */
+    private void persistIndexes() {
+        engine.writeSidecar(INDEX_SIDECAR, indexes.encode(persistedWatermark, persistedHash.rootHash()));
+    }
+
+    private static long hashOf(Task task) {
+        return ContentHashTree.hashOf(serializeTask(task));
+    }
+
+    /**
+     * Persists all tasks as a new checkpoint, overwriting the existing one.
+     */
+    private void persistAll() {
+        if (dirtySet.isEmpty()) {
+            return; // No changes, no need to persist
+        }
+
+        try {
+            persistedWatermark = engine.checkpoint(storageList);
+            dirtySet.clear(); // Reset tracking
+            persistedHash.copyFrom(liveHash);
+
+            System.out.println("Persisted all tasks to file.");
+
+        } catch (IOException e) {
+            System.err.println("Error persisting all tasks: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the checkpoint into memory, restoring the newest usable backup if it is unreadable.
+     */
+    private void loadCheckpoint() {
+        List<Task> taskList;
+        try {
+            StorageSnapshot snapshot = engine.load();
+            taskList = snapshot.toTasks();
+            persistedWatermark = snapshot.getWatermark();
+        } catch (IOException | UserFacingException | IllegalArgumentException e) {
+            System.err.println("Error reading tasks from file: " + e.getMessage());
+            taskList = attemptBackupRecovery();
+        }
+
+        super.storageList.clear();
+        super.storageMap.clear();
+        for (Task task : taskList) {
+            super.storageList.add(task);
+            super.storageMap.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Attempts to recover data from the newest valid backup if the checkpoint is corrupted.
+     *
+     * @return The recovered tasks, or an empty list if nothing could be recovered.
+     */
+    private List<Task> attemptBackupRecovery() {
+        Optional<List<Task>> recovered = engine.recover();
+        if (recovered.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            persistedWatermark = engine.load().getWatermark();
+        } catch (IOException e) {
+            System.err.println("Error reading restored backup: " + e.getMessage());
+        }
+        System.out.println("Backup successfully restored.");
+        return recovered.get();
     }
 }
@@ -1,9 +1,16 @@
 package repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import dicontainer.Proxiable;
 import dicontainer.aopinterfaces.annotationinterfaces.ProxyEnabled;
+import entity.tasks.Task;
+import repository.event.ChangeFeed;
+import repository.event.LogEntry;
 
 /**
  * A file-backed repository interface for managing persistent storage operations.
@@ -17,6 +24,11 @@ public interface IFileBackedTaskRepository extends Proxiable {
      */
     void flush();
 
+    /**
+     * Picks up changes written by other processes sharing the same storage.
+     */
+    void refresh();
+
     /**
      * Marks an entity as modified, scheduling it for persistence.
      *
@@ -24,4 +36,72 @@ public interface IFileBackedTaskRepository extends Proxiable {
      * @return The same {@link UUID} of the marked entity.
      */
     UUID markDirty(UUID id);
+
+    /**
+     * Returns the sequence of the most recently logged change.
+     *
+     * @return The last log sequence.
+     */
+    long lastSequence();
+
+    /**
+     * Finds the sequence of the last change logged at or before a point in time.
+     *
+     * @param time The point in time, in the system time zone.
+     * @return The sequence, or empty if the history starts after that time.
+     */
+    OptionalLong sequenceAt(LocalDateTime time);
+
+    /**
+     * Rebuilds the tasks as they were right after a logged change.
+     *
+     * @param sequence The sequence of the last change to include.
+     * @return The tasks at that point, or empty if the history does not reach back that far.
+     */
+    Optional<List<Task>> tasksAt(long sequence);
+
+    /**
+     * Finds the closest earlier point in the history at which the tasks looked different.
+     *
+     * @param sequence The sequence to step back from.
+     * @return The sequence of that point, or empty if the history holds no earlier state.
+     */
+    OptionalLong previousChange(long sequence);
+
+    /**
+     * Brings the tasks back to their state right after a logged change. The restore is itself
+     * logged as ordinary changes, so it can be undone in turn.
+     *
+     * @param sequence The sequence of the state to restore.
+     * @return The number of tasks that were added, changed or removed.
+     */
+    int restore(long sequence);
+
+    /**
+     * Reports the tasks changed after a logged change, one change per task, so that a client can
+     * keep a copy of the tasks in step by fetching only what changed.
+     *
+     * @param sequence The cursor of the previous page, or {@code 0} to start from the beginning.
+     * @param limit    The maximum number of changed tasks to report.
+     * @return The changed tasks as they are now, and the cursor to continue from. A reset carrying
+     *     every task, whatever the limit, if the history does not reach back that far.
+     */
+    ChangeFeed changesSince(long sequence, int limit);
+
+    /**
+     * Applies changes replicated from a primary instance. They are logged as ordinary changes of
+     * this instance, so they are persisted and reach its own event listeners.
+     *
+     * @param entries The replicated log entries, in the primary's log order.
+     */
+    void applyReplicatedEntries(List<LogEntry> entries);
+
+    /**
+     * Brings the tasks to a full copy replicated from a primary instance, logging only the
+     * tasks that differ, like {@link #restore}.
+     *
+     * @param records The serialized tasks of the primary, in order.
+     * @return The number of tasks that were added, changed or removed.
+     */
+    int applyReplicatedSnapshot(List<String> records);
 }
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import dicontainer.Proxiable;
 import dicontainer.aopinterfaces.annotationinterfaces.ExceptionHandler;
@@ -30,6 +31,16 @@ public interface ITaskRepository extends CrudRepository<Task, UUID>, Proxiable {
     @ExceptionHandler
     Task save(Task entity);
 
+    /**
+     * Saves several tasks at once, e.g. during an import. Implementations may record the whole
+     * batch as a single change rather than one change per task.
+     *
+     * @param entities The tasks to save, in order.
+     * @return The saved tasks.
+     */
+    @ExceptionHandler
+    List<Task> saveAll(List<Task> entities);
+
     /**
      * Retrieves all tasks stored in the repository.
      *
@@ -39,6 +50,14 @@ public interface ITaskRepository extends CrudRepository<Task, UUID>, Proxiable {
     @ExceptionHandler
     List<Task> findAll();
 
+    /**
+     * Passes every task, in order, to the given action without copying the task list,
+     * so that large task sets can be streamed out.
+     *
+     * @param action The action applied to each task.
+     */
+    void forEachTask(Consumer<Task> action);
+
     /**
      * Deletes a task by its sequential order (instead of UUID).
      *
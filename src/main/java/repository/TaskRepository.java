@@ -7,18 +7,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import entity.TaskType;
 import entity.tasks.DeadLine;
 import entity.tasks.Events;
 import entity.tasks.Task;
 import exceptions.UserFacingException;
+import repository.index.TaskIndexes;
 
 /**
  * In-memory repository for managing tasks.
  * <p>
  * This repository provides storage and lookup functionality for tasks,
- * supporting both list-based and map-based storage mechanisms.
+ * supporting both list-based and map-based storage mechanisms. Keyword and date queries
+ * are answered through {@link TaskIndexes} instead of scanning every task.
  * </p>
  */
 public class TaskRepository implements ITaskRepository {
@@ -33,6 +36,11 @@ public class TaskRepository implements ITaskRepository {
      */
     protected final Map<UUID, Task> storageMap = new LinkedHashMap<>();
 
+    /**
+     * Keyword and date indexes over the stored tasks, kept in step with the storage above.
+     */
+    protected final TaskIndexes indexes = new TaskIndexes();
+
     @Override
     public Task save(Task input) {
         if (storageMap.containsKey(input.getId())) {
@@ -42,9 +50,16 @@ public class TaskRepository implements ITaskRepository {
             storageList.add(input); // Maintain order
             storageMap.put(input.getId(), input); // Fast UUID lookup
         }
+        indexes.index(input);
         return input;
     }
 
+    @Override
+    public List<Task> saveAll(List<Task> entities) {
+        entities.forEach(this::save);
+        return entities;
+    }
+
     @Override
     public Optional<Task> findById(UUID uuid) {
         return Optional.ofNullable(storageMap.get(uuid));
@@ -55,10 +70,16 @@ public class TaskRepository implements ITaskRepository {
         return new ArrayList<>(storageList);
     }
 
+    @Override
+    public void forEachTask(Consumer<Task> action) {
+        storageList.forEach(action);
+    }
+
     @Override
     public Task deleteById(UUID uuid) {
         Task task = storageMap.remove(uuid);
         storageList.remove(task);
+        indexes.remove(uuid);
         return task;
     }
 
@@ -81,6 +102,7 @@ public class TaskRepository implements ITaskRepository {
         Task task = storageList.get(index);
         storageList.remove((int) index); // Maintain list order
         storageMap.remove(task.getId()); // Remove from fast lookup
+        indexes.remove(task.getId());
         return task;
     }
 
@@ -91,8 +113,10 @@ public class TaskRepository implements ITaskRepository {
 
     @Override
     public List<Task> findAllFromWhenToWhen(TaskType type, LocalDateTime from, LocalDateTime to) {
-        return storageList.stream()
-                .filter(task -> type.equals(TaskType.fromTask(task))) // Filter by type first
+        // Events are indexed by their end date, which the lower bound does not apply to
+        LocalDateTime indexedFrom = type == TaskType.DEADLINE ? from : null;
+        return indexes.findByDate(type, indexedFrom, to).stream()
+                .map(storageMap::get)
                 .filter(task -> {
                     if (task instanceof Events events) {
                         boolean afterFrom = (from == null || events.getStartat().isAfter(from)
@@ -121,7 +145,10 @@ public class TaskRepository implements ITaskRepository {
 
     @Override
     public List<Task> findTaskWithKeyword(String keyword) {
-        return storageList.stream().filter(entry -> entry.getName().contains(keyword)).toList();
+        List<Task> candidates = indexes.findKeywordCandidates(keyword)
+                .map(ids -> ids.stream().map(storageMap::get).toList())
+                .orElse(storageList);
+        return candidates.stream().filter(entry -> entry.getName().contains(keyword)).toList();
     }
 
     @Override
@@ -129,6 +156,7 @@ public class TaskRepository implements ITaskRepository {
         List<Task> result = new ArrayList<>(this.storageList);
         storageList.clear();
         storageMap.clear();
+        indexes.clear();
         return result;
     }
 
@@ -0,0 +1,55 @@
+package repository.backup;
+
+import lombok.Getter;
+
+/**
+ * Retention and I/O limits applied by {@link GenerationalBackupManager}.
+ * <p>
+ * Values can be overridden at startup through system properties:
+ * <ul>
+ *     <li>{@code spring.backup.generations} - number of backup generations to keep (default 5).</li>
+ *     <li>{@code spring.backup.ioBudgetBytes} - maximum bytes a single backup may write (default 8 MiB).</li>
+ * </ul>
+ * </p>
+ */
+@Getter
+public class BackupPolicy {
+    public static final int DEFAULT_GENERATIONS = 5;
+    public static final long DEFAULT_IO_BUDGET_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Number of generations retained; older ones are pruned after each backup.
+     */
+    private final int generations;
+
+    /**
+     * Upper bound on the bytes written by one backup (copies and delta files).
+     * Hard links are free and never count towards the budget.
+     */
+    private final long ioBudgetBytes;
+
+    /**
+     * Constructs a backup policy.
+     *
+     * @param generations   The number of generations to retain, at least 1.
+     * @param ioBudgetBytes The maximum number of bytes a single backup may write.
+     */
+    public BackupPolicy(int generations, long ioBudgetBytes) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("At least one backup generation must be retained");
+        }
+        this.generations = generations;
+        this.ioBudgetBytes = Math.max(0, ioBudgetBytes);
+    }
+
+    /**
+     * Builds a policy from system properties, falling back to defaults.
+     *
+     * @return The configured {@code BackupPolicy}.
+     */
+    public static BackupPolicy fromSystemProperties() {
+        int generations = Integer.getInteger("spring.backup.generations", DEFAULT_GENERATIONS);
+        long budget = Long.getLong("spring.backup.ioBudgetBytes", DEFAULT_IO_BUDGET_BYTES);
+        return new BackupPolicy(generations, budget);
+    }
+}
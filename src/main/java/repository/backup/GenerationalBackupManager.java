@@ -0,0 +1,375 @@
+package repository.backup;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import entity.tasks.Task;
+import exceptions.UserFacingException;
+import util.DataFileUtils;
+
+/**
+ * Keeps a rotating set of backup generations for the task data file.
+ *
+ * <p>
+ * The newest generation is always a full snapshot. Because the data file is only ever replaced
+ * through an atomic move, the snapshot is taken as a hard link to the current file, which costs
+ * no data writes at all; a {@link FileChannel#transferTo} copy is used only where hard links are
+ * unsupported. When a newer generation is taken, the previous full snapshot is rewritten as a
+ * reverse delta against it, so older generations only occupy the lines that differ.
+ * </p>
+ *
+ * <p>
+ * Files are named {@code <data file>.<generation>.bak} (full) and
+ * {@code <data file>.<generation>.bak.delta} (delta). A legacy single {@code <data file>.bak}
+ * is still considered as the oldest candidate during recovery.
+ * </p>
+ */
+public class GenerationalBackupManager {
+    private static final String FULL_SUFFIX = ".bak";
+    private static final String DELTA_SUFFIX = ".bak.delta";
+    private static final String DELTA_HEADER = "DELTA ";
+
+    private final Path filePath;
+    private final BackupPolicy policy;
+    private final Pattern generationPattern;
+
+    /**
+     * Known generations, oldest first, mapped to their backing file.
+     */
+    private final TreeMap<Long, Path> generations = new TreeMap<>();
+
+    /**
+     * Constructs a backup manager for the given data file and discovers existing generations.
+     *
+     * @param filePath The data file being backed up.
+     * @param policy   The retention and I/O budget policy.
+     */
+    public GenerationalBackupManager(Path filePath, BackupPolicy policy) {
+        this.filePath = filePath;
+        this.policy = policy;
+        this.generationPattern = Pattern.compile(Pattern.quote(filePath.getFileName().toString())
+                + "\\.(\\d+)" + Pattern.quote(FULL_SUFFIX) + "(\\.delta)?");
+        scanGenerations();
+    }
+
+    /**
+     * Takes a new backup generation of the current data file, then rewrites the previous generation
+     * as a delta and prunes generations beyond the retention limit.
+     * A generation is skipped entirely if copying the file would exceed the I/O budget.
+     *
+     * @throws IOException If the snapshot cannot be created.
+     */
+    public synchronized void backup() throws IOException {
+        if (!Files.exists(filePath)) {
+            return;
+        }
+
+        long budget = policy.getIoBudgetBytes();
+        long generation = generations.isEmpty() ? 1 : generations.lastKey() + 1;
+        Path snapshotPath = fullPath(generation);
+
+        long written = snapshot(snapshotPath, budget);
+        if (written < 0) {
+            System.err.println("Backup skipped: copying " + filePath + " exceeds the I/O budget of "
+                    + policy.getIoBudgetBytes() + " bytes.");
+            return;
+        }
+        budget -= written;
+
+        Map.Entry<Long, Path> previous = generations.lastEntry();
+        generations.put(generation, snapshotPath);
+        if (previous != null && !isDelta(previous.getValue())) {
+            convertToDelta(previous.getKey(), previous.getValue(), generation, snapshotPath, budget);
+        }
+        prune();
+    }
+
+    /**
+     * Restores the newest backup generation that parses as a valid data file.
+     * Generations are tried from newest to oldest, followed by the legacy single backup file.
+     * On success, the data file is atomically replaced with the restored content.
+     *
+     * @return The tasks of the restored generation, or empty if no usable generation exists.
+     */
+    public synchronized Optional<Map<UUID, Task>> restoreNewestValidGeneration() {
+        for (Long generation : generations.descendingKeySet()) {
+            try {
+                Map<UUID, Task> tasks = restore(materialize(generation, generations.size()));
+                System.out.println("Restored backup generation " + generation + ".");
+                return Optional.of(tasks);
+            } catch (IOException | IllegalArgumentException | UserFacingException e) {
+                System.err.println("Backup generation " + generation + " is unusable: " + e.getMessage());
+            }
+        }
+
+        Path legacyBackup = filePath.resolveSibling(filePath.getFileName() + FULL_SUFFIX);
+        if (Files.exists(legacyBackup)) {
+            try {
+                Map<UUID, Task> tasks = restore(Files.readAllLines(legacyBackup, StandardCharsets.UTF_8));
+                System.out.println("Restored legacy backup file.");
+                return Optional.of(tasks);
+            } catch (IOException | IllegalArgumentException | UserFacingException e) {
+                System.err.println("Legacy backup is unusable: " + e.getMessage());
+            }
+        }
+        System.err.println("No usable backup generation found.");
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the snapshot for a new generation, preferring a hard link over a copy.
+     *
+     * @return The number of bytes written, or {@code -1} if a copy would exceed the budget.
+     */
+    private long snapshot(Path snapshotPath, long budget) throws IOException {
+        Files.deleteIfExists(snapshotPath);
+        try {
+            Files.createLink(snapshotPath, filePath);
+            return 0;
+        } catch (UnsupportedOperationException | IOException e) {
+            // Fall through to a kernel-side copy
+        }
+
+        long size = Files.size(filePath);
+        if (size > budget) {
+            return -1;
+        }
+        try (FileChannel source = FileChannel.open(filePath, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(snapshotPath, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Rewrites a full generation as a reverse delta against a newer full generation.
+     * The generation is left as a full snapshot if the delta would exceed the remaining budget.
+     */
+    private void convertToDelta(long generation, Path fullPath, long baseGeneration, Path basePath,
+                                long budget) {
+        try {
+            List<String> target = Files.readAllLines(fullPath, StandardCharsets.UTF_8);
+            List<String> base = Files.readAllLines(basePath, StandardCharsets.UTF_8);
+
+            List<String> delta = new ArrayList<>();
+            delta.add(DELTA_HEADER + baseGeneration);
+            delta.addAll(diff(base, target));
+            byte[] bytes = (String.join("\n", delta) + "\n").getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > budget) {
+                return;
+            }
+
+            Path deltaPath = deltaPath(generation);
+            Path tempPath = deltaPath.resolveSibling(deltaPath.getFileName() + ".tmp");
+            Files.write(tempPath, bytes);
+            Files.move(tempPath, deltaPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(fullPath);
+            generations.put(generation, deltaPath);
+        } catch (IOException e) {
+            System.err.println("Failed to compact backup generation " + generation + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the oldest generations beyond the retention limit.
+     * Deltas always point at newer generations, so removing the oldest never breaks a chain.
+     */
+    private void prune() {
+        while (generations.size() > policy.getGenerations()) {
+            Map.Entry<Long, Path> oldest = generations.pollFirstEntry();
+            try {
+                Files.deleteIfExists(oldest.getValue());
+            } catch (IOException e) {
+                System.err.println("Failed to prune backup generation " + oldest.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reconstructs the raw lines of a generation by following its delta chain.
+     *
+     * @param generation The generation to reconstruct.
+     * @param depth      The remaining chain length, guarding against cyclic references.
+     */
+    private List<String> materialize(long generation, int depth) throws IOException {
+        Path path = generations.get(generation);
+        if (path == null || depth <= 0) {
+            throw new IOException("Missing backup generation " + generation);
+        }
+        if (!isDelta(path)) {
+            return Files.readAllLines(path, StandardCharsets.UTF_8);
+        }
+
+        List<String> delta = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (delta.isEmpty() || !delta.get(0).startsWith(DELTA_HEADER)) {
+            throw new IOException("Corrupt delta header in " + path.getFileName());
+        }
+        long baseGeneration;
+        try {
+            baseGeneration = Long.parseLong(delta.get(0).substring(DELTA_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt delta header in " + path.getFileName());
+        }
+        if (baseGeneration <= generation) {
+            throw new IOException("Delta " + path.getFileName() + " does not reference a newer generation");
+        }
+        return applyDelta(materialize(baseGeneration, depth - 1), delta.subList(1, delta.size()));
+    }
+
+    /**
+     * Validates the given lines as a data file and atomically writes them over the data file.
+     */
+    private Map<UUID, Task> restore(List<String> lines) throws IOException {
+        Map<UUID, Task> tasks = DataFileUtils.parseTasks(lines.stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .collect(Collectors.toList()));
+
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".restore.tmp");
+        Files.write(tempPath, lines, StandardCharsets.UTF_8);
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return tasks;
+    }
+
+    /**
+     * Computes an edit script that rebuilds {@code target} from {@code base}.
+     * <p>
+     * Operations are {@code =n} (copy n base lines), {@code -n} (skip n base lines) and
+     * {@code +line} (insert a literal line). Matching is greedy and runs in linear time,
+     * which suits data files where records mostly keep their relative order.
+     * </p>
+     *
+     * @param base   The lines of the newer generation.
+     * @param target The lines of the generation being encoded.
+     * @return The edit script.
+     */
+    static List<String> diff(List<String> base, List<String> target) {
+        Map<String, Deque<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < base.size(); i++) {
+            positions.computeIfAbsent(base.get(i), key -> new ArrayDeque<>()).addLast(i);
+        }
+
+        List<String> ops = new ArrayList<>();
+        int cursor = 0;
+        int pendingCopies = 0;
+        for (String line : target) {
+            Deque<Integer> candidates = positions.get(line);
+            while (candidates != null && !candidates.isEmpty() && candidates.peekFirst() < cursor) {
+                candidates.pollFirst();
+            }
+
+            if (candidates == null || candidates.isEmpty()) {
+                pendingCopies = emitCopies(ops, pendingCopies);
+                ops.add("+" + line);
+                continue;
+            }
+
+            int match = candidates.pollFirst();
+            if (match > cursor) {
+                pendingCopies = emitCopies(ops, pendingCopies);
+                ops.add("-" + (match - cursor));
+            }
+            pendingCopies++;
+            cursor = match + 1;
+        }
+        emitCopies(ops, pendingCopies);
+        return ops;
+    }
+
+    /**
+     * Rebuilds the target lines by applying an edit script produced by {@link #diff} to the base lines.
+     *
+     * @param base The lines of the newer generation.
+     * @param ops  The edit script.
+     * @return The reconstructed lines.
+     * @throws IOException If the script does not fit the base.
+     */
+    static List<String> applyDelta(List<String> base, List<String> ops) throws IOException {
+        List<String> result = new ArrayList<>();
+        int cursor = 0;
+        for (String op : ops) {
+            if (op.isEmpty()) {
+                continue;
+            }
+            char kind = op.charAt(0);
+            if (kind == '+') {
+                result.add(op.substring(1));
+                continue;
+            }
+
+            int count;
+            try {
+                count = Integer.parseInt(op.substring(1));
+            } catch (NumberFormatException e) {
+                throw new IOException("Corrupt delta operation: " + op);
+            }
+            if (count < 0 || cursor + count > base.size() || (kind != '=' && kind != '-')) {
+                throw new IOException("Delta operation out of range: " + op);
+            }
+            if (kind == '=') {
+                result.addAll(base.subList(cursor, cursor + count));
+            }
+            cursor += count;
+        }
+        return result;
+    }
+
+    private static int emitCopies(List<String> ops, int pendingCopies) {
+        if (pendingCopies > 0) {
+            ops.add("=" + pendingCopies);
+        }
+        return 0;
+    }
+
+    private void scanGenerations() {
+        Path directory = filePath.toAbsolutePath().getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = generationPattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.merge(Long.parseLong(matcher.group(1)), path,
+                            (existing, found) -> isDelta(existing) ? found : existing);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Failed to scan backup generations: " + e.getMessage());
+        }
+    }
+
+    private Path fullPath(long generation) {
+        return filePath.resolveSibling(filePath.getFileName() + "." + generation + FULL_SUFFIX);
+    }
+
+    private Path deltaPath(long generation) {
+        return filePath.resolveSibling(filePath.getFileName() + "." + generation + DELTA_SUFFIX);
+    }
+
+    private static boolean isDelta(Path path) {
+        return path.getFileName().toString().endsWith(DELTA_SUFFIX);
+    }
+}
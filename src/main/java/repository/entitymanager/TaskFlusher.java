@@ -12,12 +12,14 @@ import repository.IFileBackedTaskRepository;
 /**
  * Periodically calls {@code flush()} on the {@link IFileBackedTaskRepository}.
  * This helps in reducing I/O operations by batching writes over time.
+ * Between flushes, {@code refresh()} is called frequently to pick up changes from other processes.
  */
 public class TaskFlusher {
 
     private final IFileBackedTaskRepository taskRepository;
     private final ScheduledExecutorService scheduler;
     private final Runnable flushTask;
+    private final Runnable refreshTask;
     private final LocalDateTime startTime;
 
     /**
@@ -31,6 +33,13 @@ public class TaskFlusher {
         this.scheduler = Executors.newSingleThreadScheduledExecutor();
         this.startTime = LocalDateTime.now();
         this.flushTask = this.createFlushTask();
+        this.refreshTask = () -> {
+            try {
+                taskRepository.refresh();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        };
     }
 
     /**
@@ -56,6 +65,7 @@ public class TaskFlusher {
      */
     public void start() {
         scheduler.scheduleAtFixedRate(flushTask, 0, 30, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(refreshTask, 2, 2, TimeUnit.SECONDS);
     }
 
     /**
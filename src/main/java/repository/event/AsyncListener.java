@@ -0,0 +1,158 @@
+package repository.event;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import entity.tasks.Task;
+
+/**
+ * Delivers events to a listener on an executor, preserving the order of events per task.
+ *
+ * <p>
+ * Events are partitioned by the hash of their task id, and each partition is a bounded queue
+ * drained by at most one executor task at a time, so events of the same task are delivered in
+ * dispatch order while different tasks proceed in parallel. A {@code BATCH} is split into one
+ * batch per partition. Events without a task id all go to the first partition.
+ * </p>
+ *
+ * <p>
+ * When a partition's queue is full, dispatch waits up to a short timeout for room and then
+ * drops the event, counting it in the listener's {@link ListenerStats}, so a stalled listener
+ * slows commands down briefly but never blocks them.
+ * </p>
+ */
+class AsyncListener implements Consumer<TaskEvent> {
+    private static final int MAX_EVENTS_PER_RUN = 256; // Yield the executor thread to other partitions
+    private static final long MAX_BLOCK_MILLIS = 50;
+
+    private final String name;
+    private final Consumer<TaskEvent> delegate;
+    private final Executor executor;
+    private final List<Partition> partitions = new ArrayList<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong maxDelayNanos = new AtomicLong();
+    private volatile boolean isClosed;
+
+    /**
+     * Constructs an asynchronous wrapper around a listener.
+     *
+     * @param name           The name reported in the listener's metrics.
+     * @param delegate       The listener receiving the events.
+     * @param executor       The executor running the deliveries.
+     * @param partitionCount The number of partitions delivered in parallel.
+     * @param queueCapacity  The capacity of each partition's queue.
+     */
+    AsyncListener(String name, Consumer<TaskEvent> delegate, Executor executor, int partitionCount,
+                  int queueCapacity) {
+        this.name = name;
+        this.delegate = delegate;
+        this.executor = executor;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new Partition(queueCapacity));
+        }
+    }
+
+    Consumer<TaskEvent> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void accept(TaskEvent event) {
+        if (isClosed) {
+            return;
+        }
+        if (event.getType() == TaskEvent.EventType.BATCH) {
+            Map<Partition, List<Task>> split = new LinkedHashMap<>();
+            for (Task task : event.getTasks()) {
+                split.computeIfAbsent(partitionOf(task.getId()), partition -> new ArrayList<>()).add(task);
+            }
+            split.forEach((partition, tasks) -> enqueue(partition,
+                    split.size() == 1 ? event : new TaskEvent(tasks)));
+        } else {
+            enqueue(partitionOf(event.getTaskId()), event);
+        }
+    }
+
+    private Partition partitionOf(UUID taskId) {
+        return partitions.get(taskId == null ? 0 : Math.floorMod(taskId.hashCode(), partitions.size()));
+    }
+
+    private void enqueue(Partition partition, TaskEvent event) {
+        try {
+            if (!partition.queue.offer(new Queued(event), MAX_BLOCK_MILLIS, TimeUnit.MILLISECONDS)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+            return;
+        }
+        partition.schedule();
+    }
+
+    /**
+     * Stops accepting events. Events already queued are still delivered.
+     */
+    void close() {
+        isClosed = true;
+    }
+
+    ListenerStats stats() {
+        int queued = partitions.stream().mapToInt(partition -> partition.queue.size()).sum();
+        return new ListenerStats(name, queued, delivered.get(), dropped.get(),
+                TimeUnit.NANOSECONDS.toMillis(maxDelayNanos.get()));
+    }
+
+    private static class Queued {
+        private final TaskEvent event;
+        private final long dispatchedAt = System.nanoTime();
+
+        private Queued(TaskEvent event) {
+            this.event = event;
+        }
+    }
+
+    private class Partition {
+        private final BlockingQueue<Queued> queue;
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+
+        private Partition(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void schedule() {
+            if (isScheduled.compareAndSet(false, true)) {
+                executor.execute(this::run);
+            }
+        }
+
+        private void run() {
+            Queued queued;
+            for (int i = 0; i < MAX_EVENTS_PER_RUN && (queued = queue.poll()) != null; i++) {
+                maxDelayNanos.accumulateAndGet(System.nanoTime() - queued.dispatchedAt, Math::max);
+                try {
+                    delegate.accept(queued.event);
+                } catch (RuntimeException e) {
+                    System.err.println("Error in task event listener " + name + ": " + e.getMessage());
+                }
+                delivered.incrementAndGet();
+            }
+            isScheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule(); // More arrived, or this run hit its limit
+            }
+        }
+    }
+}
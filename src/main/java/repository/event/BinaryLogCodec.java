@@ -0,0 +1,255 @@
+package repository.event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Encodes and decodes the binary event log.
+ *
+ * <p>The file starts with {@link #MAGIC}, followed by one record per entry:</p>
+ * <pre>
+ * int    length    bytes of the record after this field
+ * byte   type      1 = ADD, 2 = UPDATE, 3 = DELETE, 4 = COMPLETE, 5 = REOPEN, 6 = RENAME
+ * long   taskId    most significant bits, then least significant bits
+ * long   sequence
+ * byte[] fields    UTF-8 task fields after the "UUID|" prefix of the serialized task, the UTF-8 new
+ *                  name for RENAME, empty for the other types
+ * </pre>
+ * <p>
+ * Records are decoded in place from a read buffer: the UUID and sequence are read as raw longs
+ * and the task fields are only turned into a string when {@link LogEntry#getPayload} is called.
+ * A record cut short at the end of the file is left for the next read.
+ * </p>
+ */
+final class BinaryLogCodec {
+    /**
+     * The bytes every binary log starts with. The leading zero byte never starts a text log.
+     */
+    static final byte[] MAGIC = {0, 'T', 'L', 'G', 1};
+
+    private static final int UUID_PREFIX_LENGTH = 37; // "UUID|"
+    private static final int FIXED_BYTES = Byte.BYTES + 3 * Long.BYTES; // type, taskId, sequence
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+    private static final byte COMPLETE = 4;
+    private static final byte REOPEN = 5;
+    private static final byte RENAME = 6;
+
+    private BinaryLogCodec() {
+    }
+
+    /**
+     * Extracts the part of the logged task data that is stored after the UUID.
+     *
+     * @param type   The type of the logged event.
+     * @param record The task data, as passed to {@link LogEntry#format}.
+     * @return The encoded task fields or new name, empty for the other types.
+     */
+    static byte[] encodeFields(TaskEvent.EventType type, String record) {
+        if (type != TaskEvent.EventType.ADD && type != TaskEvent.EventType.UPDATE
+                && type != TaskEvent.EventType.RENAME) {
+            return new byte[0];
+        }
+        return record.substring(UUID_PREFIX_LENGTH).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the encoded size of a record.
+     *
+     * @param fields The encoded task fields.
+     * @return The number of bytes {@link #encode} writes.
+     */
+    static int encodedSize(byte[] fields) {
+        return Integer.BYTES + FIXED_BYTES + fields.length;
+    }
+
+    /**
+     * Writes a record at the position of the buffer.
+     *
+     * @param out      The buffer, with at least {@link #encodedSize} bytes remaining.
+     * @param sequence The sequence number of the entry.
+     * @param type     The type of the logged event.
+     * @param taskId   The UUID of the affected task.
+     * @param fields   The encoded task fields.
+     */
+    static void encode(ByteBuffer out, long sequence, TaskEvent.EventType type, UUID taskId, byte[] fields) {
+        out.putInt(FIXED_BYTES + fields.length)
+                .put(typeCode(type))
+                .putLong(taskId.getMostSignificantBits())
+                .putLong(taskId.getLeastSignificantBits())
+                .putLong(sequence)
+                .put(fields);
+    }
+
+    /**
+     * Checks whether the log read through the channel is a binary log.
+     *
+     * @param channel The log channel.
+     * @param buffer  A scratch buffer of at least {@code MAGIC.length} bytes.
+     * @return {@code true} if the log starts with {@link #MAGIC}.
+     * @throws IOException If the log cannot be read.
+     */
+    static boolean hasMagic(FileChannel channel, ByteBuffer buffer) throws IOException {
+        return startsWith(channel, buffer, MAGIC);
+    }
+
+    /**
+     * Checks whether the file read through the channel starts with the given bytes.
+     *
+     * @param channel The file channel.
+     * @param buffer  A scratch buffer of at least {@code magic.length} bytes.
+     * @param magic   The expected first bytes.
+     * @return {@code true} if the file starts with {@code magic}.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean startsWith(FileChannel channel, ByteBuffer buffer, byte[] magic) throws IOException {
+        buffer.clear().limit(magic.length);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // Keep reading until the magic is complete or the log ends
+        }
+        if (buffer.position() < magic.length) {
+            return false;
+        }
+        byte[] start = new byte[magic.length];
+        buffer.flip().get(start);
+        return Arrays.equals(start, magic);
+    }
+
+    /**
+     * Decodes the records from an offset to the end of the log.
+     *
+     * @param channel    The log channel.
+     * @param fromOffset The offset of the first record to read; offsets inside the magic start at
+     *                   the first record.
+     * @param buffer     A reusable read buffer; records larger than it are read separately.
+     * @param consumer   The consumer receiving each valid entry.
+     * @return The offset just past the last complete record.
+     * @throws IOException If the log cannot be read.
+     */
+    static long scan(FileChannel channel, long fromOffset, ByteBuffer buffer, Consumer<LogEntry> consumer)
+            throws IOException {
+        return scan(channel, Math.max(fromOffset, MAGIC.length), channel.size(), buffer, consumer);
+    }
+
+    /**
+     * Decodes the records between two offsets, such as the records of a {@link MappedLog}.
+     *
+     * @param channel    The log channel.
+     * @param fromOffset The offset of the first record to read.
+     * @param endOffset  The offset just past the last record to read.
+     * @param buffer     A reusable read buffer; records larger than it are read separately.
+     * @param consumer   The consumer receiving each valid entry.
+     * @return The offset just past the last complete record.
+     * @throws IOException If the log cannot be read.
+     */
+    static long scan(FileChannel channel, long fromOffset, long endOffset, ByteBuffer buffer,
+                     Consumer<LogEntry> consumer) throws IOException {
+        long position = fromOffset;
+        while (position < endOffset) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), endOffset - position));
+            readFully(channel, buffer, position);
+            buffer.flip();
+
+            int consumed = 0;
+            while (buffer.remaining() - consumed >= Integer.BYTES) {
+                int start = buffer.position() + consumed;
+                int length = buffer.getInt(start);
+                if (length < FIXED_BYTES) {
+                    System.err.println("Corrupt binary log record at offset " + (position + consumed));
+                    return position + consumed;
+                }
+                if (Integer.BYTES + length > buffer.remaining() - consumed) {
+                    break; // Continue with a fresh read, or a dedicated one if the record is larger
+                }
+                decode(buffer, start + Integer.BYTES, length, consumer);
+                consumed += Integer.BYTES + length;
+            }
+
+            if (consumed == 0) {
+                long recordEnd = readLargeRecord(channel, position, endOffset, consumer);
+                if (recordEnd < 0) {
+                    break; // The last record is still being written
+                }
+                position = recordEnd;
+            } else {
+                position += consumed;
+            }
+        }
+        return position;
+    }
+
+    private static long readLargeRecord(FileChannel channel, long position, long endOffset,
+                                        Consumer<LogEntry> consumer) throws IOException {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, lengthBuffer, position);
+        if (lengthBuffer.position() < Integer.BYTES) {
+            return -1;
+        }
+        int length = lengthBuffer.getInt(0);
+        if (length < FIXED_BYTES || position + Integer.BYTES + length > endOffset) {
+            return -1;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(channel, record, position + Integer.BYTES);
+        decode(record, 0, length, consumer);
+        return position + Integer.BYTES + length;
+    }
+
+    private static void decode(ByteBuffer buffer, int offset, int length, Consumer<LogEntry> consumer) {
+        TaskEvent.EventType type = eventType(buffer.get(offset));
+        if (type == null) {
+            return; // Unknown record types are skipped, like unparseable text lines
+        }
+        UUID taskId = new UUID(buffer.getLong(offset + 1), buffer.getLong(offset + 1 + Long.BYTES));
+        long sequence = buffer.getLong(offset + 1 + 2 * Long.BYTES);
+        byte[] fields = null;
+        if (type != TaskEvent.EventType.DELETE) {
+            fields = new byte[length - FIXED_BYTES];
+            buffer.get(offset + FIXED_BYTES, fields);
+        }
+        if (LogEntry.isFieldChange(type)) {
+            String newName = type == TaskEvent.EventType.RENAME ? new String(fields, StandardCharsets.UTF_8) : null;
+            consumer.accept(LogEntry.ofFieldChange(sequence, type, taskId, newName));
+            return;
+        }
+        consumer.accept(LogEntry.ofEncoded(sequence, type, taskId, fields));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, offset)) > 0) {
+            offset += read;
+        }
+    }
+
+    private static byte typeCode(TaskEvent.EventType type) {
+        return switch (type) {
+        case ADD -> ADD;
+        case UPDATE -> UPDATE;
+        case DELETE -> DELETE;
+        case COMPLETE -> COMPLETE;
+        case REOPEN -> REOPEN;
+        case RENAME -> RENAME;
+        default -> throw new IllegalArgumentException("Event type cannot be logged: " + type);
+        };
+    }
+
+    private static TaskEvent.EventType eventType(byte code) {
+        return switch (code) {
+        case ADD -> TaskEvent.EventType.ADD;
+        case UPDATE -> TaskEvent.EventType.UPDATE;
+        case DELETE -> TaskEvent.EventType.DELETE;
+        case COMPLETE -> TaskEvent.EventType.COMPLETE;
+        case REOPEN -> TaskEvent.EventType.REOPEN;
+        case RENAME -> TaskEvent.EventType.RENAME;
+        default -> null;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package repository.event;
+
+import java.util.List;
+import java.util.UUID;
+
+import entity.tasks.Task;
+import lombok.Getter;
+
+/**
+ * A page of the change feed: the tasks changed after a log sequence, compacted to one change per
+ * task, and the cursor to ask for the next page with.
+ *
+ * <p>
+ * A client mirrors the tasks by replacing every task in {@link #getUpserted()} and removing every
+ * task in {@link #getDeleted()}, then asking again from {@link #getCursor()}. Changed tasks are
+ * reported as they are now, which may include changes made after the cursor; those are reported
+ * again on a later page, so applying the pages in order always converges. If the history no longer
+ * reaches back to the requested sequence, the page is a {@link #isReset() reset}: the client must
+ * drop its copy and take the upserted tasks as the complete list.
+ * </p>
+ */
+@Getter
+public class ChangeFeed {
+    private final long cursor; // Last log sequence covered by this page
+    private final List<Task> upserted; // Tasks added or changed, in the order they last changed
+    private final List<UUID> deleted; // Tasks removed
+    private final boolean isReset; // Upserted holds every task, and the mirror must be replaced
+    private final boolean isCaughtUp; // No changes were logged after the cursor
+
+    /**
+     * Constructs a page of the change feed.
+     *
+     * @param cursor     The last log sequence covered by this page.
+     * @param upserted   The tasks added or changed, as they are now.
+     * @param deleted    The UUIDs of the tasks removed.
+     * @param isReset    Whether the upserted tasks replace the whole mirrored list.
+     * @param isCaughtUp Whether the cursor is the last logged sequence.
+     */
+    public ChangeFeed(long cursor, List<Task> upserted, List<UUID> deleted, boolean isReset,
+                      boolean isCaughtUp) {
+        this.cursor = cursor;
+        this.upserted = upserted;
+        this.deleted = deleted;
+        this.isReset = isReset;
+        this.isCaughtUp = isCaughtUp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s up to sequence %d: %d changed, %d deleted%s", isReset ? "Reset" : "Changes",
+                cursor, upserted.size(), deleted.size(), isCaughtUp ? "" : ", more to come");
+    }
+}
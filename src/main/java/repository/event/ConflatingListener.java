@@ -0,0 +1,104 @@
+package repository.event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import entity.tasks.Task;
+
+/**
+ * Delivers events to a listener on an executor, keeping only the latest pending event of each task.
+ *
+ * <p>
+ * An event replaces the pending event of its task and moves to the end of the queue, so events are
+ * delivered in the order of each task's latest change. The latest event wins regardless of type:
+ * an {@code ADD} followed by an {@code UPDATE} is delivered as the {@code UPDATE} alone. A
+ * {@code BATCH} is split into one single-task batch per task. Events without a task id are never
+ * conflated. Nothing is ever dropped for lack of room, since the queue holds at most one event per task.
+ * </p>
+ */
+class ConflatingListener implements Consumer<TaskEvent> {
+    private static final int MAX_EVENTS_PER_RUN = 256; // Yield the executor thread to other listeners
+
+    private final String name;
+    private final Consumer<TaskEvent> delegate;
+    private final Executor executor;
+    private final Map<Object, TaskEvent> pending = new LinkedHashMap<>(); // Keyed by task id; guarded by this
+    private boolean isScheduled; // Guarded by this
+    private volatile boolean isClosed;
+
+    /**
+     * Constructs a conflating wrapper around a listener.
+     *
+     * @param name     The name reported when the listener fails, or {@code null}.
+     * @param delegate The listener receiving the events.
+     * @param executor The executor running the deliveries.
+     */
+    ConflatingListener(String name, Consumer<TaskEvent> delegate, Executor executor) {
+        this.name = name == null ? "conflated" : name;
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public void accept(TaskEvent event) {
+        if (isClosed) {
+            return;
+        }
+        synchronized (this) {
+            if (event.getType() == TaskEvent.EventType.BATCH) {
+                for (Task task : event.getTasks()) {
+                    replacePending(task.getId(), new TaskEvent(List.of(task)));
+                }
+            } else {
+                replacePending(event.getTaskId() != null ? event.getTaskId() : new Object(), event);
+            }
+            if (isScheduled) {
+                return;
+            }
+            isScheduled = true;
+        }
+        executor.execute(this::run);
+    }
+
+    /**
+     * Stops accepting events. Events already pending are still delivered.
+     */
+    void close() {
+        isClosed = true;
+    }
+
+    private void replacePending(Object key, TaskEvent event) {
+        pending.remove(key); // Re-inserting moves the task to the end
+        pending.put(key, event);
+    }
+
+    private void run() {
+        List<TaskEvent> events = new ArrayList<>();
+        synchronized (this) {
+            Iterator<TaskEvent> iterator = pending.values().iterator();
+            while (events.size() < MAX_EVENTS_PER_RUN && iterator.hasNext()) {
+                events.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        for (TaskEvent event : events) {
+            try {
+                delegate.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Error in task event listener " + name + ": " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                isScheduled = false;
+                return;
+            }
+        }
+        executor.execute(this::run); // More arrived, or this run hit its limit
+    }
+}
@@ -0,0 +1,561 @@
+package repository.event;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import util.DataFileUtils;
+
+/**
+ * Keeps every entry written to the task event log in append-only segment files, so that the state
+ * at an earlier sequence number or point in time can be rebuilt after the log itself was compacted
+ * or cleared by a flush.
+ *
+ * <p>The history directory holds a manifest and three kinds of files named after a sequence number:</p>
+ * <pre>
+ * MANIFEST           one "sequence createdMillis" line per segment
+ * SEQUENCE.log       a segment: the entries written from SEQUENCE up to the start of the next segment,
+ *                    encoded as in the log
+ * SEQUENCE.idx       the sparse index of a segment, one "sequence offset epochMillis" line per point
+ * SEQUENCE.snapshot  a copy of the data file taken when a flush brought it up to SEQUENCE
+ * </pre>
+ * <p>
+ * An index point is written for the first batch written in each second and at least every
+ * {@value #INDEX_INTERVAL} entries, so every entry between two points was written in the same
+ * second as the earlier one. Rebuilding a state loads the nearest snapshot at or before it and
+ * replays only the entries after the snapshot, starting from the closest index point.
+ * </p>
+ * <p>
+ * Segments are rotated once they reach the size or age set by the {@link LogRetentionPolicy}, so
+ * appending never rewrites earlier data. After each flush, the oldest sealed segments exceeding the
+ * retention limits are deleted, but only once the flushed data file and a snapshot cover all of
+ * their entries; snapshots older than the remaining segments are deleted with them.
+ * </p>
+ * <p>
+ * Like the log, the history is shared by every process using the data file and is only written
+ * while the exclusive {@link repository.lock.DataFileLock} is held.
+ * </p>
+ */
+class EventHistory {
+    private static final int INDEX_INTERVAL = 256;
+    private static final String MANIFEST = "MANIFEST";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final LogRetentionPolicy policy;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+    private FileChannel segment; // Segment currently appended to
+    private Path segmentPath;
+    private LogFormat segmentFormat;
+    private long segmentCreatedMillis;
+    private FileTime directoryModified; // Directory time stamp when the segment was opened
+    private long segmentEnd = -1; // Size of the segment after our last write
+    private long indexEnd = -1; // Size of its index after our last point
+    private long lastPointMillis;
+    private long lastPointSequence;
+    private long lastSnapshotSequence = -1; // Newest snapshot known to this process, -1 if not looked up yet
+
+    /**
+     * Constructs a history kept in the given directory.
+     *
+     * @param directory The history directory, created on first use.
+     * @param policy    The rotation and retention limits.
+     */
+    EventHistory(Path directory, LogRetentionPolicy policy) {
+        this.directory = directory;
+        this.policy = policy;
+    }
+
+    /**
+     * Starts a new history if none exists yet: the data file becomes the first snapshot, and the
+     * entries already in the log become the first segment.
+     *
+     * @param dataFile The data file the log is replayed into.
+     * @param logFile  The event log.
+     * @throws IOException If the history cannot be written.
+     */
+    void start(Path dataFile, Path logFile) throws IOException {
+        if (!sequences(SNAPSHOT_SUFFIX).isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        writeSnapshot(dataFile, DataFileUtils.readWatermark(dataFile));
+
+        long[] firstSequence = {0};
+        TaskEventLogger.scanLog(logFile, 0, readBuffer, entry -> {
+            if (firstSequence[0] == 0) {
+                firstSequence[0] = entry.getSequence();
+            }
+        }, false);
+        if (firstSequence[0] > 0) {
+            Path seeded = directory.resolve(firstSequence[0] + SEGMENT_SUFFIX);
+            copyLog(logFile, seeded);
+            long now = System.currentTimeMillis();
+            Files.writeString(indexPathOf(seeded), firstSequence[0] + " 0 " + now + "\n");
+            Map<Long, Long> manifest = readManifest();
+            manifest.put(firstSequence[0], now);
+            writeManifest(manifest);
+        }
+    }
+
+    /**
+     * Copies the log into a segment. The records of a mapped log are copied into a binary segment,
+     * without the header and the unused space after them.
+     */
+    private void copyLog(Path logFile, Path segment) throws IOException {
+        try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            if (!MappedLog.hasMagic(log, readBuffer)) {
+                Files.copy(logFile, segment, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+            long end = MappedLog.readEnd(log);
+            try (FileChannel out = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(out, ByteBuffer.wrap(BinaryLogCodec.MAGIC));
+                long position = MappedLog.HEADER_SIZE;
+                long copied = 1;
+                while (position < end && copied > 0) {
+                    copied = log.transferTo(position, end - position, out);
+                    position += copied;
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a batch of encoded entries, exactly as it was written to the log.
+     *
+     * @param batch         The encoded entries; the buffer itself is not modified.
+     * @param format        The format the entries are encoded in.
+     * @param entrySequence The sequence of the first entry starting in the batch, or {@code 0} if
+     *                      the batch only continues an entry.
+     * @param entryStart    The offset of that entry within the batch.
+     * @throws IOException If the history cannot be written.
+     */
+    void append(ByteBuffer batch, LogFormat format, long entrySequence, int entryStart) throws IOException {
+        FileChannel out = segmentFor(format, entrySequence);
+        if (format == LogFormat.BINARY && out.size() == 0) {
+            writeFully(out, ByteBuffer.wrap(BinaryLogCodec.MAGIC));
+        }
+
+        long offset = out.size();
+        boolean isContinuing = offset == segmentEnd && indexSize() == indexEnd; // Nobody else wrote since
+        long now = System.currentTimeMillis();
+        if (entrySequence > 0 && (!isContinuing || now / 1000 != lastPointMillis / 1000
+                || entrySequence - lastPointSequence >= INDEX_INTERVAL)) {
+            Path indexPath = indexPathOf(segmentPath);
+            Files.writeString(indexPath, entrySequence + " " + (offset + entryStart) + " " + now + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            indexEnd = Files.size(indexPath);
+            lastPointMillis = now;
+            lastPointSequence = entrySequence;
+        }
+
+        writeFully(out, batch.duplicate());
+        segmentEnd = out.size();
+    }
+
+    /**
+     * Returns the segment to append to, moving on to the newest segment if another process
+     * started one, or starting a new one once the current one is full, too old or in another format.
+     * A batch that only continues an entry always stays in the current segment.
+     */
+    private FileChannel segmentFor(LogFormat format, long entrySequence) throws IOException {
+        long now = System.currentTimeMillis();
+        if (segment != null && segment.isOpen() && segmentFormat == format
+                && (entrySequence == 0 || !isRotationDue(now) && !isDirectoryChanged())) {
+            return segment;
+        }
+        closeSegment();
+        Files.createDirectories(directory);
+
+        List<Long> segments = sequences(SEGMENT_SUFFIX);
+        if (!segments.isEmpty()) {
+            openSegment(segments.get(segments.size() - 1), format, now);
+            if (segmentFormat == format && (entrySequence == 0 || !isRotationDue(now))) {
+                return segment;
+            }
+            closeSegment();
+        }
+        openSegment(entrySequence, format, now);
+        return segment;
+    }
+
+    private boolean isRotationDue(long now) throws IOException {
+        return segment.size() >= policy.getSegmentBytes() || now - segmentCreatedMillis >= policy.getSegmentMillis();
+    }
+
+    /**
+     * Checks whether files were added to or removed from the history since the segment was opened,
+     * e.g. because another process started a newer segment. Costs a single file attribute lookup.
+     */
+    private boolean isDirectoryChanged() throws IOException {
+        return !Files.getLastModifiedTime(directory).equals(directoryModified);
+    }
+
+    private void openSegment(long sequence, LogFormat format, long now) throws IOException {
+        Path path = directory.resolve(sequence + SEGMENT_SUFFIX);
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segmentPath = path;
+        segmentEnd = -1;
+        indexEnd = -1;
+        if (segment.size() == 0) {
+            segmentFormat = format;
+        } else {
+            try (FileChannel existing = FileChannel.open(path, StandardOpenOption.READ)) {
+                segmentFormat = BinaryLogCodec.hasMagic(existing, readBuffer) ? LogFormat.BINARY : LogFormat.TEXT;
+            }
+        }
+
+        Map<Long, Long> manifest = readManifest();
+        Long created = manifest.get(sequence);
+        if (created == null) {
+            created = segment.size() == 0 ? now : createdMillis(sequence, manifest);
+            manifest.put(sequence, created);
+            writeManifest(manifest);
+        }
+        segmentCreatedMillis = created;
+        directoryModified = Files.getLastModifiedTime(directory);
+    }
+
+    /**
+     * Closes the segment channel. The history can still be appended to afterwards.
+     */
+    void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Error closing history segment: " + e.getMessage());
+        }
+        segment = null;
+        segmentPath = null;
+    }
+
+    private long indexSize() throws IOException {
+        try {
+            return Files.size(indexPathOf(segmentPath));
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Copies the data file into the history if at least the snapshot interval of entries were
+     * logged since the last snapshot. Must be called right after a flush, while the data file
+     * reflects every logged entry.
+     *
+     * @param dataFile The data file.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    void snapshotIfDue(Path dataFile) throws IOException {
+        long watermark = DataFileUtils.readWatermark(dataFile);
+        if (lastSnapshotSequence < 0) {
+            List<Long> snapshots = sequences(SNAPSHOT_SUFFIX);
+            lastSnapshotSequence = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        }
+        if (watermark - lastSnapshotSequence >= policy.getSnapshotInterval()) {
+            writeSnapshot(dataFile, watermark);
+        }
+    }
+
+    /**
+     * Deletes the oldest sealed segments, and the snapshots only they could be replayed from, while
+     * the history exceeds the retention limits. A segment is only deleted once the data file and a
+     * snapshot both cover its last entry, so every state after it can still be rebuilt. Must be
+     * called right after a flush.
+     *
+     * @param dataFile The data file.
+     * @throws IOException If the history cannot be read or a file cannot be deleted.
+     */
+    void applyRetention(Path dataFile) throws IOException {
+        long watermark = DataFileUtils.readWatermark(dataFile);
+        List<Long> segments = sequences(SEGMENT_SUFFIX);
+        List<Long> snapshots = sequences(SNAPSHOT_SUFFIX);
+        Map<Long, Long> manifest = readManifest();
+        long now = System.currentTimeMillis();
+        long totalBytes = 0;
+        for (long sequence : segments) {
+            totalBytes += Files.size(directory.resolve(sequence + SEGMENT_SUFFIX));
+        }
+
+        long deletedThrough = -1;
+        for (int i = 0; i + 1 < segments.size(); i++) { // The newest segment is still being written
+            long lastSequence = segments.get(i + 1) - 1;
+            long sealedMillis = createdMillis(segments.get(i + 1), manifest);
+            boolean isExpired = totalBytes > policy.getRetentionBytes()
+                    || now - sealedMillis > policy.getRetentionMillis();
+            boolean isCovered = lastSequence <= watermark && snapshots.stream()
+                    .anyMatch(snapshot -> snapshot >= lastSequence && snapshot <= watermark);
+            if (!isExpired || !isCovered) {
+                break;
+            }
+            Path segmentFile = directory.resolve(segments.get(i) + SEGMENT_SUFFIX);
+            long size = Files.size(segmentFile);
+            Files.delete(segmentFile);
+            Files.deleteIfExists(indexPathOf(segmentFile));
+            manifest.remove(segments.get(i));
+            totalBytes -= size;
+            deletedThrough = lastSequence;
+        }
+        if (deletedThrough < 0) {
+            return;
+        }
+        for (long snapshot : snapshots) {
+            if (snapshot < deletedThrough) {
+                Files.deleteIfExists(directory.resolve(snapshot + SNAPSHOT_SUFFIX));
+            }
+        }
+        writeManifest(manifest);
+    }
+
+    private void writeSnapshot(Path dataFile, long watermark) throws IOException {
+        Path snapshot = directory.resolve(watermark + SNAPSHOT_SUFFIX);
+        Path tempSnapshot = directory.resolve(watermark + SNAPSHOT_SUFFIX + ".tmp");
+        if (Files.exists(dataFile)) {
+            Files.copy(dataFile, tempSnapshot, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.writeString(tempSnapshot, DataFileUtils.watermarkHeader(watermark) + "\n[\n]\n");
+        }
+        Files.move(tempSnapshot, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        lastSnapshotSequence = watermark;
+    }
+
+    /**
+     * Rebuilds the serialized tasks as they were right after the given sequence.
+     *
+     * @param sequence The sequence of the last entry to include.
+     * @return The serialized tasks in data file order, or empty if the history does not reach
+     *     back that far.
+     * @throws IOException If the history cannot be read.
+     */
+    Optional<List<String>> recordsAt(long sequence) throws IOException {
+        long snapshotSequence = -1;
+        for (long snapshot : sequences(SNAPSHOT_SUFFIX)) {
+            if (snapshot <= sequence) {
+                snapshotSequence = snapshot;
+            }
+        }
+        if (snapshotSequence < 0) {
+            return Optional.empty();
+        }
+
+        Map<UUID, String> records = new LinkedHashMap<>();
+        DataFileUtils.streamRecords(directory.resolve(snapshotSequence + SNAPSHOT_SUFFIX),
+                record -> records.put(DataFileUtils.recordId(record), record));
+
+        // Replay the entries after the snapshot, from the segment holding the first of them
+        List<Long> segments = sequences(SEGMENT_SUFFIX);
+        int first = 0;
+        for (int i = 0; i < segments.size() && segments.get(i) <= snapshotSequence + 1; i++) {
+            first = i;
+        }
+        long fromSequence = snapshotSequence;
+        for (int i = first; i < segments.size() && segments.get(i) <= sequence; i++) {
+            Path segmentFile = directory.resolve(segments.get(i) + SEGMENT_SUFFIX);
+            long offset = i == first ? indexedOffset(segmentFile, fromSequence + 1) : 0;
+            TaskEventLogger.scanLog(segmentFile, offset, readBuffer, entry -> {
+                if (entry.getSequence() <= sequence) {
+                    TaskEventLogger.applyEntry(records, entry, fromSequence);
+                }
+            }, false);
+        }
+        return Optional.of(new ArrayList<>(records.values()));
+    }
+
+    /**
+     * Delivers the entries written after the given sequence, in log order, starting from the closest
+     * index point, until the consumer declines one. The rest of the segment holding that entry is
+     * still read, but no later segment.
+     *
+     * @param sequence The sequence of the last entry to skip.
+     * @param consumer Receives each entry, and returns {@code false} to stop the delivery.
+     * @return {@code true} if the history holds every entry after the sequence, {@code false} if it
+     *     does not reach back that far, in which case nothing was delivered.
+     * @throws IOException If the history cannot be read.
+     */
+    boolean forEachEntryAfter(long sequence, Predicate<LogEntry> consumer) throws IOException {
+        List<Long> snapshots = sequences(SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty() || snapshots.get(0) > sequence) {
+            return false; // Entries before the oldest snapshot were deleted, or never recorded
+        }
+
+        List<Long> segments = sequences(SEGMENT_SUFFIX);
+        int first = 0;
+        for (int i = 0; i < segments.size() && segments.get(i) <= sequence + 1; i++) {
+            first = i;
+        }
+        boolean[] isStopped = {false};
+        for (int i = first; i < segments.size() && !isStopped[0]; i++) {
+            Path segmentFile = directory.resolve(segments.get(i) + SEGMENT_SUFFIX);
+            long offset = i == first ? indexedOffset(segmentFile, sequence + 1) : 0;
+            TaskEventLogger.scanLog(segmentFile, offset, readBuffer, entry -> {
+                if (!isStopped[0] && entry.getSequence() > sequence && !consumer.test(entry)) {
+                    isStopped[0] = true;
+                }
+            }, false);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset of the last index point at or before the given sequence.
+     */
+    private long indexedOffset(Path segmentFile, long sequence) throws IOException {
+        long offset = 0;
+        for (long[] point : readIndex(segmentFile)) {
+            if (point[0] > sequence) {
+                break;
+            }
+            offset = point[1];
+        }
+        return offset;
+    }
+
+    /**
+     * Finds the last sequence written at or before a point in time.
+     *
+     * @param epochMillis  The point in time.
+     * @param lastSequence The sequence of the most recently written entry.
+     * @return The sequence, or empty if the time lies before the history.
+     * @throws IOException If the history cannot be read.
+     */
+    OptionalLong sequenceAt(long epochMillis, long lastSequence) throws IOException {
+        List<Long> segments = sequences(SEGMENT_SUFFIX);
+        long nextSequence = -1; // First entry written after the time
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            List<long[]> points = readIndex(directory.resolve(segments.get(i) + SEGMENT_SUFFIX));
+            for (int j = points.size() - 1; j >= 0; j--) {
+                if (points.get(j)[2] <= epochMillis) {
+                    return OptionalLong.of(nextSequence < 0 ? lastSequence : nextSequence - 1);
+                }
+                nextSequence = points.get(j)[0];
+            }
+        }
+
+        // Before the first indexed entry, the newest snapshot taken by then still applies
+        List<Long> snapshots = sequences(SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path snapshot = directory.resolve(snapshots.get(i) + SNAPSHOT_SUFFIX);
+            if (Files.getLastModifiedTime(snapshot).toMillis() <= epochMillis) {
+                return OptionalLong.of(snapshots.get(i));
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Returns when a segment was started: from the manifest, or for segments missing from it, from
+     * its first index point or else its modification time.
+     */
+    private long createdMillis(long sequence, Map<Long, Long> manifest) throws IOException {
+        Long created = manifest.get(sequence);
+        if (created != null) {
+            return created;
+        }
+        Path segmentFile = directory.resolve(sequence + SEGMENT_SUFFIX);
+        List<long[]> points = readIndex(segmentFile);
+        return points.isEmpty() ? Files.getLastModifiedTime(segmentFile).toMillis() : points.get(0)[2];
+    }
+
+    private Map<Long, Long> readManifest() throws IOException {
+        Map<Long, Long> manifest = new TreeMap<>();
+        Path manifestPath = directory.resolve(MANIFEST);
+        if (!Files.exists(manifestPath)) {
+            return manifest;
+        }
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split(" ");
+            try {
+                manifest.put(Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // Not a segment line; the creation time falls back to the segment itself
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Replaces the manifest in one move, so readers never see it half written.
+     */
+    private void writeManifest(Map<Long, Long> manifest) throws IOException {
+        StringBuilder content = new StringBuilder("# segment createdMillis\n");
+        manifest.forEach((sequence, created) -> content.append(sequence).append(' ').append(created).append('\n'));
+        Path tempManifest = directory.resolve(MANIFEST + ".tmp");
+        Files.writeString(tempManifest, content);
+        Files.move(tempManifest, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private List<long[]> readIndex(Path segmentFile) throws IOException {
+        Path indexPath = indexPathOf(segmentFile);
+        List<long[]> points = new ArrayList<>();
+        if (!Files.exists(indexPath)) {
+            return points;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split(" ");
+                try {
+                    points.add(new long[] {Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2])});
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    // A point cut short by a crash; the next one is intact
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Lists the sequence numbers naming the history files with the given suffix, in ascending order.
+     */
+    private List<Long> sequences(String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .map(name -> name.substring(0, name.length() - suffix.length()))
+                    .filter(name -> !name.isEmpty() && name.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path indexPathOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return segmentFile.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package repository.event;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free queue of preallocated slots in the style of the LMAX Disruptor, for many
+ * producers and a single consumer.
+ *
+ * <p>
+ * Producers claim the next sequence with a compare-and-set, fill the slot it maps to in place and
+ * then publish it by recording the sequence's lap in an availability array. The consumer hands
+ * every consecutively published slot to a handler and then releases them for reuse. Slots are
+ * created once up front, so publishing allocates nothing.
+ * </p>
+ *
+ * <p>
+ * {@link #drain} must not be called concurrently; callers sharing the consumer role serialize it.
+ * </p>
+ *
+ * @param <S> The type of the slots.
+ */
+public class EventRingBuffer<S> {
+    private final Object[] slots;
+    private final int mask;
+    private final int shift;
+    private final AtomicIntegerArray publishedLaps; // Lap of the sequence last published to each slot
+    private final AtomicLong claimed = new AtomicLong(-1); // Highest sequence claimed by a producer
+    private final WaitStrategy waitStrategy;
+    private final Object signal = new Object();
+    private volatile long consumed = -1; // Highest sequence handed to the consumer and released
+
+    /**
+     * Constructs a ring buffer and preallocates its slots.
+     *
+     * @param capacity     The number of slots, a power of two.
+     * @param slotFactory  Creates each slot.
+     * @param waitStrategy How {@link #awaitPublished} waits for producers.
+     * @throws IllegalArgumentException If the capacity is not a power of two.
+     */
+    public EventRingBuffer(int capacity, Supplier<S> slotFactory, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfTrailingZeros(capacity);
+        this.publishedLaps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedLaps.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Claims the next slot, fills it and publishes it, unless the ring is full.
+     *
+     * @param translator Fills the claimed slot; it must not throw, as the slot is published regardless.
+     * @return {@code true} if the slot was published, {@code false} if the ring was full.
+     */
+    public boolean tryPublish(Consumer<S> translator) {
+        long current;
+        long next;
+        do {
+            current = claimed.get();
+            next = current + 1;
+            if (next - slots.length > consumed) {
+                return false; // The consumer has not released the slot yet
+            }
+        } while (!claimed.compareAndSet(current, next));
+
+        int index = (int) (next & mask);
+        try {
+            translator.accept(slot(index));
+        } finally {
+            publishedLaps.set(index, (int) (next >>> shift));
+            waitStrategy.signal(signal);
+        }
+        return true;
+    }
+
+    /**
+     * Hands every slot published in sequence since the previous drain to the handler, then
+     * releases them to producers. Stops at the first slot still being filled.
+     *
+     * @param handler Receives each published slot, in sequence order.
+     * @return The number of slots handled.
+     */
+    public int drain(Consumer<S> handler) {
+        long first = consumed + 1;
+        long next = first;
+        try {
+            while (isPublished(next)) {
+                handler.accept(slot((int) (next & mask)));
+                next++;
+            }
+        } finally {
+            consumed = next - 1;
+        }
+        return (int) (next - first);
+    }
+
+    /**
+     * Waits with the configured {@link WaitStrategy} until the next slot is published.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public void awaitPublished() throws InterruptedException {
+        waitStrategy.await(() -> isPublished(consumed + 1), signal);
+    }
+
+    /**
+     * Returns whether every claimed slot has been drained.
+     *
+     * @return {@code true} if nothing is queued.
+     */
+    public boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+
+    private boolean isPublished(long sequence) {
+        return publishedLaps.get((int) (sequence & mask)) == (int) (sequence >>> shift);
+    }
+
+    @SuppressWarnings("unchecked")
+    private S slot(int index) {
+        return (S) slots[index];
+    }
+}
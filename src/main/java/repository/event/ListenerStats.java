@@ -0,0 +1,38 @@
+package repository.event;
+
+import lombok.Getter;
+
+/**
+ * A snapshot of how far an asynchronous {@link TaskEventObject} listener lags behind dispatch.
+ */
+@Getter
+public class ListenerStats {
+    private final String name;
+    private final int queued; // Events dispatched but not yet delivered
+    private final long delivered;
+    private final long dropped; // Events discarded because the listener's queue stayed full
+    private final long maxDelayMillis; // Longest time an event waited between dispatch and delivery
+
+    /**
+     * Constructs a snapshot of listener metrics.
+     *
+     * @param name           The name the listener was registered under.
+     * @param queued         The number of events waiting for delivery.
+     * @param delivered      The number of events delivered so far.
+     * @param dropped        The number of events dropped under backpressure.
+     * @param maxDelayMillis The longest delivery delay observed, in milliseconds.
+     */
+    public ListenerStats(String name, int queued, long delivered, long dropped, long maxDelayMillis) {
+        this.name = name;
+        this.queued = queued;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d queued, %d delivered, %d dropped, max delay %d ms",
+                name, queued, delivered, dropped, maxDelayMillis);
+    }
+}
@@ -0,0 +1,282 @@
+package repository.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import entity.tasks.Task;
+import lombok.AccessLevel;
+import lombok.Getter;
+import util.TaskDeserializer;
+
+/**
+ * A single parsed entry of the task event log.
+ * <p>
+ * Entries are written as {@code SEQUENCE EVENT_TYPE task_data}. Lines written before sequence
+ * numbers were introduced ({@code EVENT_TYPE task_data}) parse with a sequence of {@code 0}
+ * and are treated as never having been applied. Entries of the binary log are decoded by
+ * {@link BinaryLogCodec}.
+ * </p>
+ * <p>
+ * The serialized task is kept as-is so that callers which only need to hash or copy
+ * the entry never pay for deserialization.
+ * </p>
+ * <p>
+ * An update that changed a single field of a task is logged as a field change instead of the whole
+ * task: {@code COMPLETE <uuid>}, {@code REOPEN <uuid>} or {@code RENAME <uuid> <name>}. Field changes
+ * carry the new value rather than a toggle, so applying one twice is harmless, and
+ * {@link #applyTo} applies one to the serialized task in place.
+ * </p>
+ */
+@Getter
+public class LogEntry {
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * The monotonically increasing sequence number of the entry, or {@code 0} if unsequenced.
+     */
+    private final long sequence;
+    private final TaskEvent.EventType type;
+    private final UUID taskId;
+    /**
+     * The serialized task for {@code ADD} and {@code UPDATE} entries, {@code null} otherwise.
+     * Entries read from the binary log build it on first access.
+     */
+    private String payload;
+    @Getter(AccessLevel.NONE)
+    private final byte[] encodedFields; // UTF-8 of the payload after its "UUID|" prefix, until decoded
+    /**
+     * The new name carried by a {@code RENAME} entry, escaped as in records (see
+     * {@link util.TaskSerializer#escapeName}), {@code null} otherwise.
+     */
+    private final String newName;
+
+    /**
+     * Constructs a log entry.
+     *
+     * @param sequence The sequence number of the entry, or {@code 0} if unsequenced.
+     * @param type     The type of the logged event.
+     * @param taskId   The UUID of the affected task.
+     * @param payload  The serialized task, or {@code null} for deletions.
+     */
+    public LogEntry(long sequence, TaskEvent.EventType type, UUID taskId, String payload) {
+        this(sequence, type, taskId, payload, null, null);
+    }
+
+    private LogEntry(long sequence, TaskEvent.EventType type, UUID taskId, String payload, byte[] encodedFields,
+                     String newName) {
+        this.sequence = sequence;
+        this.type = type;
+        this.taskId = taskId;
+        this.payload = payload;
+        this.encodedFields = encodedFields;
+        this.newName = newName;
+    }
+
+    /**
+     * Constructs a field change entry.
+     *
+     * @param sequence The sequence number of the entry.
+     * @param type     {@code COMPLETE}, {@code REOPEN} or {@code RENAME}.
+     * @param taskId   The UUID of the changed task.
+     * @param newName  The new name for {@code RENAME} entries, {@code null} otherwise.
+     * @return The entry.
+     */
+    public static LogEntry ofFieldChange(long sequence, TaskEvent.EventType type, UUID taskId, String newName) {
+        return new LogEntry(sequence, type, taskId, null, null, newName);
+    }
+
+    /**
+     * Constructs an entry from the task data logged after its event type.
+     *
+     * @param sequence The sequence number of the entry.
+     * @param type     The type of the logged event.
+     * @param taskId   The UUID of the affected task.
+     * @param data     The task data, as passed to {@link #format}.
+     * @return The entry.
+     */
+    static LogEntry ofData(long sequence, TaskEvent.EventType type, UUID taskId, String data) {
+        return switch (type) {
+        case ADD, UPDATE -> new LogEntry(sequence, type, taskId, data);
+        case COMPLETE, REOPEN -> ofFieldChange(sequence, type, taskId, null);
+        case RENAME -> ofFieldChange(sequence, type, taskId, data.substring(UUID_LENGTH + 1));
+        default -> new LogEntry(sequence, type, taskId, null);
+        };
+    }
+
+    /**
+     * Constructs an entry read from the binary log, whose payload is only decoded when needed.
+     *
+     * @param sequence      The sequence number of the entry.
+     * @param type          The type of the logged event.
+     * @param taskId        The UUID of the affected task.
+     * @param encodedFields The UTF-8 task fields following the UUID, or {@code null} for deletions.
+     * @return The entry.
+     */
+    static LogEntry ofEncoded(long sequence, TaskEvent.EventType type, UUID taskId, byte[] encodedFields) {
+        return new LogEntry(sequence, type, taskId, null, encodedFields, null);
+    }
+
+    /**
+     * Returns the serialized task carried by this entry.
+     *
+     * @return The serialized task, or {@code null} for deletions.
+     */
+    public String getPayload() {
+        if (payload == null && encodedFields != null) {
+            payload = taskId + "|" + new String(encodedFields, StandardCharsets.UTF_8);
+        }
+        return payload;
+    }
+
+    /**
+     * Checks whether this entry records a single changed field rather than a whole task.
+     *
+     * @return {@code true} for {@code COMPLETE}, {@code REOPEN} and {@code RENAME} entries.
+     */
+    public boolean isFieldChange() {
+        return isFieldChange(type);
+    }
+
+    /**
+     * Checks whether entries of a type record a single changed field rather than a whole task.
+     *
+     * @param type The type of a logged event.
+     * @return {@code true} for {@code COMPLETE}, {@code REOPEN} and {@code RENAME}.
+     */
+    public static boolean isFieldChange(TaskEvent.EventType type) {
+        return type == TaskEvent.EventType.COMPLETE || type == TaskEvent.EventType.REOPEN
+                || type == TaskEvent.EventType.RENAME;
+    }
+
+    /**
+     * Returns the task data logged after the event type, as passed to {@link #format}.
+     *
+     * @return The serialized task, the new name after the UUID for {@code RENAME}, or the UUID alone.
+     */
+    public String getData() {
+        return switch (type) {
+        case ADD, UPDATE -> getPayload();
+        case RENAME -> taskId + " " + newName;
+        default -> taskId.toString();
+        };
+    }
+
+    /**
+     * Applies this field change to a serialized task, see {@link util.TaskSerializer}.
+     *
+     * @param record The serialized task before the change.
+     * @return The serialized task after the change, or {@code record} itself if this entry is not a
+     *     field change or the record is malformed.
+     */
+    public String applyTo(String record) {
+        int typeEnd = record.indexOf('|', record.indexOf('|') + 1);
+        int completedEnd = typeEnd < 0 ? -1 : record.indexOf('|', typeEnd + 1);
+        if (completedEnd < 0) {
+            return record;
+        }
+        return switch (type) {
+        case COMPLETE -> record.substring(0, typeEnd + 1) + "1" + record.substring(completedEnd);
+        case REOPEN -> record.substring(0, typeEnd + 1) + "0" + record.substring(completedEnd);
+        case RENAME -> {
+            int nameEnd = record.indexOf('|', completedEnd + 1);
+            yield record.substring(0, completedEnd + 1) + newName + (nameEnd < 0 ? "" : record.substring(nameEnd));
+        }
+        default -> record;
+        };
+    }
+
+    /**
+     * Turns this field change into the equivalent {@code UPDATE} of the whole task.
+     *
+     * @param record The serialized task before the change.
+     * @return An {@code UPDATE} entry with the same sequence, carrying the changed task.
+     */
+    public LogEntry resolve(String record) {
+        return new LogEntry(sequence, TaskEvent.EventType.UPDATE, taskId, applyTo(record));
+    }
+
+    /**
+     * Deserializes the task carried by this entry.
+     *
+     * @return The task, or {@code null} if the entry carries no task.
+     */
+    public Task toTask() {
+        String record = getPayload();
+        return record == null ? null : TaskDeserializer.deserializeTask(record);
+    }
+
+    /**
+     * Checks whether this entry is already reflected in a data file with the given watermark.
+     *
+     * @param watermark The last sequence number applied to the data file.
+     * @return {@code true} if the entry must be skipped during replay.
+     */
+    public boolean isCoveredBy(long watermark) {
+        return sequence > 0 && sequence <= watermark;
+    }
+
+    /**
+     * Formats a log line for an event.
+     *
+     * @param sequence The sequence number assigned to the event.
+     * @param type     The type of the event.
+     * @param data     The serialized task, the task UUID for deletions, completions and reopenings,
+     *                 or the task UUID and the new name, separated by a space, for renames.
+     * @return The log line, without a trailing newline.
+     */
+    public static String format(long sequence, TaskEvent.EventType type, String data) {
+        return sequence + " " + type + " " + data;
+    }
+
+    /**
+     * Parses a log line of the form {@code SEQUENCE EVENT_TYPE task_data},
+     * or the legacy form {@code EVENT_TYPE task_data}.
+     *
+     * @param logLine The raw log line.
+     * @return The parsed entry, or {@code null} if the line is not a valid log entry.
+     */
+    public static LogEntry parse(String logLine) {
+        String line = logLine.trim();
+        long sequence = 0;
+        int firstSpace = line.indexOf(' ');
+        if (firstSpace > 0 && Character.isDigit(line.charAt(0))) {
+            try {
+                sequence = Long.parseLong(line.substring(0, firstSpace));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            line = line.substring(firstSpace + 1);
+        }
+
+        String[] parts = line.split(" ", 2);
+        if (parts.length < 2) {
+            return null;
+        }
+
+        try {
+            TaskEvent.EventType eventType = TaskEvent.EventType.valueOf(parts[0]);
+            return switch (eventType) {
+            case ADD, UPDATE -> {
+                int separator = parts[1].indexOf('|');
+                if (separator < 0) {
+                    yield null;
+                }
+                yield new LogEntry(sequence, eventType, UUID.fromString(parts[1].substring(0, separator)),
+                        parts[1]);
+            }
+            case DELETE -> new LogEntry(sequence, eventType, UUID.fromString(parts[1]), null);
+            case COMPLETE, REOPEN -> ofFieldChange(sequence, eventType, UUID.fromString(parts[1]), null);
+            case RENAME -> {
+                if (parts[1].length() <= UUID_LENGTH || parts[1].charAt(UUID_LENGTH) != ' ') {
+                    yield null;
+                }
+                yield ofFieldChange(sequence, eventType, UUID.fromString(parts[1].substring(0, UUID_LENGTH)),
+                        parts[1].substring(UUID_LENGTH + 1));
+            }
+            default -> null;
+            };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
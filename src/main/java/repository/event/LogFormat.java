@@ -0,0 +1,56 @@
+package repository.event;
+
+import java.util.Locale;
+
+/**
+ * The on-disk formats of the task event log.
+ * <p>
+ * New logs are written in the format chosen with the {@code spring.log.format} system property,
+ * {@link #TEXT} by default. An existing log keeps the format it was started in until it is
+ * cleared, so processes configured differently can still share it.
+ * </p>
+ */
+public enum LogFormat {
+    /**
+     * One {@code SEQUENCE EVENT_TYPE task_data} line per entry, see {@link LogEntry}.
+     */
+    TEXT,
+    /**
+     * Length-prefixed binary records, see {@link BinaryLogCodec}.
+     */
+    BINARY,
+    /**
+     * Binary records copied into a pre-sized memory-mapped file, see {@link MappedLog}.
+     */
+    MAPPED;
+
+    /**
+     * Looks up a format by its case-insensitive name.
+     *
+     * @param name The format name.
+     * @return The matching format.
+     * @throws IllegalArgumentException If no format has that name.
+     */
+    public static LogFormat fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown log format: " + name);
+        }
+    }
+
+    /**
+     * Resolves the format from the {@code spring.log.format} system property. {@link #MAPPED} falls
+     * back to {@link #BINARY} where files cannot be mapped, see {@link MappedLog}.
+     *
+     * @return The selected format.
+     */
+    public static LogFormat fromSystemProperties() {
+        LogFormat format = fromName(System.getProperty("spring.log.format", TEXT.name()));
+        if (format == MAPPED && !MappedLog.IS_MAPPING_SUPPORTED) {
+            System.err.println("Memory-mapped logs are not supported on this system, using the binary format.");
+            return BINARY;
+        }
+        return format;
+    }
+}
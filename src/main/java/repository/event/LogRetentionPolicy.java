@@ -0,0 +1,87 @@
+package repository.event;
+
+import lombok.Getter;
+
+/**
+ * Rotation and retention limits applied to the segments of an {@link EventHistory}.
+ * <p>
+ * Values can be overridden at startup through system properties:
+ * <ul>
+ *     <li>{@code spring.log.segmentBytes} - size at which a new segment is started (default 1 MiB).</li>
+ *     <li>{@code spring.log.segmentMillis} - age at which a new segment is started (default 1 day).</li>
+ *     <li>{@code spring.log.snapshotInterval} - entries between data file snapshots (default 1000).</li>
+ *     <li>{@code spring.log.retentionBytes} - total segment size kept before old segments are
+ *     deleted (default 64 MiB).</li>
+ *     <li>{@code spring.log.retentionMillis} - age after which segments are deleted (default 30 days).</li>
+ * </ul>
+ * </p>
+ */
+@Getter
+public class LogRetentionPolicy {
+    public static final long DEFAULT_SEGMENT_BYTES = 1024L * 1024;
+    public static final long DEFAULT_SEGMENT_MILLIS = 24L * 60 * 60 * 1000;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    public static final long DEFAULT_RETENTION_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_RETENTION_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    /**
+     * Size after which the next entry starts a new segment.
+     */
+    private final long segmentBytes;
+
+    /**
+     * Age after which the next entry starts a new segment.
+     */
+    private final long segmentMillis;
+
+    /**
+     * Number of entries logged between two snapshots of the data file.
+     */
+    private final long snapshotInterval;
+
+    /**
+     * Total size of the segments above which the oldest ones are deleted.
+     */
+    private final long retentionBytes;
+
+    /**
+     * Time since a segment was sealed after which it is deleted.
+     */
+    private final long retentionMillis;
+
+    /**
+     * Constructs a retention policy. A segment exceeding either retention limit is only deleted
+     * once a checkpoint and a snapshot cover all of its entries.
+     *
+     * @param segmentBytes     The size at which segments are rotated, at least 1.
+     * @param segmentMillis    The age at which segments are rotated, at least 1.
+     * @param snapshotInterval The number of entries between snapshots, at least 1.
+     * @param retentionBytes   The total segment size retained.
+     * @param retentionMillis  How long sealed segments are retained.
+     */
+    public LogRetentionPolicy(long segmentBytes, long segmentMillis, long snapshotInterval, long retentionBytes,
+                              long retentionMillis) {
+        if (segmentBytes < 1 || segmentMillis < 1 || snapshotInterval < 1) {
+            throw new IllegalArgumentException("Segment size, segment age and snapshot interval must be positive");
+        }
+        this.segmentBytes = segmentBytes;
+        this.segmentMillis = segmentMillis;
+        this.snapshotInterval = snapshotInterval;
+        this.retentionBytes = Math.max(0, retentionBytes);
+        this.retentionMillis = Math.max(0, retentionMillis);
+    }
+
+    /**
+     * Builds a policy from system properties, falling back to defaults.
+     *
+     * @return The configured {@code LogRetentionPolicy}.
+     */
+    public static LogRetentionPolicy fromSystemProperties() {
+        return new LogRetentionPolicy(
+                Long.getLong("spring.log.segmentBytes", DEFAULT_SEGMENT_BYTES),
+                Long.getLong("spring.log.segmentMillis", DEFAULT_SEGMENT_MILLIS),
+                Long.getLong("spring.log.snapshotInterval", DEFAULT_SNAPSHOT_INTERVAL),
+                Long.getLong("spring.log.retentionBytes", DEFAULT_RETENTION_BYTES),
+                Long.getLong("spring.log.retentionMillis", DEFAULT_RETENTION_MILLIS));
+    }
+}
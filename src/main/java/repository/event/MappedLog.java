@@ -0,0 +1,214 @@
+package repository.event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends binary log records into a memory-mapped, pre-sized log file.
+ *
+ * <p>The file starts with a fixed header, followed by {@link BinaryLogCodec} records and unused,
+ * zeroed space:</p>
+ * <pre>
+ * byte[8] magic     {@link #MAGIC}, padded with zeros
+ * long    end       offset just past the last complete record
+ * </pre>
+ * <p>
+ * The file grows in whole chunks, and the mapping is remapped when it does. Appending copies the
+ * records into the mapping, forces just their pages to the file, and only then advances {@code end},
+ * so appends make a single system call and no copy through a write buffer. Since the header page
+ * may be written back at any time after {@code end} is advanced, forcing the records first keeps
+ * it from ever claiming records that are not on disk: readers, including a process restarted after
+ * a system crash, only ever see complete records. A crash before the header page is written back
+ * loses the records it did not claim yet.
+ * </p>
+ * <p>
+ * Other processes append to the same file through their own mapping while holding the exclusive
+ * lock, and they see each other's records because the mappings are shared.
+ * </p>
+ * <p>
+ * Clearing and compacting the log delete or replace the file, which Windows refuses while it is still
+ * mapped, and a mapping is only released once it is garbage collected. On Windows the file is therefore
+ * never mapped: records are written through the channel, in the same order, and new logs are started
+ * in the binary format instead, see {@link LogFormat#fromSystemProperties}.
+ * </p>
+ */
+final class MappedLog implements AutoCloseable {
+    /**
+     * The bytes every mapped log starts with. Differs from {@link BinaryLogCodec#MAGIC} in its version.
+     */
+    static final byte[] MAGIC = {0, 'T', 'L', 'G', 2};
+
+    /**
+     * The size of the header; the first record starts here.
+     */
+    static final int HEADER_SIZE = 2 * Long.BYTES;
+
+    /**
+     * The default size the file grows by.
+     */
+    static final long DEFAULT_CHUNK_BYTES = 1024 * 1024;
+
+    /**
+     * Whether log files may be mapped. Not on Windows, where a mapped file cannot be deleted or replaced.
+     */
+    static final boolean IS_MAPPING_SUPPORTED = !System.getProperty("os.name", "").startsWith("Windows");
+
+    private static final int END_OFFSET = Long.BYTES; // Position of the end field in the header
+
+    private final FileChannel channel;
+    private final long chunkBytes;
+    private MappedByteBuffer mapping; // Null if the file is written through the channel instead
+
+    private MappedLog(FileChannel channel, long chunkBytes) throws IOException {
+        this.channel = channel;
+        this.chunkBytes = chunkBytes;
+        this.mapping = IS_MAPPING_SUPPORTED ? channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()) : null;
+    }
+
+    /**
+     * Opens a mapped log, creating it with one empty chunk if it does not exist or is empty.
+     *
+     * @param path       The log file.
+     * @param chunkBytes The size the file grows by, at least {@link #HEADER_SIZE}.
+     * @return The opened log.
+     * @throws IOException If the file cannot be opened, or is not a mapped log.
+     */
+    static MappedLog open(Path path, long chunkBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(header(HEADER_SIZE), 0);
+                channel.write(ByteBuffer.wrap(new byte[1]), Math.max(chunkBytes, HEADER_SIZE) - 1);
+            } else if (!hasMagic(channel, ByteBuffer.allocate(MAGIC.length))) {
+                throw new IOException("Not a mapped log: " + path);
+            }
+            return new MappedLog(channel, Math.max(chunkBytes, HEADER_SIZE));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the end of a mapped log written sequentially, header first, to the size of the file.
+     * The records are forced to the file before the header claims them.
+     *
+     * @param path The log file.
+     * @throws IOException If the header cannot be written.
+     */
+    static void seal(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(false);
+            channel.write(header(channel.size()), 0);
+        }
+    }
+
+    /**
+     * Encodes the header of a mapped log.
+     *
+     * @param end The offset just past the last complete record.
+     * @return The header, ready to be written.
+     */
+    static ByteBuffer header(long end) {
+        return ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putLong(END_OFFSET, end).clear();
+    }
+
+    /**
+     * Checks whether the log read through the channel is a mapped log.
+     *
+     * @param channel The log channel.
+     * @param buffer  A scratch buffer of at least {@code MAGIC.length} bytes.
+     * @return {@code true} if the log starts with {@link #MAGIC}.
+     * @throws IOException If the log cannot be read.
+     */
+    static boolean hasMagic(FileChannel channel, ByteBuffer buffer) throws IOException {
+        return BinaryLogCodec.startsWith(channel, buffer, MAGIC);
+    }
+
+    /**
+     * Reads the end of the records from the header of a mapped log.
+     *
+     * @param channel The log channel.
+     * @return The offset just past the last complete record.
+     * @throws IOException If the header cannot be read.
+     */
+    static long readEnd(FileChannel channel) throws IOException {
+        ByteBuffer end = ByteBuffer.allocate(Long.BYTES);
+        while (end.hasRemaining() && channel.read(end, END_OFFSET + end.position()) > 0) {
+            // Keep reading until the field is complete
+        }
+        if (end.hasRemaining()) {
+            return HEADER_SIZE; // A header cut short holds no records
+        }
+        return Math.max(HEADER_SIZE, Math.min(end.getLong(0), channel.size()));
+    }
+
+    /**
+     * Returns the end of the records, including those appended by other processes.
+     *
+     * @return The offset just past the last complete record.
+     * @throws IOException If the header cannot be read.
+     */
+    long end() throws IOException {
+        return mapping == null ? readEnd(channel) : mapping.getLong(END_OFFSET);
+    }
+
+    /**
+     * Copies encoded records to the end of the log, forces them to the file and then advances the
+     * end past them, growing the file by as many chunks as they need.
+     *
+     * @param records The encoded records, from position to limit.
+     * @throws IOException If the file cannot grow.
+     */
+    void append(ByteBuffer records) throws IOException {
+        long end = end();
+        int length = records.remaining();
+        long newEnd = end + length;
+        if (mapping == null) {
+            while (records.hasRemaining()) {
+                channel.write(records, end + length - records.remaining());
+            }
+            channel.force(false);
+            channel.write(header(newEnd), 0);
+            return;
+        }
+        if (newEnd > mapping.capacity()) {
+            grow(newEnd);
+        }
+        mapping.put(Math.toIntExact(end), records, records.position(), length);
+        records.position(records.limit());
+        mapping.force(Math.toIntExact(end), length); // On disk before the header can claim them
+        mapping.putLong(END_OFFSET, newEnd);
+    }
+
+    private void grow(long minimumSize) throws IOException {
+        long size = Math.max(channel.size(), (minimumSize + chunkBytes - 1) / chunkBytes * chunkBytes);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Mapped log is full, replay it into the data file first");
+        }
+        if (size > channel.size()) {
+            channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        }
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Writes the mapped pages back to the file and closes it. The mapping itself is released once
+     * it is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (mapping != null) {
+                mapping.force();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
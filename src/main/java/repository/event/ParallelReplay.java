@@ -0,0 +1,366 @@
+package repository.event;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Applies log entries to the serialized tasks of a data file on several threads.
+ *
+ * <p>
+ * Records and entries are partitioned by the hash of their task UUID, and each partition is applied
+ * by its own thread, in the order it was fed, so every task sees its changes in log order. The
+ * feeding thread only routes entries; decoding payloads and updating the per-task state happen on
+ * the partition threads.
+ * </p>
+ * <p>
+ * The result is the same as applying everything in order to one {@link java.util.LinkedHashMap}:
+ * each record and entry is numbered as it is fed, a task keeps the number of the record or entry that
+ * last inserted it, and {@link #records} merges the sorted partitions back by that number.
+ * </p>
+ * <p>
+ * Every entry is also handed to a visitor on the feeding thread, in log order. Field changes are
+ * handed over resolved into the {@code UPDATE} they amount to, see {@link LogEntry#resolve}, which
+ * only their partition can compute; the visitor is therefore kept up to {@link #MAX_UNVISITED}
+ * entries behind the feeding, and waits for a partition only when it falls that far behind.
+ * </p>
+ */
+final class ParallelReplay implements AutoCloseable {
+    private static final int BATCH_SIZE = 4096; // Operations handed to a partition at once
+    private static final int QUEUED_BATCHES = 8; // Batches a partition buffers before feeding waits
+    private static final int MAX_UNVISITED = BATCH_SIZE * QUEUED_BATCHES; // Entries fed but not yet visited
+    private static final long RESOLUTION_WAIT_NANOS = 50_000;
+    private static final List<Op> END = new ArrayList<>();
+
+    private final List<Partition> partitions = new ArrayList<>();
+    private final ExecutorService executor;
+    private final Consumer<LogEntry> visitor;
+    private final Queue<Op> unvisited = new ArrayDeque<>();
+    private final List<Iterator<Slot>> results = new ArrayList<>();
+    private long nextPosition;
+
+    /**
+     * Starts one thread per partition.
+     *
+     * @param partitionCount The number of partitions applied in parallel, at least 2.
+     * @param visitor        Receives every entry, in log order, on the feeding thread.
+     */
+    ParallelReplay(int partitionCount, Consumer<LogEntry> visitor) {
+        this.visitor = visitor;
+        executor = Executors.newFixedThreadPool(partitionCount, runnable -> {
+            Thread thread = new Thread(runnable, "log-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition();
+            partition.result = executor.submit(partition::run);
+            partitions.add(partition);
+        }
+    }
+
+    /**
+     * Adds a record of the data file. Records must be added in file order, before any entry.
+     *
+     * @param taskId The UUID of the task.
+     * @param record The serialized task.
+     * @throws IOException If a partition failed.
+     */
+    void addRecord(UUID taskId, String record) throws IOException {
+        route(new Op(nextPosition++, taskId, record, null));
+    }
+
+    /**
+     * Applies a log entry that is not covered by the data file. Entries must be applied in log order.
+     *
+     * @param entry The log entry.
+     * @throws IOException If a partition failed.
+     */
+    void apply(LogEntry entry) throws IOException {
+        Op op = new Op(nextPosition++, entry.getTaskId(), null, entry);
+        route(op);
+        visitInTurn(op);
+    }
+
+    /**
+     * Hands an entry already covered by the data file to the visitor, in turn, without applying it.
+     *
+     * @param entry The log entry.
+     * @throws IOException If a partition failed.
+     */
+    void pass(LogEntry entry) throws IOException {
+        Op op = new Op(nextPosition, entry.getTaskId(), null, entry);
+        op.resolve(entry);
+        visitInTurn(op);
+    }
+
+    /**
+     * Visits the remaining entries and waits for every partition to finish.
+     *
+     * @throws IOException If a partition failed.
+     */
+    void finish() throws IOException {
+        for (Partition partition : partitions) {
+            partition.flush();
+        }
+        visitResolved(true);
+        for (Partition partition : partitions) {
+            partition.hand(END);
+        }
+        for (Partition partition : partitions) {
+            results.add(partition.await().iterator());
+        }
+    }
+
+    /**
+     * Returns the resulting records in data file order, once {@link #finish} returned.
+     *
+     * @return The serialized tasks, merged from the partitions as they are iterated.
+     */
+    Iterator<String> records() {
+        return new MergingIterator(results);
+    }
+
+    /**
+     * Stops the partition threads, abandoning any unfinished replay.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void route(Op op) throws IOException {
+        Partition partition = partitionOf(op);
+        partition.pending.add(op);
+        if (partition.pending.size() == BATCH_SIZE) {
+            partition.flush();
+        }
+    }
+
+    private Partition partitionOf(Op op) {
+        return partitions.get(Math.floorMod(op.taskId.hashCode(), partitions.size()));
+    }
+
+    private void visitInTurn(Op op) throws IOException {
+        unvisited.add(op);
+        visitResolved(false);
+    }
+
+    /**
+     * Visits the entries fed so far, up to the first field change its partition has not resolved
+     * yet. Waits for that partition if too many entries are unvisited, or if {@code isWaiting}.
+     */
+    private void visitResolved(boolean isWaiting) throws IOException {
+        while (!unvisited.isEmpty()) {
+            Op head = unvisited.peek();
+            if (!head.isResolved) {
+                if (!isWaiting && unvisited.size() < MAX_UNVISITED) {
+                    return;
+                }
+                awaitResolution(head);
+            }
+            visitor.accept(head.resolved);
+            unvisited.poll();
+        }
+    }
+
+    private void awaitResolution(Op op) throws IOException {
+        Partition partition = partitionOf(op);
+        partition.flush(); // The field change may still be in the batch being filled
+        while (!op.isResolved) {
+            if (partition.result.isDone()) {
+                partition.await();
+                throw new IOException("Error replaying the log: a partition stopped early");
+            }
+            LockSupport.parkNanos(RESOLUTION_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * A record of the data file or a log entry, numbered in the order it was fed.
+     */
+    private static class Op {
+        private final long position;
+        private final UUID taskId;
+        private final String record; // Set for data file records
+        private final LogEntry entry; // Set for log entries
+        private LogEntry resolved; // The entry as visited, published by isResolved
+        private volatile boolean isResolved;
+
+        private Op(long position, UUID taskId, String record, LogEntry entry) {
+            this.position = position;
+            this.taskId = taskId;
+            this.record = record;
+            this.entry = entry;
+            this.resolved = entry;
+            this.isResolved = entry == null || !entry.isFieldChange();
+        }
+
+        private void resolve(LogEntry resolvedEntry) {
+            resolved = resolvedEntry;
+            isResolved = true;
+        }
+    }
+
+    /**
+     * The state of one task: its serialized form, or {@code null} once deleted, and the position of
+     * the record or entry that last inserted it.
+     */
+    private static class Slot {
+        private long position;
+        private String record;
+
+        private Slot(long position, String record) {
+            this.position = position;
+            this.record = record;
+        }
+    }
+
+    private static class Partition {
+        private final BlockingQueue<List<Op>> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        private List<Op> pending = new ArrayList<>(BATCH_SIZE);
+        private Future<List<Slot>> result;
+
+        private void flush() throws IOException {
+            if (!pending.isEmpty()) {
+                hand(pending);
+                pending = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        private void hand(List<Op> batch) throws IOException {
+            try {
+                while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    if (result.isDone()) {
+                        await(); // The partition failed and stopped taking batches
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying the log");
+            }
+        }
+
+        private List<Slot> await() throws IOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while replaying the log");
+            } catch (ExecutionException e) {
+                throw new IOException("Error replaying the log: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        private List<Slot> run() throws InterruptedException {
+            Map<UUID, Slot> slots = new HashMap<>();
+            for (List<Op> batch = queue.take(); batch != END; batch = queue.take()) {
+                for (Op op : batch) {
+                    if (op.entry != null && op.entry.isFieldChange()) {
+                        applyFieldChange(slots.get(op.taskId), op);
+                        continue;
+                    }
+                    String record = op.entry == null ? op.record
+                            : op.entry.getType() == TaskEvent.EventType.DELETE ? null : op.entry.getPayload();
+                    Slot slot = slots.get(op.taskId);
+                    if (slot == null) {
+                        if (record != null) {
+                            slots.put(op.taskId, new Slot(op.position, record));
+                        }
+                    } else {
+                        if (slot.record == null) {
+                            slot.position = op.position; // Re-inserted after a deletion, so it moves to the end
+                        }
+                        slot.record = record;
+                    }
+                }
+            }
+
+            List<Slot> live = new ArrayList<>(slots.size());
+            for (Slot slot : slots.values()) {
+                if (slot.record != null) {
+                    live.add(slot);
+                }
+            }
+            live.sort(Comparator.comparingLong(slot -> slot.position));
+            return live;
+        }
+
+        /**
+         * Applies a field change in place and resolves it for the visitor. A change to a task that
+         * does not exist is visited as it is.
+         */
+        private static void applyFieldChange(Slot slot, Op op) {
+            if (slot == null || slot.record == null) {
+                op.resolve(op.entry);
+                return;
+            }
+            LogEntry resolved = op.entry.resolve(slot.record);
+            slot.record = resolved.getPayload();
+            op.resolve(resolved);
+        }
+    }
+
+    /**
+     * Merges position-sorted partition results into one sequence.
+     */
+    private static class MergingIterator implements Iterator<String> {
+        private final PriorityQueue<Cursor> cursors =
+                new PriorityQueue<>(Comparator.comparingLong(cursor -> cursor.head.position));
+
+        private MergingIterator(List<Iterator<Slot>> results) {
+            for (Iterator<Slot> result : results) {
+                if (result.hasNext()) {
+                    cursors.add(new Cursor(result));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            Cursor cursor = cursors.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            String record = cursor.head.record;
+            if (cursor.rest.hasNext()) {
+                cursor.head = cursor.rest.next();
+                cursors.add(cursor);
+            }
+            return record;
+        }
+    }
+
+    private static class Cursor {
+        private final Iterator<Slot> rest;
+        private Slot head;
+
+        private Cursor(Iterator<Slot> rest) {
+            this.rest = rest;
+            this.head = rest.next();
+        }
+    }
+}
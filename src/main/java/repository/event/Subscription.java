@@ -0,0 +1,255 @@
+package repository.event;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import entity.TaskType;
+import entity.tasks.Task;
+
+/**
+ * A filtered registration on the {@link TaskEventObject} bus, created with
+ * {@link TaskEventObject#subscribe}.
+ *
+ * <p>
+ * The bus indexes subscriptions by {@link TaskEvent.EventType}, so dispatch only visits the
+ * subscriptions that asked for the type of the event. Task type filters and predicates are
+ * then applied on the dispatching thread, before any queueing:
+ * </p>
+ * <ul>
+ *     <li>A task type filter narrows a {@code BATCH} to the matching tasks. Deletions carry no task,
+ *     so they always pass it.</li>
+ *     <li>A predicate sees the event after the task type filter.</li>
+ * </ul>
+ * <p>
+ * Matching events are delivered inline, asynchronously like {@link TaskEventObject#registerAsync},
+ * or conflated by task, see {@link ConflatingListener}. A weak subscription does not keep its
+ * listener reachable and cancels itself once the listener has been garbage collected.
+ * </p>
+ */
+public class Subscription implements AutoCloseable {
+    private final TaskEventObject bus;
+    private final Set<TaskEvent.EventType> eventTypes;
+    private final Set<TaskType> taskTypes; // null accepts every task type
+    private final Predicate<TaskEvent> predicate;
+    private final Consumer<TaskEvent> listener; // Keeps the listener reachable; null for weak subscriptions
+    private final WeakReference<Consumer<TaskEvent>> weakListener;
+    private final Consumer<TaskEvent> delivery; // The listener, or the wrapper queueing events for it
+    private volatile boolean isActive = true;
+
+    private Subscription(Builder builder) {
+        this.bus = builder.bus;
+        this.eventTypes = EnumSet.copyOf(builder.eventTypes);
+        this.taskTypes = builder.taskTypes == null ? null : EnumSet.copyOf(builder.taskTypes);
+        this.predicate = builder.predicate;
+        this.listener = builder.isWeak ? null : builder.listener;
+        this.weakListener = new WeakReference<>(builder.listener);
+
+        Consumer<TaskEvent> target = builder.isWeak ? this::deliverWeakly : builder.listener;
+        if (builder.isConflated) {
+            this.delivery = new ConflatingListener(builder.asyncName, target, bus.executor());
+        } else if (builder.asyncName != null) {
+            this.delivery = bus.asyncListener(builder.asyncName, target);
+        } else {
+            this.delivery = target;
+        }
+    }
+
+    /**
+     * Stops delivering events to the listener. Events already queued for an asynchronous or
+     * conflated subscription are still delivered.
+     */
+    public void cancel() {
+        if (isActive) {
+            isActive = false;
+            bus.remove(this);
+            if (delivery instanceof AsyncListener async) {
+                async.close();
+            } else if (delivery instanceof ConflatingListener conflating) {
+                conflating.close();
+            }
+        }
+    }
+
+    /**
+     * Cancels the subscription, so it can be scoped with try-with-resources.
+     */
+    @Override
+    public void close() {
+        cancel();
+    }
+
+    /**
+     * Returns whether the subscription still receives events.
+     *
+     * @return {@code false} once cancelled, or once a weak listener was collected.
+     */
+    public boolean isActive() {
+        return isActive;
+    }
+
+    Set<TaskEvent.EventType> getEventTypes() {
+        return eventTypes;
+    }
+
+    Consumer<TaskEvent> getDelivery() {
+        return delivery;
+    }
+
+    boolean isListener(Consumer<TaskEvent> candidate) {
+        return weakListener.get() == candidate;
+    }
+
+    /**
+     * Delivers an event of one of the subscribed types if it passes the task type filter and predicate.
+     *
+     * @param event The dispatched event.
+     */
+    void accept(TaskEvent event) {
+        if (!isActive) {
+            return;
+        }
+        TaskEvent matched = narrowToTaskTypes(event);
+        if (matched != null && predicate.test(matched)) {
+            delivery.accept(matched);
+        }
+    }
+
+    private TaskEvent narrowToTaskTypes(TaskEvent event) {
+        if (taskTypes == null || event.getTasks().isEmpty()) {
+            return event;
+        }
+        if (event.getType() != TaskEvent.EventType.BATCH) {
+            return taskTypes.contains(TaskType.fromTask(event.getTask())) ? event : null;
+        }
+        List<Task> matching = new ArrayList<>();
+        for (Task task : event.getTasks()) {
+            if (taskTypes.contains(TaskType.fromTask(task))) {
+                matching.add(task);
+            }
+        }
+        if (matching.isEmpty()) {
+            return null;
+        }
+        return matching.size() == event.getTasks().size() ? event : new TaskEvent(matching);
+    }
+
+    private void deliverWeakly(TaskEvent event) {
+        Consumer<TaskEvent> target = weakListener.get();
+        if (target == null) {
+            cancel();
+            return;
+        }
+        target.accept(event);
+    }
+
+    /**
+     * Collects the filters and delivery options of a subscription. Filters of different kinds
+     * must all match; calling a filter method again widens that filter.
+     */
+    public static class Builder {
+        private final TaskEventObject bus;
+        private final Consumer<TaskEvent> listener;
+        private final Set<TaskEvent.EventType> eventTypes = EnumSet.noneOf(TaskEvent.EventType.class);
+        private Set<TaskType> taskTypes;
+        private Predicate<TaskEvent> predicate = event -> true;
+        private String asyncName;
+        private boolean isConflated;
+        private boolean isWeak;
+
+        Builder(TaskEventObject bus, Consumer<TaskEvent> listener) {
+            this.bus = bus;
+            this.listener = listener;
+        }
+
+        /**
+         * Only delivers events of the given types. Every type is delivered if never called.
+         *
+         * @param first The first accepted type.
+         * @param rest  Further accepted types.
+         * @return This builder.
+         */
+        public Builder eventTypes(TaskEvent.EventType first, TaskEvent.EventType... rest) {
+            eventTypes.addAll(EnumSet.of(first, rest));
+            return this;
+        }
+
+        /**
+         * Only delivers events about tasks of the given types, narrowing batches to those tasks.
+         * Deletions always pass, as they do not carry the deleted task.
+         *
+         * @param first The first accepted task type.
+         * @param rest  Further accepted task types.
+         * @return This builder.
+         */
+        public Builder taskTypes(TaskType first, TaskType... rest) {
+            if (taskTypes == null) {
+                taskTypes = EnumSet.noneOf(TaskType.class);
+            }
+            taskTypes.addAll(EnumSet.of(first, rest));
+            return this;
+        }
+
+        /**
+         * Only delivers events matching a predicate, in addition to any earlier predicate.
+         *
+         * @param filter The predicate events must match.
+         * @return This builder.
+         */
+        public Builder filter(Predicate<TaskEvent> filter) {
+            predicate = predicate.and(filter);
+            return this;
+        }
+
+        /**
+         * Delivers events asynchronously with per-task ordering, like
+         * {@link TaskEventObject#registerAsync(String, Consumer)}.
+         *
+         * @param name The name reported in the subscription's {@link ListenerStats}.
+         * @return This builder.
+         */
+        public Builder async(String name) {
+            asyncName = name;
+            return this;
+        }
+
+        /**
+         * Delivers events asynchronously, keeping only the latest pending event of each task.
+         * Suits views that only show current state and would otherwise redraw for every change.
+         *
+         * @return This builder.
+         */
+        public Builder conflateByTask() {
+            isConflated = true;
+            return this;
+        }
+
+        /**
+         * Holds the listener weakly, so the subscription ends once nothing else references it.
+         *
+         * @return This builder.
+         */
+        public Builder weak() {
+            isWeak = true;
+            return this;
+        }
+
+        /**
+         * Registers the subscription with the bus.
+         *
+         * @return The handle that cancels the subscription.
+         */
+        public Subscription register() {
+            if (eventTypes.isEmpty()) {
+                eventTypes.addAll(EnumSet.allOf(TaskEvent.EventType.class));
+            }
+            Subscription subscription = new Subscription(this);
+            bus.add(subscription);
+            return subscription;
+        }
+    }
+}
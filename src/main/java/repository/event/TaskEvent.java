@@ -1,8 +1,12 @@
 package repository.event;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import entity.tasks.Task;
+import entity.tasks.TaskField;
 import lombok.Getter;
 
 /**
@@ -17,6 +21,16 @@ public class TaskEvent {
     private final EventType type;
     private final Task task;
     private final UUID taskId;
+    /**
+     * The tasks carried by the event: every task of a {@code BATCH}, or the single task of an
+     * {@code ADD} or {@code UPDATE}.
+     */
+    private final List<Task> tasks;
+    /**
+     * The fields an {@code UPDATE} changed, if they are known, see {@link Task#getChangedFields()}.
+     * Empty if the whole task may have changed.
+     */
+    private final Set<TaskField> changedFields;
     /**
      * Constructs a task event with the specified type and task.
      *
@@ -24,9 +38,22 @@ public class TaskEvent {
      * @param task The task associated with the event.
      */
     public TaskEvent(EventType type, Task task) {
+        this(type, task, EnumSet.noneOf(TaskField.class));
+    }
+    /**
+     * Constructs an {@code UPDATE} event that only changed some fields of the task, which lets
+     * the log record the change without the rest of the task.
+     *
+     * @param type          The type of event being recorded.
+     * @param task          The task associated with the event.
+     * @param changedFields The fields changed by the event, or an empty set if unknown.
+     */
+    public TaskEvent(EventType type, Task task, Set<TaskField> changedFields) {
         this.type = type;
         this.task = task;
         this.taskId = (task != null) ? task.getId() : null;
+        this.tasks = (task != null) ? List.of(task) : List.of();
+        this.changedFields = Set.copyOf(changedFields);
     }
     /**
      * Constructs a task event with the specified type and task ID.
@@ -38,12 +65,31 @@ public class TaskEvent {
         this.type = type;
         this.task = null;
         this.taskId = taskId;
+        this.tasks = List.of();
+        this.changedFields = Set.of();
+    }
+    /**
+     * Constructs a {@code BATCH} event saving several tasks at once, such as an import.
+     * A batch is recorded in one write and dispatched to listeners as a single event.
+     *
+     * @param tasks The tasks added or updated by the batch.
+     */
+    public TaskEvent(List<Task> tasks) {
+        this.type = EventType.BATCH;
+        this.task = null;
+        this.taskId = null;
+        this.tasks = List.copyOf(tasks);
+        this.changedFields = Set.of();
     }
     /**
      * Represents the types of events that can occur on a task.
+     * <p>
+     * {@code COMPLETE}, {@code REOPEN} and {@code RENAME} only appear in the log, where they record
+     * an {@code UPDATE} that changed a single field, see {@link LogEntry#isFieldChange()}.
+     * </p>
      */
     public enum EventType {
-        ADD, UPDATE, DELETE, DELETEALL
+        ADD, UPDATE, DELETE, DELETEALL, BATCH, COMPLETE, REOPEN, RENAME
     }
 }
 
@@ -1,202 +1,1308 @@
 package repository.event;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import entity.tasks.Task;
 import exceptions.UserFacingException;
+import repository.lock.DataFileLock;
 import util.DataFileUtils;
-import util.TaskDeserializer;
 import util.TaskSerializer;
 
 /**
  * Handles logging and replaying of task-related events.
+ * <p>
+ * Every logged event carries a monotonically increasing sequence number, and the data file
+ * records the last sequence applied to it. Replay skips entries at or below that watermark,
+ * so it is idempotent and a replay interrupted between rewriting the data file and clearing
+ * the log can safely be resumed.
+ * </p>
+ * <p>
+ * The log may be shared by several processes. Appends and replays hold the exclusive
+ * {@link DataFileLock}, and {@link #readNewEntries} lets a process catch up on entries
+ * appended by others since its last read.
+ * </p>
+ * <p>
+ * Appends are encoded into a reusable direct buffer and written through a channel that stays
+ * open for the lifetime of the logger. Entries appended within one exclusive lock hold are
+ * coalesced and written with a single call when the lock is released, so other processes always
+ * see complete batches. The channel is reopened if the log file is deleted or replaced.
+ * </p>
+ * <p>
+ * {@link #append} does not touch the disk: the event is serialized on the calling thread and
+ * queued in an {@link EventRingBuffer}, from which a background writer assigns sequence numbers
+ * and writes it under the lock. Operations that need the log to be complete, such as replay or
+ * reading the last sequence, first write out whatever is still queued.
+ * </p>
+ * <p>
+ * The log is text, binary or memory-mapped binary, see {@link LogFormat}. Its format is detected
+ * whenever it is read or opened for appending, so every format can be replayed regardless of
+ * configuration. A mapped log is appended to by copying the pending buffer into a {@link MappedLog}
+ * instead of writing it through the channel, growing by {@code spring.log.mappedChunkBytes}
+ * (1 MiB by default) at a time.
+ * </p>
+ * <p>
+ * Once {@link #enableCompaction enabled}, the background writer compacts the log whenever it
+ * grows past a size threshold, so replay cost is bounded by the number of distinct tasks changed
+ * since the last flush rather than by the number of changes, see {@link #compactLog}.
+ * </p>
+ * <p>
+ * Logs of at least {@code spring.log.parallelReplayBytes} (4 MiB by default) are replayed by
+ * {@code spring.log.replayThreads} threads (one per processor by default), partitioned by task,
+ * see {@link ParallelReplay}.
+ * </p>
+ * <p>
+ * Once {@link #enableHistory enabled}, every batch written to the log is also kept in an
+ * {@link EventHistory}, from which earlier states can be rebuilt with {@link #recordsAt}, and the
+ * changes since an earlier state read back with {@link #forEachEntryAfter}.
+ * </p>
  */
 public class TaskEventLogger {
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+    private static final int RING_CAPACITY = 1024;
+    private static final int MAX_LINE_PREFIX_BYTES = 64; // Sequence number, event type and separators
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+    private static final long DEFAULT_PARALLEL_REPLAY_BYTES = 4 * 1024 * 1024;
+
     private final Path logFilePath;
+    private final DataFileLock lock;
+    private final EventRingBuffer<EventSlot> ring;
+    private volatile boolean isClosed;
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_CAPACITY); // Encoded, unwritten entries
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY); // Reused by binary scans
+    private final LogFormat configuredFormat; // Format of logs started by this process
+    private final int replayThreads; // Threads replaying large logs, 1 to always replay sequentially
+    private final long parallelReplayBytes; // Log size from which replay runs in parallel
+    private final long mappedChunkBytes; // Size mapped logs grow by
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final List<Consumer<LogEntry>> appendListeners = new CopyOnWriteArrayList<>();
+    private FileChannel channel; // Append channel, kept open between writes
+    private Object channelFileKey; // Identity of the file the channel was opened on
+    private LogFormat channelFormat; // Format of the file the channel was opened on
+    private MappedLog mappedLog; // Mapping of the file the channel was opened on, if it is a mapped log
+    private long lastSequence; // Sequence number of the most recently logged event
+    private long readOffset; // Bytes of the log already delivered through readNewEntries
+    private Object readFileKey; // Identity of the log file readOffset refers to
+    private boolean isPendingCaughtUp; // Whether readOffset was at the end of the log when buffering started
+    private Path compactionDataFile; // Data file checked by background compaction, null if disabled
+    private long compactionThreshold; // Log size that triggers background compaction
+    private long nextCompactionSize; // Grows with what compaction cannot remove, until the log is cleared
+    private EventHistory history; // Null unless enabled
+    private Path historyDataFile; // Data file snapshotted into the history
+    private long pendingEntrySequence; // Sequence of the first entry starting in the pending buffer, 0 if none
+    private int pendingEntryStart; // Position of that entry in the pending buffer
+
     /**
-     * Constructs a TaskEventLogger and registers it for event handling.
+     * Constructs a TaskEventLogger.
+     * Numbering resumes after the highest sequence already present in the log.
      *
      * @param logFilePath The file path where task events are logged.
+     * @param lock        The lock coordinating access to the data and log files.
      */
-    public TaskEventLogger(Path logFilePath) {
+    public TaskEventLogger(Path logFilePath, DataFileLock lock) {
         this.logFilePath = logFilePath;
-        TaskEventObject.getInstance().register(this::handleEvent);
+        this.lock = lock;
+        this.ring = new EventRingBuffer<>(RING_CAPACITY, EventSlot::new, WaitStrategy.fromSystemProperties());
+        this.configuredFormat = LogFormat.fromSystemProperties();
+        this.replayThreads = Integer.getInteger("spring.log.replayThreads", Runtime.getRuntime().availableProcessors());
+        this.parallelReplayBytes = Long.getLong("spring.log.parallelReplayBytes", DEFAULT_PARALLEL_REPLAY_BYTES);
+        this.mappedChunkBytes = Long.getLong("spring.log.mappedChunkBytes", MappedLog.DEFAULT_CHUNK_BYTES);
+        forEachEntry(entry -> lastSequence = Math.max(lastSequence, entry.getSequence()));
+        lock.beforeRelease(this::writePending);
+
+        Thread writer = new Thread(this::runWriter, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the path of the log file.
+     *
+     * @return The log file path.
+     */
+    public Path getLogFilePath() {
+        return logFilePath;
+    }
+
+    /**
+     * Lets the background writer compact the log whenever it grows past the size set with the
+     * {@code spring.log.compactionThreshold} system property, 1 MiB by default. If a compacted log
+     * is still over half that size, the threshold doubles until the log is next cleared.
+     *
+     * @param dataFilePath The data file the log is replayed into.
+     */
+    public synchronized void enableCompaction(Path dataFilePath) {
+        compactionDataFile = dataFilePath;
+        compactionThreshold = Long.getLong("spring.log.compactionThreshold", DEFAULT_COMPACTION_THRESHOLD);
+        nextCompactionSize = compactionThreshold;
+    }
+
+    /**
+     * Starts keeping every entry written to the log in a history directory next to it, named after
+     * the log with a {@code .history} suffix, with snapshots of the data file taken after flushes.
+     *
+     * @param dataFilePath The data file the log is replayed into.
+     */
+    public void enableHistory(Path dataFilePath) {
+        enableHistory(dataFilePath, LogRetentionPolicy.fromSystemProperties());
     }
 
     /**
-     * Handles task events and logs them appropriately.
+     * Starts keeping every entry written to the log in a history directory, with the given limits.
+     *
+     * @param dataFilePath The data file the log is replayed into.
+     * @param policy       The rotation and retention limits of the history.
+     * @see #enableHistory(Path)
+     */
+    public void enableHistory(Path dataFilePath, LogRetentionPolicy policy) {
+        lock.exclusive(() -> {
+            synchronized (this) {
+                EventHistory started = new EventHistory(
+                        logFilePath.resolveSibling(logFilePath.getFileName() + ".history"), policy);
+                try {
+                    drainRing();
+                    writePending(); // Lands in the log before it seeds the history
+                    started.start(dataFilePath, logFilePath);
+                    history = started;
+                    historyDataFile = dataFilePath;
+                } catch (IOException e) {
+                    System.err.println("Error starting event history: " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Ensures future events are numbered after the given sequence,
+     * typically the watermark of a freshly loaded data file.
+     *
+     * @param sequence The sequence number already in use.
+     */
+    public synchronized void advanceSequenceTo(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    /**
+     * Registers a listener receiving every entry this logger numbers, in sequence order, as soon as
+     * it is buffered for the log. Listeners are called with the exclusive lock held and must not block.
+     *
+     * @param listener The listener receiving each numbered entry.
+     */
+    public void addAppendListener(Consumer<LogEntry> listener) {
+        appendListeners.add(listener);
+    }
+
+    /**
+     * Returns the sequence number of the most recently logged event,
+     * after numbering the events still queued.
+     *
+     * @return The last assigned sequence number.
+     */
+    public long getLastSequence() {
+        writeQueued();
+        synchronized (this) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Queues a task event for the log, to be written under the next sequence number.
+     * A {@code BATCH} event is written as one entry per task, numbered consecutively, and an
+     * {@code UPDATE} that only changed the completion status or the name of its task is written as a
+     * field change, see {@link LogEntry#isFieldChange()}.
+     * <p>
+     * The tasks are serialized immediately, so later changes to them do not leak into the entry.
+     * If the queue is full, the queued events are written out on the calling thread.
+     * </p>
      *
      * @param event The task event to be logged.
      */
-    private synchronized void handleEvent(TaskEvent event) {
-        try (BufferedWriter writer = Files.newBufferedWriter(logFilePath,
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            switch (event.getType()) {
-            case ADD, UPDATE -> writer.write(event.getType() + " "
-                    + TaskSerializer.serializeTask(event.getTask()) + "\n");
-            case DELETE -> writer.write("DELETE " + event.getTaskId() + "\n");
-            default -> throw new UserFacingException("Unknown event type: " + event.getType());
+    public void append(TaskEvent event) {
+        TaskEvent.EventType type = loggedTypeOf(event);
+        List<String> records = switch (type) {
+        case ADD, UPDATE -> event.getTasks().stream().map(TaskSerializer::serializeTask).toList();
+        case DELETE, COMPLETE, REOPEN -> List.of(event.getTaskId().toString());
+        case RENAME -> List.of(event.getTaskId() + " " + TaskSerializer.escapeName(event.getTask().getName()));
+        default -> throw new UserFacingException("Unknown event type: " + event.getType());
+        };
+        List<UUID> ids = event.getType() == TaskEvent.EventType.DELETE
+                ? List.of(event.getTaskId())
+                : event.getTasks().stream().map(Task::getId).toList();
+
+        while (!ring.tryPublish(slot -> slot.fill(type, ids, records))) {
+            lock.exclusive(() -> {
+                drainRing();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Returns the type an event is logged as: one {@code ADD} per task of a {@code BATCH}, and a field
+     * change for an {@code UPDATE} known to have changed a single field.
+     */
+    private static TaskEvent.EventType loggedTypeOf(TaskEvent event) {
+        if (event.getType() == TaskEvent.EventType.BATCH) {
+            return TaskEvent.EventType.ADD;
+        }
+        if (event.getType() != TaskEvent.EventType.UPDATE || event.getChangedFields().size() != 1) {
+            return event.getType();
+        }
+        return switch (event.getChangedFields().iterator().next()) {
+        case COMPLETED -> event.getTask().getCompleted() ? TaskEvent.EventType.COMPLETE : TaskEvent.EventType.REOPEN;
+        case NAME -> TaskEvent.EventType.RENAME;
+        };
+    }
+
+    /**
+     * Writes out the events still queued for the log. Does nothing inside a shared lock hold,
+     * where the log cannot be written.
+     */
+    public void writeQueued() {
+        if (ring.isEmpty() || lock.isSharedHeldByCurrentThread()) {
+            return;
+        }
+        lock.exclusive(() -> {
+            drainRing();
+            return null;
+        });
+    }
+
+    /**
+     * Writes out the queued events, stops the background writer and closes the log channel.
+     * The logger must not be used afterwards.
+     */
+    public void close() {
+        isClosed = true;
+        while (!ring.tryPublish(slot -> slot.fill(null, List.of(), List.of()))) { // Wakes up the writer
+            writeQueued();
+        }
+        writeQueued();
+        synchronized (this) {
+            closeChannel();
+            if (history != null) {
+                history.closeSegment();
+            }
+        }
+    }
+
+    /**
+     * Takes queued events off the ring buffer until the logger is closed.
+     */
+    private void runWriter() {
+        while (!isClosed) {
+            try {
+                ring.awaitPublished();
+                lock.exclusive(() -> {
+                    drainRing();
+                    compactIfLarge();
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error logging task event: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Numbers and buffers every queued event. Must be called with the exclusive lock held.
+     */
+    private synchronized void drainRing() {
+        ring.drain(slot -> {
+            if (!slot.records.isEmpty()) {
+                appendRecords(slot.type, slot.ids, slot.records);
+            }
+            slot.fill(null, null, null);
+        });
+    }
+
+    private synchronized void appendRecords(TaskEvent.EventType type, List<UUID> ids, List<String> records) {
+        try {
+            if (pending.position() == 0) {
+                // Entries appended by other processes must not share our sequence numbers
+                checkReadPosition();
+                isPendingCaughtUp = logSize() == readOffset;
+                if (!isPendingCaughtUp) {
+                    scanEntries(readOffset, entry -> lastSequence = Math.max(lastSequence, entry.getSequence()));
+                }
+                appendChannel(); // Settles the format the pending entries are encoded in
+            }
+
+            for (int i = 0; i < records.size(); i++) {
+                long sequence = ++lastSequence;
+                if (channelFormat != LogFormat.TEXT) {
+                    bufferRecord(sequence, type, ids.get(i), records.get(i));
+                } else {
+                    bufferLine(sequence, type, records.get(i));
+                }
+                if (!appendListeners.isEmpty()) {
+                    LogEntry entry = LogEntry.ofData(sequence, type, ids.get(i), records.get(i));
+                    appendListeners.forEach(listener -> listener.accept(entry));
+                }
             }
         } catch (IOException e) {
             System.err.println("Error logging task event: " + e.getMessage());
         }
     }
+
+    /**
+     * Encodes a binary log record into the pending buffer, writing the buffer out first if the
+     * record does not fit. A record larger than the buffer is written on its own.
+     */
+    private void bufferRecord(long sequence, TaskEvent.EventType type, UUID taskId, String record)
+            throws IOException {
+        byte[] fields = BinaryLogCodec.encodeFields(type, record);
+        int size = BinaryLogCodec.encodedSize(fields);
+        if (size > pending.remaining()) {
+            flushPending();
+        }
+        if (size <= pending.capacity()) {
+            markEntryStart(sequence);
+            BinaryLogCodec.encode(pending, sequence, type, taskId, fields);
+            return;
+        }
+        ByteBuffer large = ByteBuffer.allocate(size);
+        BinaryLogCodec.encode(large, sequence, type, taskId, fields);
+        writeFully(large.flip(), sequence, 0);
+    }
+
+    /**
+     * Encodes a log line, laid out as {@link LogEntry#format}, into the pending buffer, writing the
+     * buffer out whenever it fills up. The sequence number and type are written as ASCII in place
+     * and the record is encoded straight from the given string, so the line is never assembled.
+     * A line longer than the buffer is written in pieces; the lock keeps readers from seeing it
+     * partially.
+     */
+    private void bufferLine(long sequence, TaskEvent.EventType type, String record) throws IOException {
+        if (pending.remaining() < MAX_LINE_PREFIX_BYTES) {
+            flushPending();
+        }
+        markEntryStart(sequence);
+        String typeName = type.name();
+        putDecimal(sequence);
+        pending.put((byte) ' ');
+        for (int i = 0; i < typeName.length(); i++) {
+            pending.put((byte) typeName.charAt(i));
+        }
+        pending.put((byte) ' ');
+        encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(record);
+        CoderResult result;
+        while ((result = encoder.encode(chars, pending, true)).isOverflow()) {
+            flushPending();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        while (encoder.flush(pending).isOverflow()) {
+            flushPending();
+        }
+        if (!pending.hasRemaining()) {
+            flushPending();
+        }
+        pending.put((byte) '\n');
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative number into the pending buffer.
+     */
+    private void putDecimal(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int end = pending.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            pending.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        pending.position(end);
+    }
+
+    private void markEntryStart(long sequence) {
+        if (pendingEntrySequence == 0) {
+            pendingEntrySequence = sequence;
+            pendingEntryStart = pending.position();
+        }
+    }
+
+    /**
+     * Writes out the buffered entries. Runs just before the outermost lock hold is released.
+     */
+    private synchronized void writePending() {
+        if (pending.position() == 0) {
+            return;
+        }
+        try {
+            flushPending();
+        } catch (IOException e) {
+            System.err.println("Error logging task event: " + e.getMessage());
+            clearPending();
+        }
+    }
+
+    private void flushPending() throws IOException {
+        writeFully(pending.flip(), pendingEntrySequence, pendingEntryStart);
+        clearPending();
+    }
+
+    private void clearPending() {
+        pending.clear();
+        pendingEntrySequence = 0;
+    }
+
+    /**
+     * Writes encoded entries to the log, or copies them into its mapping, and then to the history if
+     * it is enabled.
+     *
+     * @param entrySequence The sequence of the first entry starting in the buffer, {@code 0} if none.
+     * @param entryStart    The position of that entry in the buffer.
+     */
+    private void writeFully(ByteBuffer buffer, long entrySequence, int entryStart) throws IOException {
+        FileChannel out = appendChannel();
+        ByteBuffer historyBatch = history == null ? null : buffer.duplicate();
+        if (mappedLog != null) {
+            mappedLog.append(buffer);
+        } else {
+            if (channelFormat == LogFormat.BINARY && out.size() == 0) {
+                out.write(ByteBuffer.wrap(BinaryLogCodec.MAGIC));
+            }
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+        if (isPendingCaughtUp) {
+            readOffset = mappedLog != null ? mappedLog.end() : out.size(); // Our own entries need no redelivery
+            readFileKey = channelFileKey;
+        }
+
+        if (historyBatch != null) {
+            try {
+                // History segments hold the same records as a mapped log, without the mapping
+                LogFormat segmentFormat = channelFormat == LogFormat.MAPPED ? LogFormat.BINARY : channelFormat;
+                history.append(historyBatch, segmentFormat, entrySequence, entryStart);
+            } catch (IOException e) {
+                System.err.println("Error writing event history: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the open append channel, reopening it if the log file was deleted or replaced
+     * since it was opened. A new or empty log takes the configured format. Mapped logs are also
+     * mapped, and are appended to through the mapping rather than the channel.
+     */
+    private FileChannel appendChannel() throws IOException {
+        if (channel != null && channel.isOpen() && channelFileKey != null
+                && channelFileKey.equals(currentFileKey())) {
+            return channel;
+        }
+        closeChannel();
+        channel = FileChannel.open(logFilePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        channelFileKey = currentFileKey();
+        if (channel.size() == 0) {
+            channelFormat = configuredFormat;
+        } else {
+            try (FileChannel log = FileChannel.open(logFilePath, StandardOpenOption.READ)) {
+                channelFormat = formatOf(log);
+            }
+        }
+        if (channelFormat == LogFormat.MAPPED) {
+            mappedLog = MappedLog.open(logFilePath, mappedChunkBytes);
+        }
+        return channel;
+    }
+
+    private LogFormat formatOf(FileChannel log) throws IOException {
+        if (MappedLog.hasMagic(log, readBuffer)) {
+            return LogFormat.MAPPED;
+        }
+        return BinaryLogCodec.hasMagic(log, readBuffer) ? LogFormat.BINARY : LogFormat.TEXT;
+    }
+
+    private Object currentFileKey() {
+        try {
+            return Files.readAttributes(logFilePath, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null; // The log file is gone
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+            if (mappedLog != null) {
+                mappedLog.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing log: " + e.getMessage());
+        }
+        mappedLog = null;
+        channel = null;
+        channelFileKey = null;
+        channelFormat = null;
+    }
+
+    /**
+     * Delivers the entries appended to the log since the previous call, in log order,
+     * including entries written by other processes. If the log was cleared or compacted in the
+     * meantime, reading restarts from its beginning. Queued events are written out first, unless called
+     * inside a shared lock hold.
+     * <p>
+     * Entries this process wrote while another process's entries were still unread are delivered
+     * again, so the queued events must reach the log first: otherwise such an entry would be read
+     * back over a newer queued change to the same task, which is then never delivered.
+     * </p>
+     *
+     * @param consumer The consumer receiving each new entry.
+     */
+    public void readNewEntries(Consumer<LogEntry> consumer) {
+        writeQueued();
+        lock.shared(() -> {
+            synchronized (this) {
+                try {
+                    writePending(); // Only non-empty when called within our own exclusive hold
+                    checkReadPosition();
+                    readOffset = scanEntries(readOffset, entry -> {
+                        lastSequence = Math.max(lastSequence, entry.getSequence());
+                        consumer.accept(entry);
+                    });
+                } catch (IOException e) {
+                    System.err.println("Error reading new log entries: " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Forgets how much of the log was read, so the next {@link #readNewEntries} starts over.
+     * Used after the data file was replaced by another process.
+     * Events queued before the call are written out first, so they are delivered again too.
+     */
+    public void resetReadPosition() {
+        writeQueued();
+        synchronized (this) {
+            readOffset = 0;
+        }
+    }
+
+    /**
+     * Restarts reading from the beginning of the log if it was cleared, or replaced by compaction,
+     * since the last read.
+     */
+    private void checkReadPosition() throws IOException {
+        Object fileKey = currentFileKey();
+        if (logSize(fileKey) < readOffset || !Objects.equals(fileKey, readFileKey)) {
+            readOffset = 0;
+        }
+        readFileKey = fileKey;
+    }
+
+    private long scanEntries(long fromOffset, Consumer<LogEntry> consumer) throws IOException {
+        return scanEntries(fromOffset, consumer, false);
+    }
+
+    /**
+     * Parses the valid entries from a byte offset to the current end of the log, in whichever
+     * format the log was written.
+     *
+     * @param isReportingInvalid Whether to report unparseable text lines, as replay does.
+     * @return The offset just past the last complete entry read.
+     */
+    private long scanEntries(long fromOffset, Consumer<LogEntry> consumer, boolean isReportingInvalid)
+            throws IOException {
+        return scanLog(logFilePath, fromOffset, readBuffer, consumer, isReportingInvalid);
+    }
+
+    /**
+     * Parses the valid entries of a log file, or of a history segment, from a byte offset to its
+     * current end, in whichever format the file was written.
+     *
+     * @param path               The file to read.
+     * @param fromOffset         The offset of the first entry to read.
+     * @param buffer             A reusable buffer for binary files.
+     * @param consumer           The consumer receiving each valid entry.
+     * @param isReportingInvalid Whether to report unparseable text lines.
+     * @return The offset just past the last complete entry read.
+     * @throws IOException If the file cannot be read.
+     */
+    static long scanLog(Path path, long fromOffset, ByteBuffer buffer, Consumer<LogEntry> consumer,
+                        boolean isReportingInvalid) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (FileChannel log = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (MappedLog.hasMagic(log, buffer)) {
+                return BinaryLogCodec.scan(log, Math.max(fromOffset, MappedLog.HEADER_SIZE), MappedLog.readEnd(log),
+                        buffer, consumer);
+            }
+            if (BinaryLogCodec.hasMagic(log, buffer)) {
+                return BinaryLogCodec.scan(log, fromOffset, buffer, consumer);
+            }
+
+            long endOffset = log.size();
+            log.position(fromOffset);
+            BufferedReader reader = new BufferedReader(Channels.newReader(log, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LogEntry entry = line.isBlank() ? null : LogEntry.parse(line);
+                if (entry != null) {
+                    consumer.accept(entry);
+                } else if (isReportingInvalid && !line.isBlank()) {
+                    System.err.println("Skipping invalid log entry: " + line);
+                }
+            }
+            return endOffset;
+        }
+    }
+
+    /**
+     * Returns the size of the log, which for a mapped log is the end of its records rather than the
+     * size of the file. The append channel answers while it is still open on the current log file,
+     * so the log is only opened here if another process replaced it or nothing was appended yet.
+     */
+    private long logSize() throws IOException {
+        return logSize(currentFileKey());
+    }
+
+    private long logSize(Object fileKey) throws IOException {
+        if (fileKey == null && !Files.exists(logFilePath)) {
+            return 0;
+        }
+        if (channel != null && channel.isOpen() && fileKey != null && fileKey.equals(channelFileKey)) {
+            return mappedLog != null ? mappedLog.end() : channel.size();
+        }
+        try (FileChannel log = FileChannel.open(logFilePath, StandardOpenOption.READ)) {
+            return MappedLog.hasMagic(log, readBuffer) ? MappedLog.readEnd(log) : log.size();
+        }
+    }
+
     /**
      * Replays the log to update the task storage file.
+     * Entries already covered by the watermark of the data file are skipped,
+     * and the new watermark is written to the file header.
      *
      * @param filePath The file where tasks are stored.
+     * @return {@code true} if the log was applied (or there was nothing to apply), {@code false} on failure.
+     */
+    public boolean replayLog(Path filePath) {
+        return replayLog(filePath, entry -> { }, () -> true);
+    }
+
+    /**
+     * Replays the log to update the task storage file in a single streaming pass, replacing the file
+     * only if the validator accepts the result.
+     * <p>
+     * The data file is streamed into a map of serialized tasks, and the log entries are applied to it
+     * one at a time as they are read, so memory use grows with the number of tasks but not with the
+     * length of the log. Each entry is also handed to the visitor, which lets the caller check the
+     * merged state without reading the log a second time.
+     * </p>
+     * <p>
+     * Large logs are applied by a {@link ParallelReplay} instead of a single map; the visitor still
+     * receives every entry in log order on the calling thread.
+     * </p>
+     * <p>
+     * Field changes not covered by the data file reach the visitor resolved into the {@code UPDATE}
+     * of the whole task they amount to, see {@link LogEntry#resolve}.
+     * </p>
+     *
+     * @param filePath  The file where tasks are stored.
+     * @param visitor   Receives every valid log entry in log order, including covered ones.
+     * @param validator Asked once the whole log was read; the file is left untouched if it returns
+     *                  {@code false}.
+     * @return {@code true} if the log was applied (or there was nothing to apply), {@code false} if
+     *     it was rejected or on failure.
      */
-    public synchronized void replayLog(Path filePath) {
+    public boolean replayLog(Path filePath, Consumer<LogEntry> visitor, BooleanSupplier validator) {
+        return lock.exclusive(() -> replayLogLocked(filePath, visitor, validator));
+    }
+
+    private synchronized boolean replayLogLocked(Path filePath, Consumer<LogEntry> visitor,
+                                                 BooleanSupplier validator) {
+        drainRing();
+        writePending();
         if (!Files.exists(logFilePath)) {
-            return; // No logs to apply
+            return validator.getAsBoolean(); // No logs to apply
         }
 
-        Path tempFilePath = Paths.get(filePath.toString() + ".tmp");
-
-        try (BufferedWriter writer = Files.newBufferedWriter(tempFilePath,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        if (isReplayedInParallel()) {
+            return replayInParallel(filePath, visitor, validator, replayThreads, true);
+        }
 
-            // Load existing tasks from file using FileUtils
-            Map<UUID, Task> storageMap = new LinkedHashMap<>();
+        // Load existing tasks from the file, keeping them serialized
+        Map<UUID, String> storageMap = new LinkedHashMap<>();
+        long watermark = 0;
+        if (Files.exists(filePath)) {
             try {
-                storageMap.putAll(DataFileUtils.readTasksFromFile(filePath));
-            } catch (IOException e) {
+                watermark = DataFileUtils.streamRecords(filePath,
+                        record -> storageMap.put(DataFileUtils.recordId(record), record));
+            } catch (IOException | IllegalArgumentException e) {
                 System.err.println("Error loading existing tasks: " + e.getMessage());
+                storageMap.clear();
+                watermark = 0;
             }
+        }
 
-            // Read and apply logs
-            try {
-                List<String> logLines = DataFileUtils.readNonEmptyLines(logFilePath);
-                for (String logLine : logLines) {
-                    readLogLine(storageMap, logLine);
+        // Apply logs not yet reflected in the file
+        long[] appliedWatermark = {watermark};
+        long fileWatermark = watermark;
+        try {
+            scanEntries(0, entry -> {
+                LogEntry resolved = resolve(storageMap, entry, fileWatermark);
+                visitor.accept(resolved);
+                appliedWatermark[0] = Math.max(appliedWatermark[0], applyEntry(storageMap, resolved, fileWatermark));
+            }, true);
+        } catch (IOException e) {
+            System.err.println("Error reading log file: " + e.getMessage());
+            return false;
+        }
+        if (!validator.getAsBoolean()) {
+            return false;
+        }
+        return writeDataFile(filePath, appliedWatermark[0], storageMap.values().iterator());
+    }
+
+    /**
+     * Returns whether the log is large enough to be replayed by several threads.
+     */
+    private boolean isReplayedInParallel() {
+        try {
+            return replayThreads > 1 && logSize() >= parallelReplayBytes;
+        } catch (IOException e) {
+            return false; // The sequential replay reports the error
+        }
+    }
+
+    /**
+     * Replays the log like {@link #replayLogLocked}, applying the records and entries on the partition
+     * threads of a {@link ParallelReplay}.
+     *
+     * @param isLoadingDataFile Whether to start from the data file, {@code false} once it failed to load.
+     */
+    private boolean replayInParallel(Path filePath, Consumer<LogEntry> visitor, BooleanSupplier validator,
+                                     int partitionCount, boolean isLoadingDataFile) {
+        try (ParallelReplay replay = new ParallelReplay(partitionCount, visitor)) {
+            // Route existing tasks to the partitions, keeping them serialized
+            long watermark = 0;
+            if (isLoadingDataFile && Files.exists(filePath)) {
+                try {
+                    watermark = DataFileUtils.streamRecords(filePath, record -> {
+                        try {
+                            replay.addRecord(DataFileUtils.recordId(record), record);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                    System.err.println("Error loading existing tasks: " + e.getMessage());
+                    replay.close();
+                    return replayInParallel(filePath, visitor, validator, partitionCount, false);
                 }
-            } catch (IOException e) {
+            }
+
+            // Apply logs not yet reflected in the file, visiting every entry on this thread
+            long[] appliedWatermark = {watermark};
+            long fileWatermark = watermark;
+            try {
+                scanEntries(0, entry -> {
+                    try {
+                        if (entry.isCoveredBy(fileWatermark)) {
+                            replay.pass(entry);
+                        } else {
+                            appliedWatermark[0] = Math.max(appliedWatermark[0], entry.getSequence());
+                            replay.apply(entry);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, true);
+                replay.finish();
+            } catch (IOException | UncheckedIOException e) {
                 System.err.println("Error reading log file: " + e.getMessage());
-                return;
+                return false;
+            }
+            if (!validator.getAsBoolean()) {
+                return false;
             }
+            return writeDataFile(filePath, appliedWatermark[0], replay.records());
+        }
+    }
 
+    /**
+     * Writes the serialized tasks to the data file under a watermark header, through a temporary
+     * file, then clears the applied log.
+     *
+     * @return {@code true} if the data file was replaced.
+     */
+    private boolean writeDataFile(Path filePath, long watermark, Iterator<String> records) {
+        Path tempFilePath = Paths.get(filePath.toString() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
             // Write the updated tasks to the temporary file with the correct format
+            writer.write(DataFileUtils.watermarkHeader(watermark));
+            writer.write('\n');
             writer.write("[\n"); // Write opening bracket
-            for (Task task : storageMap.values()) {
-                writer.write(TaskSerializer.serializeTask(task) + "\n");
+            while (records.hasNext()) {
+                writer.write(records.next());
+                writer.write('\n');
             }
             writer.write("]\n"); // Write closing bracket
 
         } catch (IOException e) {
             System.err.println("Error applying logs to file: " + e.getMessage());
-            return;
+            return false;
         }
 
         // Replace original file with updated file
         try {
             Files.move(tempFilePath, filePath, StandardCopyOption.REPLACE_EXISTING);
             clearLog(); // Clear logs after successful application
+            return true;
         } catch (IOException e) {
             System.err.println("Error replacing original file with updated file: " + e.getMessage());
+            return false;
         }
+    }
 
+    /**
+     * Turns a field change that is not covered by the watermark into the {@code UPDATE} it amounts to.
+     *
+     * @return The resolved entry, or the entry itself if it is not a field change, is covered, or
+     *     changes a task missing from the map.
+     */
+    private static LogEntry resolve(Map<UUID, String> storageMap, LogEntry entry, long watermark) {
+        if (!entry.isFieldChange() || entry.isCoveredBy(watermark)) {
+            return entry;
+        }
+        String record = storageMap.get(entry.getTaskId());
+        return record == null ? entry : entry.resolve(record);
     }
 
     /**
-     * Parses a log line and updates the provided task storage map accordingly.
-     * <p>
-     * This method processes log entries in the format:
-     * <pre>{@code
-     * EVENT_TYPE task_data
-     * }</pre>
-     * where {@code EVENT_TYPE} can be {@code ADD}, {@code UPDATE}, or {@code DELETE}.
+     * Applies a log entry to the provided map of serialized tasks.
      * <ul>
-     *     <li>{@code ADD} and {@code UPDATE}: Deserialize the task and store/update it in the map.</li>
+     *     <li>{@code ADD} and {@code UPDATE}: Store/update the logged record in the map, as-is.</li>
      *     <li>{@code DELETE}: Remove the task identified by its UUID.</li>
+     *     <li>{@code COMPLETE}, {@code REOPEN} and {@code RENAME}: Change the field of the stored
+     *     record in place, if the task is in the map.</li>
      * </ul>
-     * If the log entry is invalid or contains an unknown event type, it is skipped or an exception is thrown.
+     * Logged records are written by {@link TaskSerializer}, so they are copied to the data file
+     * without being deserialized. Entries already covered by the watermark are skipped.
      *
-     * @param storageMap A map storing tasks, indexed by their UUIDs.
-     * @param logLine    A string containing the log entry to process.
+     * @param storageMap A map of serialized tasks, indexed by their UUIDs.
+     * @param entry      The log entry to apply.
+     * @param watermark  The last sequence already applied to the stored tasks.
+     * @return The sequence number of the applied entry, or {@code 0} if nothing was applied.
      * @throws UserFacingException If an unknown event type is encountered.
      */
-    private void readLogLine(Map<UUID, Task> storageMap, String logLine) {
-        String[] parts = logLine.split(" ", 2);
-        if (parts.length < 2) {
-            return;
+    static long applyEntry(Map<UUID, String> storageMap, LogEntry entry, long watermark) {
+        if (entry.isCoveredBy(watermark)) {
+            return 0;
         }
 
-        TaskEvent.EventType eventType;
-        try {
-            eventType = TaskEvent.EventType.valueOf(parts[0]);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Skipping invalid log entry: " + logLine);
-            return;
+        switch (entry.getType()) {
+        case ADD, UPDATE -> storageMap.put(entry.getTaskId(), entry.getPayload());
+        case DELETE -> storageMap.remove(entry.getTaskId());
+        case COMPLETE, REOPEN, RENAME -> storageMap.computeIfPresent(entry.getTaskId(),
+                (id, record) -> entry.applyTo(record));
+        default -> throw new UserFacingException("Unknown event type: " + entry.getType());
         }
+        return entry.getSequence();
+    }
 
-        switch (eventType) {
-        case ADD, UPDATE -> {
-            Task task = TaskDeserializer.deserializeTask(parts[1]);
-            storageMap.put(task.getId(), task);
-        }
-        case DELETE -> {
-            UUID taskId = UUID.fromString(parts[1]);
-            storageMap.remove(taskId);
+    /**
+     * Compacts the log if background compaction is enabled and the log has grown past the
+     * threshold. Must be called with the exclusive lock held.
+     */
+    private synchronized void compactIfLarge() {
+        if (compactionDataFile == null) {
+            return;
         }
-        default -> throw new UserFacingException("Unknown event type: " + eventType);
+        writePending();
+        try {
+            if (logSize() > nextCompactionSize && compactLogLocked(compactionDataFile)) {
+                nextCompactionSize = Math.max(compactionThreshold, 2 * logSize());
+            }
+        } catch (IOException e) {
+            System.err.println("Error compacting log: " + e.getMessage());
         }
     }
 
-
     /**
-     * Applies log replay to a given list without modifying actual storage.
-     * This allows testing how logs would affect the state without applying them.
+     * Rewrites the log so that replaying it into the data file has the same result with fewer
+     * entries. Entries already covered by the watermark of the data file are dropped. Of the
+     * remaining entries of each task, only the last record is kept, preceded by its last deletion
+     * if the task was deleted and is still in the data file; a task added and deleted since the
+     * last flush disappears from the log entirely. Field changes are folded into the last record,
+     * or, for a task whose record is only in the data file, reduced to its last completion change
+     * and its last rename. Kept entries stay at the positions of the changes they stand for, so
+     * tasks keep their order in the data file.
+     * <p>
+     * The compacted log replaces the old one atomically, and other processes start reading it
+     * from the beginning, re-applying the surviving entries.
+     * </p>
      *
-     * @param testList A copy of the task list where logs will be applied.
-     * @return The modified list after log replay.
+     * @param dataFilePath The data file the log is replayed into.
+     * @return {@code true} if the log was compacted (or there was nothing to compact), {@code false} on failure.
      */
-    public int tryLogReplay(List<Task> testList) {
+    public boolean compactLog(Path dataFilePath) {
+        return lock.exclusive(() -> compactLogLocked(dataFilePath));
+    }
+
+    private synchronized boolean compactLogLocked(Path dataFilePath) {
+        drainRing();
+        writePending();
         if (!Files.exists(logFilePath)) {
-            Objects.hash(testList.toArray()); // Order-sensitive; Return unchanged if no log
+            return true; // Nothing to compact
         }
 
-        List<Task> replayedList = new ArrayList<>(testList);
-        Map<UUID, Task> tempStorage = new LinkedHashMap<>();
-        for (Task task : replayedList) {
-            tempStorage.put(task.getId(), task);
+        long watermark = 0;
+        Set<UUID> checkpointIds = new HashSet<>();
+        try {
+            if (Files.exists(dataFilePath)) {
+                watermark = DataFileUtils.readWatermark(dataFilePath);
+                for (String record : DataFileUtils.recordLines(DataFileUtils.readNonEmptyLines(dataFilePath))) {
+                    checkpointIds.add(DataFileUtils.recordId(record));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading data file for log compaction: " + e.getMessage());
+            return false;
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(logFilePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                readLogLine(tempStorage, line);
+        Path tempLogPath = Paths.get(logFilePath.toString() + ".tmp");
+        try {
+            checkReadPosition();
+            boolean isCaughtUp = logSize() == readOffset;
+            LogFormat format;
+            try (FileChannel log = FileChannel.open(logFilePath, StandardOpenOption.READ)) {
+                format = formatOf(log);
             }
+            List<LogEntry> entries = new ArrayList<>();
+            scanEntries(0, entries::add);
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempLogPath))) {
+                List<LogEntry> compacted = compactEntries(entries, watermark, checkpointIds);
+                if (format == LogFormat.BINARY && !compacted.isEmpty()) {
+                    out.write(BinaryLogCodec.MAGIC);
+                } else if (format == LogFormat.MAPPED && !compacted.isEmpty()) {
+                    out.write(MappedLog.header(0).array());
+                }
+                for (LogEntry entry : compacted) {
+                    writeEntry(out, entry, format);
+                }
+            }
+            if (format == LogFormat.MAPPED && Files.size(tempLogPath) > 0) {
+                MappedLog.seal(tempLogPath); // Grown back into chunks when next appended to
+            }
+
+            Files.move(tempLogPath, logFilePath, StandardCopyOption.REPLACE_EXISTING);
+            closeChannel(); // The log file was replaced
+            readOffset = isCaughtUp ? logSize() : 0;
+            readFileKey = isCaughtUp ? currentFileKey() : null;
+            return true;
         } catch (IOException e) {
-            System.err.println("Error during tryLogReplay: " + e.getMessage());
+            System.err.println("Error compacting log: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reduces the entries not covered by the watermark to at most a deletion and a final record
+     * per task, or its last field changes, each kept at the position of the change it stands for.
+     *
+     * @param entries       The log entries, in log order.
+     * @param watermark     The last sequence applied to the data file.
+     * @param checkpointIds The UUIDs of the tasks in the data file.
+     * @return The entries to keep, in log order.
+     */
+    private static List<LogEntry> compactEntries(List<LogEntry> entries, long watermark, Set<UUID> checkpointIds) {
+        Map<UUID, TaskHistory> histories = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            LogEntry entry = entries.get(i);
+            if (!entry.isCoveredBy(watermark)) {
+                histories.computeIfAbsent(entry.getTaskId(), id -> new TaskHistory()).add(i, entry);
+            }
+        }
+
+        LogEntry[] kept = new LogEntry[entries.size()];
+        histories.forEach((id, history) -> {
+            if (history.deletion != null && checkpointIds.contains(id)) {
+                kept[history.deletionIndex] = history.deletion;
+            }
+            if (history.last != null) {
+                kept[history.insertionIndex] = history.last;
+            }
+            if (history.completion != null) {
+                kept[history.completionIndex] = history.completion;
+            }
+            if (history.rename != null) {
+                kept[history.renameIndex] = history.rename;
+            }
+        });
+        return Arrays.stream(kept).filter(Objects::nonNull).toList();
+    }
+
+    private static void writeEntry(OutputStream out, LogEntry entry, LogFormat format) throws IOException {
+        String record = entry.getData();
+        if (format == LogFormat.TEXT) {
+            out.write((LogEntry.format(entry.getSequence(), entry.getType(), record) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return;
         }
+        byte[] fields = BinaryLogCodec.encodeFields(entry.getType(), record);
+        ByteBuffer encoded = ByteBuffer.allocate(BinaryLogCodec.encodedSize(fields));
+        BinaryLogCodec.encode(encoded, entry.getSequence(), entry.getType(), entry.getTaskId(), fields);
+        out.write(encoded.array());
+    }
+
+    /**
+     * Streams every valid entry of the log to the given consumer, in log order,
+     * without deserializing the logged tasks.
+     *
+     * @param consumer The consumer receiving each entry.
+     */
+    public void forEachEntry(Consumer<LogEntry> consumer) {
+        writeQueued();
+        lock.shared(() -> {
+            synchronized (this) {
+                try {
+                    writePending();
+                    scanEntries(0, consumer);
+                } catch (IOException e) {
+                    System.err.println("Error reading log entries: " + e.getMessage());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Rebuilds the serialized tasks as they were right after the given sequence, from the history.
+     * Queued events are written out first.
+     *
+     * @param sequence The sequence of the last entry to include.
+     * @return The serialized tasks in data file order, or empty if the history is disabled or does
+     *     not reach back that far.
+     */
+    public Optional<List<String>> recordsAt(long sequence) {
+        writeQueued();
+        return lock.shared(() -> {
+            synchronized (this) {
+                writePending(); // Only non-empty when called within our own exclusive hold
+                if (history == null) {
+                    return Optional.empty();
+                }
+                try {
+                    return history.recordsAt(sequence);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Error reading event history: " + e.getMessage());
+                    return Optional.empty();
+                }
+            }
+        });
+    }
 
-        // Convert map back to list
-        replayedList.clear();
-        replayedList.addAll(tempStorage.values());
-        return Objects.hash(replayedList.toArray()); // Order-sensitive
+    /**
+     * Delivers the entries written after the given sequence, in log order, from the history.
+     * Queued events are written out first.
+     *
+     * @param sequence The sequence of the last entry to skip.
+     * @param consumer Receives each entry, and returns {@code false} to stop the delivery.
+     * @return {@code true} if every entry after the sequence could be delivered, {@code false} if the
+     *     history is disabled or does not reach back that far.
+     */
+    public boolean forEachEntryAfter(long sequence, Predicate<LogEntry> consumer) {
+        writeQueued();
+        return lock.shared(() -> {
+            synchronized (this) {
+                writePending();
+                if (history == null) {
+                    return false;
+                }
+                try {
+                    return history.forEachEntryAfter(sequence, consumer);
+                } catch (IOException e) {
+                    System.err.println("Error reading event history: " + e.getMessage());
+                    return false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the sequence of the last entry written at or before a point in time, to the second.
+     *
+     * @param time The point in time.
+     * @return The sequence, or empty if the history is disabled or starts after that time.
+     */
+    public OptionalLong sequenceAt(Instant time) {
+        writeQueued();
+        return lock.shared(() -> {
+            synchronized (this) {
+                writePending();
+                if (history == null) {
+                    return OptionalLong.empty();
+                }
+                try {
+                    return history.sequenceAt(time.toEpochMilli(), lastSequence);
+                } catch (IOException e) {
+                    System.err.println("Error reading event history: " + e.getMessage());
+                    return OptionalLong.empty();
+                }
+            }
+        });
     }
 
     /**
      * Clears the log file after log replay has been applied.
+     * Entries still buffered are dropped, as the caller has just persisted them.
+     */
+    public void clearLog() {
+        lock.exclusive(() -> {
+            synchronized (this) {
+                try {
+                    clearPending();
+                    closeChannel();
+                    Files.deleteIfExists(logFilePath);
+                    readOffset = 0;
+                    nextCompactionSize = compactionThreshold;
+                } catch (IOException e) {
+                    System.err.println("Error clearing log: " + e.getMessage());
+                }
+                snapshotHistory();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Snapshots the data file into the history if one is due, and deletes history past its
+     * retention limits. Called once the log was folded into the data file.
      */
-    public synchronized void clearLog() {
+    private void snapshotHistory() {
+        if (history == null) {
+            return;
+        }
+        try {
+            history.snapshotIfDue(historyDataFile);
+        } catch (IOException e) {
+            System.err.println("Error writing event history snapshot: " + e.getMessage());
+        }
         try {
-            Files.deleteIfExists(logFilePath);
+            history.applyRetention(historyDataFile);
         } catch (IOException e) {
-            System.err.println("Error clearing log: " + e.getMessage());
+            System.err.println("Error applying event history retention: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The uncovered log entries of one task that survive compaction.
+     */
+    private static class TaskHistory {
+        private LogEntry deletion; // Last deletion
+        private int deletionIndex;
+        private LogEntry last; // Last record since the last deletion, carrying its content
+        private int insertionIndex; // Position of the first change since the last deletion
+        private LogEntry completion; // Last COMPLETE or REOPEN of a task only recorded in the data file
+        private int completionIndex;
+        private LogEntry rename; // Last RENAME of a task only recorded in the data file
+        private int renameIndex;
+
+        private void add(int index, LogEntry entry) {
+            if (entry.getType() == TaskEvent.EventType.DELETE) {
+                deletion = entry;
+                deletionIndex = index;
+                last = null;
+                completion = null;
+                rename = null;
+            } else if (entry.isFieldChange()) {
+                addFieldChange(index, entry);
+            } else {
+                if (last == null) {
+                    insertionIndex = index;
+                }
+                last = entry;
+                completion = null; // Superseded by the whole record
+                rename = null;
+            }
+        }
+
+        /**
+         * Folds a field change into the last record, or keeps it if the record is only in the data
+         * file. A change after a deletion has nothing to apply to and is dropped.
+         */
+        private void addFieldChange(int index, LogEntry entry) {
+            if (last != null) {
+                last = entry.resolve(last.getPayload());
+            } else if (deletion == null && entry.getType() == TaskEvent.EventType.RENAME) {
+                rename = entry;
+                renameIndex = index;
+            } else if (deletion == null) {
+                completion = entry;
+                completionIndex = index;
+            }
+        }
+    }
+
+    /**
+     * A preallocated ring buffer slot holding a queued event, serialized but not yet numbered.
+     */
+    private static class EventSlot {
+        private TaskEvent.EventType type;
+        private List<UUID> ids;
+        private List<String> records;
+
+        private void fill(TaskEvent.EventType type, List<UUID> ids, List<String> records) {
+            this.type = type;
+            this.ids = ids;
+            this.records = records;
         }
     }
 }
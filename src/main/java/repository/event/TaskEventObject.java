@@ -1,18 +1,40 @@
 package repository.event;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import lombok.NoArgsConstructor;
 
 /**
  * A singleton event bus for handling task events.
+ * <p>
+ * Listeners registered with {@link #register} run inline on the dispatching thread. Listeners
+ * registered with {@link #registerAsync} run on a shared pool of daemon threads, receive the
+ * events of each task in dispatch order, and are decoupled from dispatch by bounded queues, see
+ * {@link AsyncListener}.
+ * </p>
+ * <p>
+ * {@link #subscribe} registers a {@link Subscription} instead: the bus indexes subscriptions by
+ * event type, so listeners interested in a few types, task types or a predicate are only
+ * visited for the events they may want, and can be conflated by task or held weakly.
+ * </p>
  */
 @NoArgsConstructor
 public class TaskEventObject {
     private static final TaskEventObject INSTANCE = new TaskEventObject();
+    private static final int DEFAULT_PARTITIONS = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
     private final List<Consumer<TaskEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>(); // In registration order
+    private final Map<TaskEvent.EventType, List<Subscription>> subscriptionsByType = indexByType();
+    private ExecutorService executor; // Created on the first asynchronous registration
 
     public static TaskEventObject getInstance() {
         return INSTANCE;
@@ -23,7 +45,83 @@ public class TaskEventObject {
     }
 
     /**
-     * Dispatches a task event to all registered listeners. (only one exists now)
+     * Registers a listener that receives events asynchronously, with per-task ordering and one
+     * partition per processor.
+     *
+     * @param name     The name reported in the listener's {@link ListenerStats}.
+     * @param listener The listener to register.
+     */
+    public void registerAsync(String name, Consumer<TaskEvent> listener) {
+        registerAsync(name, listener, DEFAULT_PARTITIONS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Registers a listener that receives events asynchronously, with per-task ordering.
+     *
+     * @param name           The name reported in the listener's {@link ListenerStats}.
+     * @param listener       The listener to register.
+     * @param partitionCount The number of partitions delivered in parallel.
+     * @param queueCapacity  The number of events each partition buffers before dispatch waits.
+     */
+    public void registerAsync(String name, Consumer<TaskEvent> listener, int partitionCount, int queueCapacity) {
+        listeners.add(new AsyncListener(name, listener, executor(), partitionCount, queueCapacity));
+    }
+
+    /**
+     * Starts a filtered subscription. Nothing is delivered until {@link Subscription.Builder#register}
+     * is called, e.g.
+     * {@code bus.subscribe(view::refresh).eventTypes(UPDATE).taskTypes(DEADLINE).conflateByTask().register()}.
+     *
+     * @param listener The listener receiving the matching events.
+     * @return A builder collecting the filters and delivery options of the subscription.
+     */
+    public Subscription.Builder subscribe(Consumer<TaskEvent> listener) {
+        return new Subscription.Builder(this, listener);
+    }
+
+    /**
+     * Unregisters a listener, whether synchronous or asynchronous. Events already queued for an
+     * asynchronous listener are still delivered.
+     *
+     * @param listener The listener to unregister.
+     * @return {@code true} if the listener was registered.
+     */
+    public boolean unregister(Consumer<TaskEvent> listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.isListener(listener)) {
+                subscription.cancel();
+                return true;
+            }
+        }
+        for (Consumer<TaskEvent> registered : listeners) {
+            if (registered == listener
+                    || registered instanceof AsyncListener async && async.getDelegate() == listener) {
+                listeners.remove(registered);
+                if (registered instanceof AsyncListener async) {
+                    async.close();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lag metrics of every asynchronous listener.
+     *
+     * @return One snapshot per asynchronous listener or subscription, listeners first, each in
+     *         registration order.
+     */
+    public List<ListenerStats> getListenerStats() {
+        return Stream.concat(listeners.stream(), subscriptions.stream().map(Subscription::getDelivery))
+                .filter(AsyncListener.class::isInstance)
+                .map(listener -> ((AsyncListener) listener).stats())
+                .toList();
+    }
+
+    /**
+     * Dispatches a task event to all registered listeners.
+     * Asynchronous listeners only queue the event.
      *
      * @param event The {@link TaskEvent} to be propagated.
      */
@@ -31,5 +129,45 @@ public class TaskEventObject {
         for (Consumer<TaskEvent> listener : listeners) {
             listener.accept(event);
         }
+        for (Subscription subscription : subscriptionsByType.get(event.getType())) {
+            subscription.accept(event);
+        }
+    }
+
+    void add(Subscription subscription) {
+        subscriptions.add(subscription);
+        for (TaskEvent.EventType type : subscription.getEventTypes()) {
+            subscriptionsByType.get(type).add(subscription);
+        }
+    }
+
+    void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+        for (TaskEvent.EventType type : subscription.getEventTypes()) {
+            subscriptionsByType.get(type).remove(subscription);
+        }
+    }
+
+    AsyncListener asyncListener(String name, Consumer<TaskEvent> listener) {
+        return new AsyncListener(name, listener, executor(), DEFAULT_PARTITIONS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    private static Map<TaskEvent.EventType, List<Subscription>> indexByType() {
+        Map<TaskEvent.EventType, List<Subscription>> index = new EnumMap<>(TaskEvent.EventType.class);
+        for (TaskEvent.EventType type : TaskEvent.EventType.values()) {
+            index.put(type, new CopyOnWriteArrayList<>());
+        }
+        return index;
+    }
+
+    synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(DEFAULT_PARTITIONS, runnable -> {
+                Thread thread = new Thread(runnable, "task-event-listener");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
     }
 }
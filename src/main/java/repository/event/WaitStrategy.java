@@ -0,0 +1,136 @@
+package repository.event;
+
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How the consumer of an {@link EventRingBuffer} waits for events to be published.
+ * <p>
+ * The strategies trade CPU for latency, from {@link #BLOCKING}, which sleeps until signalled,
+ * to {@link #BUSY_SPIN}, which keeps a core busy. The strategy is chosen with the
+ * {@code spring.log.waitStrategy} system property and defaults to {@link #BLOCKING}.
+ * </p>
+ */
+public enum WaitStrategy {
+    /**
+     * Waits on a monitor that every publication signals. Uses no CPU while idle, at the cost of
+     * taking the monitor on each publication.
+     */
+    BLOCKING {
+        @Override
+        void await(BooleanSupplier isReady, Object monitor) throws InterruptedException {
+            synchronized (monitor) {
+                while (!isReady.getAsBoolean()) {
+                    monitor.wait();
+                }
+            }
+        }
+
+        @Override
+        void signal(Object monitor) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    },
+    /**
+     * Spins briefly, then yields, then parks for short intervals. Cheap for publishers and light
+     * on the CPU when idle.
+     */
+    SLEEPING {
+        @Override
+        void await(BooleanSupplier isReady, Object monitor) throws InterruptedException {
+            for (int attempt = 0; !isReady.getAsBoolean(); attempt++) {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (attempt < SPIN_TRIES * 2) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                checkInterrupted();
+            }
+        }
+    },
+    /**
+     * Spins briefly, then yields the core between checks. Low latency, but keeps the consumer
+     * runnable while idle.
+     */
+    YIELDING {
+        @Override
+        void await(BooleanSupplier isReady, Object monitor) throws InterruptedException {
+            for (int attempt = 0; !isReady.getAsBoolean(); attempt++) {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                checkInterrupted();
+            }
+        }
+    },
+    /**
+     * Spins without ever giving up the core. Lowest latency; only sensible with a spare core.
+     */
+    BUSY_SPIN {
+        @Override
+        void await(BooleanSupplier isReady, Object monitor) throws InterruptedException {
+            while (!isReady.getAsBoolean()) {
+                Thread.onSpinWait();
+                checkInterrupted();
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 100_000;
+
+    /**
+     * Waits until the condition holds.
+     *
+     * @param isReady The condition, typically that the next event was published.
+     * @param monitor The monitor publishers signal through {@link #signal}.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    abstract void await(BooleanSupplier isReady, Object monitor) throws InterruptedException;
+
+    /**
+     * Wakes up a consumer waiting on the monitor. Only needed by strategies that sleep.
+     *
+     * @param monitor The monitor passed to {@link #await}.
+     */
+    void signal(Object monitor) {
+        // Polling strategies notice publications by themselves
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Looks up a strategy by its case-insensitive name, with dashes standing for underscores.
+     *
+     * @param name The strategy name, e.g. {@code busy-spin}.
+     * @return The matching strategy.
+     * @throws IllegalArgumentException If no strategy has that name.
+     */
+    public static WaitStrategy fromName(String name) {
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+    /**
+     * Resolves the strategy from the {@code spring.log.waitStrategy} system property.
+     *
+     * @return The selected strategy.
+     */
+    public static WaitStrategy fromSystemProperties() {
+        return fromName(System.getProperty("spring.log.waitStrategy", BLOCKING.name()));
+    }
+}
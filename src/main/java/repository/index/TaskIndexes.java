@@ -0,0 +1,388 @@
+package repository.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import entity.TaskType;
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+
+/**
+ * Secondary indexes over the tasks of a repository, answering keyword and date range queries
+ * without scanning every task.
+ *
+ * <p>
+ * Two indexes are kept:
+ * <ul>
+ *     <li>a <b>keyword</b> index mapping every three-character substring (trigram) of a task name
+ *     to the tasks containing it, so a keyword only has to be checked against tasks holding all of
+ *     its trigrams;</li>
+ *     <li>a <b>date</b> index per task type, ordering deadlines by their due date and events by
+ *     their end date.</li>
+ * </ul>
+ * Lookups return candidates in repository order; callers still apply their exact predicate.
+ * </p>
+ *
+ * <p>
+ * The indexes can be {@link #encode encoded} to a compact binary form stamped with the state of
+ * the data file they describe, and {@link #decode decoded} again on startup if the stamp still matches.
+ * </p>
+ */
+public class TaskIndexes {
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 1;
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<TaskType, NavigableMap<LocalDateTime, Set<UUID>>> byDate = new EnumMap<>(TaskType.class);
+    private final Map<String, Set<UUID>> byTrigram = new HashMap<>();
+    private long nextOrdinal;
+
+    /**
+     * Indexes a new task, or re-indexes a replaced one while keeping its position.
+     *
+     * @param task The task to index.
+     */
+    public void index(Task task) {
+        Entry previous = entries.get(task.getId());
+        long ordinal = previous == null ? nextOrdinal++ : previous.ordinal;
+        if (previous != null) {
+            unlink(task.getId(), previous);
+        }
+        Entry entry = new Entry(ordinal, TaskType.fromTask(task), dateKeyOf(task), trigramsOf(task.getName()));
+        link(task.getId(), entry);
+    }
+
+    /**
+     * Removes a task from the indexes.
+     *
+     * @param id The UUID of the task to remove.
+     */
+    public void remove(UUID id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            unlink(id, entry);
+        }
+    }
+
+    /**
+     * Removes every task from the indexes.
+     */
+    public void clear() {
+        entries.clear();
+        byDate.clear();
+        byTrigram.clear();
+        nextOrdinal = 0;
+    }
+
+    /**
+     * Discards the current contents and indexes the given tasks in order.
+     *
+     * @param tasks The tasks to index, in repository order.
+     */
+    public void rebuild(Collection<Task> tasks) {
+        clear();
+        for (Task task : tasks) {
+            index(task);
+        }
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     *
+     * @return The indexed task count.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Finds the tasks of a type whose indexed date lies in {@code [from, to)}.
+     * The indexed date is the due date of a deadline and the end date of an event.
+     *
+     * @param type The task type.
+     * @param from The inclusive lower bound, or {@code null} for none.
+     * @param to   The exclusive upper bound, or {@code null} for none.
+     * @return The matching task UUIDs in repository order.
+     */
+    public List<UUID> findByDate(TaskType type, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Set<UUID>> dates = byDate.get(type);
+        if (dates == null) {
+            return new ArrayList<>();
+        }
+        if (from != null) {
+            dates = dates.tailMap(from, true);
+        }
+        if (to != null) {
+            dates = dates.headMap(to, false);
+        }
+        List<UUID> ids = new ArrayList<>();
+        dates.values().forEach(ids::addAll);
+        return inOrder(ids);
+    }
+
+    /**
+     * Finds the tasks whose name may contain a keyword, i.e. that hold every trigram of it.
+     *
+     * @param keyword The keyword to look up.
+     * @return The candidate task UUIDs in repository order, or empty if the keyword is too short
+     *         to be looked up and every task is a candidate.
+     */
+    public Optional<List<UUID>> findKeywordCandidates(String keyword) {
+        Set<String> trigrams = trigramsOf(keyword);
+        if (trigrams.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<UUID> candidates = null;
+        for (String trigram : trigrams) {
+            Set<UUID> ids = byTrigram.getOrDefault(trigram, Set.of());
+            if (candidates == null) {
+                candidates = new HashSet<>(ids);
+            } else {
+                candidates.retainAll(ids);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return Optional.of(inOrder(candidates));
+    }
+
+    /**
+     * Encodes the indexes, stamped with the state of the data file they describe.
+     *
+     * @param watermark The watermark of the data file.
+     * @param stateHash The content hash of the data file.
+     * @return The encoded indexes.
+     */
+    public ByteBuffer encode(long watermark, long stateHash) {
+        List<UUID> order = inOrder(entries.keySet());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark);
+            out.writeLong(stateHash);
+
+            // Task table; postings below refer to tasks by their position in it
+            Map<UUID, Integer> positions = new HashMap<>();
+            out.writeInt(order.size());
+            for (UUID id : order) {
+                positions.put(id, positions.size());
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+
+            out.writeInt(byDate.size());
+            for (Map.Entry<TaskType, NavigableMap<LocalDateTime, Set<UUID>>> type : byDate.entrySet()) {
+                out.writeByte(type.getKey().ordinal());
+                out.writeInt(type.getValue().size());
+                for (Map.Entry<LocalDateTime, Set<UUID>> date : type.getValue().entrySet()) {
+                    out.writeLong(date.getKey().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(date.getKey().getNano());
+                    writePostings(out, date.getValue(), positions);
+                }
+            }
+
+            out.writeInt(byTrigram.size());
+            for (Map.Entry<String, Set<UUID>> trigram : byTrigram.entrySet()) {
+                byte[] key = trigram.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(key.length);
+                out.write(key);
+                writePostings(out, trigram.getValue(), positions);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory encoding failed", e); // Cannot happen for byte arrays
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private static void writePostings(DataOutputStream out, Set<UUID> ids, Map<UUID, Integer> positions)
+            throws IOException {
+        out.writeInt(ids.size());
+        for (UUID id : ids) {
+            out.writeInt(positions.get(id));
+        }
+    }
+
+    /**
+     * Decodes indexes previously written by {@link #encode}, provided they describe the expected
+     * data file. The current contents are replaced only if decoding succeeds.
+     *
+     * @param buffer    The encoded indexes.
+     * @param order     The tasks of the data file in repository order.
+     * @param watermark The expected watermark of the data file.
+     * @param stateHash The expected content hash of the data file.
+     * @return {@code true} if the indexes were loaded, {@code false} if they are stale, truncated or corrupt.
+     */
+    public boolean decode(ByteBuffer buffer, List<UUID> order, long watermark, long stateHash) {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != watermark || buffer.getLong() != stateHash) {
+                return false;
+            }
+            int taskCount = buffer.getInt();
+            if (taskCount != order.size()) {
+                return false;
+            }
+            UUID[] ids = new UUID[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                ids[i] = new UUID(buffer.getLong(), buffer.getLong());
+                if (!ids[i].equals(order.get(i))) {
+                    return false;
+                }
+            }
+
+            Map<UUID, Entry> decoded = new HashMap<>();
+            for (int i = 0; i < taskCount; i++) {
+                decoded.put(ids[i], new Entry(i, null, null, new HashSet<>()));
+            }
+            Map<TaskType, NavigableMap<LocalDateTime, Set<UUID>>> decodedDates = new EnumMap<>(TaskType.class);
+            int typeCount = buffer.getInt();
+            for (int t = 0; t < typeCount; t++) {
+                TaskType type = TaskType.values()[buffer.get()];
+                NavigableMap<LocalDateTime, Set<UUID>> dates = new TreeMap<>();
+                int dateCount = buffer.getInt();
+                for (int d = 0; d < dateCount; d++) {
+                    LocalDateTime date = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                    Set<UUID> postings = readPostings(buffer, ids);
+                    for (UUID id : postings) {
+                        Entry entry = decoded.get(id);
+                        decoded.put(id, new Entry(entry.ordinal, type, date, entry.trigrams));
+                    }
+                    dates.put(date, postings);
+                }
+                decodedDates.put(type, dates);
+            }
+            Map<String, Set<UUID>> decodedTrigrams = new HashMap<>();
+            int trigramCount = buffer.getInt();
+            for (int g = 0; g < trigramCount; g++) {
+                int keyLength = Short.toUnsignedInt(buffer.getShort());
+                if (keyLength > buffer.remaining()) {
+                    return false;
+                }
+                byte[] key = new byte[keyLength];
+                buffer.get(key);
+                String trigram = new String(key, StandardCharsets.UTF_8);
+                Set<UUID> postings = readPostings(buffer, ids);
+                for (UUID id : postings) {
+                    decoded.get(id).trigrams.add(trigram);
+                }
+                decodedTrigrams.put(trigram, postings);
+            }
+
+            clear();
+            entries.putAll(decoded);
+            byDate.putAll(decodedDates);
+            byTrigram.putAll(decodedTrigrams);
+            nextOrdinal = taskCount;
+            return true;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                | DateTimeException e) {
+            return false; // Truncated or corrupt, so the indexes are rebuilt instead
+        }
+    }
+
+    private static Set<UUID> readPostings(ByteBuffer buffer, UUID[] ids) {
+        int count = buffer.getInt();
+        Set<UUID> postings = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            postings.add(ids[buffer.getInt()]);
+        }
+        return postings;
+    }
+
+    private List<UUID> inOrder(Collection<UUID> ids) {
+        List<UUID> ordered = new ArrayList<>(ids);
+        ordered.sort(Comparator.comparingLong(id -> entries.get(id).ordinal));
+        return ordered;
+    }
+
+    private void link(UUID id, Entry entry) {
+        entries.put(id, entry);
+        if (entry.date != null) {
+            byDate.computeIfAbsent(entry.type, type -> new TreeMap<>())
+                    .computeIfAbsent(entry.date, date -> new HashSet<>()).add(id);
+        }
+        for (String trigram : entry.trigrams) {
+            byTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unlink(UUID id, Entry entry) {
+        if (entry.date != null) {
+            NavigableMap<LocalDateTime, Set<UUID>> dates = byDate.get(entry.type);
+            Set<UUID> ids = dates.get(entry.date);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                dates.remove(entry.date);
+            }
+        }
+        for (String trigram : entry.trigrams) {
+            Set<UUID> ids = byTrigram.get(trigram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                byTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private static LocalDateTime dateKeyOf(Task task) {
+        if (task instanceof DeadLine deadLine) {
+            return deadLine.getDueby();
+        } else if (task instanceof Events events) {
+            return events.getEndby();
+        }
+        return null;
+    }
+
+    private static Set<String> trigramsOf(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + TRIGRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    /**
+     * What a task contributes to the indexes, kept so the task can be unlinked again.
+     */
+    private static class Entry {
+        private final long ordinal;
+        private final TaskType type;
+        private final LocalDateTime date;
+        private final Set<String> trigrams;
+
+        private Entry(long ordinal, TaskType type, LocalDateTime date, Set<String> trigrams) {
+            this.ordinal = ordinal;
+            this.type = type;
+            this.date = date;
+            this.trigrams = trigrams;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package repository.integrity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * An order-aware rolling content hash over a keyed sequence, maintained as a segment tree.
+ *
+ * <p>
+ * Every key occupies a slot in append order, mirroring how the repository keeps tasks in
+ * insertion order. Each internal node stores the polynomial hash of the live entries below it,
+ * so replacing, appending or removing a single entry costs {@code O(log n)} and the root reflects
+ * both the content and the order of the whole sequence. Removed slots become empty and do not
+ * contribute to the hash, so two trees holding the same live sequence share a root hash even if
+ * their slot layouts differ.
+ * </p>
+ *
+ * <p>
+ * Two trees with the same slot layout can be compared with {@link #divergentRanges}, which only
+ * descends into subtrees whose hashes differ.
+ * </p>
+ *
+ * @param <K> The type of the key identifying each entry.
+ */
+public class ContentHashTree<K> {
+    private static final long BASE = 0x100000001B3L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] hashes;
+    private long[] powers;
+    private int[] counts;
+    private int capacity;
+
+    private final List<K> keys = new ArrayList<>();
+    private final Map<K, Integer> slots = new HashMap<>();
+
+    /**
+     * Constructs an empty tree.
+     */
+    public ContentHashTree() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Computes the leaf hash for a piece of content, typically a serialized task.
+     *
+     * @param content The content to hash.
+     * @return A well-mixed 64-bit hash of the content.
+     */
+    public static long hashOf(CharSequence content) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        // SplitMix64 finalizer to spread FNV's weak low bits
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Inserts or replaces the entry for a key. New keys are appended after all existing slots.
+     *
+     * @param key      The key of the entry.
+     * @param leafHash The content hash of the entry.
+     */
+    public void put(K key, long leafHash) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            slot = keys.size();
+            if (slot == capacity) {
+                allocate(capacity * 2);
+            }
+            keys.add(key);
+            slots.put(key, slot);
+        }
+        setLeaf(slot, leafHash, true);
+    }
+
+    /**
+     * Removes the entry for a key, leaving its slot empty.
+     *
+     * @param key The key to remove.
+     * @return {@code true} if the key was present.
+     */
+    public boolean remove(K key) {
+        Integer slot = slots.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        keys.set(slot, null);
+        setLeaf(slot, 0, false);
+        return true;
+    }
+
+    /**
+     * Removes every entry and releases the slots.
+     */
+    public void clear() {
+        keys.clear();
+        slots.clear();
+        hashes = null;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Replaces the contents of this tree with a copy of another tree, including its slot layout.
+     *
+     * @param other The tree to copy.
+     */
+    public void copyFrom(ContentHashTree<K> other) {
+        this.capacity = other.capacity;
+        this.hashes = other.hashes.clone();
+        this.powers = other.powers.clone();
+        this.counts = other.counts.clone();
+        this.keys.clear();
+        this.keys.addAll(other.keys);
+        this.slots.clear();
+        this.slots.putAll(other.slots);
+    }
+
+    /**
+     * Packs the live entries into consecutive slots, dropping the empty slots left by removals.
+     * The root hash is unchanged.
+     */
+    public void compact() {
+        long[] liveHashes = new long[slots.size()];
+        List<K> liveKeys = new ArrayList<>(slots.size());
+        for (int slot = 0; slot < keys.size(); slot++) {
+            if (keys.get(slot) != null) {
+                liveHashes[liveKeys.size()] = hashes[capacity + slot];
+                liveKeys.add(keys.get(slot));
+            }
+        }
+        clear();
+        for (int i = 0; i < liveKeys.size(); i++) {
+            put(liveKeys.get(i), liveHashes[i]);
+        }
+    }
+
+    /**
+     * Returns the leaf hash stored for a key.
+     *
+     * @param key The key to look up.
+     * @return The leaf hash, or empty if the key is not present.
+     */
+    public OptionalLong leafHash(K key) {
+        Integer slot = slots.get(key);
+        return slot == null ? OptionalLong.empty() : OptionalLong.of(hashes[capacity + slot]);
+    }
+
+    /**
+     * Returns the hash of the whole live sequence.
+     *
+     * @return The root hash.
+     */
+    public long rootHash() {
+        return hashes[1];
+    }
+
+    /**
+     * Returns the number of live entries.
+     *
+     * @return The live entry count.
+     */
+    public int liveCount() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the number of slots handed out, including empty ones.
+     *
+     * @return The slot count.
+     */
+    public int slotCount() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the key occupying a slot.
+     *
+     * @param slot The slot index.
+     * @return The key, or {@code null} if the slot is empty or unused.
+     */
+    public K keyAt(int slot) {
+        return slot < keys.size() ? keys.get(slot) : null;
+    }
+
+    /**
+     * Finds the slot ranges in which this tree and another tree disagree.
+     * Only subtrees with differing hashes are visited, so the cost is proportional to
+     * the number of divergent slots times the tree height.
+     *
+     * @param other The tree to compare against.
+     * @return Half-open {@code [from, to)} slot ranges, in ascending order.
+     */
+    public List<int[]> divergentRanges(ContentHashTree<K> other) {
+        while (capacity < other.capacity) {
+            allocate(capacity * 2);
+        }
+        while (other.capacity < capacity) {
+            other.allocate(other.capacity * 2);
+        }
+
+        List<int[]> ranges = new ArrayList<>();
+        collectDivergent(other, 1, ranges);
+        return ranges;
+    }
+
+    private void collectDivergent(ContentHashTree<K> other, int node, List<int[]> ranges) {
+        if (hashes[node] == other.hashes[node] && counts[node] == other.counts[node]) {
+            return;
+        }
+        if (node >= capacity) {
+            int slot = node - capacity;
+            int[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] == slot) {
+                last[1] = slot + 1;
+            } else {
+                ranges.add(new int[]{slot, slot + 1});
+            }
+            return;
+        }
+        collectDivergent(other, 2 * node, ranges);
+        collectDivergent(other, 2 * node + 1, ranges);
+    }
+
+    private void setLeaf(int slot, long leafHash, boolean live) {
+        int node = capacity + slot;
+        hashes[node] = live ? leafHash : 0;
+        powers[node] = live ? BASE : 1;
+        counts[node] = live ? 1 : 0;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            combine(node);
+        }
+    }
+
+    private void combine(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        hashes[node] = hashes[left] * powers[right] + hashes[right];
+        powers[node] = powers[left] * powers[right];
+        counts[node] = counts[left] + counts[right];
+    }
+
+    /**
+     * (Re)allocates the tree for the given leaf capacity, keeping existing leaves.
+     */
+    private void allocate(int newCapacity) {
+        long[] newHashes = new long[2 * newCapacity];
+        long[] newPowers = new long[2 * newCapacity];
+        int[] newCounts = new int[2 * newCapacity];
+        Arrays.fill(newPowers, 1);
+        if (hashes != null) {
+            System.arraycopy(hashes, capacity, newHashes, newCapacity, capacity);
+            System.arraycopy(powers, capacity, newPowers, newCapacity, capacity);
+            System.arraycopy(counts, capacity, newCounts, newCapacity, capacity);
+        }
+        this.hashes = newHashes;
+        this.powers = newPowers;
+        this.counts = newCounts;
+        this.capacity = newCapacity;
+        for (int node = newCapacity - 1; node >= 1; node--) {
+            combine(node);
+        }
+    }
+}
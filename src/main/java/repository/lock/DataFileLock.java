@@ -0,0 +1,156 @@
+package repository.lock;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates access to a data file between processes using {@link FileChannel#lock} on a
+ * sibling {@code .lock} file.
+ *
+ * <p>
+ * Reads take a shared lock and writes (flush, replay, log appends) take an exclusive lock.
+ * OS file locks are held per process, so threads of the same process are additionally
+ * serialized by an in-process lock. Locking is reentrant: an operation already holding the
+ * exclusive lock may run nested shared or exclusive operations.
+ * </p>
+ *
+ * <p>
+ * Writers may register {@link #beforeRelease} hooks to push out buffered writes at the end of the
+ * outermost locked operation, while other processes are still locked out.
+ * </p>
+ *
+ * <p>
+ * If the lock file cannot be opened (e.g. on a read-only file system), operations still run
+ * unlocked, preserving single-process behaviour.
+ * </p>
+ */
+public class DataFileLock {
+    /**
+     * Per-file state shared by every {@code DataFileLock} of this process, since the JVM
+     * rejects overlapping OS locks on the same file.
+     */
+    private static final Map<Path, LockState> STATES = new ConcurrentHashMap<>();
+
+    private final Path lockPath;
+    private final LockState state;
+
+    /**
+     * Constructs a lock guarding the given data file.
+     *
+     * @param dataFilePath The data file whose access is coordinated.
+     */
+    public DataFileLock(Path dataFilePath) {
+        this.lockPath = dataFilePath.resolveSibling(dataFilePath.getFileName() + ".lock")
+                .toAbsolutePath().normalize();
+        this.state = STATES.computeIfAbsent(lockPath, path -> new LockState());
+    }
+
+    /**
+     * Runs an operation while holding a shared lock, allowing other readers.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The result type of the operation.
+     * @return The result of the operation.
+     */
+    public <T> T shared(Supplier<T> operation) {
+        return runLocked(true, operation);
+    }
+
+    /**
+     * Runs an operation while holding the exclusive lock.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The result type of the operation.
+     * @return The result of the operation.
+     */
+    public <T> T exclusive(Supplier<T> operation) {
+        return runLocked(false, operation);
+    }
+
+    /**
+     * Registers an action to run at the end of every outermost locked operation on this data file,
+     * just before the lock is released. Used to write out appends buffered during the operation.
+     *
+     * @param hook The action to run; it must not throw.
+     */
+    public void beforeRelease(Runnable hook) {
+        state.releaseHooks.add(hook);
+    }
+
+    /**
+     * Returns whether the current thread is inside a shared operation, where exclusive
+     * operations cannot be nested.
+     *
+     * @return {@code true} if the current thread holds only the shared lock.
+     */
+    public boolean isSharedHeldByCurrentThread() {
+        return state.localLock.isHeldByCurrentThread() && state.isHeld && state.isHeldShared;
+    }
+
+    private <T> T runLocked(boolean shared, Supplier<T> operation) {
+        state.localLock.lock();
+        try {
+            if (state.isHeld) {
+                if (!shared && state.isHeldShared) {
+                    throw new IllegalStateException("Cannot upgrade a shared lock on " + lockPath);
+                }
+                return operation.get(); // Reentrant call, the process already holds a sufficient lock
+            }
+
+            // Held even if the OS lock could not be taken, so nesting and release hooks work the same
+            FileLock fileLock = acquire(shared);
+            state.isHeld = true;
+            state.isHeldShared = shared;
+            try {
+                return operation.get();
+            } finally {
+                state.releaseHooks.forEach(Runnable::run);
+                state.isHeld = false;
+                release(fileLock);
+            }
+        } finally {
+            state.localLock.unlock();
+        }
+    }
+
+    private FileLock acquire(boolean shared) {
+        try {
+            if (state.channel == null || !state.channel.isOpen()) {
+                state.channel = FileChannel.open(lockPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return state.channel.lock(0, Long.MAX_VALUE, shared);
+        } catch (IOException e) {
+            System.err.println("Unable to lock data file, continuing unlocked: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void release(FileLock fileLock) {
+        if (fileLock == null) {
+            return;
+        }
+        try {
+            fileLock.release();
+        } catch (IOException e) {
+            System.err.println("Error releasing data file lock: " + e.getMessage());
+        }
+    }
+
+    private static class LockState {
+        private final ReentrantLock localLock = new ReentrantLock();
+        private final List<Runnable> releaseHooks = new CopyOnWriteArrayList<>();
+        private FileChannel channel;
+        private boolean isHeld; // Whether an outermost operation is running, with or without the OS lock
+        private boolean isHeldShared; // Whether that operation only asked for the shared lock
+    }
+}
@@ -0,0 +1,195 @@
+package repository.replication;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import repository.IFileBackedTaskRepository;
+import repository.event.LogEntry;
+
+/**
+ * Keeps the tasks of a follower instance in step with a {@link ReplicationServer}.
+ *
+ * <p>
+ * On every connection the follower asks to resume after the last sequence it applied. It then
+ * applies either the full copy of the primary's tasks, logging only the tasks that differ, or the
+ * entries it missed, followed by the entries the primary logs from then on. Entries are applied in
+ * batches of whatever has arrived, through {@link IFileBackedTaskRepository#applyReplicatedEntries},
+ * so they are persisted by the follower like its own changes. A lost connection is retried every
+ * second.
+ * </p>
+ */
+public class ReplicaFollower implements AutoCloseable {
+    private static final long RETRY_MILLIS = 1000;
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final IFileBackedTaskRepository repository;
+    private final String host;
+    private final int port;
+    private String replicationId = ReplicationProtocol.NO_ID; // Of the primary the sequences below come from
+    private volatile long appliedSequence; // Last primary sequence applied here
+    private volatile long primarySequence; // Last sequence the primary reported
+    private volatile long caughtUpAtMillis = System.currentTimeMillis();
+    private volatile Socket socket;
+    private volatile boolean isClosed;
+    private Thread thread;
+
+    /**
+     * Constructs a follower of the primary listening at the given address.
+     *
+     * @param repository The repository the replicated changes are applied to.
+     * @param host       The host of the primary.
+     * @param port       The replication port of the primary.
+     */
+    public ReplicaFollower(IFileBackedTaskRepository repository, String host, int port) {
+        this.repository = repository;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Starts following the primary in the background.
+     */
+    public void start() {
+        thread = new Thread(this::run, "replica-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the address of the primary.
+     *
+     * @return The primary as {@code host:port}.
+     */
+    public String getPrimary() {
+        return host + ":" + port;
+    }
+
+    /**
+     * Returns how far this follower lags behind its primary.
+     *
+     * @return A snapshot of the replication metrics.
+     */
+    public ReplicationStats stats() {
+        long applied = appliedSequence;
+        long primary = Math.max(primarySequence, applied);
+        return new ReplicationStats(getPrimary(), primary, applied,
+                applied >= primary ? 0 : System.currentTimeMillis() - caughtUpAtMillis);
+    }
+
+    /**
+     * Disconnects from the primary and stops following it.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!isClosed) {
+            try (Socket connection = new Socket(host, port)) {
+                socket = connection;
+                follow(connection);
+            } catch (IOException | RuntimeException e) {
+                if (!isClosed) {
+                    System.err.println("Lost replication connection to " + getPrimary() + ": " + e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        connection.setTcpNoDelay(true);
+        connection.setSoTimeout(ReplicationProtocol.TIMEOUT_MILLIS); // The primary pings while idle
+        BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
+        out.write(ReplicationProtocol.FOLLOW + " " + replicationId + " " + appliedSequence + "\n");
+        out.flush();
+
+        catchUp(in);
+        List<LogEntry> batch = new ArrayList<>();
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            if (line.startsWith(ReplicationProtocol.PING)) {
+                primarySequence = Math.max(primarySequence, Long.parseLong(line.substring(line.indexOf(' ') + 1)));
+            } else {
+                LogEntry entry = LogEntry.parse(line);
+                if (entry == null) {
+                    throw new IOException("Malformed entry: " + line);
+                }
+                if (entry.getSequence() > appliedSequence) { // Entries in both catch-up and stream arrive twice
+                    batch.add(entry);
+                }
+                primarySequence = Math.max(primarySequence, entry.getSequence());
+            }
+            if (!in.ready() || batch.size() >= MAX_BATCH_SIZE) {
+                applyBatch(batch);
+            }
+        }
+        throw new EOFException("The primary closed the connection");
+    }
+
+    /**
+     * Reads the reply to {@code FOLLOW} and applies the full copy of the tasks it may carry.
+     */
+    private void catchUp(BufferedReader in) throws IOException {
+        String reply = in.readLine();
+        String[] parts = reply == null ? new String[0] : reply.split(" ");
+        if (parts.length == 2 && parts[0].equals(ReplicationProtocol.CONTINUE) && parts[1].equals(replicationId)) {
+            System.out.println("Resumed replication from " + getPrimary() + " after sequence " + appliedSequence + ".");
+            return;
+        }
+        if (parts.length != 4 || !parts[0].equals(ReplicationProtocol.FULLSYNC)) {
+            throw new IOException("Unexpected reply: " + reply);
+        }
+        long sequence = Long.parseLong(parts[2]);
+        int count = Integer.parseInt(parts[3]);
+        List<String> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String record = in.readLine();
+            if (record == null) {
+                throw new EOFException("The primary closed the connection during a full sync");
+            }
+            records.add(record);
+        }
+        int changes = repository.applyReplicatedSnapshot(records);
+        replicationId = parts[1];
+        appliedSequence = sequence;
+        primarySequence = Math.max(primarySequence, sequence);
+        System.out.println("Synced " + count + " tasks from " + getPrimary() + " at sequence " + sequence
+                + ", " + changes + " changed.");
+    }
+
+    private void applyBatch(List<LogEntry> batch) {
+        if (!batch.isEmpty()) {
+            repository.applyReplicatedEntries(batch);
+            appliedSequence = batch.get(batch.size() - 1).getSequence();
+            batch.clear();
+        }
+        if (appliedSequence >= primarySequence) {
+            caughtUpAtMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package repository.replication;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import repository.IFileBackedTaskRepository;
+import repository.storage.StorageEngine;
+
+/**
+ * Starts the replication roles this instance was configured for through system properties:
+ * <ul>
+ *     <li>{@code spring.replication.port} - ship the log to followers connecting to this port on
+ *     localhost, see {@link ReplicationServer}.</li>
+ *     <li>{@code spring.replication.primary} - follow the primary at {@code host:port}, or at a port
+ *     on localhost, see {@link ReplicaFollower}. A follower only serves read-only commands.</li>
+ * </ul>
+ * Both can be set, so that a follower passes the changes on to followers of its own.
+ */
+public class ReplicationManager {
+    private final IFileBackedTaskRepository repository;
+    private final StorageEngine engine;
+    private final Integer port; // Null unless this instance is a primary
+    private final String primary; // Null unless this instance is a follower
+    private ReplicationServer server;
+    private ReplicaFollower follower;
+
+    /**
+     * Constructs a replication manager configured from system properties.
+     *
+     * @param repository The repository replicated changes are applied to.
+     * @param engine     The storage engine whose log is shipped to followers.
+     */
+    public ReplicationManager(IFileBackedTaskRepository repository, StorageEngine engine) {
+        this.repository = repository;
+        this.engine = engine;
+        this.port = Integer.getInteger("spring.replication.port");
+        this.primary = System.getProperty("spring.replication.primary");
+    }
+
+    /**
+     * Checks whether this instance follows a primary, and must therefore not change its tasks itself.
+     *
+     * @return {@code true} if a primary is configured.
+     */
+    public boolean isReplica() {
+        return primary != null;
+    }
+
+    /**
+     * Returns the configured primary.
+     *
+     * @return The address of the primary, or {@code null} if this instance is not a replica.
+     */
+    public String getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Starts shipping the log and following the primary, as configured.
+     */
+    public void start() {
+        if (port != null) {
+            try {
+                server = new ReplicationServer(engine, port);
+                server.start();
+                System.out.println("Replicating to followers on port " + server.getPort() + ".");
+            } catch (IOException e) {
+                System.err.println("Error starting replication server: " + e.getMessage());
+            }
+        }
+        if (primary != null) {
+            int separator = primary.lastIndexOf(':');
+            String host = separator < 0 ? "localhost" : primary.substring(0, separator);
+            try {
+                follower = new ReplicaFollower(repository, host, Integer.parseInt(primary.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid replication primary, expected host:port: " + primary);
+                return;
+            }
+            follower.start();
+            System.out.println("Following " + follower.getPrimary() + " as a read-only replica.");
+        }
+    }
+
+    /**
+     * Returns the replication metrics of this instance.
+     *
+     * @return How far this instance lags behind its primary, if it has one, followed by how far
+     *     each of its followers lags behind it.
+     */
+    public List<ReplicationStats> getStats() {
+        List<ReplicationStats> stats = new ArrayList<>();
+        if (follower != null) {
+            stats.add(follower.stats());
+        }
+        if (server != null) {
+            stats.addAll(server.getFollowerStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Stops following the primary and disconnects the followers.
+     */
+    public void stop() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+}
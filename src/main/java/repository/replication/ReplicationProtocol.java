@@ -0,0 +1,39 @@
+package repository.replication;
+
+/**
+ * The line-based protocol spoken between a {@link ReplicationServer} and its followers, in UTF-8.
+ *
+ * <pre>
+ * follower to primary:
+ *   FOLLOW id sequence         resume after the sequence of the replication id, or "-" for none
+ * primary to follower:
+ *   FULLSYNC id sequence count  followed by count serialized tasks, the state right after the sequence
+ *   CONTINUE id                 the entries after the follower's sequence follow
+ *   sequence TYPE data          a log entry, written as in the text log, see LogEntry#format
+ *   PING sequence               sent when idle, carrying the last sequence the primary logged
+ * </pre>
+ * <p>
+ * The replication id changes every time a primary starts, so a follower can only resume from a
+ * sequence it received from the same primary process.
+ * </p>
+ */
+final class ReplicationProtocol {
+    static final String FOLLOW = "FOLLOW";
+    static final String FULLSYNC = "FULLSYNC";
+    static final String CONTINUE = "CONTINUE";
+    static final String PING = "PING";
+    static final String NO_ID = "-";
+
+    /**
+     * How long the primary stays silent before it sends a {@code PING}.
+     */
+    static final long HEARTBEAT_MILLIS = 1000;
+
+    /**
+     * How long either side waits for the other before it considers the connection lost.
+     */
+    static final int TIMEOUT_MILLIS = 10_000;
+
+    private ReplicationProtocol() {
+    }
+}
@@ -0,0 +1,366 @@
+package repository.replication;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import repository.event.LogEntry;
+import repository.storage.StorageEngine;
+import repository.storage.StorageSnapshot;
+import util.DataFileUtils;
+
+/**
+ * Ships the log of a primary instance to follower processes over TCP, see {@link ReplicationProtocol}.
+ * The server only listens on the loopback interface.
+ *
+ * <p>
+ * A follower connecting for the first time, or whose position is no longer covered by the backlog
+ * of recently appended entries, receives a full sync: the checkpoint with the pending log folded in.
+ * A follower reconnecting within the backlog only receives the entries it missed. Either way,
+ * entries appended afterwards are streamed as they are logged.
+ * </p>
+ * <p>
+ * Entries are taken from {@link StorageEngine#onAppend}, with the engine's exclusive lock held, and
+ * catch-up is prepared under that lock too, so a follower never misses an entry; the few it may
+ * receive twice are skipped by their sequence. Each follower has a bounded queue: a follower too slow to keep up is disconnected instead of
+ * holding up the primary, and catches up when it reconnects. Only changes made through this instance
+ * are streamed, so it should be the only writer of its storage.
+ * </p>
+ * <p>
+ * Values can be overridden at startup through system properties:
+ * <ul>
+ *     <li>{@code spring.replication.backlogEntries} - entries kept for resuming followers (default 10000).</li>
+ *     <li>{@code spring.replication.queueCapacity} - entries queued per follower before it is
+ *     disconnected (default 65536).</li>
+ * </ul>
+ * </p>
+ */
+public class ReplicationServer implements AutoCloseable {
+    private static final int DEFAULT_BACKLOG_ENTRIES = 10_000;
+    private static final int DEFAULT_QUEUE_CAPACITY = 65_536;
+
+    private final StorageEngine engine;
+    private final ServerSocket serverSocket;
+    private final String replicationId = UUID.randomUUID().toString();
+    private final int backlogCapacity;
+    private final int queueCapacity;
+    private final ArrayDeque<LogEntry> backlog = new ArrayDeque<>(); // Most recent entries, oldest first
+    private final List<Link> links = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    private long evictedSequence; // Sequence of the last entry dropped from the backlog
+    private volatile long lastSequence; // Sequence of the last entry appended since the server started
+    private volatile boolean isClosed;
+
+    /**
+     * Binds the server to a port on the loopback interface and starts collecting appended entries.
+     * Followers are only accepted once {@link #start} is called.
+     *
+     * @param engine The storage engine whose log is shipped.
+     * @param port   The port to listen on, or {@code 0} for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReplicationServer(StorageEngine engine, int port) throws IOException {
+        this.engine = engine;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.backlogCapacity = Integer.getInteger("spring.replication.backlogEntries", DEFAULT_BACKLOG_ENTRIES);
+        this.queueCapacity = Integer.getInteger("spring.replication.queueCapacity", DEFAULT_QUEUE_CAPACITY);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "replication-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastSequence = engine.lastSequence();
+        engine.onAppend(this::publish);
+    }
+
+    /**
+     * Starts accepting followers in the background.
+     */
+    public void start() {
+        executor.execute(this::acceptFollowers);
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the replication metrics of every connected follower.
+     *
+     * @return One snapshot per follower, in connection order.
+     */
+    public List<ReplicationStats> getFollowerStats() {
+        long now = System.currentTimeMillis();
+        long last = lastSequence;
+        List<ReplicationStats> stats = new ArrayList<>();
+        for (Link link : links) {
+            long sent = link.sentSequence;
+            stats.add(new ReplicationStats(link.name, Math.max(last, sent), sent,
+                    sent >= last ? 0 : now - link.caughtUpAtMillis));
+        }
+        return stats;
+    }
+
+    /**
+     * Stops accepting followers and disconnects the connected ones.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing replication server: " + e.getMessage());
+        }
+        for (Link link : links) {
+            link.disconnect();
+        }
+        executor.shutdownNow();
+    }
+
+    private void publish(LogEntry entry) {
+        if (isClosed) {
+            return;
+        }
+        synchronized (backlog) {
+            backlog.addLast(entry);
+            if (backlog.size() > backlogCapacity) {
+                evictedSequence = backlog.removeFirst().getSequence();
+            }
+        }
+        lastSequence = entry.getSequence();
+        for (Link link : links) {
+            link.offer(entry);
+        }
+    }
+
+    private void acceptFollowers() {
+        while (!isClosed) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!isClosed) {
+                    System.err.println("Error accepting replication follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Catches a follower up and then streams new entries to it until it disconnects.
+     */
+    private void serve(Socket socket) {
+        Link link = new Link(socket.getRemoteSocketAddress().toString(), socket, queueCapacity);
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ReplicationProtocol.TIMEOUT_MILLIS);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            String request = in.readLine();
+            String[] parts = request == null ? new String[0] : request.split(" ");
+            if (parts.length != 3 || !parts[0].equals(ReplicationProtocol.FOLLOW)) {
+                throw new IOException("Unexpected request: " + request);
+            }
+            CatchUp catchUp = engine.writeLocked(() -> prepareCatchUp(parts[1], Long.parseLong(parts[2]), link));
+            catchUp.writeTo(out, replicationId);
+            link.sentSequence = catchUp.sequence;
+            lastSequence = Math.max(lastSequence, catchUp.sequence);
+            link.caughtUpAtMillis = System.currentTimeMillis();
+            System.out.println("Replication follower " + link.name + (catchUp.records == null ? " resumed" : " synced")
+                    + " at sequence " + catchUp.sequence + ".");
+            stream(link, out);
+        } catch (IOException | NumberFormatException | UncheckedIOException e) {
+            if (!isClosed) {
+                System.err.println("Replication follower " + link.name + " disconnected: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            links.remove(link);
+        }
+    }
+
+    /**
+     * Starts queueing new entries for a follower and decides how it catches up. Must be called with
+     * the exclusive lock held, so entries are only published while the catch-up is read. Entries
+     * both queued and part of the catch-up are skipped by the follower, by their sequence.
+     */
+    private CatchUp prepareCatchUp(String followerId, long followerSequence, Link link) {
+        links.add(link);
+        synchronized (backlog) {
+            if (followerId.equals(replicationId) && followerSequence >= evictedSequence) {
+                List<LogEntry> missed = new ArrayList<>();
+                for (LogEntry entry : backlog) {
+                    if (entry.getSequence() > followerSequence) {
+                        missed.add(entry);
+                    }
+                }
+                return new CatchUp(followerSequence, null, missed);
+            }
+        }
+        return fullSync();
+    }
+
+    /**
+     * Reads the checkpoint and folds the pending log into it, giving the tasks as of the last
+     * entry read.
+     */
+    private CatchUp fullSync() {
+        Map<UUID, String> records = new LinkedHashMap<>();
+        long watermark = 0;
+        try {
+            StorageSnapshot snapshot = engine.load();
+            watermark = snapshot.getWatermark();
+            for (String record : snapshot.getRecords()) {
+                records.put(DataFileUtils.recordId(record), record);
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing was checkpointed yet, so the log holds every task
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long checkpointWatermark = watermark;
+        long[] sequence = {watermark};
+        engine.forEachPendingEntry(entry -> {
+            if (!entry.isCoveredBy(checkpointWatermark)) {
+                apply(records, entry);
+                sequence[0] = Math.max(sequence[0], entry.getSequence());
+            }
+        });
+        return new CatchUp(sequence[0], new ArrayList<>(records.values()), List.of());
+    }
+
+    private static void apply(Map<UUID, String> records, LogEntry entry) {
+        switch (entry.getType()) {
+        case ADD, UPDATE -> records.put(entry.getTaskId(), entry.getPayload());
+        case DELETE -> records.remove(entry.getTaskId());
+        case COMPLETE, REOPEN, RENAME -> records.computeIfPresent(entry.getTaskId(), (id, record) -> entry.applyTo(record));
+        default -> {
+            // Other event types never reach the log
+        }
+        }
+    }
+
+    /**
+     * Writes queued entries to a follower as they arrive, and a {@code PING} whenever there were
+     * none for a while.
+     */
+    private void stream(Link link, Writer out) throws IOException, InterruptedException {
+        while (!isClosed) {
+            LogEntry entry = link.queue.poll(ReplicationProtocol.HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+            if (link.isOverflowed) {
+                throw new IOException("Fell more than " + queueCapacity + " entries behind");
+            }
+            if (entry == null) {
+                out.write(ReplicationProtocol.PING + " " + lastSequence + "\n");
+            }
+            for (; entry != null; entry = link.queue.poll()) {
+                writeEntry(out, entry);
+                link.sentSequence = Math.max(link.sentSequence, entry.getSequence());
+            }
+            out.flush();
+            if (link.sentSequence >= lastSequence) {
+                link.caughtUpAtMillis = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static void writeEntry(Writer out, LogEntry entry) throws IOException {
+        out.write(LogEntry.format(entry.getSequence(), entry.getType(), entry.getData()));
+        out.write('\n');
+    }
+
+    /**
+     * What a follower receives before the stream of new entries: either the full state as of a
+     * sequence, or the entries it missed after its own sequence.
+     */
+    private static class CatchUp {
+        private final long sequence; // The last sequence reflected by the catch-up
+        private final List<String> records; // Null unless the follower needs a full sync
+        private final List<LogEntry> missed;
+
+        private CatchUp(long sequence, List<String> records, List<LogEntry> missed) {
+            this.sequence = missed.isEmpty() ? sequence : missed.get(missed.size() - 1).getSequence();
+            this.records = records;
+            this.missed = missed;
+        }
+
+        private void writeTo(Writer out, String replicationId) throws IOException {
+            if (records != null) {
+                out.write(ReplicationProtocol.FULLSYNC + " " + replicationId + " " + sequence + " " + records.size() + "\n");
+                for (String record : records) {
+                    out.write(record);
+                    out.write('\n');
+                }
+            } else {
+                out.write(ReplicationProtocol.CONTINUE + " " + replicationId + "\n");
+            }
+            for (LogEntry entry : missed) {
+                writeEntry(out, entry);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * A connected follower and the entries queued for it.
+     */
+    private static class Link {
+        private final String name;
+        private final Socket socket;
+        private final BlockingQueue<LogEntry> queue;
+        private volatile long sentSequence;
+        private volatile long caughtUpAtMillis;
+        private volatile boolean isOverflowed;
+
+        private Link(String name, Socket socket, int queueCapacity) {
+            this.name = name;
+            this.socket = socket;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        private void offer(LogEntry entry) {
+            if (!isOverflowed && !queue.offer(entry)) {
+                isOverflowed = true; // The stream notices within a heartbeat and disconnects
+                queue.clear();
+            }
+        }
+
+        private void disconnect() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
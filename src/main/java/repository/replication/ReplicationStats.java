@@ -0,0 +1,44 @@
+package repository.replication;
+
+import lombok.Getter;
+
+/**
+ * A snapshot of how far a follower lags behind its primary, as seen from either side.
+ */
+@Getter
+public class ReplicationStats {
+    private final String name;
+    private final long primarySequence; // Last sequence logged by the primary, as far as known
+    private final long replicatedSequence; // Last sequence shipped to or applied by the follower
+    private final long lagMillis; // Time since the follower was last caught up, 0 while it is
+
+    /**
+     * Constructs a snapshot of replication metrics.
+     *
+     * @param name               The address of the follower or of the primary.
+     * @param primarySequence    The last sequence logged by the primary.
+     * @param replicatedSequence The last sequence shipped to the follower, or applied by it.
+     * @param lagMillis          The time since the follower was last caught up, in milliseconds.
+     */
+    public ReplicationStats(String name, long primarySequence, long replicatedSequence, long lagMillis) {
+        this.name = name;
+        this.primarySequence = primarySequence;
+        this.replicatedSequence = replicatedSequence;
+        this.lagMillis = lagMillis;
+    }
+
+    /**
+     * Returns how many sequence numbers the follower is behind.
+     *
+     * @return The difference between the primary's and the replicated sequence, at least {@code 0}.
+     */
+    public long getLagSequences() {
+        return Math.max(0, primarySequence - replicatedSequence);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: at sequence %d of %d, %d behind, lag %d ms",
+                name, replicatedSequence, primarySequence, getLagSequences(), lagMillis);
+    }
+}
@@ -0,0 +1,269 @@
+package repository.storage;
+
+import static util.TaskSerializer.serializeTask;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import entity.tasks.Task;
+import repository.event.LogEntry;
+import repository.event.TaskEvent;
+import util.DataFileUtils;
+
+/**
+ * A {@link StorageEngine} that keeps its checkpoint and log in memory.
+ * Nothing survives a restart, which makes it suitable for throwaway sessions, tests and
+ * as a baseline when benchmarking other engines.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<LogEntry> log = new ArrayList<>();
+    private final List<LogEntry> history = new ArrayList<>(); // Every entry ever appended
+    private final List<Long> historyTimes = new ArrayList<>(); // Epoch millis each history entry was appended at
+    private final List<StorageSnapshot> snapshots = new ArrayList<>(); // Checkpoints, oldest first
+    private final long createdAt = System.currentTimeMillis();
+    private final Map<String, ByteBuffer> sidecars = new HashMap<>();
+    private final List<Consumer<LogEntry>> appendListeners = new CopyOnWriteArrayList<>();
+    private List<String> checkpointRecords = new ArrayList<>();
+    private long checkpointWatermark;
+    private long lastSequence;
+    private int readIndex; // Log entries already delivered through readNewEntries
+
+    /**
+     * Constructs an empty in-memory engine.
+     */
+    public InMemoryStorageEngine() {
+        snapshots.add(new StorageSnapshot(List.of(), 0));
+    }
+
+    @Override
+    public StorageSnapshot load() {
+        return writeLocked(() -> new StorageSnapshot(new ArrayList<>(checkpointRecords), checkpointWatermark));
+    }
+
+    @Override
+    public long checkpointWatermark() {
+        return writeLocked(() -> checkpointWatermark);
+    }
+
+    @Override
+    public void append(TaskEvent event) {
+        writeLocked(() -> {
+            int logged = log.size();
+            if (event.getType() == TaskEvent.EventType.BATCH) {
+                for (Task task : event.getTasks()) {
+                    log.add(new LogEntry(++lastSequence, TaskEvent.EventType.ADD, task.getId(), serializeTask(task)));
+                }
+            } else {
+                String payload = event.getType() == TaskEvent.EventType.DELETE ? null : serializeTask(event.getTask());
+                log.add(new LogEntry(++lastSequence, event.getType(), event.getTaskId(), payload));
+            }
+            long now = System.currentTimeMillis();
+            for (LogEntry entry : log.subList(logged, log.size())) {
+                history.add(entry);
+                historyTimes.add(now);
+                appendListeners.forEach(listener -> listener.accept(entry));
+            }
+            readIndex = log.size(); // Our own entry needs no redelivery
+            return null;
+        });
+    }
+
+    @Override
+    public void onAppend(Consumer<LogEntry> listener) {
+        appendListeners.add(listener);
+    }
+
+    @Override
+    public void readNewEntries(Consumer<LogEntry> consumer) {
+        writeLocked(() -> {
+            for (; readIndex < log.size(); readIndex++) {
+                consumer.accept(log.get(readIndex));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void rewindNewEntries() {
+        writeLocked(() -> readIndex = 0);
+    }
+
+    @Override
+    public void forEachPendingEntry(Consumer<LogEntry> consumer) {
+        writeLocked(() -> {
+            log.forEach(consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public long lastSequence() {
+        return writeLocked(() -> lastSequence);
+    }
+
+    @Override
+    public boolean flush(Consumer<LogEntry> visitor, BooleanSupplier validator) {
+        return writeLocked(() -> {
+            Map<UUID, String> records = new LinkedHashMap<>();
+            for (String record : checkpointRecords) {
+                records.put(DataFileUtils.recordId(record), record);
+            }
+            long watermark = checkpointWatermark;
+            for (LogEntry entry : log) {
+                visitor.accept(entry);
+                if (entry.isCoveredBy(checkpointWatermark)) {
+                    continue;
+                }
+                apply(records, entry);
+                watermark = Math.max(watermark, entry.getSequence());
+            }
+            if (!validator.getAsBoolean()) {
+                return false;
+            }
+            checkpointRecords = new ArrayList<>(records.values());
+            checkpointWatermark = watermark;
+            snapshots.add(new StorageSnapshot(checkpointRecords, checkpointWatermark));
+            clearLog();
+            return true;
+        });
+    }
+
+    @Override
+    public long checkpoint(List<Task> tasks) {
+        return writeLocked(() -> {
+            List<String> records = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                records.add(serializeTask(task));
+            }
+            checkpointRecords = records;
+            checkpointWatermark = lastSequence;
+            snapshots.add(new StorageSnapshot(checkpointRecords, checkpointWatermark));
+            clearLog();
+            return checkpointWatermark;
+        });
+    }
+
+    private static void apply(Map<UUID, String> records, LogEntry entry) {
+        switch (entry.getType()) {
+        case ADD, UPDATE -> records.put(entry.getTaskId(), entry.getPayload());
+        case DELETE -> records.remove(entry.getTaskId());
+        default -> {
+            // Other event types never reach the log
+        }
+        }
+    }
+
+    @Override
+    public Optional<List<String>> recordsAt(long sequence) {
+        return writeLocked(() -> {
+            StorageSnapshot base = null;
+            for (StorageSnapshot snapshot : snapshots) {
+                if (snapshot.getWatermark() <= sequence) {
+                    base = snapshot;
+                }
+            }
+            Map<UUID, String> records = new LinkedHashMap<>();
+            for (String record : base.getRecords()) {
+                records.put(DataFileUtils.recordId(record), record);
+            }
+            for (LogEntry entry : history) {
+                if (entry.getSequence() > base.getWatermark() && entry.getSequence() <= sequence) {
+                    apply(records, entry);
+                }
+            }
+            return Optional.of(new ArrayList<>(records.values()));
+        });
+    }
+
+    @Override
+    public boolean forEachEntryAfter(long sequence, Predicate<LogEntry> consumer) {
+        return writeLocked(() -> {
+            int low = 0;
+            int high = history.size(); // Binary search for the first entry after the sequence
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (history.get(middle).getSequence() <= sequence) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (LogEntry entry : history.subList(low, history.size())) {
+                if (!consumer.test(entry)) {
+                    break;
+                }
+            }
+            return true; // The history holds every entry ever appended
+        });
+    }
+
+    @Override
+    public OptionalLong sequenceAt(Instant time) {
+        return writeLocked(() -> {
+            long millis = time.toEpochMilli();
+            if (millis < createdAt) {
+                return OptionalLong.empty();
+            }
+            long sequence = 0;
+            for (int i = 0; i < history.size() && historyTimes.get(i) <= millis; i++) {
+                sequence = history.get(i).getSequence();
+            }
+            return OptionalLong.of(sequence);
+        });
+    }
+
+    private void clearLog() {
+        log.clear();
+        readIndex = 0;
+    }
+
+    @Override
+    public Optional<ByteBuffer> readSidecar(String name) {
+        return writeLocked(() -> Optional.ofNullable(sidecars.get(name)).map(ByteBuffer::asReadOnlyBuffer));
+    }
+
+    @Override
+    public void writeSidecar(String name, ByteBuffer content) {
+        writeLocked(() -> sidecars.put(name, content.asReadOnlyBuffer()));
+    }
+
+    @Override
+    public Optional<List<Task>> recover() {
+        return Optional.empty(); // An in-memory checkpoint is never unreadable
+    }
+
+    @Override
+    public <T> T readLocked(Supplier<T> operation) {
+        return writeLocked(operation);
+    }
+
+    @Override
+    public <T> T writeLocked(Supplier<T> operation) {
+        lock.lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void watch(Runnable onExternalChange) {
+        // Nothing outside this instance can change the storage
+    }
+}
@@ -0,0 +1,215 @@
+package repository.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import entity.tasks.Task;
+import repository.FileBackedTaskRepository;
+import repository.event.LogEntry;
+import repository.event.TaskEvent;
+
+/**
+ * Service provider interface for the durable storage behind {@link FileBackedTaskRepository}.
+ *
+ * <p>
+ * An engine keeps a <b>checkpoint</b>, a full snapshot of the tasks stamped with a watermark, and a
+ * <b>log</b> of sequenced changes appended since. The repository keeps the tasks in memory and drives
+ * the engine through five operations:
+ * <ul>
+ *     <li><b>load</b> - read the checkpoint, then the pending log through {@link #readNewEntries}.</li>
+ *     <li><b>append</b> - record a single change in the log.</li>
+ *     <li><b>flush</b> - fold the pending log into the checkpoint.</li>
+ *     <li><b>checkpoint</b> - replace the checkpoint with a full snapshot and discard the log.</li>
+ *     <li><b>recover</b> - restore the newest usable backup after the checkpoint became unreadable.</li>
+ * </ul>
+ * Engines that may be shared between processes also provide locking and change notification.
+ * Engines also keep the history of their log, so that earlier states can be rebuilt after the
+ * log was folded into the checkpoint.
+ * </p>
+ *
+ * <p>
+ * Engines are selected at startup through {@link StorageEngineType}. New engines should pass the
+ * shared conformance suite and can be compared on identical workloads with the JMH benchmarks.
+ * </p>
+ */
+public interface StorageEngine {
+
+    /**
+     * Reads the checkpoint and makes sure future log entries are numbered after its watermark.
+     *
+     * @return The checkpointed records and watermark.
+     * @throws IOException If the checkpoint is missing or unreadable.
+     */
+    StorageSnapshot load() throws IOException;
+
+    /**
+     * Reads only the watermark of the checkpoint, which cheaply reveals whether another process flushed.
+     *
+     * @return The checkpoint watermark, or {@code 0} if there is none.
+     * @throws IOException If the checkpoint cannot be read.
+     */
+    long checkpointWatermark() throws IOException;
+
+    /**
+     * Appends a change to the log under the next sequence number.
+     * A {@code BATCH} event is appended as one {@code ADD} entry per task in a single write.
+     *
+     * @param event The change to record.
+     */
+    void append(TaskEvent event);
+
+    /**
+     * Registers a listener receiving every entry this engine appends to its log, numbered, in log
+     * order. Entries appended by other processes are not delivered. Listeners are called with the
+     * exclusive lock held, so they must not block.
+     *
+     * @param listener The listener receiving each appended entry.
+     */
+    void onAppend(Consumer<LogEntry> listener);
+
+    /**
+     * Delivers the log entries appended since the previous call, in log order,
+     * including entries appended by other processes.
+     *
+     * @param consumer The consumer receiving each new entry.
+     */
+    void readNewEntries(Consumer<LogEntry> consumer);
+
+    /**
+     * Makes the next {@link #readNewEntries} call start from the beginning of the log.
+     */
+    void rewindNewEntries();
+
+    /**
+     * Delivers every entry of the log, in log order.
+     *
+     * @param consumer The consumer receiving each entry.
+     */
+    void forEachPendingEntry(Consumer<LogEntry> consumer);
+
+    /**
+     * Returns the sequence number of the most recently appended entry.
+     *
+     * @return The last assigned sequence number.
+     */
+    long lastSequence();
+
+    /**
+     * Folds the pending log into the checkpoint and discards it.
+     *
+     * @return {@code true} if the log was applied, {@code false} if the checkpoint may be partially updated.
+     */
+    default boolean flush() {
+        return flush(entry -> { }, () -> true);
+    }
+
+    /**
+     * Folds the pending log into the checkpoint in a single pass over the log, and discards it, unless
+     * the validator rejects the result. Every entry of the log is delivered to the visitor, in log order,
+     * as it is folded in, so callers can check the merged state without reading the log again.
+     *
+     * @param visitor   Receives every entry of the log, as {@link #forEachPendingEntry} would.
+     * @param validator Asked once every entry was delivered; the checkpoint is left untouched if it
+     *                  returns {@code false}.
+     * @return {@code true} if the log was applied, {@code false} if it was rejected or the checkpoint
+     *     may be partially updated.
+     */
+    boolean flush(Consumer<LogEntry> visitor, BooleanSupplier validator);
+
+    /**
+     * Replaces the checkpoint with the given tasks and discards the log.
+     *
+     * @param tasks The complete, ordered state to store.
+     * @return The watermark of the new checkpoint.
+     * @throws IOException If the checkpoint could not be written.
+     */
+    long checkpoint(List<Task> tasks) throws IOException;
+
+    /**
+     * Rebuilds the checkpointed records as they were right after the given log sequence.
+     *
+     * @param sequence The sequence of the last change to include.
+     * @return The serialized tasks in checkpoint order, or empty if the history does not reach back that far.
+     */
+    Optional<List<String>> recordsAt(long sequence);
+
+    /**
+     * Delivers the entries logged after the given sequence, in log order, from the history, including
+     * entries already folded into the checkpoint. Costs in proportion to the entries delivered, not to
+     * the size of the history.
+     *
+     * @param sequence The sequence of the last entry to skip.
+     * @param consumer Receives each entry, and returns {@code false} to stop the delivery.
+     * @return {@code true} if every entry after the sequence could be delivered, {@code false} if the
+     *     history does not reach back that far, in which case nothing was delivered.
+     */
+    boolean forEachEntryAfter(long sequence, Predicate<LogEntry> consumer);
+
+    /**
+     * Finds the sequence of the last change logged at or before a point in time.
+     *
+     * @param time The point in time.
+     * @return The sequence, or empty if the history starts after that time.
+     */
+    OptionalLong sequenceAt(Instant time);
+
+    /**
+     * Reads a named sidecar stored alongside the checkpoint, such as persisted indexes.
+     * Sidecars are derived data: callers must validate them and rebuild them if they are stale.
+     *
+     * @param name The name of the sidecar.
+     * @return The sidecar content, or empty if there is none.
+     */
+    Optional<ByteBuffer> readSidecar(String name);
+
+    /**
+     * Atomically replaces a named sidecar stored alongside the checkpoint.
+     * Failures are reported but not thrown, since a sidecar can always be rebuilt.
+     *
+     * @param name    The name of the sidecar.
+     * @param content The new content of the sidecar.
+     */
+    void writeSidecar(String name, ByteBuffer content);
+
+    /**
+     * Restores the newest usable backup of the checkpoint. If there is none, the unreadable
+     * checkpoint is discarded so that the next run starts afresh.
+     *
+     * @return The restored tasks, or empty if nothing could be restored.
+     */
+    Optional<List<Task>> recover();
+
+    /**
+     * Runs an operation that only reads the storage, allowing concurrent readers.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The result type of the operation.
+     * @return The result of the operation.
+     */
+    <T> T readLocked(Supplier<T> operation);
+
+    /**
+     * Runs an operation with exclusive access to the storage.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The result type of the operation.
+     * @return The result of the operation.
+     */
+    <T> T writeLocked(Supplier<T> operation);
+
+    /**
+     * Starts reporting changes made to the storage outside this engine instance.
+     * Engines without external writers may ignore the callback.
+     *
+     * @param onExternalChange The callback invoked after an external change.
+     */
+    void watch(Runnable onExternalChange);
+}
@@ -0,0 +1,62 @@
+package repository.storage;
+
+import java.util.Locale;
+
+/**
+ * The available {@link StorageEngine}s, selected at startup.
+ * <p>
+ * The engine is chosen with the {@code --engine=<name>} command-line option, falling back to the
+ * {@code spring.storage.engine} system property, and finally to {@link #TEXT}.
+ * </p>
+ */
+public enum StorageEngineType {
+    /**
+     * The line-based text data file with an event log, see {@link TextFileStorageEngine}.
+     */
+    TEXT,
+    /**
+     * Keeps everything in memory and persists nothing, see {@link InMemoryStorageEngine}.
+     */
+    MEMORY;
+
+    private static final String OPTION_PREFIX = "--engine=";
+
+    /**
+     * Looks up an engine by its case-insensitive name.
+     *
+     * @param name The engine name.
+     * @return The matching engine type.
+     * @throws IllegalArgumentException If no engine has that name.
+     */
+    public static StorageEngineType fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown storage engine: " + name);
+        }
+    }
+
+    /**
+     * Resolves the engine from the command-line arguments, then the system properties.
+     *
+     * @param args The command-line arguments.
+     * @return The selected engine type.
+     */
+    public static StorageEngineType fromStartupOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX)) {
+                return fromName(arg.substring(OPTION_PREFIX.length()));
+            }
+        }
+        return fromSystemProperties();
+    }
+
+    /**
+     * Resolves the engine from the {@code spring.storage.engine} system property.
+     *
+     * @return The selected engine type.
+     */
+    public static StorageEngineType fromSystemProperties() {
+        return fromName(System.getProperty("spring.storage.engine", TEXT.name()));
+    }
+}
@@ -0,0 +1,51 @@
+package repository.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import entity.tasks.Task;
+import lombok.Getter;
+import util.TaskDeserializer;
+
+/**
+ * The checkpointed state of a {@link StorageEngine}: serialized task records in order,
+ * stamped with the last log sequence they reflect.
+ * <p>
+ * Records are kept serialized so that callers which only diff or hash them never pay for deserialization.
+ * </p>
+ */
+@Getter
+public class StorageSnapshot {
+    private final List<String> records;
+    /**
+     * The last log sequence applied to the records, or {@code 0} if none.
+     */
+    private final long watermark;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param records   The serialized tasks, in order.
+     * @param watermark The last log sequence applied to the records.
+     */
+    public StorageSnapshot(List<String> records, long watermark) {
+        this.records = records;
+        this.watermark = watermark;
+    }
+
+    /**
+     * Deserializes every record of the snapshot.
+     *
+     * @return The tasks, in order.
+     */
+    public List<Task> toTasks() {
+        List<Task> tasks = new ArrayList<>(records.size());
+        for (String record : records) {
+            Task task = TaskDeserializer.deserializeTask(record);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+}
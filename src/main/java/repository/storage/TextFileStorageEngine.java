@@ -0,0 +1,287 @@
+package repository.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import entity.tasks.Task;
+import repository.backup.GenerationalBackupManager;
+import repository.event.LogEntry;
+import repository.event.TaskEvent;
+import repository.event.TaskEventLogger;
+import repository.lock.DataFileLock;
+import repository.watch.DataDirectoryWatcher;
+import util.DataFileUtils;
+import util.TaskSerializer;
+
+/**
+ * The default {@link StorageEngine}: a line-based text data file as the checkpoint and
+ * {@link TaskEventLogger}'s text log for appended changes.
+ *
+ * <p>
+ * The data file keeps backup generations through {@link GenerationalBackupManager}, is shared
+ * safely between processes through {@link DataFileLock}, and is watched for external edits with
+ * a {@link DataDirectoryWatcher}.
+ * </p>
+ */
+public class TextFileStorageEngine implements StorageEngine {
+    private final Path filePath;
+    private final TaskEventLogger eventLogger;
+    private final GenerationalBackupManager backupManager;
+    private final DataFileLock lock;
+    private FileTime checkpointModified; // Modification time of the data file when its watermark was read
+    private long checkpointSize; // Size of the data file when its watermark was read
+    private Object checkpointFileKey; // Identity of the data file when its watermark was read
+    private long cachedWatermark; // The watermark read then
+
+    /**
+     * Constructs a text storage engine.
+     *
+     * @param filePath      The data file holding the checkpoint.
+     * @param eventLogger   The logger recording changes between flushes.
+     * @param backupManager The manager keeping backup generations of the data file.
+     * @param lock          The lock coordinating access to the data file with other processes.
+     */
+    public TextFileStorageEngine(Path filePath, TaskEventLogger eventLogger,
+                                 GenerationalBackupManager backupManager, DataFileLock lock) {
+        this.filePath = filePath;
+        this.eventLogger = eventLogger;
+        this.backupManager = backupManager;
+        this.lock = lock;
+        eventLogger.enableCompaction(filePath);
+        eventLogger.enableHistory(filePath);
+    }
+
+    @Override
+    public StorageSnapshot load() throws IOException {
+        if (!Files.exists(filePath)) {
+            throw new NoSuchFileException(filePath.toString(), null, "no save file yet");
+        }
+        long watermark = DataFileUtils.readWatermark(filePath);
+        List<String> records = DataFileUtils.recordLines(DataFileUtils.readNonEmptyLines(filePath));
+        eventLogger.advanceSequenceTo(watermark);
+        return new StorageSnapshot(records, watermark);
+    }
+
+    /**
+     * Returns the watermark of the data file, read again only if the file's identity, size or
+     * modification time changed since it was last read, so repeated checks do not open the file.
+     */
+    @Override
+    public synchronized long checkpointWatermark() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            checkpointModified = null;
+            return 0;
+        }
+        if (!attributes.lastModifiedTime().equals(checkpointModified) || attributes.size() != checkpointSize
+                || !Objects.equals(attributes.fileKey(), checkpointFileKey)) {
+            cachedWatermark = DataFileUtils.readWatermark(filePath);
+            checkpointModified = attributes.lastModifiedTime();
+            checkpointSize = attributes.size();
+            checkpointFileKey = attributes.fileKey();
+        }
+        return cachedWatermark;
+    }
+
+    @Override
+    public void append(TaskEvent event) {
+        eventLogger.append(event);
+    }
+
+    @Override
+    public void onAppend(Consumer<LogEntry> listener) {
+        eventLogger.addAppendListener(listener);
+    }
+
+    @Override
+    public void readNewEntries(Consumer<LogEntry> consumer) {
+        eventLogger.readNewEntries(consumer);
+    }
+
+    @Override
+    public void rewindNewEntries() {
+        eventLogger.resetReadPosition();
+    }
+
+    @Override
+    public void forEachPendingEntry(Consumer<LogEntry> consumer) {
+        eventLogger.forEachEntry(consumer);
+    }
+
+    @Override
+    public long lastSequence() {
+        return eventLogger.getLastSequence();
+    }
+
+    @Override
+    public boolean flush(Consumer<LogEntry> visitor, BooleanSupplier validator) {
+        return lock.exclusive(() -> {
+            backupPreviousCheckpoint();
+            return eventLogger.replayLog(filePath, visitor, validator);
+        });
+    }
+
+    @Override
+    public long checkpoint(List<Task> tasks) throws IOException {
+        try {
+            return lock.exclusive(() -> {
+                try {
+                    return writeCheckpoint(tasks);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeCheckpoint(List<Task> tasks) throws IOException {
+        backupPreviousCheckpoint(); // Backup before overwriting
+
+        Path tempFile = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        long watermark = eventLogger.getLastSequence(); // Every logged event is reflected in the tasks
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(DataFileUtils.watermarkHeader(watermark) + "\n");
+            writer.write("[\n");
+
+            int size = tasks.size();
+            for (int i = 0; i < size; i++) {
+                TaskSerializer.appendTask(tasks.get(i), writer);
+
+                if (i < size - 1) {
+                    writer.write(",\n"); // Ensure proper formatting
+                } else {
+                    writer.write("\n"); // Last entry, no trailing comma
+                }
+            }
+
+            writer.write("]\n");
+        }
+
+        Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        eventLogger.clearLog();
+        return watermark;
+    }
+
+    private void backupPreviousCheckpoint() {
+        try {
+            backupManager.backup();
+        } catch (IOException e) {
+            System.err.println("failed to backup current file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<List<String>> recordsAt(long sequence) {
+        return eventLogger.recordsAt(sequence);
+    }
+
+    @Override
+    public boolean forEachEntryAfter(long sequence, Predicate<LogEntry> consumer) {
+        return eventLogger.forEachEntryAfter(sequence, consumer);
+    }
+
+    @Override
+    public OptionalLong sequenceAt(Instant time) {
+        return eventLogger.sequenceAt(time);
+    }
+
+    @Override
+    public Optional<ByteBuffer> readSidecar(String name) {
+        Path sidecarPath = sidecarPath(name);
+        if (!Files.exists(sidecarPath)) {
+            return Optional.empty();
+        }
+        try {
+            // Read rather than mapped: the sidecar is decoded once, and Windows cannot replace a mapped file
+            return Optional.of(ByteBuffer.wrap(Files.readAllBytes(sidecarPath)));
+        } catch (IOException e) {
+            System.err.println("Unable to read " + sidecarPath.getFileName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void writeSidecar(String name, ByteBuffer content) {
+        Path sidecarPath = sidecarPath(name);
+        Path tempFile = sidecarPath.resolveSibling(sidecarPath.getFileName() + ".tmp");
+        lock.exclusive(() -> {
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer remaining = content.duplicate();
+                    while (remaining.hasRemaining()) {
+                        channel.write(remaining);
+                    }
+                }
+                Files.move(tempFile, sidecarPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Unable to write " + sidecarPath.getFileName() + ": " + e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    private Path sidecarPath(String name) {
+        return filePath.resolveSibling(filePath.getFileName() + "." + name);
+    }
+
+    @Override
+    public Optional<List<Task>> recover() {
+        Optional<Map<UUID, Task>> recovered = backupManager.restoreNewestValidGeneration();
+        if (recovered.isPresent()) {
+            return Optional.of(new ArrayList<>(recovered.get().values()));
+        }
+
+        try {
+            Files.delete(filePath);
+            System.err.println("Corrupted save file deleted to start afresh next run.");
+        } catch (IOException deleteEx) {
+            System.err.println("Failed to delete corrupted save file: " + deleteEx.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public <T> T readLocked(Supplier<T> operation) {
+        return lock.shared(operation);
+    }
+
+    @Override
+    public <T> T writeLocked(Supplier<T> operation) {
+        return lock.exclusive(operation);
+    }
+
+    @Override
+    public void watch(Runnable onExternalChange) {
+        new DataDirectoryWatcher(List.of(filePath, eventLogger.getLogFilePath()), onExternalChange).start();
+    }
+}
@@ -0,0 +1,127 @@
+package repository.watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directories holding the data and log files and reports external changes to them.
+ *
+ * <p>
+ * A {@link WatchService} is registered on each distinct parent directory. Events for unrelated
+ * files (backups, temporary files, the lock file) are ignored, and bursts of events, such as a
+ * write followed by an atomic move, are coalesced into a single notification after a short quiet
+ * period. Notifications run on a daemon thread, so the watcher never keeps the application alive.
+ * </p>
+ */
+public class DataDirectoryWatcher {
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Runnable onChange;
+    private WatchService watchService;
+
+    /**
+     * Constructs a watcher for the given files.
+     *
+     * @param files    The files whose changes are reported.
+     * @param onChange The callback invoked after the watched files changed.
+     */
+    public DataDirectoryWatcher(List<Path> files, Runnable onChange) {
+        for (Path file : files) {
+            watchedFiles.add(file.toAbsolutePath().normalize());
+        }
+        this.onChange = onChange;
+    }
+
+    /**
+     * Registers the watch service and starts the notification thread.
+     * If the file system does not support watching, changes are simply not reported.
+     */
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (Path file : watchedFiles) {
+                directories.add(file.getParent());
+            }
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to watch data directory for external changes: " + e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(this::watchLoop, "data-directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching and ends the notification thread.
+     */
+    public void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Error closing data directory watcher: " + e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                boolean isRelevant = drain(watchService.take());
+                // Coalesce the rest of the burst before notifying
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isRelevant |= drain(key);
+                }
+                if (isRelevant) {
+                    notifyChange();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Watcher stopped
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean isRelevant = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                isRelevant = true;
+                continue;
+            }
+            Path changed = directory.resolve((Path) event.context()).toAbsolutePath().normalize();
+            isRelevant |= watchedFiles.contains(changed);
+        }
+        key.reset();
+        return isRelevant;
+    }
+
+    private void notifyChange() {
+        try {
+            onChange.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error reloading external changes: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import dispatcher.IDispatcher;
 import entity.command.TerminationCommand;
 import exceptions.UserFacingException;
 import repository.entitymanager.TaskFlusher;
+import repository.replication.ReplicationManager;
 
 
 /**
@@ -19,15 +20,22 @@ public class BotRunTime implements IBotRunTime {
 
     private final IDispatcher dispatcher;
 
+    /**
+     * Ships changes to followers and follows a primary, if configured.
+     */
+    private final ReplicationManager replicationManager;
+
     /**
      * Constructs a {@code BotRunTime} with required dependencies.
      *
-     * @param dispatcher  The controller responsible for receiving and resolving user actions.
-     * @param taskFlusher The service responsible for managing task persistence.
+     * @param dispatcher         The controller responsible for receiving and resolving user actions.
+     * @param taskFlusher        The service responsible for managing task persistence.
+     * @param replicationManager The service replicating the tasks between instances.
      */
-    public BotRunTime(TaskFlusher taskFlusher, IDispatcher dispatcher) {
+    public BotRunTime(TaskFlusher taskFlusher, IDispatcher dispatcher, ReplicationManager replicationManager) {
         this.dispatcher = dispatcher;
         this.taskFlusher = taskFlusher;
+        this.replicationManager = replicationManager;
     }
 
     /**
@@ -42,11 +50,13 @@ public class BotRunTime implements IBotRunTime {
      */
     public void run() {
         taskFlusher.start();
+        replicationManager.start();
         try {
             dispatcher.run(); // Delegate to CLI or GUI controller
         } catch (Exception e) {
             System.out.println("Unhandled exception in BotRunTime: " + e.getMessage());
         } finally {
+            replicationManager.stop();
             taskFlusher.stop();
         }
     }
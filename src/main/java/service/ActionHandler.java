@@ -10,23 +10,28 @@ import entity.command.AddCommand;
 import entity.command.Command;
 import entity.command.CommandFactory;
 import exceptions.UserFacingException;
+import repository.replication.ReplicationManager;
 import service.dao.CommandDao;
 import util.CommandMapper;
 
 /**
  * Handles user commands and resolves them into appropriate actions.
  * Uses a {@link CommandFactory} to create command instances and execute them with parameters.
+ * On a read-only replica, only actions that leave the tasks unchanged are resolved.
  */
 public class ActionHandler implements Proxiable {
     private final CommandFactory commandFactory;
+    private final ReplicationManager replicationManager;
 
     /**
      * Constructs an {@code ActionHandler} with the specified command factory.
      *
-     * @param commandFactory The factory responsible for creating command instances.
+     * @param commandFactory     The factory responsible for creating command instances.
+     * @param replicationManager The replication roles of this instance.
      */
-    public ActionHandler(CommandFactory commandFactory) {
+    public ActionHandler(CommandFactory commandFactory, ReplicationManager replicationManager) {
         this.commandFactory = commandFactory;
+        this.replicationManager = replicationManager;
     }
 
     /**
@@ -34,7 +39,7 @@ public class ActionHandler implements Proxiable {
      *
      * @param input The user-provided command string.
      * @return The executed {@link Command} instance.
-     * @throws UserFacingException If the command is invalid or deprecated.
+     * @throws UserFacingException If the command is invalid or deprecated, or changes the tasks of a replica.
      */
     public CommandDao resolveAction(String input) throws UserFacingException {
         String[] split = input.trim().split(" ");
@@ -42,6 +47,10 @@ public class ActionHandler implements Proxiable {
 
         // Use static CommandMapper
         Actions action = CommandMapper.mapCommandToAction(command);
+        if (replicationManager.isReplica() && !action.isReadOnly()) {
+            throw new UserFacingException("This is a read-only replica of " + replicationManager.getPrimary()
+                    + ", make changes there.");
+        }
 
         List<String> parameters = new ArrayList<>(Arrays.asList(Arrays.copyOfRange(split, 1, split.length)));
 
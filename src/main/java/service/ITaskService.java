@@ -1,5 +1,6 @@
 package service;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -8,6 +9,8 @@ import dicontainer.aopinterfaces.annotationinterfaces.ExceptionHandler;
 import dicontainer.aopinterfaces.annotationinterfaces.ProxyEnabled;
 import entity.TaskType;
 import entity.tasks.Task;
+import repository.event.ChangeFeed;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
 
 
@@ -102,4 +105,72 @@ public interface ITaskService extends Proxiable {
 
     @ExceptionHandler
     Task updateTask(int idx, TaskUpdateDao taskUpdateDao);
+
+    /**
+     * Streams every task to a JSON file, one task at a time.
+     *
+     * @param path The file to write.
+     * @return The number of exported tasks.
+     */
+    @ExceptionHandler
+    int exportJson(Path path);
+
+    /**
+     * Imports the tasks of a JSON file in batches. Tasks whose UUID already exists are replaced.
+     *
+     * @param path The file to read.
+     * @return The number of imported tasks.
+     */
+    @ExceptionHandler
+    int importJson(Path path);
+
+    /**
+     * Bulk loads tasks from a CSV file. Rows are parsed in parallel, deduplicated by UUID with later
+     * rows winning, saved as a single batch and persisted once. Invalid rows are skipped and reported.
+     *
+     * @param path The CSV file to load, starting with a header row.
+     * @return A summary of the load, including its throughput.
+     */
+    @ExceptionHandler
+    BulkLoadDao bulkLoadCsv(Path path);
+
+    /**
+     * Steps the tasks back through their logged history. Every step restores the closest earlier
+     * state that differs from the current one; the restore is logged, so it survives restarts.
+     *
+     * @param steps The number of changes to undo.
+     * @return The number of changes undone, at most {@code steps}.
+     */
+    @ExceptionHandler
+    int undo(int steps);
+
+    /**
+     * Re-applies changes reverted by {@link #undo}, as long as nothing else changed the tasks since.
+     *
+     * @param steps The number of changes to redo.
+     * @return The number of changes redone, at most {@code steps}.
+     */
+    @ExceptionHandler
+    int redo(int steps);
+
+    /**
+     * Rebuilds the tasks as they were at a point in time, without changing the current tasks.
+     *
+     * @param time The point in time.
+     * @return The tasks at that time.
+     */
+    @ExceptionHandler
+    List<Task> stateAt(LocalDateTime time);
+
+    /**
+     * Returns the tasks changed since a version of the task list, so that a mirrored copy can be
+     * brought up to date without fetching every task. Each changed task is reported once, as it is
+     * now, however often it changed.
+     *
+     * @param version The cursor returned by the previous call, or {@code 0} for a first sync.
+     * @param limit   The maximum number of changed tasks to return.
+     * @return The changes and the cursor to pass to the next call.
+     */
+    @ExceptionHandler
+    ChangeFeed changesSince(long version, int limit);
 }
@@ -1,7 +1,10 @@
 package service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import entity.TaskType;
@@ -13,6 +16,7 @@ import entity.tasks.ToDo;
 import exceptions.UserFacingException;
 import repository.IFileBackedTaskRepository;
 import repository.ITaskRepository;
+import repository.event.ChangeFeed;
 import service.dao.TaskUpdateDao;
 
 /**
@@ -89,6 +93,55 @@ public class TaskRepositoryCoordinatorService {
         taskBuffer.markDirty(uuid);
     }
 
+    /**
+     * Persists all pending changes of the file-backed repository immediately.
+     */
+    void flush() {
+        taskBuffer.flush();
+    }
+
+    /**
+     * Returns the sequence of the most recently logged change.
+     */
+    long lastSequence() {
+        return taskBuffer.lastSequence();
+    }
+
+    /**
+     * Finds the sequence of the last change logged at or before a point in time.
+     */
+    OptionalLong sequenceAt(LocalDateTime time) {
+        return taskBuffer.sequenceAt(time);
+    }
+
+    /**
+     * Rebuilds the tasks as they were right after a logged change.
+     */
+    Optional<List<Task>> tasksAt(long sequence) {
+        return taskBuffer.tasksAt(sequence);
+    }
+
+    /**
+     * Finds the closest earlier point in the history at which the tasks looked different.
+     */
+    OptionalLong previousChange(long sequence) {
+        return taskBuffer.previousChange(sequence);
+    }
+
+    /**
+     * Brings the tasks back to their state right after a logged change.
+     */
+    int restore(long sequence) {
+        return taskBuffer.restore(sequence);
+    }
+
+    /**
+     * Reports the tasks changed after a logged change, one change per task.
+     */
+    ChangeFeed changesSince(long sequence, int limit) {
+        return taskBuffer.changesSince(sequence, limit);
+    }
+
     /**
      * Applies updates to an existing task, preserving its type if unchanged.
      *
@@ -1,21 +1,43 @@
 package service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import entity.TaskType;
 import entity.tasks.Task;
 import entity.tasks.TaskFactory;
 import exceptions.UserFacingException;
 import repository.ITaskRepository;
+import repository.event.ChangeFeed;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
+import util.TaskCsvParser;
+import util.TaskJsonReader;
+import util.TaskJsonWriter;
 
 /**
  * Implements {@link ITaskService} to provide task management operations.
  * This service interacts with the {@link ITaskRepository} to perform CRUD operations.
  */
 public class TaskService implements ITaskService {
+    /**
+     * The number of imported tasks saved per repository batch.
+     */
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
     /**
      * Service responsible for coordinating repository interactions.
      */
@@ -26,6 +48,22 @@ public class TaskService implements ITaskService {
      */
     private final ITaskRepository taskRepository;
 
+    /**
+     * The log sequences of the states undone, most recent first, for redo.
+     */
+    private final Deque<Long> redoStack = new ArrayDeque<>();
+
+    /**
+     * The log sequence of the state the last undo or redo restored.
+     */
+    private long undoCursor;
+
+    /**
+     * The last log sequence right after the last undo or redo, or -1 if there was none.
+     * Any other value means the tasks changed since, which ends the undo session.
+     */
+    private long restoredSequence = -1;
+
     /**
      * Constructs a {@code TaskService} with the required repository services.
      *
@@ -105,4 +143,184 @@ public class TaskService implements ITaskService {
     public List<Task> searchByDate(TaskType type, LocalDateTime from, LocalDateTime to) {
         return taskRepository.findAllFromWhenToWhen(type, from, to); // ✅ Return list of tasks
     }
+
+    @Override
+    public int exportJson(Path path) {
+        try (TaskJsonWriter writer = new TaskJsonWriter(Files.newBufferedWriter(path))) {
+            taskRepository.forEachTask(task -> {
+                try {
+                    writer.write(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return writer.getCount();
+        } catch (IOException | UncheckedIOException e) {
+            throw new UserFacingException("Unable to export tasks to " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int importJson(Path path) {
+        int imported = 0;
+        try (TaskJsonReader reader = new TaskJsonReader(Files.newBufferedReader(path))) {
+            List<Task> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            for (Task task = reader.next(); task != null; task = reader.next()) {
+                batch.add(task);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    taskRepository.saveAll(batch);
+                    imported += batch.size();
+                    batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+                }
+            }
+            taskRepository.saveAll(batch);
+            return imported + batch.size();
+        } catch (NoSuchFileException e) {
+            throw new UserFacingException("No such file: " + path);
+        } catch (IOException e) {
+            throw new UserFacingException("Unable to import tasks from " + path + " (" + imported
+                    + " tasks imported before the error): " + e.getMessage());
+        }
+    }
+
+    @Override
+    public BulkLoadDao bulkLoadCsv(Path path) {
+        long start = System.nanoTime();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (NoSuchFileException e) {
+            throw new UserFacingException("No such file: " + path);
+        } catch (IOException e) {
+            throw new UserFacingException("Unable to read " + path + ": " + e.getMessage());
+        }
+        if (lines.isEmpty()) {
+            throw new UserFacingException("CSV file is empty: " + path);
+        }
+
+        TaskCsvParser parser;
+        try {
+            parser = new TaskCsvParser(lines.get(0));
+        } catch (IllegalArgumentException e) {
+            throw new UserFacingException(e.getMessage());
+        }
+        List<ParsedRow> parsedRows = IntStream.range(1, lines.size())
+                .parallel()
+                .filter(i -> !lines.get(i).isBlank())
+                .mapToObj(i -> ParsedRow.parse(parser, i + 1, lines.get(i)))
+                .toList(); // Keeps file order
+
+        Map<UUID, Task> tasks = new LinkedHashMap<>();
+        int invalid = 0;
+        String firstError = null;
+        for (ParsedRow row : parsedRows) {
+            if (row.task == null) {
+                invalid++;
+                firstError = firstError == null ? "line " + row.line + ": " + row.error : firstError;
+            } else {
+                tasks.remove(row.task.getId()); // A duplicate takes the position of its last occurrence
+                tasks.put(row.task.getId(), row.task);
+            }
+        }
+
+        taskRepository.saveAll(new ArrayList<>(tasks.values()));
+        taskRepositoryCoordinatorService.flush();
+
+        return BulkLoadDao.builder()
+                .rows(parsedRows.size())
+                .loaded(tasks.size())
+                .duplicates(parsedRows.size() - invalid - tasks.size())
+                .invalid(invalid)
+                .firstError(firstError)
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    @Override
+    public synchronized int undo(int steps) {
+        long lastSequence = taskRepositoryCoordinatorService.lastSequence();
+        if (lastSequence != restoredSequence) {
+            undoCursor = lastSequence; // The tasks changed since the last undo, start from the head again
+            redoStack.clear();
+        }
+
+        long target = undoCursor;
+        int undone = 0;
+        while (undone < steps) {
+            OptionalLong previous = taskRepositoryCoordinatorService.previousChange(target);
+            if (previous.isEmpty()) {
+                break;
+            }
+            redoStack.push(target);
+            target = previous.getAsLong();
+            undone++;
+        }
+        if (undone == 0) {
+            throw new UserFacingException("Nothing to undo");
+        }
+        restore(target);
+        return undone;
+    }
+
+    @Override
+    public synchronized int redo(int steps) {
+        if (taskRepositoryCoordinatorService.lastSequence() != restoredSequence || redoStack.isEmpty()) {
+            throw new UserFacingException("Nothing to redo");
+        }
+        long target = undoCursor;
+        int redone = 0;
+        while (redone < steps && !redoStack.isEmpty()) {
+            target = redoStack.pop();
+            redone++;
+        }
+        restore(target);
+        return redone;
+    }
+
+    @Override
+    public List<Task> stateAt(LocalDateTime time) {
+        OptionalLong sequence = taskRepositoryCoordinatorService.sequenceAt(time);
+        if (sequence.isEmpty()) {
+            throw new UserFacingException("No history recorded at " + time);
+        }
+        return taskRepositoryCoordinatorService.tasksAt(sequence.getAsLong())
+                .orElseThrow(() -> new UserFacingException("No history recorded at " + time));
+    }
+
+    @Override
+    public ChangeFeed changesSince(long version, int limit) {
+        if (version < 0 || limit <= 0) {
+            throw new UserFacingException("Expected a version of at least 0 and a positive limit");
+        }
+        return taskRepositoryCoordinatorService.changesSince(version, limit);
+    }
+
+    private void restore(long sequence) {
+        taskRepositoryCoordinatorService.restore(sequence);
+        undoCursor = sequence;
+        restoredSequence = taskRepositoryCoordinatorService.lastSequence();
+    }
+
+    /**
+     * The outcome of parsing one CSV row: either a task or an error message.
+     */
+    private static class ParsedRow {
+        private final int line;
+        private final Task task;
+        private final String error;
+
+        private ParsedRow(int line, Task task, String error) {
+            this.line = line;
+            this.task = task;
+            this.error = error;
+        }
+
+        private static ParsedRow parse(TaskCsvParser parser, int line, String row) {
+            try {
+                return new ParsedRow(line, parser.parse(row), null);
+            } catch (IllegalArgumentException e) {
+                return new ParsedRow(line, null, e.getMessage());
+            }
+        }
+    }
 }
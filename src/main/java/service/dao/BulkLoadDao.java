@@ -0,0 +1,57 @@
+package service.dao;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data transfer object (DTO) summarizing the outcome of a bulk load.
+ */
+@Data
+@Builder
+public class BulkLoadDao {
+    /**
+     * The number of data rows read, excluding the header and blank lines.
+     */
+    private int rows;
+
+    /**
+     * The number of tasks saved after deduplication.
+     */
+    private int loaded;
+
+    /**
+     * The number of rows dropped because a later row had the same UUID.
+     */
+    private int duplicates;
+
+    /**
+     * The number of rows skipped because they could not be parsed.
+     */
+    private int invalid;
+
+    /**
+     * A description of the first invalid row, or {@code null} if every row was valid.
+     */
+    private String firstError;
+
+    /**
+     * The wall-clock duration of the load, from reading the file to persisting the tasks.
+     */
+    private long elapsedMillis;
+
+    /**
+     * Returns the load throughput.
+     *
+     * @return The number of rows processed per second.
+     */
+    public long getRowsPerSecond() {
+        return rows * 1000L / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "Loaded " + loaded + " of " + rows + " rows in " + elapsedMillis + " ms ("
+                + getRowsPerSecond() + " rows/s); " + duplicates + " duplicates, " + invalid + " invalid"
+                + (firstError == null ? "" : " (first: " + firstError + ")");
+    }
+}
@@ -35,6 +35,13 @@ public class CommandMapper {
         COMMAND_MAPPINGS.put("mark", Actions.MARK);
         COMMAND_MAPPINGS.put("unmark", Actions.UNMARK);
 
+        COMMAND_MAPPINGS.put("export", Actions.EXPORT);
+        COMMAND_MAPPINGS.put("import", Actions.IMPORT);
+
+        COMMAND_MAPPINGS.put("undo", Actions.UNDO);
+        COMMAND_MAPPINGS.put("redo", Actions.REDO);
+        COMMAND_MAPPINGS.put("show", Actions.SHOW);
+
         COMMAND_MAPPINGS.put("exit", Actions.TERMINATE);
         COMMAND_MAPPINGS.put("quit", Actions.TERMINATE);
         COMMAND_MAPPINGS.put("bye", Actions.TERMINATE);
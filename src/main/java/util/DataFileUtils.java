@@ -4,11 +4,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import entity.tasks.Task;
@@ -17,6 +19,10 @@ import entity.tasks.Task;
  * Utility class for file-related operations such as reading lines and tasks.
  */
 public class DataFileUtils {
+    /**
+     * Prefix of the optional header line recording the last event-log sequence applied to a data file.
+     */
+    public static final String WATERMARK_HEADER = "#lastApplied ";
 
     /**
      * Reads a file and returns a list of trimmed, non-empty lines.
@@ -46,21 +52,144 @@ public class DataFileUtils {
      * @throws IOException If an I/O error occurs or the file format is invalid.
      */
     public static Map<UUID, Task> readTasksFromFile(Path filePath) throws IOException {
-        List<String> lines = readNonEmptyLines(filePath);
+        return parseTasks(readNonEmptyLines(filePath));
+    }
+
+    /**
+     * Parses the trimmed, non-empty lines of a data file into a map of tasks identified by their UUID.
+     *
+     * @param lines The lines of the data file, including any {@code #} header lines and the enclosing brackets.
+     * @return A map where the key is the UUID and the value is the corresponding Task.
+     * @throws IOException If the file format is invalid.
+     */
+    public static Map<UUID, Task> parseTasks(List<String> lines) throws IOException {
         Map<UUID, Task> taskMap = new LinkedHashMap<>();
+        for (String record : recordLines(lines)) {
+            Task task = TaskDeserializer.deserializeTask(record);
+            if (task != null) {
+                taskMap.put(task.getId(), task);
+            }
+        }
+
+        return taskMap;
+    }
+
+    /**
+     * Extracts the serialized task records from the trimmed, non-empty lines of a data file,
+     * without deserializing them. Header lines, brackets and separating commas are dropped.
+     *
+     * @param lines The lines of the data file, including any {@code #} header lines and the enclosing brackets.
+     * @return The serialized tasks, in file order.
+     * @throws IOException If the file format is invalid.
+     */
+    public static List<String> recordLines(List<String> lines) throws IOException {
+        int headerLines = 0;
+        while (headerLines < lines.size() && lines.get(headerLines).startsWith("#")) {
+            headerLines++;
+        }
+        lines = lines.subList(headerLines, lines.size());
 
         if (lines.isEmpty() || !lines.get(0).equals("[") || !lines.get(lines.size() - 1).equals("]")) {
             throw new IOException("Invalid file format");
         }
 
+        List<String> records = new ArrayList<>(lines.size() - 2);
         for (int i = 1; i < lines.size() - 1; i++) {
-            String line = lines.get(i).replaceAll(",$", "");
-            Task task = TaskDeserializer.deserializeTask(line);
-            if (task != null) {
-                taskMap.put(task.getId(), task);
+            String line = lines.get(i);
+            records.add(line.endsWith(",") ? line.substring(0, line.length() - 1) : line);
+        }
+        return records;
+    }
+
+    /**
+     * Streams the serialized tasks of a data file without holding its lines in memory.
+     *
+     * @param filePath       The path to the data file.
+     * @param recordConsumer The consumer receiving each serialized task, in file order.
+     * @return The watermark recorded in the header, or {@code 0} if there is none.
+     * @throws IOException If an I/O error occurs or the file format is invalid.
+     */
+    public static long streamRecords(Path filePath, Consumer<String> recordConsumer) throws IOException {
+        long watermark = 0;
+        boolean isOpened = false;
+        boolean isClosed = false;
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (!isOpened && line.startsWith("#")) {
+                    watermark = line.startsWith(WATERMARK_HEADER) ? parseWatermark(line) : watermark;
+                } else if (!isOpened && line.equals("[")) {
+                    isOpened = true;
+                } else if (!isOpened || isClosed) {
+                    throw new IOException("Invalid file format");
+                } else if (line.equals("]")) {
+                    isClosed = true;
+                } else {
+                    recordConsumer.accept(line.endsWith(",") ? line.substring(0, line.length() - 1) : line);
+                }
             }
         }
+        if (!isClosed) {
+            throw new IOException("Invalid file format");
+        }
+        return watermark;
+    }
 
-        return taskMap;
+    /**
+     * Extracts the task UUID from a serialized task record without deserializing it.
+     *
+     * @param record The serialized task.
+     * @return The UUID of the task.
+     * @throws IllegalArgumentException If the record does not start with a valid UUID.
+     */
+    public static UUID recordId(String record) {
+        int separator = record.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid task record: " + record);
+        }
+        return TaskDeserializer.parseUuid(record, 0, separator);
+    }
+
+    /**
+     * Reads the last applied event-log sequence recorded in a data file header.
+     *
+     * @param filePath The path to the data file.
+     * @return The recorded sequence, or {@code 0} if the file or header does not exist.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public static long readWatermark(Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            return 0;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !firstLine.startsWith(WATERMARK_HEADER)) {
+                return 0;
+            }
+            return parseWatermark(firstLine);
+        }
+    }
+
+    private static long parseWatermark(String headerLine) throws IOException {
+        try {
+            return Long.parseLong(headerLine.substring(WATERMARK_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid watermark header: " + headerLine);
+        }
+    }
+
+    /**
+     * Formats the data file header recording the last applied event-log sequence.
+     *
+     * @param watermark The last applied sequence.
+     * @return The header line, without a trailing newline.
+     */
+    public static String watermarkHeader(long watermark) {
+        return WATERMARK_HEADER + watermark;
     }
 }
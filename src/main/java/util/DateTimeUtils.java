@@ -15,6 +15,7 @@ import exceptions.UserFacingException;
  * </p>
  */
 public class DateTimeUtils {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     /**
      * Parses a date or date-time string into a {@link LocalDateTime} object.
@@ -36,7 +37,7 @@ public class DateTimeUtils {
                 return LocalDateTime.parse(input);
             } else {
                 // If input has only date, parse as LocalDate and convert to LocalDateTime
-                return LocalDate.parse(input, DateTimeFormatter.ofPattern("yyyy-MM-dd")).atStartOfDay();
+                return LocalDate.parse(input, DATE_FORMAT).atStartOfDay();
             }
         } catch (DateTimeParseException e) {
             throw new UserFacingException(e.getMessage());
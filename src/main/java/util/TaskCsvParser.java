@@ -0,0 +1,100 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import entity.tasks.Task;
+
+/**
+ * Parses tasks from CSV rows for the bulk loader.
+ *
+ * <p>
+ * The first row is a header naming the columns, in any order, using the field names understood by
+ * {@link TaskDeserializer#deserializeFields}, e.g.:
+ * </p>
+ * <pre>{@code
+ * id,type,name,completed,dueBy,startAt,endBy
+ * ,todo,read book,false,,,
+ * ,deadline,"submit, then relax",true,2025-03-03,,
+ * }</pre>
+ * <p>
+ * Fields may be quoted, with {@code ""} standing for a literal quote. Since quoted fields cannot
+ * span line breaks, every row is a single line, which lets rows be parsed independently and
+ * in parallel. A parser holds no mutable state and may be shared between threads.
+ * </p>
+ */
+public class TaskCsvParser {
+    private final List<String> columns;
+
+    /**
+     * Constructs a parser for rows following the given header.
+     *
+     * @param header The header row.
+     * @throws IllegalArgumentException If the header lacks a {@code type} or {@code name} column.
+     */
+    public TaskCsvParser(String header) {
+        this.columns = splitRow(header).stream().map(String::trim).toList();
+        if (!columns.contains("type") || !columns.contains("name")) {
+            throw new IllegalArgumentException("CSV header needs 'type' and 'name' columns: " + header);
+        }
+    }
+
+    /**
+     * Parses a single data row.
+     *
+     * @param row The row, without its line terminator.
+     * @return The task described by the row.
+     * @throws IllegalArgumentException If the row is malformed or describes an invalid task.
+     */
+    public Task parse(String row) {
+        List<String> values = splitRow(row);
+        if (values.size() > columns.size()) {
+            throw new IllegalArgumentException("expected " + columns.size() + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(columns.get(i), values.get(i));
+        }
+        return TaskDeserializer.deserializeFields(fields);
+    }
+
+    /**
+     * Splits a CSV row into its fields, unquoting quoted fields.
+     *
+     * @param row The row to split.
+     * @return The fields of the row.
+     * @throws IllegalArgumentException If a quoted field is not terminated.
+     */
+    static List<String> splitRow(String row) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (isQuoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"'); // Escaped quote
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (isQuoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,12 +1,16 @@
 package util;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.UUID;
 
 import entity.tasks.DeadLine;
 import entity.tasks.Events;
 import entity.tasks.Task;
 import entity.tasks.ToDo;
+import exceptions.UserFacingException;
 
 /**
  * Utility class for deserializing task objects from string representations.
@@ -17,6 +21,19 @@ import entity.tasks.ToDo;
  * </p>
  */
 public class TaskDeserializer {
+    private static final int UUID_LENGTH = 36;
+    private static final byte[] HEX_DIGITS = new byte[128]; // Value of each ASCII hex digit, -1 for other characters
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_DIGITS['a' + i] = (byte) (10 + i);
+            HEX_DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
 
     /**
      * Deserializes a task from a formatted string.
@@ -39,41 +56,226 @@ public class TaskDeserializer {
      * @return A {@link Task} object if the string is valid; otherwise, throws an exception.
      * @throws IllegalArgumentException If the input format is invalid.
      */
-    public static Task deserializeTask(String line) {
-        String[] parts = line.split("\\|");
-        if (parts.length < 4) {
-            throw new IllegalArgumentException("Invalid task format: " + line);
+    public static Task deserializeTask(CharSequence line) {
+        return deserializeTask(line, 0, line.length());
+    }
+
+    /**
+     * Deserializes a task from a window of a larger buffer, such as one line of a file read in
+     * bulk, without copying the window first.
+     *
+     * <p>
+     * The fields are scanned in a single pass and parsed in place: the UUID from its hex digits
+     * and the timestamps from their digits, so the only objects created are the task and its
+     * fields. UUIDs and timestamps not in the layout {@link TaskSerializer} writes, e.g. timestamps
+     * with fractional seconds, fall back to {@link UUID#fromString} and {@link LocalDateTime#parse}.
+     * As with splitting the line at {@code |}, empty fields at its end count as absent, and fields
+     * after the last one a task type uses are ignored.
+     * </p>
+     *
+     * @param text  The text holding the serialized task.
+     * @param start The index of the first character of the task.
+     * @param end   The index after the last character of the task.
+     * @return The deserialized task.
+     * @throws IllegalArgumentException If the input format is invalid.
+     */
+    public static Task deserializeTask(CharSequence text, int start, int end) {
+        int fieldsEnd = end;
+        while (fieldsEnd > start && text.charAt(fieldsEnd - 1) == '|') {
+            fieldsEnd--;
+        }
+        int idEnd = indexOf(text, '|', start, fieldsEnd);
+        int typeEnd = idEnd < 0 ? -1 : indexOf(text, '|', idEnd + 1, fieldsEnd);
+        int completedEnd = typeEnd < 0 ? -1 : indexOf(text, '|', typeEnd + 1, fieldsEnd);
+        if (completedEnd < 0) {
+            throw new IllegalArgumentException("Invalid task format: " + text.subSequence(start, end));
         }
+        int nameEnd = indexOf(text, '|', completedEnd + 1, fieldsEnd);
 
         try {
-            UUID id = UUID.fromString(parts[0]); // Extract UUID
-            String type = parts[1];
-            boolean isCompleted = parts[2].equals("1");
-            String name = parts[3];
+            UUID id = parseUuid(text, start, idEnd);
+            char type = typeEnd == idEnd + 2 ? text.charAt(idEnd + 1) : '?';
+            boolean isCompleted = completedEnd == typeEnd + 2 && text.charAt(typeEnd + 1) == '1';
+            String name = parseName(text, completedEnd + 1, nameEnd < 0 ? fieldsEnd : nameEnd);
 
             return switch (type) {
-            case "T" -> ToDo.builder().id(id).name(name).isCompleted(isCompleted).build();
-            case "D" -> {
-                if (parts.length < 5) {
-                    throw new IllegalArgumentException("Deadline task missing dueBy timestamp: " + line);
+            case 'T' -> ToDo.builder().id(id).name(name).isCompleted(isCompleted).build();
+            case 'D' -> {
+                if (nameEnd < 0) {
+                    throw new IllegalArgumentException("Deadline task missing dueBy timestamp");
                 }
-                LocalDateTime dueBy = LocalDateTime.parse(parts[4]);
+                LocalDateTime dueBy = parseDateTime(text, nameEnd + 1, fieldEnd(text, nameEnd + 1, fieldsEnd));
                 yield DeadLine.builder().id(id).name(name).dueby(dueBy).isCompleted(isCompleted).build();
             }
-            case "E" -> {
-                if (parts.length < 6) {
-                    throw new IllegalArgumentException("Event task missing startAt or endBy timestamps: " + line);
+            case 'E' -> {
+                int startAtEnd = nameEnd < 0 ? -1 : indexOf(text, '|', nameEnd + 1, fieldsEnd);
+                if (startAtEnd < 0) {
+                    throw new IllegalArgumentException("Event task missing startAt or endBy timestamps");
                 }
-                LocalDateTime startAt = LocalDateTime.parse(parts[4]);
-                LocalDateTime endBy = LocalDateTime.parse(parts[5]);
+                LocalDateTime startAt = parseDateTime(text, nameEnd + 1, startAtEnd);
+                LocalDateTime endBy = parseDateTime(text, startAtEnd + 1, fieldEnd(text, startAtEnd + 1, fieldsEnd));
                 yield Events.builder().id(id).name(name).startat(startAt).endby(endBy)
                         .isCompleted(isCompleted).build();
             }
-            default -> throw new IllegalArgumentException("Unknown task type: " + type);
+            default -> throw new IllegalArgumentException("Unknown task type: " + text.subSequence(idEnd + 1, typeEnd));
             };
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Error parsing task: " + text.subSequence(start, end), e);
+        }
+    }
+
+    /**
+     * Reads a name escaped by {@link TaskSerializer#escapeName}, copying it as it is unless it holds
+     * an escape code.
+     */
+    private static String parseName(CharSequence text, int start, int end) {
+        return indexOf(text, '%', start, end) < 0
+                ? text.subSequence(start, end).toString()
+                : TaskSerializer.unescapeName(text, start, end);
+    }
+
+    /**
+     * Parses a UUID in place. The canonical 36-character form is decoded straight into its two
+     * halves; other forms accepted by {@link UUID#fromString} are handed to it.
+     *
+     * @param text  The text holding the UUID.
+     * @param start The index of its first character.
+     * @param end   The index after its last character.
+     * @return The parsed UUID.
+     * @throws IllegalArgumentException If the characters do not form a UUID.
+     */
+    public static UUID parseUuid(CharSequence text, int start, int end) {
+        if (end - start != UUID_LENGTH || text.charAt(start + 8) != '-' || text.charAt(start + 13) != '-'
+                || text.charAt(start + 18) != '-' || text.charAt(start + 23) != '-') {
+            return UUID.fromString(text.subSequence(start, end).toString());
+        }
+        long group1 = parseFourHexDigits(text, start);
+        long group2 = parseFourHexDigits(text, start + 4);
+        long group3 = parseFourHexDigits(text, start + 9);
+        long group4 = parseFourHexDigits(text, start + 14);
+        long group5 = parseFourHexDigits(text, start + 19);
+        long group6 = parseFourHexDigits(text, start + 24);
+        long group7 = parseFourHexDigits(text, start + 28);
+        long group8 = parseFourHexDigits(text, start + 32);
+        if ((group1 | group2 | group3 | group4 | group5 | group6 | group7 | group8) < 0) {
+            throw new IllegalArgumentException("Invalid UUID string: " + text.subSequence(start, end));
+        }
+        long mostSignificant = group1 << 48 | group2 << 32 | group3 << 16 | group4;
+        long leastSignificant = group5 << 48 | group6 << 32 | group7 << 16 | group8;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Decodes four hex digits, or returns a negative value if any of them is not one.
+     */
+    private static long parseFourHexDigits(CharSequence text, int start) {
+        char c1 = text.charAt(start);
+        char c2 = text.charAt(start + 1);
+        char c3 = text.charAt(start + 2);
+        char c4 = text.charAt(start + 3);
+        if ((c1 | c2 | c3 | c4) >= HEX_DIGITS.length) {
+            return -1;
+        }
+        return HEX_DIGITS[c1] << 12 | HEX_DIGITS[c2] << 8 | HEX_DIGITS[c3] << 4 | HEX_DIGITS[c4];
+    }
 
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Error parsing task: " + line, e);
+    /**
+     * Parses a timestamp in place if it has the {@code yyyy-MM-ddTHH:mm} or {@code yyyy-MM-ddTHH:mm:ss}
+     * layout {@link LocalDateTime#toString} produces for whole minutes and seconds.
+     */
+    private static LocalDateTime parseDateTime(CharSequence text, int start, int end) {
+        int length = end - start;
+        if ((length == 16 || length == 19) && text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-'
+                && text.charAt(start + 10) == 'T' && text.charAt(start + 13) == ':'
+                && (length == 16 || text.charAt(start + 16) == ':')) {
+            int year = parseDigits(text, start, 4);
+            int month = parseDigits(text, start + 5, 2);
+            int day = parseDigits(text, start + 8, 2);
+            int hour = parseDigits(text, start + 11, 2);
+            int minute = parseDigits(text, start + 14, 2);
+            int second = length == 16 ? 0 : parseDigits(text, start + 17, 2);
+            if ((year | month | day | hour | minute | second) >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        return LocalDateTime.parse(text.subSequence(start, end));
+    }
+
+    /**
+     * Returns the value of a run of decimal digits, or {@code -1} if any character is not a digit.
+     */
+    private static int parseDigits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the end of the field starting at the given index, which is the last field if no
+     * separator follows.
+     */
+    private static int fieldEnd(CharSequence text, int from, int end) {
+        int separator = indexOf(text, '|', from, end);
+        return separator < 0 ? end : separator;
+    }
+    /**
+     * Builds a task from named fields, as read by the JSON and CSV importers.
+     *
+     * <p>
+     * Recognized fields are {@code id}, {@code type} ({@code todo}, {@code deadline} or {@code event}),
+     * {@code name}, {@code completed}, {@code dueBy}, {@code startAt} and {@code endBy}; others are ignored.
+     * A missing {@code id} gets a fresh UUID and a missing {@code completed} defaults to {@code false}.
+     * Dates may be given as {@code yyyy-MM-dd} or as full ISO-8601 date-times.
+     * </p>
+     *
+     * @param fields The field values by name; absent or {@code null} values count as missing.
+     * @return The task described by the fields.
+     * @throws IllegalArgumentException If a required field is missing or invalid.
+     */
+    public static Task deserializeFields(Map<String, String> fields) {
+        String type = fields.get("type");
+        String name = fields.get("name");
+        if (type == null || name == null) {
+            throw new IllegalArgumentException("a task needs a 'type' and a 'name'");
+        }
+
+        String idField = fields.get("id");
+        UUID id = idField == null || idField.isEmpty() ? UUID.randomUUID() : UUID.fromString(idField);
+        boolean isCompleted = "true".equalsIgnoreCase(fields.get("completed")) || "1".equals(fields.get("completed"));
+        return switch (type.toLowerCase()) {
+        case "todo" -> ToDo.builder().id(id).name(name).isCompleted(isCompleted).build();
+        case "deadline" -> DeadLine.builder().id(id).name(name).isCompleted(isCompleted)
+                .dueby(dateField(fields, "dueBy")).build();
+        case "event" -> Events.builder().id(id).name(name).isCompleted(isCompleted)
+                .startat(dateField(fields, "startAt")).endby(dateField(fields, "endBy")).build();
+        default -> throw new IllegalArgumentException("unknown task type '" + type + "'");
+        };
+    }
+
+    private static LocalDateTime dateField(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("missing '" + key + "'");
+        }
+        try {
+            return DateTimeUtils.parseDateOrDateTime(value);
+        } catch (UserFacingException e) {
+            throw new IllegalArgumentException(e.getMessage());
         }
     }
 }
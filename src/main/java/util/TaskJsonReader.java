@@ -0,0 +1,226 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import entity.tasks.Task;
+
+/**
+ * Reads tasks one at a time from a JSON array in the format written by {@link TaskJsonWriter}.
+ *
+ * <p>
+ * The input is tokenized character by character, so memory use does not depend on the size of
+ * the array. Fields are interpreted by {@link TaskDeserializer#deserializeFields}, so unknown
+ * fields are skipped and {@code id} and {@code completed} are optional.
+ * </p>
+ */
+public class TaskJsonReader implements Closeable {
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final StringBuilder buffer = new StringBuilder();
+    private int peeked = NONE;
+    private int line = 1;
+    private boolean isStarted;
+    private boolean isFinished;
+
+    /**
+     * Constructs a reader over the given JSON input.
+     *
+     * @param reader The JSON input; it is closed together with this reader. Should be buffered.
+     */
+    public TaskJsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next task of the array.
+     *
+     * @return The next task, or {@code null} once the array is exhausted.
+     * @throws IOException If the input cannot be read or is not a valid task array.
+     */
+    public Task next() throws IOException {
+        if (isFinished) {
+            return null;
+        }
+        if (!isStarted) {
+            expect('[');
+            isStarted = true;
+            if (peekToken() == ']') {
+                read();
+                isFinished = true;
+                return null;
+            }
+        } else {
+            int c = readToken();
+            if (c == ']') {
+                isFinished = true;
+                return null;
+            }
+            if (c != ',') {
+                throw error("expected ',' or ']'");
+            }
+        }
+        return readTask();
+    }
+
+    private Task readTask() throws IOException {
+        expect('{');
+        Map<String, String> fields = new HashMap<>();
+        if (peekToken() == '}') {
+            read();
+        } else {
+            int c;
+            do {
+                if (peekToken() != '"') {
+                    throw error("expected a field name");
+                }
+                String key = readString();
+                expect(':');
+                fields.put(key, readValue());
+                c = readToken();
+            } while (c == ',');
+            if (c != '}') {
+                throw error("expected ',' or '}'");
+            }
+        }
+        return toTask(fields);
+    }
+
+    private Task toTask(Map<String, String> fields) throws IOException {
+        try {
+            return TaskDeserializer.deserializeFields(fields);
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a scalar value as its string form; nested objects and arrays are skipped.
+     *
+     * @return The value, or {@code null} for JSON {@code null} and skipped values.
+     */
+    private String readValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            skipNested();
+            return null;
+        }
+        buffer.setLength(0);
+        while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            buffer.append((char) read());
+        }
+        String literal = buffer.toString();
+        if (literal.isEmpty()) {
+            throw error("expected a value");
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private void skipNested() throws IOException {
+        int depth = 0;
+        do {
+            int c = readToken();
+            if (c == '"') {
+                peeked = c;
+                readString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == -1) {
+                throw error("unexpected end of input");
+            }
+        } while (depth > 0);
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        buffer.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+            case -1 -> throw error("unterminated string");
+            case '"' -> {
+                return buffer.toString();
+            }
+            case '\\' -> buffer.append(readEscape());
+            default -> buffer.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        return switch (c) {
+        case '"', '\\', '/' -> (char) c;
+        case 'b' -> '\b';
+        case 'f' -> '\f';
+        case 'n' -> '\n';
+        case 'r' -> '\r';
+        case 't' -> '\t';
+        case 'u' -> {
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw error("invalid unicode escape");
+                }
+                code = code * 16 + digit;
+            }
+            yield (char) code;
+        }
+        default -> throw error("invalid escape sequence");
+        };
+    }
+
+    private void expect(char expected) throws IOException {
+        if (readToken() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+    }
+
+    private int readToken() throws IOException {
+        int c = peekToken();
+        peeked = NONE;
+        return c;
+    }
+
+    private int peekToken() throws IOException {
+        while (Character.isWhitespace(peek())) {
+            read();
+        }
+        return peek();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == NONE) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        peeked = NONE;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Invalid task JSON at line " + line + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
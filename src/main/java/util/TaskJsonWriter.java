@@ -0,0 +1,129 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+
+/**
+ * Streams tasks out as a JSON array, one object per line.
+ *
+ * <p>Each task is written as:</p>
+ * <pre>{@code
+ * {"id":"UUID","type":"todo|deadline|event","name":"NAME","completed":false,
+ *  "dueBy":"2025-03-03T09:00","startAt":"...","endBy":"..."}
+ * }</pre>
+ * <p>
+ * Date fields are only present for the task types that have them. Tasks are written as they
+ * arrive, so exporting never holds more than one serialized task in memory.
+ * </p>
+ */
+public class TaskJsonWriter implements Closeable {
+    private final Writer writer;
+    private int count;
+
+    /**
+     * Starts a JSON array on the given writer.
+     *
+     * @param writer The writer receiving the JSON; it is closed together with this writer.
+     * @throws IOException If the opening bracket cannot be written.
+     */
+    public TaskJsonWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("[");
+    }
+
+    /**
+     * Appends a task to the array.
+     *
+     * @param task The task to write.
+     * @throws IOException If the task cannot be written.
+     */
+    public void write(Task task) throws IOException {
+        writer.write(count == 0 ? "\n  {" : ",\n  {");
+        writeString("id", task.getId().toString());
+        writer.write(',');
+        if (task instanceof DeadLine deadLine) {
+            writeString("type", "deadline");
+            writeCommonFields(task);
+            writeDate("dueBy", deadLine.getDueby());
+        } else if (task instanceof Events events) {
+            writeString("type", "event");
+            writeCommonFields(task);
+            writeDate("startAt", events.getStartat());
+            writeDate("endBy", events.getEndby());
+        } else {
+            writeString("type", "todo");
+            writeCommonFields(task);
+        }
+        writer.write('}');
+        count++;
+    }
+
+    /**
+     * Returns the number of tasks written so far.
+     *
+     * @return The written task count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    private void writeCommonFields(Task task) throws IOException {
+        writer.write(',');
+        writeString("name", task.getName());
+        writer.write(",\"completed\":");
+        writer.write(Boolean.TRUE.equals(task.getCompleted()) ? "true" : "false");
+    }
+
+    private void writeDate(String key, LocalDateTime date) throws IOException {
+        writer.write(',');
+        if (date == null) {
+            writer.write('"' + key + "\":null");
+        } else {
+            writeString(key, date.toString());
+        }
+    }
+
+    private void writeString(String key, String value) throws IOException {
+        writer.write('"');
+        writer.write(key);
+        writer.write("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> writer.write("\\\"");
+            case '\\' -> writer.write("\\\\");
+            case '\n' -> writer.write("\\n");
+            case '\r' -> writer.write("\\r");
+            case '\t' -> writer.write("\\t");
+            default -> {
+                if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Closes the array and the underlying writer.
+     *
+     * @throws IOException If the closing bracket cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.write(count == 0 ? "]\n" : "\n]\n");
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 import entity.tasks.DeadLine;
 import entity.tasks.Events;
 import entity.tasks.Task;
@@ -9,6 +15,9 @@ import entity.tasks.ToDo;
  * Utility class for converting {@link Task} objects into a string format for storage.
  */
 public class TaskSerializer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] ESCAPE_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final int SCRATCH_LENGTH = 64; // Fits the fixed fields before the name, or one timestamp
 
     /**
      * Converts a {@link Task} into a string representation.
@@ -18,7 +27,7 @@ public class TaskSerializer {
      *     <li>{@code UUID} - Task ID</li>
      *     <li>{@code TYPE} - "T" (ToDo), "D" (Deadline), "E" (Event)</li>
      *     <li>{@code COMPLETED} - "1" for done, "0" for not done</li>
-     *     <li>{@code NAME} - Task description</li>
+     *     <li>{@code NAME} - Task description, escaped with {@link #escapeName}</li>
      *     <li>Extra fields:
      *         <ul>
      *             <li>Deadline: {@code dueBy}</li>
@@ -32,22 +41,251 @@ public class TaskSerializer {
      */
     public static String serializeTask(Task task) {
         StringBuilder sb = new StringBuilder();
+        try {
+            appendTask(task, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringBuilder never throws
+        }
+        return sb.toString();
+    }
 
-        sb.append(task.getId()).append("|");
+    /**
+     * Writes a task in the format of {@link #serializeTask} straight into the given output.
+     *
+     * <p>
+     * The UUID and timestamps are formatted digit by digit into a small scratch array and the name
+     * is appended as it is, so no string is built per field. Writers and string builders receive the
+     * scratch array in one call.
+     * </p>
+     *
+     * @param task The task to serialize.
+     * @param out  The output the record is appended to, without a line terminator.
+     * @throws IOException If the output cannot be written.
+     */
+    public static void appendTask(Task task, Appendable out) throws IOException {
+        char[] scratch = new char[SCRATCH_LENGTH];
+        int length = appendUuid(task.getId(), scratch);
+        scratch[length++] = '|';
 
-        if (task instanceof DeadLine dl) {
-            sb.append("D|").append(dl.getCompleted() ? "1" : "0").append("|")
-                    .append(dl.getName()).append("|").append(dl.getDueby());
-        } else if (task instanceof Events ev) {
-            sb.append("E|").append(ev.getCompleted() ? "1" : "0").append("|")
-                    .append(ev.getName()).append("|").append(ev.getStartat()).append("|").append(ev.getEndby());
+        char type;
+        if (task instanceof DeadLine) {
+            type = 'D';
+        } else if (task instanceof Events) {
+            type = 'E';
         } else if (task instanceof ToDo) {
-            sb.append("T|").append(task.getCompleted() ? "1" : "0").append("|")
-                    .append(task.getName());
+            type = 'T';
         } else {
-            sb.append("UNKNOWN");
+            write(out, scratch, length);
+            out.append("UNKNOWN");
+            return;
+        }
+        scratch[length++] = type;
+        scratch[length++] = '|';
+        scratch[length++] = task.getCompleted() ? '1' : '0';
+        scratch[length++] = '|';
+        write(out, scratch, length);
+        appendName(task.getName(), out);
+
+        if (task instanceof DeadLine dl) {
+            appendDateTime(dl.getDueby(), scratch, out);
+        } else if (task instanceof Events ev) {
+            appendDateTime(ev.getStartat(), scratch, out);
+            appendDateTime(ev.getEndby(), scratch, out);
         }
+    }
 
+    /**
+     * Escapes a task name so it can be stored as a field of a record.
+     *
+     * <p>
+     * The field separator {@code |}, the record separator {@code ,} and line breaks are written as
+     * {@code %7C}, {@code %2C}, {@code %0A} and {@code %0D}. A {@code %} is only escaped, as
+     * {@code %25}, where it is followed by one of these codes, so names without them are stored
+     * unchanged and records written before names were escaped read the same.
+     * </p>
+     *
+     * @param name The task name.
+     * @return The escaped name, or {@code name} itself if nothing needed escaping.
+     */
+    public static String escapeName(String name) {
+        if (name == null || indexOfEscape(name, 0) < 0) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        try {
+            appendName(name, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reverses {@link #escapeName} for a window of a record.
+     *
+     * @param text  The text holding the escaped name.
+     * @param start The index of its first character.
+     * @param end   The index after its last character.
+     * @return The task name.
+     */
+    static String unescapeName(CharSequence text, int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            int escaped = escapedCharAt(text, i, end);
+            if (escaped < 0) {
+                sb.append(text.charAt(i));
+            } else {
+                sb.append((char) escaped);
+                i += 2;
+            }
+        }
         return sb.toString();
     }
+
+    /**
+     * Returns the character escaped by the code at the given index, or {@code -1} if there is none.
+     */
+    private static int escapedCharAt(CharSequence text, int index, int end) {
+        if (index + 2 >= end || text.charAt(index) != '%') {
+            return -1;
+        }
+        char high = text.charAt(index + 1);
+        char low = text.charAt(index + 2);
+        return switch (high) {
+        case '0' -> low == 'A' ? '\n' : low == 'D' ? '\r' : -1;
+        case '2' -> low == 'C' ? ',' : low == '5' ? '%' : -1;
+        case '7' -> low == 'C' ? '|' : -1;
+        default -> -1;
+        };
+    }
+
+    private static boolean needsEscape(CharSequence name, int index) {
+        char c = name.charAt(index);
+        return c == '|' || c == ',' || c == '\n' || c == '\r'
+                || c == '%' && escapedCharAt(name, index, name.length()) >= 0;
+    }
+
+    private static int indexOfEscape(CharSequence name, int from) {
+        for (int i = from; i < name.length(); i++) {
+            if (needsEscape(name, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendName(String name, Appendable out) throws IOException {
+        if (name == null) {
+            out.append("null");
+            return;
+        }
+        int escape = indexOfEscape(name, 0);
+        if (escape < 0) {
+            out.append(name);
+            return;
+        }
+        int runStart = 0;
+        while (escape >= 0) {
+            char c = name.charAt(escape);
+            out.append(name, runStart, escape).append('%')
+                    .append(ESCAPE_DIGITS[c >> 4]).append(ESCAPE_DIGITS[c & 0xF]);
+            runStart = escape + 1;
+            escape = indexOfEscape(name, runStart);
+        }
+        out.append(name, runStart, name.length());
+    }
+
+    /**
+     * Formats a UUID in its canonical lower-case form at the start of the scratch array.
+     *
+     * @return The number of characters written.
+     */
+    private static int appendUuid(UUID id, char[] scratch) {
+        if (id == null) {
+            "null".getChars(0, 4, scratch, 0);
+            return 4;
+        }
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        appendHex(msb >>> 32, 8, scratch, 0);
+        scratch[8] = '-';
+        appendHex(msb >>> 16, 4, scratch, 9);
+        scratch[13] = '-';
+        appendHex(msb, 4, scratch, 14);
+        scratch[18] = '-';
+        appendHex(lsb >>> 48, 4, scratch, 19);
+        scratch[23] = '-';
+        appendHex(lsb, 12, scratch, 24);
+        return 36;
+    }
+
+    private static void appendHex(long value, int digits, char[] scratch, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            scratch[i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Appends a separator and a timestamp laid out as {@link LocalDateTime#toString} does: seconds
+     * only if the time has any, and fractions in groups of three digits. Years outside four digits
+     * are left to {@link LocalDateTime#toString}.
+     */
+    private static void appendDateTime(LocalDateTime dateTime, char[] scratch, Appendable out) throws IOException {
+        if (dateTime == null || dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            out.append('|').append(String.valueOf(dateTime));
+            return;
+        }
+        scratch[0] = '|';
+        appendDigits(dateTime.getYear(), 4, scratch, 1);
+        scratch[5] = '-';
+        appendDigits(dateTime.getMonthValue(), 2, scratch, 6);
+        scratch[8] = '-';
+        appendDigits(dateTime.getDayOfMonth(), 2, scratch, 9);
+        scratch[11] = 'T';
+        appendDigits(dateTime.getHour(), 2, scratch, 12);
+        scratch[14] = ':';
+        appendDigits(dateTime.getMinute(), 2, scratch, 15);
+        int length = 17;
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second > 0 || nano > 0) {
+            scratch[length] = ':';
+            appendDigits(second, 2, scratch, length + 1);
+            length += 3;
+            if (nano > 0) {
+                scratch[length++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    appendDigits(nano / 1_000_000, 3, scratch, length);
+                    length += 3;
+                } else if (nano % 1000 == 0) {
+                    appendDigits(nano / 1000, 6, scratch, length);
+                    length += 6;
+                } else {
+                    appendDigits(nano, 9, scratch, length);
+                    length += 9;
+                }
+            }
+        }
+        write(out, scratch, length);
+    }
+
+    private static void appendDigits(int value, int digits, char[] scratch, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            scratch[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void write(Appendable out, char[] chars, int length) throws IOException {
+        if (out instanceof Writer writer) {
+            writer.write(chars, 0, length);
+        } else if (out instanceof StringBuilder sb) {
+            sb.append(chars, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                out.append(chars[i]);
+            }
+        }
+    }
 }
@@ -19,8 +19,16 @@ import gui.JavaFxLauncher;
 import repository.FileBackedTaskRepository;
 import repository.IFileBackedTaskRepository;
 import repository.ITaskRepository;
+import repository.backup.BackupPolicy;
+import repository.backup.GenerationalBackupManager;
 import repository.entitymanager.TaskFlusher;
 import repository.event.TaskEventLogger;
+import repository.lock.DataFileLock;
+import repository.replication.ReplicationManager;
+import repository.storage.InMemoryStorageEngine;
+import repository.storage.StorageEngine;
+import repository.storage.StorageEngineType;
+import repository.storage.TextFileStorageEngine;
 import runtime.IBotRunTime;
 import service.ActionHandler;
 import service.CommandExecutionService;
@@ -54,14 +62,38 @@ public class DiConfig {
      */
     public static void registerConfig(DependencyInjectionContainer container, Path logPath,
                                       Path filePath, boolean isCli) {
+        registerConfig(container, logPath, filePath, isCli, StorageEngineType.fromSystemProperties());
+    }
+
+    /**
+     * Registers configurations and dependencies in the given dependency injection container,
+     * backing the repository with the given storage engine.
+     *
+     * @param container  The dependency injection container where components are registered.
+     * @param logPath    The path for logging events.
+     * @param filePath   The path for file-backed task storage.
+     * @param isCli      A flag indicating whether the application runs in CLI mode.
+     * @param engineType The storage engine persisting the tasks.
+     */
+    public static void registerConfig(DependencyInjectionContainer container, Path logPath,
+                                      Path filePath, boolean isCli, StorageEngineType engineType) {
         // Register interceptors
         container.registerInterceptor(Log.class, new LoggingInterceptor());
         container.registerInterceptor(Transactional.class, new TransactionalInterceptor());
         container.registerInterceptor(ExceptionHandler.class, new ExceptionHandlerInterceptor());
 
         // Register components
-        container.register(TaskEventLogger.class, logPath);
-        container.register(FileBackedTaskRepository.class, filePath);
+        switch (engineType) {
+        case MEMORY -> container.register(StorageEngine.class, InMemoryStorageEngine.class);
+        case TEXT -> {
+            container.register(DataFileLock.class, filePath);
+            container.register(TaskEventLogger.class, logPath);
+            container.register(GenerationalBackupManager.class, filePath, BackupPolicy.fromSystemProperties());
+            container.register(StorageEngine.class, TextFileStorageEngine.class, filePath);
+        }
+        default -> throw new IllegalArgumentException("Unsupported storage engine: " + engineType);
+        }
+        container.register(FileBackedTaskRepository.class);
         container.register(IFileBackedTaskRepository.class);
         container.register(ITaskService.class);
         container.register(ITaskRepository.class);
@@ -82,5 +114,6 @@ public class DiConfig {
         container.register(ActionHandler.class);
         container.register(CommandFactory.class);
         container.register(TaskFlusher.class);
+        container.register(ReplicationManager.class);
     }
 }
@@ -1,11 +1,13 @@
 package entity;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import controller.ControllerResponse;
 import controller.ITaskController;
 import entity.tasks.Task;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
 
 @SuppressWarnings("ALL")
@@ -65,4 +67,34 @@ public class MockTaskController implements ITaskController {
     public ControllerResponse<String> deleteAll() {
         return null;
     }
+
+    @Override
+    public ControllerResponse<Integer> exportJson(Path path) {
+        return null;
+    }
+
+    @Override
+    public ControllerResponse<Integer> importJson(Path path) {
+        return null;
+    }
+
+    @Override
+    public ControllerResponse<BulkLoadDao> importCsv(Path path) {
+        return null;
+    }
+
+    @Override
+    public ControllerResponse<String> undo(int steps) {
+        return null;
+    }
+
+    @Override
+    public ControllerResponse<String> redo(int steps) {
+        return null;
+    }
+
+    @Override
+    public ControllerResponse<String> showStateAt(LocalDateTime time) {
+        return null;
+    }
 }
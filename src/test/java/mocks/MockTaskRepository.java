@@ -4,13 +4,17 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import entity.TaskType;
 import entity.tasks.Task;
 import repository.IFileBackedTaskRepository;
 import repository.ITaskRepository;
+import repository.event.ChangeFeed;
+import repository.event.LogEntry;
 
 
 public class MockTaskRepository implements ITaskRepository, IFileBackedTaskRepository {
@@ -21,17 +25,66 @@ public class MockTaskRepository implements ITaskRepository, IFileBackedTaskRepos
     public void flush() {
     }
 
+    @Override
+    public void refresh() {
+    }
+
     @Override
     public UUID markDirty(UUID id) {
         return temptaskStore.get(0).getId();
     }
 
+    @Override
+    public long lastSequence() {
+        return 0;
+    }
+
+    @Override
+    public OptionalLong sequenceAt(LocalDateTime time) {
+        return OptionalLong.empty();
+    }
+
+    @Override
+    public Optional<List<Task>> tasksAt(long sequence) {
+        return Optional.empty();
+    }
+
+    @Override
+    public OptionalLong previousChange(long sequence) {
+        return OptionalLong.empty();
+    }
+
+    @Override
+    public int restore(long sequence) {
+        return 0;
+    }
+
+    @Override
+    public void applyReplicatedEntries(List<LogEntry> entries) {
+    }
+
+    @Override
+    public ChangeFeed changesSince(long sequence, int limit) {
+        return new ChangeFeed(0, List.of(), List.of(), false, true);
+    }
+
+    @Override
+    public int applyReplicatedSnapshot(List<String> records) {
+        return 0;
+    }
+
     @Override
     public Task save(Task entity) {
         temptaskStore.add(entity);
         return entity;
     }
 
+    @Override
+    public List<Task> saveAll(List<Task> entities) {
+        temptaskStore.addAll(entities);
+        return entities;
+    }
+
     @Override
     public Optional<Task> findById(UUID uuid) {
         return Optional.empty();
@@ -47,6 +100,11 @@ public class MockTaskRepository implements ITaskRepository, IFileBackedTaskRepos
         return temptaskStore;
     }
 
+    @Override
+    public void forEachTask(Consumer<Task> action) {
+        temptaskStore.forEach(action);
+    }
+
     @Override
     public Task deleteById(UUID uuid) {
         return null;
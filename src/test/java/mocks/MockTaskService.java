@@ -1,11 +1,14 @@
 package mocks;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import entity.TaskType;
 import entity.tasks.Task;
+import repository.event.ChangeFeed;
 import service.ITaskService;
+import service.dao.BulkLoadDao;
 import service.dao.TaskUpdateDao;
 
 
@@ -60,4 +63,39 @@ public class MockTaskService implements ITaskService {
     public Task updateTask(int idx, TaskUpdateDao taskUpdateDao) {
         return null;
     }
+
+    @Override
+    public int exportJson(Path path) {
+        return 0;
+    }
+
+    @Override
+    public int importJson(Path path) {
+        return 0;
+    }
+
+    @Override
+    public BulkLoadDao bulkLoadCsv(Path path) {
+        return null;
+    }
+
+    @Override
+    public int undo(int steps) {
+        return 0;
+    }
+
+    @Override
+    public int redo(int steps) {
+        return 0;
+    }
+
+    @Override
+    public List<Task> stateAt(LocalDateTime time) {
+        return List.of();
+    }
+
+    @Override
+    public ChangeFeed changesSince(long version, int limit) {
+        return new ChangeFeed(0, List.of(), List.of(), false, true);
+    }
 }
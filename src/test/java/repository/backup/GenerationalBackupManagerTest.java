@@ -0,0 +1,105 @@
+package repository.backup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import entity.tasks.Task;
+
+public class GenerationalBackupManagerTest {
+    private static final String TASK_A = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|read";
+    private static final String TASK_B = "6f1c1a2e-8a43-4d2c-9a8e-4c5b9e3f1d10|T|1|write";
+    private static final String TASK_C = "9b2d4e6f-1a3c-4e5f-8a7b-0c1d2e3f4a5b|T|0|review";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("GIVEN two generations WHEN diffed and applied THEN the older generation is reconstructed")
+    void testDeltaRoundTrip() throws IOException {
+        // GIVEN
+        List<String> newer = List.of("[", TASK_B, TASK_C, "]");
+        List<String> older = List.of("[", TASK_A, TASK_B, "]");
+
+        // WHEN
+        List<String> delta = GenerationalBackupManager.diff(newer, older);
+
+        // THEN
+        assertEquals(older, GenerationalBackupManager.applyDelta(newer, delta));
+    }
+
+    @Test
+    @DisplayName("GIVEN more backups than retained WHEN backing up THEN only the newest generations are kept")
+    void testRetention() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        GenerationalBackupManager manager = new GenerationalBackupManager(dataFile, new BackupPolicy(2, 1024));
+
+        // WHEN
+        for (String task : List.of(TASK_A, TASK_B, TASK_C)) {
+            replaceDataFile(dataFile, List.of("[", task, "]"));
+            manager.backup();
+        }
+
+        // THEN
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.filter(path -> path.getFileName().toString().contains(".bak")).count());
+        }
+    }
+
+    @Test
+    @DisplayName("GIVEN a corrupted data file WHEN restoring THEN the newest valid generation is used")
+    void testRestoreNewestValidGeneration() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        GenerationalBackupManager manager = new GenerationalBackupManager(dataFile, new BackupPolicy(3, 1024));
+        replaceDataFile(dataFile, List.of("[", TASK_A, "]"));
+        manager.backup();
+        replaceDataFile(dataFile, List.of("[", TASK_A, TASK_B, "]"));
+        manager.backup();
+        replaceDataFile(dataFile, List.of("corrupted"));
+
+        // WHEN
+        Optional<Map<UUID, Task>> restored = new GenerationalBackupManager(dataFile, new BackupPolicy(3, 1024))
+                .restoreNewestValidGeneration();
+
+        // THEN
+        assertTrue(restored.isPresent());
+        assertEquals(2, restored.get().size());
+        assertEquals(List.of("[", TASK_A, TASK_B, "]"), Files.readAllLines(dataFile));
+    }
+
+    @Test
+    @DisplayName("GIVEN no backups WHEN restoring THEN nothing is restored")
+    void testRestoreWithoutBackups() {
+        // GIVEN
+        GenerationalBackupManager manager = new GenerationalBackupManager(tempDir.resolve("tasks.txt"),
+                new BackupPolicy(3, 1024));
+
+        // WHEN // THEN
+        assertFalse(manager.restoreNewestValidGeneration().isPresent());
+    }
+
+    /**
+     * Mimics the repository, which always replaces the data file through a move.
+     */
+    private void replaceDataFile(Path dataFile, List<String> lines) throws IOException {
+        Path temp = dataFile.resolveSibling("tasks.txt.tmp");
+        Files.write(temp, lines);
+        Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
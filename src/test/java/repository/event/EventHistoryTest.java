@@ -0,0 +1,87 @@
+package repository.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import repository.lock.DataFileLock;
+import util.DataFileUtils;
+import util.TaskDeserializer;
+
+public class EventHistoryTest {
+    private static final String TASK_ID = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("GIVEN a history with tiny segments and no retention WHEN flushed repeatedly THEN old segments "
+            + "and snapshots are deleted and the latest state can still be rebuilt")
+    void testRetentionDeletesCoveredSegments() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        TaskEventLogger logger = new TaskEventLogger(tempDir.resolve("roll-log.txt"), new DataFileLock(dataFile));
+        logger.enableHistory(dataFile, new LogRetentionPolicy(1, Long.MAX_VALUE, 2, 0, 0));
+        Path historyDir = tempDir.resolve("roll-log.txt.history");
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            logger.append(new TaskEvent(i == 0 ? TaskEvent.EventType.ADD : TaskEvent.EventType.UPDATE,
+                    TaskDeserializer.deserializeTask(TASK_ID + "|T|0|version " + i)));
+            logger.writeQueued();
+            assertTrue(logger.replayLog(dataFile));
+        }
+
+        // THEN
+        List<String> segments = filesEndingWith(historyDir, ".log");
+        assertTrue(segments.size() <= 2);
+        assertTrue(filesEndingWith(historyDir, ".snapshot").size() <= 2);
+        assertTrue(Files.readString(historyDir.resolve("MANIFEST")).contains(segments.get(0).replace(".log", " ")));
+        assertEquals(Optional.of(List.of(TASK_ID + "|T|0|version 9")), logger.recordsAt(10));
+        assertEquals(Optional.empty(), logger.recordsAt(1));
+        assertEquals(10, DataFileUtils.readWatermark(dataFile));
+    }
+
+    @Test
+    @DisplayName("GIVEN a history within its retention limits WHEN flushed repeatedly THEN every segment is "
+            + "kept and every earlier state can be rebuilt")
+    void testRotationKeepsHistoryWithinRetention() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        TaskEventLogger logger = new TaskEventLogger(tempDir.resolve("roll-log.txt"), new DataFileLock(dataFile));
+        logger.enableHistory(dataFile, new LogRetentionPolicy(1, Long.MAX_VALUE, 2, Long.MAX_VALUE, Long.MAX_VALUE));
+
+        // WHEN
+        for (int i = 0; i < 5; i++) {
+            logger.append(new TaskEvent(i == 0 ? TaskEvent.EventType.ADD : TaskEvent.EventType.UPDATE,
+                    TaskDeserializer.deserializeTask(TASK_ID + "|T|0|version " + i)));
+            logger.writeQueued();
+            assertTrue(logger.replayLog(dataFile));
+        }
+
+        // THEN
+        assertEquals(5, filesEndingWith(tempDir.resolve("roll-log.txt.history"), ".log").size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of(List.of(TASK_ID + "|T|0|version " + i)), logger.recordsAt(i + 1));
+        }
+    }
+
+    private static List<String> filesEndingWith(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package repository.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EventRingBufferTest {
+
+    @Test
+    @DisplayName("GIVEN a full ring WHEN publishing THEN it is rejected until the consumer drains the ring")
+    void testFullRingRejectsUntilDrained() {
+        // GIVEN
+        EventRingBuffer<long[]> ring = new EventRingBuffer<>(4, () -> new long[1], WaitStrategy.BLOCKING);
+        for (int i = 0; i < 4; i++) {
+            long value = i;
+            assertTrue(ring.tryPublish(slot -> slot[0] = value));
+        }
+
+        // WHEN
+        boolean isPublishedWhenFull = ring.tryPublish(slot -> slot[0] = 4);
+        List<Long> drained = new ArrayList<>();
+        int count = ring.drain(slot -> drained.add(slot[0]));
+
+        // THEN
+        assertFalse(isPublishedWhenFull);
+        assertEquals(4, count);
+        assertEquals(List.of(0L, 1L, 2L, 3L), drained);
+        assertTrue(ring.isEmpty());
+        assertTrue(ring.tryPublish(slot -> slot[0] = 4)); // Slots are reused on the next lap
+    }
+
+    @Test
+    @DisplayName("GIVEN several producers WHEN a consumer drains concurrently THEN every event arrives, "
+            + "in order per producer")
+    void testConcurrentProducers() throws InterruptedException {
+        // GIVEN
+        int producers = 3;
+        int eventsPerProducer = 10_000;
+        EventRingBuffer<long[]> ring = new EventRingBuffer<>(64, () -> new long[2], WaitStrategy.YIELDING);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    long value = i;
+                    while (!ring.tryPublish(slot -> {
+                        slot[0] = producer;
+                        slot[1] = value;
+                    })) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        // WHEN
+        threads.forEach(Thread::start);
+        Map<Long, Long> lastSeen = new HashMap<>();
+        int received = 0;
+        boolean isOrdered = true;
+        while (received < producers * eventsPerProducer) {
+            ring.awaitPublished();
+            List<long[]> batch = new ArrayList<>();
+            received += ring.drain(slot -> batch.add(slot.clone()));
+            for (long[] event : batch) {
+                isOrdered &= lastSeen.getOrDefault(event[0], -1L) == event[1] - 1;
+                lastSeen.put(event[0], event[1]);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertTrue(isOrdered);
+        assertTrue(ring.isEmpty());
+        assertEquals(producers, lastSeen.size());
+    }
+}
@@ -0,0 +1,317 @@
+package repository.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import entity.tasks.Task;
+import entity.tasks.TaskField;
+import repository.lock.DataFileLock;
+import util.DataFileUtils;
+import util.TaskDeserializer;
+
+public class TaskEventLoggerTest {
+    private static final String TASK_A = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|read";
+    private static final String TASK_B = "6f1c1a2e-8a43-4d2c-9a8e-4c5b9e3f1d10|T|1|write";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("GIVEN a log already replayed into the data file WHEN replayed again THEN covered entries are skipped")
+    void testReplayIsIdempotent() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Path logFile = tempDir.resolve("tasks.log");
+        Files.write(logFile, List.of("1 ADD " + TASK_A, "2 DELETE 2187b8fb-b8eb-46c8-92a0-be5bbfcaec19"));
+        TaskEventLogger logger = new TaskEventLogger(logFile, new DataFileLock(tempDir.resolve("tasks.txt")));
+        assertTrue(logger.replayLog(dataFile));
+
+        // WHEN the log survives, as if the process died before clearing it
+        Files.write(logFile, List.of("1 ADD " + TASK_A, "2 DELETE 2187b8fb-b8eb-46c8-92a0-be5bbfcaec19",
+                "3 ADD " + TASK_B));
+        assertTrue(logger.replayLog(dataFile));
+
+        // THEN
+        assertEquals(List.of("#lastApplied 3", "[", TASK_B, "]"), Files.readAllLines(dataFile));
+        assertEquals(3, DataFileUtils.readWatermark(dataFile));
+    }
+
+    @Test
+    @DisplayName("GIVEN an existing log WHEN a logger is constructed THEN numbering resumes after its last entry")
+    void testSequenceResumesFromLog() throws IOException {
+        // GIVEN
+        Path logFile = tempDir.resolve("tasks.log");
+        Files.write(logFile, List.of("ADD " + TASK_A, "7 ADD " + TASK_B));
+
+        // WHEN
+        TaskEventLogger logger = new TaskEventLogger(logFile, new DataFileLock(tempDir.resolve("tasks.txt")));
+
+        // THEN
+        assertEquals(7, logger.getLastSequence());
+    }
+
+    @Test
+    @DisplayName("GIVEN appends within one exclusive hold WHEN the queue is written out THEN they reach the log in order")
+    void testAppendsAreQueuedAndWrittenInOrder() throws IOException {
+        // GIVEN
+        Path logFile = tempDir.resolve("tasks.log");
+        DataFileLock lock = new DataFileLock(tempDir.resolve("tasks.txt"));
+        TaskEventLogger logger = new TaskEventLogger(logFile, lock);
+        Task task = TaskDeserializer.deserializeTask(TASK_A);
+
+        // WHEN
+        long sizeInsideHold = lock.exclusive(() -> {
+            logger.append(new TaskEvent(TaskEvent.EventType.ADD, task));
+            logger.append(new TaskEvent(TaskEvent.EventType.DELETE, task.getId()));
+            return logFile.toFile().length();
+        });
+        logger.writeQueued();
+
+        // THEN
+        assertEquals(0, sizeInsideHold);
+        assertEquals(List.of("1 ADD " + TASK_A, "2 DELETE " + task.getId()), Files.readAllLines(logFile));
+    }
+
+    @Test
+    @DisplayName("GIVEN an entry written behind another process's WHEN a newer change is still queued as new "
+            + "entries are read THEN the newer change is delivered after it")
+    void testQueuedChangeIsDeliveredAfterRedeliveredEntry() throws IOException {
+        // GIVEN two processes sharing the log
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Path logFile = tempDir.resolve("tasks.log");
+        DataFileLock lock = new DataFileLock(dataFile);
+        TaskEventLogger local = new TaskEventLogger(logFile, lock);
+        local.append(new TaskEvent(TaskEvent.EventType.ADD, TaskDeserializer.deserializeTask(TASK_A)));
+        local.readNewEntries(entry -> { });
+        TaskEventLogger other = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+        other.append(new TaskEvent(TaskEvent.EventType.ADD, TaskDeserializer.deserializeTask(TASK_B)));
+        other.close();
+        String stale = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|stale";
+        String fresh = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|fresh";
+        local.append(new TaskEvent(TaskEvent.EventType.UPDATE, TaskDeserializer.deserializeTask(stale)));
+        local.writeQueued(); // Written while the other process's entry is still unread
+
+        // WHEN
+        List<String> delivered = new ArrayList<>();
+        lock.exclusive(() -> { // Keeps the background writer from taking the newer change
+            local.append(new TaskEvent(TaskEvent.EventType.UPDATE, TaskDeserializer.deserializeTask(fresh)));
+            local.readNewEntries(entry -> delivered.add(entry.getSequence() + " " + entry.getPayload()));
+            return null;
+        });
+        local.readNewEntries(entry -> delivered.add(entry.getSequence() + " " + entry.getPayload()));
+        local.close();
+
+        // THEN
+        assertEquals(List.of("2 " + TASK_B, "3 " + stale, "4 " + fresh), delivered);
+    }
+
+    @Test
+    @DisplayName("GIVEN a binary log WHEN read and replayed by a logger configured for text THEN its format "
+            + "is detected and every entry is applied")
+    void testBinaryLogRoundTrip() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Path logFile = tempDir.resolve("tasks.log");
+        Task taskA = TaskDeserializer.deserializeTask(TASK_A);
+        Task taskB = TaskDeserializer.deserializeTask(TASK_B);
+        System.setProperty("spring.log.format", "binary");
+        try {
+            TaskEventLogger writer = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+            writer.append(new TaskEvent(List.of(taskA, taskB)));
+            writer.append(new TaskEvent(TaskEvent.EventType.DELETE, taskA.getId()));
+            writer.close();
+        } finally {
+            System.clearProperty("spring.log.format");
+        }
+        byte[] written = Files.readAllBytes(logFile);
+
+        // WHEN
+        TaskEventLogger reader = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+        List<String> payloads = new ArrayList<>();
+        reader.forEachEntry(entry -> payloads.add(entry.getPayload()));
+        assertTrue(reader.replayLog(dataFile));
+
+        // THEN
+        assertEquals(0, written[0]); // Binary logs start with a zero byte
+        assertEquals(3, reader.getLastSequence());
+        assertEquals(Arrays.asList(TASK_A, TASK_B, null), payloads);
+        assertEquals(List.of("#lastApplied 3", "[", TASK_B, "]"), Files.readAllLines(dataFile));
+    }
+
+    @Test
+    @DisplayName("GIVEN a log with repeated changes per task WHEN compacted THEN only the effective entries "
+            + "remain and replay produces the same data file")
+    void testCompactionPreservesReplay() throws IOException {
+        // GIVEN
+        String idA = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19";
+        String idC = "0c9d7f4e-3b2a-4f1e-8d6c-5a4b3c2d1e0f";
+        String taskD = "9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d|T|0|review";
+        List<String> log = List.of("1 UPDATE " + TASK_A, "2 ADD " + TASK_B, "3 UPDATE " + idA + "|T|1|read",
+                "4 ADD " + idC + "|T|0|draft", "5 UPDATE " + TASK_B + " again", "6 DELETE " + idC,
+                "7 DELETE " + idA, "8 ADD " + idA + "|T|0|reread", "9 ADD " + taskD);
+        List<String> checkpoint = List.of("#lastApplied 1", "[", TASK_A, "]");
+        Path compactedDir = Files.createDirectory(tempDir.resolve("compacted"));
+        Path plainDir = Files.createDirectory(tempDir.resolve("plain"));
+        for (Path dir : List.of(compactedDir, plainDir)) {
+            Files.write(dir.resolve("tasks.txt"), checkpoint);
+            Files.write(dir.resolve("tasks.log"), log);
+        }
+        TaskEventLogger logger = new TaskEventLogger(compactedDir.resolve("tasks.log"),
+                new DataFileLock(compactedDir.resolve("tasks.txt")));
+
+        // WHEN
+        assertTrue(logger.compactLog(compactedDir.resolve("tasks.txt")));
+
+        // THEN
+        assertEquals(List.of("5 UPDATE " + TASK_B + " again", "7 DELETE " + idA, "8 ADD " + idA + "|T|0|reread",
+                "9 ADD " + taskD), Files.readAllLines(compactedDir.resolve("tasks.log")));
+        assertTrue(logger.replayLog(compactedDir.resolve("tasks.txt")));
+        assertTrue(new TaskEventLogger(plainDir.resolve("tasks.log"), new DataFileLock(plainDir.resolve("tasks.txt")))
+                .replayLog(plainDir.resolve("tasks.txt")));
+        assertEquals(Files.readAllLines(plainDir.resolve("tasks.txt")),
+                Files.readAllLines(compactedDir.resolve("tasks.txt")));
+    }
+
+    @Test
+    @DisplayName("GIVEN a data file and a log with deletions and re-additions WHEN replayed by several threads "
+            + "THEN the data file is identical to a sequential replay")
+    void testParallelReplayMatchesSequential() throws IOException {
+        // GIVEN
+        String idA = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19";
+        String idC = "0c9d7f4e-3b2a-4f1e-8d6c-5a4b3c2d1e0f";
+        String taskD = "9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d|T|0|review";
+        List<String> log = List.of("1 UPDATE " + TASK_A, "2 ADD " + TASK_B, "3 ADD " + idC + "|T|0|draft",
+                "4 DELETE " + idA, "5 ADD " + taskD, "6 ADD " + idA + "|T|0|reread", "7 UPDATE " + TASK_B + " again",
+                "8 DELETE " + idC, "9 ADD " + idC + "|T|1|final");
+        List<String> checkpoint = List.of("#lastApplied 1", "[", TASK_A, TASK_B, "]");
+        Path parallelDir = Files.createDirectory(tempDir.resolve("parallel"));
+        Path sequentialDir = Files.createDirectory(tempDir.resolve("sequential"));
+        for (Path dir : List.of(parallelDir, sequentialDir)) {
+            Files.write(dir.resolve("tasks.txt"), checkpoint);
+            Files.write(dir.resolve("tasks.log"), log);
+        }
+        TaskEventLogger sequential = new TaskEventLogger(sequentialDir.resolve("tasks.log"),
+                new DataFileLock(sequentialDir.resolve("tasks.txt")));
+        TaskEventLogger parallel;
+        System.setProperty("spring.log.replayThreads", "4");
+        System.setProperty("spring.log.parallelReplayBytes", "0");
+        try {
+            parallel = new TaskEventLogger(parallelDir.resolve("tasks.log"),
+                    new DataFileLock(parallelDir.resolve("tasks.txt")));
+        } finally {
+            System.clearProperty("spring.log.replayThreads");
+            System.clearProperty("spring.log.parallelReplayBytes");
+        }
+
+        // WHEN
+        List<Long> visited = new ArrayList<>();
+        assertTrue(parallel.replayLog(parallelDir.resolve("tasks.txt"), entry -> visited.add(entry.getSequence()),
+                () -> true));
+        assertTrue(sequential.replayLog(sequentialDir.resolve("tasks.txt")));
+
+        // THEN
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), visited);
+        assertEquals(List.of("#lastApplied 9", "[", TASK_B + " again", taskD, idA + "|T|0|reread",
+                idC + "|T|1|final", "]"), Files.readAllLines(parallelDir.resolve("tasks.txt")));
+        assertEquals(Files.readAllLines(sequentialDir.resolve("tasks.txt")),
+                Files.readAllLines(parallelDir.resolve("tasks.txt")));
+    }
+
+    @Test
+    @DisplayName("GIVEN a mapped log grown past its first chunk WHEN read, compacted and replayed by another "
+            + "logger THEN only complete records are read and every entry is applied")
+    void testMappedLogRoundTrip() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Path logFile = tempDir.resolve("tasks.log");
+        Task taskA = TaskDeserializer.deserializeTask(TASK_A);
+        Task taskB = TaskDeserializer.deserializeTask(TASK_B);
+        System.setProperty("spring.log.format", "mapped");
+        System.setProperty("spring.log.mappedChunkBytes", "64");
+        try {
+            TaskEventLogger writer = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+            writer.append(new TaskEvent(List.of(taskA, taskB)));
+            writer.writeQueued();
+            writer.append(new TaskEvent(TaskEvent.EventType.DELETE, taskA.getId()));
+            writer.close();
+        } finally {
+            System.clearProperty("spring.log.format");
+            System.clearProperty("spring.log.mappedChunkBytes");
+        }
+        long fileSize = Files.size(logFile);
+
+        // WHEN
+        TaskEventLogger reader = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+        List<String> payloads = new ArrayList<>();
+        reader.forEachEntry(entry -> payloads.add(entry.getPayload()));
+        assertTrue(reader.compactLog(dataFile));
+        assertTrue(reader.replayLog(dataFile));
+
+        // THEN
+        assertEquals(0, fileSize % 64); // Grown in whole chunks
+        assertEquals(3, reader.getLastSequence());
+        assertEquals(Arrays.asList(TASK_A, TASK_B, null), payloads);
+        assertEquals(List.of("#lastApplied 2", "[", TASK_B, "]"), Files.readAllLines(dataFile)); // Compacted away
+    }
+
+    @Test
+    @DisplayName("GIVEN single-field updates logged in binary WHEN compacted and replayed by several threads "
+            + "THEN they are logged as deltas, folded, and visited as the updates they amount to")
+    void testFieldChangesAreLoggedAsDeltas() throws IOException {
+        // GIVEN
+        Path dataFile = tempDir.resolve("tasks.txt");
+        Path logFile = tempDir.resolve("tasks.log");
+        Files.write(dataFile, List.of("#lastApplied 0", "[", TASK_A, "]"));
+        Task taskA = TaskDeserializer.deserializeTask(TASK_A);
+        Task taskB = TaskDeserializer.deserializeTask(TASK_B);
+        taskA.toggleCompleted();
+        taskB.setName("publish");
+        System.setProperty("spring.log.format", "binary");
+        try {
+            TaskEventLogger writer = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+            writer.append(new TaskEvent(TaskEvent.EventType.UPDATE, taskA, Set.of(TaskField.COMPLETED)));
+            writer.append(new TaskEvent(TaskEvent.EventType.ADD, TaskDeserializer.deserializeTask(TASK_B)));
+            writer.append(new TaskEvent(TaskEvent.EventType.UPDATE, taskB, Set.of(TaskField.NAME)));
+            writer.close();
+        } finally {
+            System.clearProperty("spring.log.format");
+        }
+        TaskEventLogger reader;
+        System.setProperty("spring.log.replayThreads", "4");
+        System.setProperty("spring.log.parallelReplayBytes", "0");
+        try {
+            reader = new TaskEventLogger(logFile, new DataFileLock(dataFile));
+        } finally {
+            System.clearProperty("spring.log.replayThreads");
+            System.clearProperty("spring.log.parallelReplayBytes");
+        }
+
+        // WHEN
+        List<String> logged = new ArrayList<>();
+        reader.forEachEntry(entry -> logged.add(entry.getType() + " " + entry.getData()));
+        assertTrue(reader.compactLog(dataFile));
+        List<String> visited = new ArrayList<>();
+        assertTrue(reader.replayLog(dataFile, entry -> visited.add(entry.getType() + " " + entry.getPayload()),
+                () -> true));
+
+        // THEN
+        String idA = taskA.getId().toString();
+        String idB = taskB.getId().toString();
+        assertEquals(List.of("COMPLETE " + idA, "ADD " + TASK_B, "RENAME " + idB + " publish"), logged);
+        assertEquals(List.of("UPDATE " + idA + "|T|1|read", "UPDATE " + idB + "|T|1|publish"), visited);
+        assertEquals(List.of("#lastApplied 3", "[", idA + "|T|1|read", idB + "|T|1|publish", "]"),
+                Files.readAllLines(dataFile));
+    }
+}
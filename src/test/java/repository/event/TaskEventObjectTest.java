@@ -0,0 +1,187 @@
+package repository.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.TaskType;
+import entity.tasks.DeadLine;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+public class TaskEventObjectTest {
+
+    @Test
+    @DisplayName("GIVEN an asynchronous listener WHEN many tasks are updated in turn THEN each task's events "
+            + "arrive in dispatch order")
+    void testAsyncListenerKeepsPerTaskOrder() throws InterruptedException {
+        // GIVEN
+        TaskEventObject bus = new TaskEventObject();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(new ToDo("task " + i));
+        }
+        int updatesPerTask = 500;
+        CountDownLatch received = new CountDownLatch(tasks.size() * updatesPerTask);
+        Map<UUID, List<String>> namesById = new ConcurrentHashMap<>();
+        bus.registerAsync("recorder", event -> {
+            namesById.computeIfAbsent(event.getTaskId(), id -> new ArrayList<>()).add(event.getTask().getName());
+            received.countDown();
+        }, 4, 4096);
+
+        // WHEN
+        for (int i = 0; i < updatesPerTask; i++) {
+            for (Task task : tasks) {
+                Task update = new ToDo(String.valueOf(i));
+                update.setId(task.getId());
+                bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, update));
+            }
+        }
+
+        // THEN
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        for (List<String> names : namesById.values()) {
+            for (int i = 0; i < updatesPerTask; i++) {
+                assertEquals(String.valueOf(i), names.get(i));
+            }
+        }
+        assertEquals(tasks.size() * updatesPerTask, bus.getListenerStats().get(0).getDelivered());
+    }
+
+    @Test
+    @DisplayName("GIVEN a stalled asynchronous listener with a small queue WHEN events keep coming THEN dispatch "
+            + "returns, the overflow is counted as dropped, and the listener can be unregistered")
+    void testStalledListenerDoesNotBlockDispatch() throws InterruptedException {
+        // GIVEN
+        TaskEventObject bus = new TaskEventObject();
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<TaskEvent> stalled = event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        bus.registerAsync("stalled", stalled, 1, 2);
+        Task task = new ToDo("read book");
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, task));
+        }
+        ListenerStats stats = bus.getListenerStats().get(0);
+        release.countDown();
+
+        // THEN
+        assertTrue(stats.getDropped() > 0);
+        assertTrue(stats.getQueued() <= 2);
+        assertTrue(bus.unregister(stalled));
+        assertFalse(bus.unregister(stalled));
+        assertTrue(bus.getListenerStats().isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN a subscription to deadline updates and batches WHEN mixed events are dispatched THEN only "
+            + "matching events arrive, batches narrowed to deadlines, until it is cancelled")
+    void testFilteredSubscription() {
+        // GIVEN
+        TaskEventObject bus = new TaskEventObject();
+        List<TaskEvent> received = new ArrayList<>();
+        Consumer<TaskEvent> listener = received::add;
+        Subscription subscription = bus.subscribe(listener)
+                .eventTypes(TaskEvent.EventType.UPDATE, TaskEvent.EventType.BATCH)
+                .taskTypes(TaskType.DEADLINE)
+                .register();
+        Task todo = new ToDo("read book");
+        Task deadline = new DeadLine("return book", LocalDateTime.of(2025, 3, 3, 9, 0));
+
+        // WHEN
+        bus.dispatch(new TaskEvent(TaskEvent.EventType.ADD, deadline));
+        bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, todo));
+        bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, deadline));
+        bus.dispatch(new TaskEvent(List.of(todo, deadline)));
+        subscription.cancel();
+        bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, deadline));
+
+        // THEN
+        assertEquals(2, received.size());
+        assertEquals(TaskEvent.EventType.UPDATE, received.get(0).getType());
+        assertEquals(List.of(deadline), received.get(1).getTasks());
+        assertFalse(subscription.isActive());
+        assertFalse(bus.unregister(listener));
+    }
+
+    @Test
+    @DisplayName("GIVEN a conflated subscription with a busy listener WHEN tasks are updated many times THEN "
+            + "only the latest update of each task is delivered after the first")
+    void testConflatedSubscriptionKeepsLatestPerTask() throws InterruptedException {
+        // GIVEN
+        TaskEventObject bus = new TaskEventObject();
+        CountDownLatch release = new CountDownLatch(1);
+        Map<UUID, String> latestNames = new ConcurrentHashMap<>();
+        List<TaskEvent> received = new CopyOnWriteArrayList<>();
+        CountDownLatch caughtUp = new CountDownLatch(1);
+        bus.subscribe(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event);
+            latestNames.put(event.getTaskId(), event.getTask().getName());
+            if (latestNames.size() == 2 && latestNames.values().stream().allMatch("99"::equals)) {
+                caughtUp.countDown();
+            }
+        }).conflateByTask().register();
+        List<Task> tasks = List.of(new ToDo("first"), new ToDo("second"));
+
+        // WHEN
+        for (int i = 0; i < 100; i++) {
+            for (Task task : tasks) {
+                Task update = new ToDo(String.valueOf(i));
+                update.setId(task.getId());
+                bus.dispatch(new TaskEvent(TaskEvent.EventType.UPDATE, update));
+            }
+        }
+        release.countDown();
+
+        // THEN
+        assertTrue(caughtUp.await(10, TimeUnit.SECONDS));
+        assertTrue(received.size() <= 4);
+    }
+
+    @Test
+    @DisplayName("GIVEN a weak subscription WHEN its listener is no longer referenced THEN the subscription "
+            + "ends itself")
+    void testWeakSubscriptionEndsWithListener() throws InterruptedException {
+        // GIVEN
+        TaskEventObject bus = new TaskEventObject();
+        List<TaskEvent> received = new ArrayList<>();
+        Subscription subscription = bus.subscribe(received::add).weak().register();
+        TaskEvent event = new TaskEvent(TaskEvent.EventType.ADD, new ToDo("read book"));
+
+        // WHEN
+        for (int i = 0; i < 50 && subscription.isActive(); i++) {
+            System.gc();
+            Thread.sleep(10);
+            bus.dispatch(event);
+        }
+
+        // THEN
+        assertFalse(subscription.isActive());
+    }
+}
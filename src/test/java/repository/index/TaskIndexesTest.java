@@ -0,0 +1,106 @@
+package repository.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.TaskType;
+import entity.tasks.DeadLine;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+public class TaskIndexesTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    @Test
+    @DisplayName("GIVEN a renamed task WHEN re-indexed THEN keyword lookups follow the new name and keep its position")
+    void testReindexKeepsOrder() {
+        // GIVEN
+        Task first = new ToDo("read book");
+        Task second = new ToDo("write essay");
+        TaskIndexes indexes = new TaskIndexes();
+        indexes.rebuild(List.of(first, second));
+
+        // WHEN
+        first.setName("write report");
+        indexes.index(first);
+
+        // THEN
+        assertEquals(List.of(first.getId(), second.getId()), indexes.findKeywordCandidates("write").get());
+        assertTrue(indexes.findKeywordCandidates("book").get().isEmpty());
+        assertTrue(indexes.findKeywordCandidates("wr").isEmpty()); // Too short to look up
+    }
+
+    @Test
+    @DisplayName("GIVEN encoded indexes WHEN decoded with a matching or stale stamp THEN only the match is loaded")
+    void testDecodeValidatesStamp() {
+        // GIVEN
+        Task early = new DeadLine("submit draft", MONDAY);
+        Task late = new DeadLine("submit final", MONDAY.plusDays(7));
+        TaskIndexes written = new TaskIndexes();
+        written.rebuild(List.of(early, late));
+        ByteBuffer encoded = written.encode(5, 42);
+        List<UUID> order = List.of(early.getId(), late.getId());
+
+        // WHEN
+        TaskIndexes stale = new TaskIndexes();
+        boolean isStaleLoaded = stale.decode(encoded.duplicate(), order, 6, 42);
+        TaskIndexes read = new TaskIndexes();
+        boolean isLoaded = read.decode(encoded.duplicate(), order, 5, 42);
+
+        // THEN
+        assertFalse(isStaleLoaded);
+        assertEquals(0, stale.size());
+        assertTrue(isLoaded);
+        assertEquals(List.of(early.getId()), read.findByDate(TaskType.DEADLINE, MONDAY, MONDAY.plusDays(1)));
+        assertEquals(order, read.findKeywordCandidates("submit").get());
+    }
+
+    @Test
+    @DisplayName("GIVEN encoded indexes with a corrupt keyword length WHEN decoded THEN nothing is loaded")
+    void testDecodeRejectsCorruptLength() {
+        // GIVEN
+        Task task = new ToDo("read book");
+        TaskIndexes written = new TaskIndexes();
+        written.rebuild(List.of(task));
+        ByteBuffer encoded = written.encode(5, 42);
+        int keyLengthOffset = 28 + 16 + 4 + 4; // Header, task table, date and keyword counts
+        encoded.put(keyLengthOffset, (byte) 0xFF);
+
+        // WHEN
+        TaskIndexes read = new TaskIndexes();
+        boolean isLoaded = read.decode(encoded, List.of(task.getId()), 5, 42);
+
+        // THEN
+        assertFalse(isLoaded);
+        assertEquals(0, read.size());
+    }
+
+    @Test
+    @DisplayName("GIVEN encoded indexes with an out-of-range time WHEN decoded THEN nothing is loaded")
+    void testDecodeRejectsCorruptTime() {
+        // GIVEN
+        Task task = new DeadLine("submit draft", MONDAY);
+        TaskIndexes written = new TaskIndexes();
+        written.rebuild(List.of(task));
+        ByteBuffer encoded = written.encode(5, 42);
+        int nanoOffset = 28 + 16 + 4 + 1 + 4 + 8; // Header, task table, type count, type, date count, seconds
+        encoded.putInt(nanoOffset, -1);
+
+        // WHEN
+        TaskIndexes read = new TaskIndexes();
+        boolean isLoaded = read.decode(encoded, List.of(task.getId()), 5, 42);
+
+        // THEN
+        assertFalse(isLoaded);
+        assertEquals(0, read.size());
+    }
+}
@@ -0,0 +1,74 @@
+package repository.integrity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ContentHashTreeTest {
+
+    @Test
+    @DisplayName("GIVEN the same entries in a different order WHEN hashed THEN the root hashes differ")
+    void testOrderAware() {
+        // GIVEN
+        ContentHashTree<String> first = new ContentHashTree<>();
+        ContentHashTree<String> second = new ContentHashTree<>();
+
+        // WHEN
+        first.put("a", ContentHashTree.hashOf("a"));
+        first.put("b", ContentHashTree.hashOf("b"));
+        second.put("b", ContentHashTree.hashOf("b"));
+        second.put("a", ContentHashTree.hashOf("a"));
+
+        // THEN
+        assertNotEquals(first.rootHash(), second.rootHash());
+    }
+
+    @Test
+    @DisplayName("GIVEN a removed entry WHEN compared to a tree that never had it THEN the root hashes match")
+    void testRemovedSlotsAreNeutral() {
+        // GIVEN
+        ContentHashTree<String> withRemoval = new ContentHashTree<>();
+        ContentHashTree<String> withoutEntry = new ContentHashTree<>();
+        for (int i = 0; i < 40; i++) {
+            withRemoval.put("task" + i, ContentHashTree.hashOf("task" + i));
+            if (i != 7) {
+                withoutEntry.put("task" + i, ContentHashTree.hashOf("task" + i));
+            }
+        }
+
+        // WHEN
+        withRemoval.remove("task7");
+
+        // THEN
+        assertEquals(withoutEntry.rootHash(), withRemoval.rootHash());
+        withRemoval.compact();
+        assertEquals(withoutEntry.rootHash(), withRemoval.rootHash());
+    }
+
+    @Test
+    @DisplayName("GIVEN two trees differing in one entry WHEN compared THEN only that slot range is reported")
+    void testDivergentRanges() {
+        // GIVEN
+        ContentHashTree<String> live = new ContentHashTree<>();
+        ContentHashTree<String> persisted = new ContentHashTree<>();
+        for (int i = 0; i < 100; i++) {
+            live.put("task" + i, ContentHashTree.hashOf("task" + i));
+            persisted.put("task" + i, ContentHashTree.hashOf("task" + i));
+        }
+
+        // WHEN
+        live.put("task42", ContentHashTree.hashOf("task42 renamed"));
+        List<int[]> ranges = live.divergentRanges(persisted);
+
+        // THEN
+        assertEquals(1, ranges.size());
+        assertEquals(42, ranges.get(0)[0]);
+        assertEquals(43, ranges.get(0)[1]);
+        assertTrue(live.divergentRanges(live).isEmpty());
+    }
+}
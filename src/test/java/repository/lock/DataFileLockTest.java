@@ -0,0 +1,45 @@
+package repository.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataFileLockTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("GIVEN a lock file that cannot be created WHEN operations are nested THEN they still run "
+            + "reentrantly and the release hooks only run after the outermost one")
+    void testUnlockedOperationsStayReentrant() {
+        // GIVEN
+        DataFileLock lock = new DataFileLock(tempDir.resolve("missing").resolve("tasks.txt"));
+        List<String> calls = new ArrayList<>();
+        lock.beforeRelease(() -> calls.add("hook"));
+
+        // WHEN
+        lock.exclusive(() -> {
+            calls.add("outer");
+            lock.exclusive(() -> calls.add("inner"));
+            calls.add("after inner");
+            return null;
+        });
+        IllegalStateException upgrade = assertThrows(IllegalStateException.class,
+                () -> lock.shared(() -> {
+                    assertTrue(lock.isSharedHeldByCurrentThread());
+                    return lock.exclusive(() -> null);
+                }));
+
+        // THEN
+        assertEquals(List.of("outer", "inner", "after inner", "hook", "hook"), calls);
+        assertTrue(upgrade.getMessage().contains("upgrade"));
+    }
+}
@@ -0,0 +1,110 @@
+package repository.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+import repository.FileBackedTaskRepository;
+import repository.storage.InMemoryStorageEngine;
+import repository.storage.StorageEngine;
+import util.TaskDeserializer;
+import util.TaskSerializer;
+
+public class ReplicationServerTest {
+    private static final String TASK_A = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|read";
+    private static final String TASK_B = "6f1c1a2e-8a43-4d2c-9a8e-4c5b9e3f1d10|T|0|write";
+    private static final String TASK_C = "0c9d7f4e-3b2a-4f1e-8d6c-5a4b3c2d1e0f|T|0|draft";
+
+    @Test
+    @DisplayName("GIVEN a primary with tasks WHEN a follower connects and the primary keeps changing "
+            + "THEN the follower is synced, then follows every change until it has no lag")
+    void testFollowerSyncsAndFollows() throws IOException {
+        // GIVEN
+        StorageEngine primaryEngine = new InMemoryStorageEngine();
+        FileBackedTaskRepository primary = new FileBackedTaskRepository(primaryEngine);
+        primary.save(task(TASK_A));
+        primary.save(task(TASK_B));
+        FileBackedTaskRepository replica = new FileBackedTaskRepository(new InMemoryStorageEngine());
+
+        try (ReplicationServer server = new ReplicationServer(primaryEngine, 0);
+             ReplicaFollower follower = new ReplicaFollower(replica, "localhost", server.getPort())) {
+            server.start();
+            follower.start();
+            awaitTrue(() -> replica.findAll().size() == 2);
+
+            // WHEN
+            primary.save(task(TASK_C));
+            Task taskA = primary.findById(task(TASK_A).getId()).orElseThrow();
+            taskA.toggleCompleted();
+            primary.markDirty(taskA.getId());
+            primary.deleteById(task(TASK_B).getId());
+
+            // THEN
+            awaitTrue(() -> follower.stats().getReplicatedSequence() == primary.lastSequence());
+            assertEquals(serialize(primary.findAll()), serialize(replica.findAll()));
+            assertEquals(0, follower.stats().getLagSequences());
+            assertEquals(1, server.getFollowerStats().size());
+        }
+    }
+
+    @Test
+    @DisplayName("GIVEN a follower with a tiny queue WHEN the primary logs a burst of changes THEN the "
+            + "follower is disconnected, resumes from the backlog and ends up with the same tasks")
+    void testOverflowingFollowerResumes() throws IOException {
+        // GIVEN
+        StorageEngine primaryEngine = new InMemoryStorageEngine();
+        FileBackedTaskRepository primary = new FileBackedTaskRepository(primaryEngine);
+        FileBackedTaskRepository replica = new FileBackedTaskRepository(new InMemoryStorageEngine());
+        ReplicationServer server;
+        System.setProperty("spring.replication.queueCapacity", "1");
+        try {
+            server = new ReplicationServer(primaryEngine, 0);
+        } finally {
+            System.clearProperty("spring.replication.queueCapacity");
+        }
+
+        try (server; ReplicaFollower follower = new ReplicaFollower(replica, "localhost", server.getPort())) {
+            server.start();
+            follower.start();
+            awaitTrue(() -> server.getFollowerStats().size() == 1);
+
+            // WHEN
+            for (int i = 0; i < 100; i++) {
+                primary.save(new ToDo("task " + i));
+            }
+
+            // THEN
+            awaitTrue(() -> follower.stats().getReplicatedSequence() == primary.lastSequence());
+            assertEquals(serialize(primary.findAll()), serialize(replica.findAll()));
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for replication");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static List<String> serialize(List<Task> tasks) {
+        return tasks.stream().map(TaskSerializer::serializeTask).toList();
+    }
+
+    private static Task task(String record) {
+        return TaskDeserializer.deserializeTask(record);
+    }
+}
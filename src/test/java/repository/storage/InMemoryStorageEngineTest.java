@@ -0,0 +1,14 @@
+package repository.storage;
+
+public class InMemoryStorageEngineTest extends StorageEngineConformanceTest {
+
+    @Override
+    protected StorageEngine createEngine() {
+        return new InMemoryStorageEngine();
+    }
+
+    @Override
+    protected StorageEngine reopen(StorageEngine engine) {
+        return engine; // The in-memory storage only lives as long as the engine
+    }
+}
@@ -0,0 +1,298 @@
+package repository.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.Task;
+import exceptions.UserFacingException;
+import repository.FileBackedTaskRepository;
+import repository.event.ChangeFeed;
+import repository.event.LogEntry;
+import repository.event.TaskEvent;
+import util.TaskDeserializer;
+import util.TaskSerializer;
+
+/**
+ * Behaviour every {@link StorageEngine} must share. Each engine gets a subclass providing its instances.
+ */
+public abstract class StorageEngineConformanceTest {
+    protected static final String TASK_A = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|0|read";
+    protected static final String TASK_A_DONE = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19|T|1|read";
+    protected static final String TASK_B = "6f1c1a2e-8a43-4d2c-9a8e-4c5b9e3f1d10|T|0|write";
+
+    /**
+     * Creates an engine over an empty, already initialized storage.
+     */
+    protected abstract StorageEngine createEngine() throws IOException;
+
+    /**
+     * Opens the storage of the given engine again, as a restarted process would.
+     */
+    protected abstract StorageEngine reopen(StorageEngine engine) throws IOException;
+
+    @Test
+    @DisplayName("GIVEN appended changes WHEN flushed THEN the checkpoint holds them in order")
+    void testFlushAppliesLog() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_B)));
+        engine.append(new TaskEvent(TaskEvent.EventType.UPDATE, task(TASK_A_DONE)));
+
+        // WHEN
+        assertTrue(engine.flush());
+
+        // THEN
+        StorageSnapshot snapshot = reopen(engine).load();
+        assertEquals(List.of(TASK_A_DONE, TASK_B), snapshot.getRecords());
+        assertEquals(engine.lastSequence(), snapshot.getWatermark());
+    }
+
+    @Test
+    @DisplayName("GIVEN appended changes WHEN the validator rejects the flush THEN every entry was visited "
+            + "and the checkpoint and log are untouched")
+    void testRejectedFlushKeepsLog() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_B)));
+
+        // WHEN
+        List<LogEntry> visited = new ArrayList<>();
+        boolean isFlushed = engine.flush(visited::add, () -> visited.size() == 3);
+
+        // THEN
+        assertFalse(isFlushed);
+        assertEquals(2, visited.size());
+        List<LogEntry> pending = new ArrayList<>();
+        engine.forEachPendingEntry(pending::add);
+        assertEquals(2, pending.size());
+        assertTrue(reopen(engine).load().getRecords().isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN appended changes WHEN reading new entries twice THEN each entry is delivered once")
+    void testReadNewEntriesDeliversOnce() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+        engine.rewindNewEntries();
+
+        // WHEN
+        List<LogEntry> first = new ArrayList<>();
+        engine.readNewEntries(first::add);
+        List<LogEntry> second = new ArrayList<>();
+        engine.readNewEntries(second::add);
+
+        // THEN
+        assertEquals(1, first.size());
+        assertEquals(TASK_A, first.get(0).getPayload());
+        assertTrue(second.isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN an append listener WHEN changes are appended THEN it receives each numbered entry in order")
+    void testAppendListenerReceivesEntries() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        List<LogEntry> appended = new ArrayList<>();
+        engine.onAppend(appended::add);
+
+        // WHEN
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_B)));
+        engine.append(new TaskEvent(TaskEvent.EventType.DELETE, task(TASK_A).getId()));
+        long lastSequence = engine.lastSequence();
+
+        // THEN
+        assertEquals(List.of(1L, 2L, 3L), appended.stream().map(LogEntry::getSequence).toList());
+        assertEquals(Arrays.asList(TASK_A, TASK_B, null), appended.stream().map(LogEntry::getPayload).toList());
+        assertEquals(3, lastSequence);
+    }
+
+    @Test
+    @DisplayName("GIVEN a pending log WHEN checkpointing THEN the log is discarded and the watermark advanced")
+    void testCheckpointDiscardsLog() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+
+        // WHEN
+        long watermark = engine.checkpoint(List.of(task(TASK_B)));
+
+        // THEN
+        List<LogEntry> pending = new ArrayList<>();
+        engine.forEachPendingEntry(pending::add);
+        assertTrue(pending.isEmpty());
+        assertEquals(1, watermark);
+        assertEquals(List.of(TASK_B), reopen(engine).load().getRecords());
+    }
+
+    @Test
+    @DisplayName("GIVEN unflushed changes WHEN the repository is reopened THEN the changes are recovered")
+    void testRepositoryRecoversPendingLog() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        FileBackedTaskRepository repository = new FileBackedTaskRepository(engine);
+        repository.save(task(TASK_A));
+        repository.save(task(TASK_B));
+        repository.deleteByOrder(0);
+
+        // WHEN
+        FileBackedTaskRepository reopened = new FileBackedTaskRepository(reopen(engine));
+
+        // THEN
+        assertEquals(List.of(task(TASK_B).getId()), reopened.findAll().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("GIVEN changes on both sides of a flush WHEN rebuilding past states THEN each matches "
+            + "the state right after that change")
+    void testRecordsAtRebuildsPastStates() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_A)));
+        engine.append(new TaskEvent(TaskEvent.EventType.ADD, task(TASK_B)));
+        assertTrue(engine.flush());
+        engine.append(new TaskEvent(TaskEvent.EventType.UPDATE, task(TASK_A_DONE)));
+        engine.append(new TaskEvent(TaskEvent.EventType.DELETE, task(TASK_B).getId()));
+
+        // WHEN
+        List<Optional<List<String>>> states = new ArrayList<>();
+        for (long sequence = 0; sequence <= 4; sequence++) {
+            states.add(engine.recordsAt(sequence));
+        }
+
+        // THEN
+        assertEquals(List.of(Optional.of(List.of()), Optional.of(List.of(TASK_A)),
+                Optional.of(List.of(TASK_A, TASK_B)), Optional.of(List.of(TASK_A_DONE, TASK_B)),
+                Optional.of(List.of(TASK_A_DONE))), states);
+        assertEquals(4, engine.sequenceAt(Instant.now()).getAsLong());
+        assertTrue(engine.sequenceAt(Instant.EPOCH).isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN later changes WHEN the repository restores an earlier state THEN the tasks match it "
+            + "and the restore is logged")
+    void testRepositoryRestoresEarlierState() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        FileBackedTaskRepository repository = new FileBackedTaskRepository(engine);
+        repository.save(task(TASK_A));
+        repository.save(task(TASK_B));
+        repository.deleteByOrder(0);
+
+        // WHEN
+        int changes = repository.restore(1);
+
+        // THEN
+        assertEquals(2, changes);
+        assertEquals(List.of(task(TASK_A).getId()), repository.findAll().stream().map(Task::getId).toList());
+        FileBackedTaskRepository reopened = new FileBackedTaskRepository(reopen(engine));
+        assertEquals(List.of(task(TASK_A).getId()), reopened.findAll().stream().map(Task::getId).toList());
+        assertEquals(0, repository.previousChange(1).getAsLong());
+        assertTrue(repository.previousChange(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("GIVEN changes on both sides of a flush WHEN paging through the change feed THEN each task "
+            + "is reported once per page, as it is now, and unknown versions are answered with a reset")
+    void testRepositoryChangeFeedPagesCompactedChanges() throws IOException {
+        // GIVEN
+        FileBackedTaskRepository repository = new FileBackedTaskRepository(createEngine());
+        repository.save(task(TASK_A));
+        repository.save(task(TASK_B));
+        repository.flush();
+        Task taskA = repository.findById(task(TASK_A).getId()).orElseThrow();
+        taskA.toggleCompleted();
+        repository.markDirty(taskA.getId());
+        repository.deleteById(task(TASK_B).getId());
+
+        // WHEN
+        ChangeFeed all = repository.changesSince(0, 10);
+        ChangeFeed firstPage = repository.changesSince(2, 1);
+        ChangeFeed secondPage = repository.changesSince(firstPage.getCursor(), 1);
+        ChangeFeed unknown = repository.changesSince(99, 10);
+
+        // THEN
+        assertEquals(List.of(TASK_A_DONE), serialize(all.getUpserted()));
+        assertEquals(List.of(task(TASK_B).getId()), all.getDeleted());
+        assertEquals(4, all.getCursor());
+        assertTrue(all.isCaughtUp());
+        assertFalse(all.isReset());
+        assertEquals(3, firstPage.getCursor());
+        assertEquals(List.of(TASK_A_DONE), serialize(firstPage.getUpserted()));
+        assertFalse(firstPage.isCaughtUp());
+        assertEquals(List.of(task(TASK_B).getId()), secondPage.getDeleted());
+        assertTrue(secondPage.getUpserted().isEmpty());
+        assertTrue(secondPage.isCaughtUp());
+        assertTrue(unknown.isReset());
+        assertEquals(List.of(TASK_A_DONE), serialize(unknown.getUpserted()));
+        assertEquals(4, unknown.getCursor());
+    }
+
+    @Test
+    @DisplayName("GIVEN tasks named with separators and line breaks WHEN renamed, flushed and reopened THEN "
+            + "every name is read back intact")
+    void testRepositoryKeepsNamesWithSeparators() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        FileBackedTaskRepository repository = new FileBackedTaskRepository(engine);
+        repository.save(task(TASK_A));
+        repository.save(task(TASK_B));
+        Task taskA = repository.findById(task(TASK_A).getId()).orElseThrow();
+        taskA.setName("a|b,\nc");
+        repository.markDirty(taskA.getId());
+        repository.flush();
+
+        // WHEN
+        Task taskB = repository.findById(task(TASK_B).getId()).orElseThrow();
+        taskB.setName("50%7C|\r\nd,");
+        repository.markDirty(taskB.getId());
+        FileBackedTaskRepository reopened = new FileBackedTaskRepository(reopen(engine));
+
+        // THEN
+        assertEquals(List.of("a|b,\nc", "50%7C|\r\nd,"), reopened.findAll().stream().map(Task::getName).toList());
+    }
+
+    @Test
+    @DisplayName("GIVEN a task deleted while a caller still holds it WHEN marked dirty THEN the change is "
+            + "rejected and the task stays deleted")
+    void testRepositoryRejectsMarkingDeletedTask() throws IOException {
+        // GIVEN
+        StorageEngine engine = createEngine();
+        FileBackedTaskRepository repository = new FileBackedTaskRepository(engine);
+        repository.save(task(TASK_A));
+        Task held = repository.findById(task(TASK_A).getId()).orElseThrow();
+        repository.deleteById(held.getId());
+        long lastSequence = engine.lastSequence();
+
+        // WHEN
+        held.toggleCompleted();
+        assertThrows(UserFacingException.class, () -> repository.markDirty(held.getId()));
+
+        // THEN
+        assertTrue(repository.findAll().isEmpty());
+        assertEquals(lastSequence, engine.lastSequence());
+    }
+
+    private static List<String> serialize(List<Task> tasks) {
+        return tasks.stream().map(TaskSerializer::serializeTask).toList();
+    }
+
+    protected static Task task(String record) {
+        return TaskDeserializer.deserializeTask(record);
+    }
+}
@@ -0,0 +1,37 @@
+package repository.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import repository.backup.BackupPolicy;
+import repository.backup.GenerationalBackupManager;
+import repository.event.TaskEventLogger;
+import repository.lock.DataFileLock;
+
+public class TextFileStorageEngineTest extends StorageEngineConformanceTest {
+    @TempDir
+    Path tempDir;
+
+    @Override
+    protected StorageEngine createEngine() throws IOException {
+        Files.write(tempDir.resolve("tasks.txt"), List.of("[", "]"));
+        return open();
+    }
+
+    @Override
+    protected StorageEngine reopen(StorageEngine engine) {
+        engine.lastSequence(); // Writes out the queued events, as the previous process would before exiting
+        return open();
+    }
+
+    private StorageEngine open() {
+        Path dataFile = tempDir.resolve("tasks.txt");
+        DataFileLock lock = new DataFileLock(dataFile);
+        return new TextFileStorageEngine(dataFile, new TaskEventLogger(tempDir.resolve("roll-log.txt"), lock),
+                new GenerationalBackupManager(dataFile, new BackupPolicy(2, 1024)), lock);
+    }
+}
@@ -0,0 +1,48 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Task;
+
+public class TaskCsvParserTest {
+
+    @Test
+    @DisplayName("GIVEN a row with quoted fields and reordered columns WHEN parsed THEN the task matches the row")
+    void testParseQuotedRow() {
+        // GIVEN
+        TaskCsvParser parser = new TaskCsvParser("name,type,dueBy,completed,id");
+
+        // WHEN
+        Task task = parser.parse("\"submit, then \"\"relax\"\"\",deadline,2025-03-03,true,"
+                + "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19");
+
+        // THEN
+        assertEquals("submit, then \"relax\"", task.getName());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 0, 0), ((DeadLine) task).getDueby());
+        assertTrue(task.getCompleted());
+        assertEquals(UUID.fromString("2187b8fb-b8eb-46c8-92a0-be5bbfcaec19"), task.getId());
+    }
+
+    @Test
+    @DisplayName("GIVEN a deadline row without a due date WHEN parsed THEN the row is rejected")
+    void testRejectsMissingDate() {
+        // GIVEN
+        TaskCsvParser parser = new TaskCsvParser("type,name,dueBy");
+
+        // WHEN
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("deadline,submit,"));
+
+        // THEN
+        assertTrue(error.getMessage().contains("dueBy"));
+    }
+}
@@ -0,0 +1,91 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+
+public class TaskDeserializerTest {
+    private static final String ID = "2187b8fb-b8eb-46c8-92a0-be5bbfcaec19";
+
+    @Test
+    @DisplayName("GIVEN records of every type and timestamp layout WHEN deserialized THEN the fields match "
+            + "what UUID.fromString and LocalDateTime.parse read, and serializing restores the record")
+    void testParsesEveryLayout() {
+        // GIVEN
+        List<String> records = List.of(ID + "|T|0|read", ID + "|T|1|read|ignored",
+                ID + "|D|0|submit|2025-03-03T09:00", ID + "|D|1|submit|2025-03-03T09:00:15",
+                ID + "|E|0|meet|2025-03-03T09:00:00.250|2025-12-31T23:59:59.123456789");
+
+        for (String record : records) {
+            // WHEN
+            Task task = TaskDeserializer.deserializeTask(record);
+
+            // THEN
+            String[] parts = record.split("\\|");
+            assertEquals(UUID.fromString(parts[0]), task.getId());
+            assertEquals(parts[3], task.getName());
+            assertEquals(parts[2].equals("1"), task.getCompleted());
+            if (task instanceof DeadLine deadLine) {
+                assertEquals(LocalDateTime.parse(parts[4]), deadLine.getDueby());
+            } else if (task instanceof Events event) {
+                assertEquals(LocalDateTime.parse(parts[4]), event.getStartat());
+                assertEquals(LocalDateTime.parse(parts[5]), event.getEndby());
+            }
+            if (!record.endsWith("ignored")) {
+                assertEquals(record, TaskSerializer.serializeTask(task));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("GIVEN a record inside a larger buffer WHEN deserialized from its window THEN only the window "
+            + "is read, and upper-case and non-canonical UUIDs are accepted")
+    void testParsesWindowAndUuidForms() {
+        // GIVEN
+        String buffer = "noise\n" + ID.toUpperCase() + "|D|1|submit|2025-03-03T09:00\n1-2-3-4-5|T|0|x";
+        int start = buffer.indexOf('\n') + 1;
+        int end = buffer.indexOf('\n', start);
+
+        // WHEN
+        Task task = TaskDeserializer.deserializeTask(buffer, start, end);
+        Task shortId = TaskDeserializer.deserializeTask(buffer, end + 1, buffer.length());
+
+        // THEN
+        assertEquals(UUID.fromString(ID), task.getId());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 9, 0), ((DeadLine) task).getDueby());
+        assertTrue(task.getCompleted());
+        assertEquals(UUID.fromString("1-2-3-4-5"), shortId.getId());
+        assertFalse(shortId.getCompleted());
+    }
+
+    @Test
+    @DisplayName("GIVEN malformed records WHEN deserialized THEN each is rejected with an IllegalArgumentException")
+    void testRejectsMalformedRecords() {
+        // GIVEN
+        List<String> records = List.of("", ID + "|T|0|", ID + "|T|0", "not-a-uuid|T|0|read",
+                ID.replace('b', 'g') + "|T|0|read", ID + "|X|0|read", ID + "|TT|0|read",
+                ID + "|D|0|submit|", ID + "|D|0|submit|2025-02-30T09:00", ID + "|D|0|submit|2025-03-03 09:00",
+                ID + "|E|0|meet|2025-03-03T09:00");
+
+        for (String record : records) {
+            // WHEN
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> TaskDeserializer.deserializeTask(record));
+
+            // THEN
+            assertTrue(error.getMessage().contains(record), error.getMessage());
+        }
+    }
+}
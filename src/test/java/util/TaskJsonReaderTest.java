@@ -0,0 +1,69 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+public class TaskJsonReaderTest {
+
+    @Test
+    @DisplayName("GIVEN tasks written by TaskJsonWriter WHEN read back THEN every field survives, including escapes")
+    void testRoundTrip() throws IOException {
+        // GIVEN
+        Task todo = new ToDo("say \"hi\" \\ wave\t");
+        todo.toggleCompleted();
+        Task deadline = new DeadLine("submit", LocalDateTime.of(2025, 3, 3, 9, 0));
+        Task event = new Events("meetup", LocalDateTime.of(2025, 3, 4, 18, 0), LocalDateTime.of(2025, 3, 4, 21, 0));
+        StringWriter json = new StringWriter();
+        try (TaskJsonWriter writer = new TaskJsonWriter(json)) {
+            for (Task task : List.of(todo, deadline, event)) {
+                writer.write(task);
+            }
+        }
+
+        // WHEN
+        try (TaskJsonReader reader = new TaskJsonReader(new StringReader(json.toString()))) {
+            // THEN
+            assertEquals(todo, reader.next());
+            assertEquals(deadline, reader.next());
+            assertEquals(event, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("GIVEN hand-written JSON with unknown fields, a pipe in a name and an unknown type WHEN read THEN "
+            + "extras are skipped, the pipe is kept and the type is rejected")
+    void testLenientFieldsAndInvalidType() throws IOException {
+        // GIVEN
+        String json = "[{\"type\":\"deadline\",\"name\":\"tax\",\"dueBy\":\"2025-04-30\",\"tags\":[\"a\",{\"b\":1}]},"
+                + "{\"type\":\"todo\",\"name\":\"a|b\"},{\"type\":\"chore\",\"name\":\"c\"}]";
+
+        // WHEN
+        try (TaskJsonReader reader = new TaskJsonReader(new StringReader(json))) {
+            Task first = reader.next();
+            Task second = reader.next();
+            IOException error = assertThrows(IOException.class, reader::next);
+
+            // THEN
+            assertEquals(LocalDateTime.of(2025, 4, 30, 0, 0), ((DeadLine) first).getDueby());
+            assertEquals("a|b", second.getName());
+            assertTrue(error.getMessage().contains("'chore'"));
+        }
+    }
+}
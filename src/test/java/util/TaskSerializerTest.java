@@ -0,0 +1,74 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import entity.tasks.DeadLine;
+import entity.tasks.Events;
+import entity.tasks.Task;
+import entity.tasks.ToDo;
+
+public class TaskSerializerTest {
+    private static final UUID ID = UUID.fromString("0187b8fb-08eb-46c8-02a0-be5bbfcaec19");
+
+    @Test
+    @DisplayName("GIVEN tasks with every timestamp layout WHEN streamed into a writer THEN the output matches "
+            + "the string form, with the UUID and timestamps as toString writes them")
+    void testStreamsSameRecordAsToString() throws IOException {
+        // GIVEN
+        List<LocalDateTime> times = List.of(LocalDateTime.of(2025, 3, 3, 9, 0),
+                LocalDateTime.of(2025, 3, 3, 9, 0, 15), LocalDateTime.of(5, 1, 2, 0, 0, 0, 250_000_000),
+                LocalDateTime.of(2025, 12, 31, 23, 59, 59, 123_456_000), LocalDateTime.of(2025, 1, 1, 0, 0, 0, 7),
+                LocalDateTime.of(12025, 1, 1, 0, 0));
+        ToDo todo = ToDo.builder().id(ID).name("read").isCompleted(true).build();
+
+        for (LocalDateTime time : times) {
+            Task deadline = DeadLine.builder().id(ID).name("submit").dueby(time).isCompleted(false).build();
+            Task event = Events.builder().id(ID).name("meet").startat(time).endby(time).isCompleted(false).build();
+
+            // WHEN
+            StringWriter writer = new StringWriter();
+            TaskSerializer.appendTask(event, writer);
+
+            // THEN
+            assertEquals(ID + "|D|0|submit|" + time, TaskSerializer.serializeTask(deadline));
+            assertEquals(ID + "|E|0|meet|" + time + "|" + time, writer.toString());
+        }
+        assertEquals(ID + "|T|1|read", TaskSerializer.serializeTask(todo));
+    }
+
+    @Test
+    @DisplayName("GIVEN names holding separators, line breaks and escape-like text WHEN serialized and read back "
+            + "THEN the fields stay intact, and plain names are stored unchanged")
+    void testEscapesNames() {
+        // GIVEN
+        List<String> names = List.of("a|b", "line\nbreak\r\n", "ends,", "100%", "%7C literal", "%%25%0", "%", "%2");
+
+        for (String name : names) {
+            Task task = DeadLine.builder().id(ID).name(name).dueby(LocalDateTime.of(2025, 3, 3, 9, 0))
+                    .isCompleted(false).build();
+
+            // WHEN
+            String record = TaskSerializer.serializeTask(task);
+            Task restored = TaskDeserializer.deserializeTask(record);
+
+            // THEN
+            assertEquals(5, record.split("\\|").length, record);
+            assertEquals(-1, record.indexOf('\n'));
+            assertEquals(name, restored.getName());
+            assertEquals(((DeadLine) task).getDueby(), ((DeadLine) restored).getDueby());
+        }
+        String plain = "100% done";
+        assertSame(plain, TaskSerializer.escapeName(plain));
+        assertEquals("a%7Cb%2Cc%0Ad%0De%257C", TaskSerializer.escapeName("a|b,c\nd\re%7C"));
+    }
+}